@@ -24,6 +24,7 @@ import fi.vm.yti.codelist.intake.resource.CodeRegistryResource;
 import fi.vm.yti.codelist.intake.resource.ExtensionResource;
 import fi.vm.yti.codelist.intake.resource.ExternalReferenceResource;
 import fi.vm.yti.codelist.intake.resource.ImpersonateUserResource;
+import fi.vm.yti.codelist.intake.resource.ImportJobResource;
 import fi.vm.yti.codelist.intake.resource.InfoDomainResource;
 import fi.vm.yti.codelist.intake.resource.MemberResource;
 import fi.vm.yti.codelist.intake.resource.OrganizationResource;
@@ -129,6 +130,7 @@ public class JerseyConfig extends ResourceConfig {
         register(ExtensionResource.class);
         register(MemberResource.class);
         register(ValueTypeResource.class);
+        register(ImportJobResource.class);
 
         // Data initialization filter
         register(DataInitializationFilter.class, Priorities.AUTHORIZATION);
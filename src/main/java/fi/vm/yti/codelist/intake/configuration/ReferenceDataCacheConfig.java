@@ -0,0 +1,87 @@
+package fi.vm.yti.codelist.intake.configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Keeps the reference data read on most requests, property types, value types and organizations, in the Hibernate
+ * second-level cache. These change only on admin reloads and organization syncs. Code registries are not cached, as
+ * users edit them through the API on any node.
+ *
+ * Entries expire after a configurable time, as changes made by other nodes are not seen by the cache of this node.
+ * The hit, miss and eviction counts of the caches are always published as cache metrics through JCache statistics,
+ * independently of Hibernate statistics.
+ */
+@Configuration
+public class ReferenceDataCacheConfig {
+
+    public static final String REGION_PROPERTYTYPE = "propertytype";
+    public static final String REGION_VALUETYPE = "valuetype";
+    public static final String REGION_ORGANIZATION = "organization";
+    public static final String REGION_QUERIES = "referencedata-queries";
+
+    private static final List<String> REGIONS = Arrays.asList(REGION_PROPERTYTYPE, REGION_VALUETYPE, REGION_ORGANIZATION, REGION_QUERIES);
+
+    @Bean
+    public CacheManager referenceDataCacheManager(@Value("${intake.referencecache.ttl:600}") final long timeToLiveSeconds,
+                                                  @Value("${intake.referencecache.size:10000}") final long maxEntries) {
+        final CachingProvider cachingProvider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        final CacheManager cacheManager = cachingProvider.getCacheManager();
+        REGIONS.forEach(region -> createCacheIfMissing(cacheManager, region, maxEntries, ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds))));
+        createCacheIfMissing(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, maxEntries, ExpiryPolicyBuilder.noExpiration());
+        return cacheManager;
+    }
+
+    @Bean
+    public MeterBinder referenceDataCacheMetrics(final CacheManager referenceDataCacheManager) {
+        return meterRegistry -> REGIONS.forEach(region -> JCacheMetrics.monitor(meterRegistry, referenceDataCacheManager.getCache(region)));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer referenceDataCacheCustomizer(final CacheManager referenceDataCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, referenceDataCacheManager);
+        };
+    }
+
+    /**
+     * The caching provider shares one cache manager per class loader, so the caches may exist already when several
+     * application contexts are started, as in tests.
+     */
+    private static void createCacheIfMissing(final CacheManager cacheManager,
+                                             final String region,
+                                             final long maxEntries,
+                                             final ExpiryPolicy<Object, Object> expiryPolicy) {
+        if (cacheManager.getCache(region) == null) {
+            cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                    .withExpiry(expiryPolicy)));
+            cacheManager.enableStatistics(region, true);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package fi.vm.yti.codelist.intake.configuration;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -9,7 +13,9 @@ import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.server.ErrorPage;
@@ -25,6 +31,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.zaxxer.hikari.HikariDataSource;
 
 @Component
@@ -35,6 +42,8 @@ public class SpringAppConfig {
 
     private static final int CONNECTION_TIMEOUT = 30000;
     private static final int ES_CONNECTION_TIMEOUT = 300000;
+    private static final int SHEET_PARSING_QUEUE_CAPACITY = 32;
+    private static final int IMPORT_JOB_QUEUE_CAPACITY = 16;
 
     @Value("${yti_codelist_content_intake_service_elastic_host}")
     private String elasticsearchHost;
@@ -69,7 +78,22 @@ public class SpringAppConfig {
     @ConfigurationProperties(prefix = "hikari")
     @Bean
     public DataSource dataSource() {
-        return new HikariDataSource();
+        final HikariDataSource dataSource = new HikariDataSource();
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        return dataSource;
+    }
+
+    /**
+     * Groups inserts and updates by entity so that imports are written in JDBC batches instead of one statement per row.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${intake.jdbc.batchsize:100}") final int batchSize) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            hibernateProperties.put(AvailableSettings.ORDER_INSERTS, true);
+            hibernateProperties.put(AvailableSettings.ORDER_UPDATES, true);
+            hibernateProperties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
     }
 
     @Bean
@@ -92,6 +116,41 @@ public class SpringAppConfig {
         return requestFactory;
     }
 
+    /**
+     * Bounded pool for parsing the sheets of one workbook concurrently. When the queue is full the submitting request
+     * thread parses the sheet itself.
+     */
+    @Bean(name = "sheetParsingExecutor", destroyMethod = "shutdown")
+    public ExecutorService sheetParsingExecutor(@Value("${intake.sheetparsing.threads:4}") final int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(SHEET_PARSING_QUEUE_CAPACITY),
+            new ThreadFactoryBuilder().setNameFormat("sheet-parser-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Bounded pool for asynchronous import jobs. Jobs are rejected when the queue is full.
+     */
+    @Bean(name = "importJobExecutor", destroyMethod = "shutdown")
+    public ExecutorService importJobExecutor(@Value("${intake.importjob.threads:2}") final int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(IMPORT_JOB_QUEUE_CAPACITY),
+            new ThreadFactoryBuilder().setNameFormat("import-job-%d").build(),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Single thread for writing entity payloads to the log in order. When the queue is full new payloads are rejected and
+     * dropped by the logger.
+     */
+    @Bean(name = "payloadLoggingExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor payloadLoggingExecutor(@Value("${intake.payloadlogging.queuecapacity:10000}") final int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new ThreadFactoryBuilder().setNameFormat("payload-logger-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
     @Bean
     RestTemplate restTemplate() {
         final RestTemplate restTemplate = new RestTemplate(httpRequestFactory());
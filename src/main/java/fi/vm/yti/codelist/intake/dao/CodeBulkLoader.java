@@ -0,0 +1,22 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Collection;
+
+import fi.vm.yti.codelist.intake.model.Code;
+
+/**
+ * Writes new codes of a code scheme with PostgreSQL COPY instead of entity by entity inserts.
+ *
+ * Used when a code scheme without existing codes is populated, so that the rows can be inserted as they are without
+ * merging them with existing ones.
+ */
+public interface CodeBulkLoader {
+
+    boolean isApplicable(final int codeCount);
+
+    /**
+     * Inserts the given transient codes and their localized labels. Broader codes must be among the given codes, and
+     * orders and hierarchy levels must be set. The codes are not attached to the persistence context.
+     */
+    void load(final Collection<Code> codes);
+}
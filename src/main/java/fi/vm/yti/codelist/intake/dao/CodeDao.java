@@ -1,10 +1,12 @@
 package fi.vm.yti.codelist.intake.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-
-import org.springframework.data.domain.PageRequest;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.intake.model.Code;
@@ -28,6 +30,8 @@ public interface CodeDao {
 
     Code findByUri(final String uri);
 
+    Set<Code> findByUrisIgnoreCase(final Collection<String> uris);
+
     Set<Code> findBySubCodeScheme(final CodeScheme subCodeScheme);
 
     Code findByCodeSchemeAndCodeValue(final CodeScheme codeScheme,
@@ -50,9 +54,13 @@ public interface CodeDao {
 
     Set<Code> findAll();
 
+    Stream<Code> streamAll();
+
     int getCodeCount();
 
-    Set<Code> findAll(final PageRequest pageRequest);
+    List<Code> findPageAfter(final String codeValue,
+                             final UUID id,
+                             final int pageSize);
 
     Set<Code> updateCodeFromDto(final CodeScheme codeScheme,
                                 final CodeDTO codeDto);
@@ -61,4 +69,28 @@ public interface CodeDao {
                                   final Set<CodeDTO> codes,
                                   final Map<String, String> broaderCodeMapping,
                                   final boolean updateExternalReferences);
+
+    CodeImportContext beginCodeImport(final CodeScheme codeScheme,
+                                      final Map<String, String> broaderCodeMapping,
+                                      final boolean updateExternalReferences);
+
+    Set<Code> importCodes(final CodeImportContext codeImport,
+                          final Set<CodeDTO> codes);
+
+    /**
+     * Writes the codes imported since the previous flush and hands them, along with the codes skipped as unchanged, to
+     * the consumer while they are attached, after which the persistence context is cleared, so that only the codes of
+     * one chunk are held at a time.
+     */
+    void flushCodeImport(final CodeImportContext codeImport,
+                         final Consumer<Set<Code>> importedCodesConsumer);
+
+    Set<Code> finishCodeImport(final CodeImportContext codeImport);
+
+    /**
+     * Finishes an import that has been flushed chunk by chunk. Broader codes imported after their narrower codes and
+     * changed hierarchy levels are written in batches, which are handed to the consumer like flushed chunks.
+     */
+    void finishCodeImport(final CodeImportContext codeImport,
+                          final Consumer<Set<Code>> importedCodesConsumer);
 }
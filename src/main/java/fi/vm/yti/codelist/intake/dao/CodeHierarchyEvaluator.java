@@ -0,0 +1,117 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.model.Code;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_CODE_CYCLIC_DEPENDENCY_ISSUE;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_CODE_HIERARCHY_MAXLEVEL_REACHED;
+
+/**
+ * Computes the hierarchy levels of the codes of a code scheme with a single breadth first pass over the broader code
+ * relations.
+ *
+ * Codes that cannot be reached from a top level code are part of a cyclic broader code chain, and levels deeper than
+ * {@link #MAX_LEVEL} are rejected while the levels are assigned.
+ */
+public final class CodeHierarchyEvaluator {
+
+    public static final int MAX_LEVEL = 15;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CodeHierarchyEvaluator.class);
+
+    private CodeHierarchyEvaluator() {
+    }
+
+    /**
+     * Sets the hierarchy levels of the given codes and returns the codes whose level changed. When the same code is
+     * present as several instances, the level is set on the last one given.
+     */
+    public static Set<Code> evaluate(final Collection<Code> codes) {
+        final Map<UUID, Code> codesById = new LinkedHashMap<>();
+        codes.forEach(code -> codesById.put(code.getId(), code));
+        final Map<UUID, UUID> broaderCodeIdsById = new LinkedHashMap<>();
+        final Map<UUID, Integer> levelsById = new HashMap<>(codesById.size() * 4 / 3 + 1);
+        codesById.values().forEach(code -> {
+            broaderCodeIdsById.put(code.getId(), code.getBroaderCode() != null ? code.getBroaderCode().getId() : null);
+            levelsById.put(code.getId(), code.getHierarchyLevel());
+        });
+        final Set<Code> changedCodes = new LinkedHashSet<>();
+        evaluateLevels(broaderCodeIdsById, levelsById).forEach((id, level) -> {
+            final Code code = codesById.get(id);
+            code.setHierarchyLevel(level);
+            changedCodes.add(code);
+        });
+        return changedCodes;
+    }
+
+    /**
+     * Computes the hierarchy levels of all codes of a code scheme from the broader code ids and the current levels of
+     * the codes keyed by code id, and returns the levels that differ from the current ones by code id.
+     */
+    public static Map<UUID, Integer> evaluateLevels(final Map<UUID, UUID> broaderCodeIdsById,
+                                                    final Map<UUID, Integer> currentLevelsById) {
+        final Map<UUID, List<UUID>> narrowerCodeIdsById = new HashMap<>();
+        final Deque<UUID> queue = new ArrayDeque<>();
+        boolean danglingBroaderCode = false;
+        for (final Map.Entry<UUID, UUID> entry : broaderCodeIdsById.entrySet()) {
+            final UUID broaderCodeId = entry.getValue();
+            if (broaderCodeId == null) {
+                queue.add(entry.getKey());
+            } else if (broaderCodeIdsById.containsKey(broaderCodeId)) {
+                narrowerCodeIdsById.computeIfAbsent(broaderCodeId, id -> new ArrayList<>()).add(entry.getKey());
+            } else {
+                danglingBroaderCode = true;
+            }
+        }
+        final Map<UUID, Integer> changedLevelsById = new LinkedHashMap<>();
+        final Map<UUID, Integer> levelsById = new HashMap<>(broaderCodeIdsById.size() * 4 / 3 + 1);
+        queue.forEach(id -> levelsById.put(id, 1));
+        while (!queue.isEmpty()) {
+            final UUID id = queue.poll();
+            final int level = levelsById.get(id);
+            if (level > MAX_LEVEL) {
+                throw maxLevelReached();
+            }
+            final Integer currentLevel = currentLevelsById.get(id);
+            if (currentLevel == null || currentLevel != level) {
+                changedLevelsById.put(id, level);
+            }
+            final List<UUID> narrowerCodeIds = narrowerCodeIdsById.get(id);
+            if (narrowerCodeIds != null) {
+                narrowerCodeIds.forEach(narrowerCodeId -> {
+                    levelsById.put(narrowerCodeId, level + 1);
+                    queue.add(narrowerCodeId);
+                });
+            }
+        }
+        if (levelsById.size() < broaderCodeIdsById.size()) {
+            if (danglingBroaderCode) {
+                throw maxLevelReached();
+            }
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_CYCLIC_DEPENDENCY_ISSUE));
+        }
+        return changedLevelsById;
+    }
+
+    private static YtiCodeListException maxLevelReached() {
+        final YtiCodeListException e = new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_HIERARCHY_MAXLEVEL_REACHED));
+        LOG.error("Too many levels of hierarchical codes!", e);
+        return e;
+    }
+}
@@ -0,0 +1,127 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+
+/**
+ * Import scoped state for persisting codes of one code scheme in chunks.
+ *
+ * Created by {@link CodeDao#beginCodeImport}, fed with {@link CodeDao#importCodes} and completed with
+ * {@link CodeDao#finishCodeImport}, all within the same transaction.
+ *
+ * Imports into a code scheme without existing codes start in bulk load mode, in which new codes are only collected into
+ * the code index and written with the {@link CodeBulkLoader} when the import finishes, or when the chunk is flushed.
+ *
+ * Imports that are flushed with {@link CodeDao#flushCodeImport} after each chunk keep only the codes of the current
+ * chunk as entities. Across chunks the context keeps the ids and orders of the codes, and the broader code values of
+ * codes whose broader code has not been imported yet.
+ */
+public class CodeImportContext {
+
+    private final Map<String, String> broaderCodeMapping;
+    private final boolean updateExternalReferences;
+    private final CodeIndex codeIndex;
+    private final Set<Code> codesAffected;
+    private final Set<Code> codesUnchanged;
+    private final Map<UUID, String> pendingBroaderCodeValues;
+    private final OrderAllocator<UUID> orderAllocator;
+    private CodeScheme codeScheme;
+    private ExternalReferenceIndex externalReferenceIndex;
+    private boolean bulkLoad;
+    private boolean codesWritten;
+
+    public CodeImportContext(final CodeScheme codeScheme,
+                             final Map<String, String> broaderCodeMapping,
+                             final boolean updateExternalReferences,
+                             final CodeIndex codeIndex,
+                             final ExternalReferenceIndex externalReferenceIndex,
+                             final OrderAllocator<UUID> orderAllocator,
+                             final boolean bulkLoad) {
+        this.codeScheme = codeScheme;
+        this.broaderCodeMapping = broaderCodeMapping;
+        this.updateExternalReferences = updateExternalReferences;
+        this.codeIndex = codeIndex;
+        this.externalReferenceIndex = externalReferenceIndex;
+        this.codesAffected = new LinkedHashSet<>();
+        this.codesUnchanged = new LinkedHashSet<>();
+        this.pendingBroaderCodeValues = new HashMap<>();
+        this.orderAllocator = orderAllocator;
+        this.bulkLoad = bulkLoad;
+    }
+
+    public CodeScheme getCodeScheme() {
+        return codeScheme;
+    }
+
+    public void setCodeScheme(final CodeScheme codeScheme) {
+        this.codeScheme = codeScheme;
+    }
+
+    public Map<String, String> getBroaderCodeMapping() {
+        return broaderCodeMapping;
+    }
+
+    public boolean isUpdateExternalReferences() {
+        return updateExternalReferences;
+    }
+
+    public CodeIndex getCodeIndex() {
+        return codeIndex;
+    }
+
+    public ExternalReferenceIndex getExternalReferenceIndex() {
+        return externalReferenceIndex;
+    }
+
+    public void setExternalReferenceIndex(final ExternalReferenceIndex externalReferenceIndex) {
+        this.externalReferenceIndex = externalReferenceIndex;
+    }
+
+    /**
+     * Returns the codes created or updated since the import began or was last flushed.
+     */
+    public Set<Code> getCodesAffected() {
+        return codesAffected;
+    }
+
+    /**
+     * Returns the codes skipped as unchanged since the import began or was last flushed. They are not written, but are
+     * part of the result of the import like the affected codes.
+     */
+    public Set<Code> getCodesUnchanged() {
+        return codesUnchanged;
+    }
+
+    /**
+     * Returns the broader code values by code id of the flushed codes whose broader code was not found yet.
+     */
+    public Map<UUID, String> getPendingBroaderCodeValues() {
+        return pendingBroaderCodeValues;
+    }
+
+    public OrderAllocator<UUID> getOrderAllocator() {
+        return orderAllocator;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(final boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public boolean isCodesWritten() {
+        return codesWritten;
+    }
+
+    public void setCodesWritten(final boolean codesWritten) {
+        this.codesWritten = codesWritten;
+    }
+}
@@ -0,0 +1,123 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import fi.vm.yti.codelist.intake.model.Code;
+
+/**
+ * Import scoped lookup of the codes of one code scheme by case insensitive code value, id and URI.
+ *
+ * Built once from the persisted codes when an import begins and kept up to date with the codes created or updated by
+ * the import, so that rows are resolved with hash lookups instead of scans or per-row queries.
+ *
+ * The index keys codes by id and holds the code entities only while they are attached. When an import clears the
+ * persistence context between chunks the index is detached, and codes are loaded again with the code loader when they
+ * are looked up, preferably for a whole chunk at a time with {@link #attach(Collection)}.
+ */
+public class CodeIndex {
+
+    private final Map<String, UUID> codeIdsByCodeValue;
+    private final Map<String, UUID> codeIdsByUri;
+    private final Set<UUID> codeIds;
+    private final Map<UUID, Code> attachedCodesById;
+    private final Function<Collection<UUID>, Collection<Code>> codeLoader;
+
+    public CodeIndex(final Collection<Code> codes,
+                     final Function<Collection<UUID>, Collection<Code>> codeLoader) {
+        final int capacity = Math.max(16, codes.size() * 4 / 3 + 1);
+        this.codeIdsByCodeValue = new HashMap<>(capacity);
+        this.codeIdsByUri = new HashMap<>(capacity);
+        this.codeIds = new HashSet<>(capacity);
+        this.attachedCodesById = new HashMap<>(capacity);
+        this.codeLoader = codeLoader;
+        codes.forEach(this::add);
+    }
+
+    public static String normalizeCodeValue(final String codeValue) {
+        return codeValue != null ? codeValue.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public void add(final Code code) {
+        if (code.getId() == null) {
+            return;
+        }
+        if (code.getCodeValue() != null) {
+            codeIdsByCodeValue.putIfAbsent(normalizeCodeValue(code.getCodeValue()), code.getId());
+        }
+        if (code.getUri() != null) {
+            codeIdsByUri.put(code.getUri(), code.getId());
+        }
+        codeIds.add(code.getId());
+        attachedCodesById.put(code.getId(), code);
+    }
+
+    public UUID findIdByCodeValue(final String codeValue) {
+        return codeValue != null ? codeIdsByCodeValue.get(normalizeCodeValue(codeValue)) : null;
+    }
+
+    public UUID findIdByUri(final String uri) {
+        return uri != null ? codeIdsByUri.get(uri) : null;
+    }
+
+    public Code findByCodeValue(final String codeValue) {
+        return resolve(findIdByCodeValue(codeValue));
+    }
+
+    public Code findById(final UUID id) {
+        return id != null && codeIds.contains(id) ? resolve(id) : null;
+    }
+
+    public Code findByUri(final String uri) {
+        return resolve(findIdByUri(uri));
+    }
+
+    /**
+     * Loads the indexed codes among the given ids that are not attached with one call to the code loader.
+     */
+    public void attach(final Collection<UUID> ids) {
+        final List<UUID> detachedIds = ids.stream()
+            .filter(id -> id != null && codeIds.contains(id) && !attachedCodesById.containsKey(id))
+            .distinct()
+            .collect(Collectors.toList());
+        if (!detachedIds.isEmpty()) {
+            codeLoader.apply(detachedIds).forEach(code -> attachedCodesById.put(code.getId(), code));
+        }
+    }
+
+    /**
+     * Drops the code entities held by the index, keeping only the ids they are found by.
+     */
+    public void detach() {
+        attachedCodesById.clear();
+    }
+
+    /**
+     * Returns the attached codes, which are all indexed codes as long as the index has not been detached.
+     */
+    public Set<Code> getCodes() {
+        return new LinkedHashSet<>(attachedCodesById.values());
+    }
+
+    private Code resolve(final UUID id) {
+        if (id == null) {
+            return null;
+        }
+        final Code code = attachedCodesById.get(id);
+        if (code != null) {
+            return code;
+        }
+        attach(Collections.singleton(id));
+        return attachedCodesById.get(id);
+    }
+}
@@ -3,6 +3,7 @@ package fi.vm.yti.codelist.intake.dao;
 import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import fi.vm.yti.codelist.common.dto.CodeSchemeDTO;
 import fi.vm.yti.codelist.intake.model.CodeRegistry;
@@ -25,6 +26,8 @@ public interface CodeSchemeDao {
 
     Set<CodeScheme> findAll();
 
+    Stream<CodeScheme> streamAll();
+
     Set<CodeScheme> findByCodeRegistryCodeValue(final String codeRegistryCodeValue);
 
     CodeScheme findByCodeRegistryAndCodeValue(final CodeRegistry codeRegistry,
@@ -1,9 +1,9 @@
 package fi.vm.yti.codelist.intake.dao;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-
-import org.springframework.data.domain.PageRequest;
+import java.util.stream.Stream;
 
 import fi.vm.yti.codelist.common.dto.ExtensionDTO;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
@@ -24,7 +24,10 @@ public interface ExtensionDao {
 
     Set<Extension> findAll();
 
-    Set<Extension> findAll(final PageRequest pageRequest);
+    Stream<Extension> streamAll();
+
+    List<Extension> findPageAfter(final String uri,
+                                  final int pageSize);
 
     Extension findById(final UUID id);
 
@@ -23,6 +23,10 @@ public interface ExternalReferenceDao {
     Set<ExternalReference> updateExternalReferenceEntitiesFromDtos(final Set<ExternalReferenceDTO> externalReferenceDtos,
                                                                    final CodeScheme codeScheme);
 
+    Set<ExternalReference> updateExternalReferenceEntitiesFromDtos(final Set<ExternalReferenceDTO> externalReferenceDtos,
+                                                                   final CodeScheme codeScheme,
+                                                                   final ExternalReferenceIndex externalReferenceIndex);
+
     Set<ExternalReference> updateExternalReferenceEntitiesFromDtos(final boolean internal,
                                                                    final Set<ExternalReferenceDTO> externalReferenceDtos,
                                                                    final CodeScheme codeScheme);
@@ -36,6 +40,8 @@ public interface ExternalReferenceDao {
     ExternalReference findByParentCodeSchemeIdAndHref(final UUID parentCodeSchemeId,
                                                       final String href);
 
+    ExternalReferenceIndex prefetchExternalReferences(final CodeScheme codeScheme);
+
     ExternalReference createOrUpdateExternalReference(final boolean internal,
                                                       final ExternalReferenceDTO fromExternalReference,
                                                       final CodeScheme codeScheme);
@@ -0,0 +1,80 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import fi.vm.yti.codelist.intake.model.ExternalReference;
+import fi.vm.yti.codelist.intake.model.PropertyType;
+
+/**
+ * Import scoped lookup of the external references of one code scheme and of the global external references by id and
+ * href, together with the property types resolved so far.
+ *
+ * Built from two set based queries when an import begins, so that the references of each row are resolved without
+ * queries.
+ */
+public class ExternalReferenceIndex {
+
+    private final Map<UUID, ExternalReference> externalReferencesById;
+    private final Map<String, ExternalReference> externalReferencesByHref;
+    private final Map<UUID, ExternalReference> globalExternalReferencesById;
+    private final Map<String, ExternalReference> globalExternalReferencesByHref;
+    private final Map<String, PropertyType> propertyTypesByLocalName;
+
+    public ExternalReferenceIndex(final Collection<ExternalReference> externalReferences,
+                                  final Collection<ExternalReference> globalExternalReferences) {
+        this.externalReferencesById = new HashMap<>();
+        this.externalReferencesByHref = new HashMap<>();
+        this.globalExternalReferencesById = new HashMap<>();
+        this.globalExternalReferencesByHref = new HashMap<>();
+        this.propertyTypesByLocalName = new HashMap<>();
+        externalReferences.forEach(this::add);
+        globalExternalReferences.forEach(this::add);
+    }
+
+    public void add(final ExternalReference externalReference) {
+        final boolean global = Boolean.TRUE.equals(externalReference.getGlobal());
+        if (externalReference.getId() != null) {
+            (global ? globalExternalReferencesById : externalReferencesById).put(externalReference.getId(), externalReference);
+        }
+        if (externalReference.getHref() != null) {
+            (global ? globalExternalReferencesByHref : externalReferencesByHref).putIfAbsent(externalReference.getHref(), externalReference);
+        }
+    }
+
+    /**
+     * Removes the external reference from the index under its current id, href and global status, so that it can be
+     * added again after these change.
+     */
+    public void remove(final ExternalReference externalReference) {
+        final boolean global = Boolean.TRUE.equals(externalReference.getGlobal());
+        if (externalReference.getId() != null) {
+            (global ? globalExternalReferencesById : externalReferencesById).remove(externalReference.getId(), externalReference);
+        }
+        if (externalReference.getHref() != null) {
+            (global ? globalExternalReferencesByHref : externalReferencesByHref).remove(externalReference.getHref(), externalReference);
+        }
+    }
+
+    public ExternalReference findById(final UUID id) {
+        return id != null ? externalReferencesById.get(id) : null;
+    }
+
+    public ExternalReference findByHref(final String href) {
+        return href != null ? externalReferencesByHref.get(href) : null;
+    }
+
+    public ExternalReference findGlobalById(final UUID id) {
+        return id != null ? globalExternalReferencesById.get(id) : null;
+    }
+
+    public ExternalReference findGlobalByHref(final String href) {
+        return href != null ? globalExternalReferencesByHref.get(href) : null;
+    }
+
+    public Map<String, PropertyType> getPropertyTypesByLocalName() {
+        return propertyTypesByLocalName;
+    }
+}
@@ -1,9 +1,9 @@
 package fi.vm.yti.codelist.intake.dao;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-
-import org.springframework.data.domain.PageRequest;
+import java.util.stream.Stream;
 
 import fi.vm.yti.codelist.common.dto.ExtensionDTO;
 import fi.vm.yti.codelist.common.dto.MemberDTO;
@@ -26,7 +26,10 @@ public interface MemberDao {
 
     Set<Member> findAll();
 
-    Set<Member> findAll(final PageRequest pageRequest);
+    Stream<Member> streamAll();
+
+    List<Member> findPageAfter(final String uri,
+                               final int pageSize);
 
     Member findById(final UUID id);
 
@@ -0,0 +1,130 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.Member;
+
+/**
+ * Import scoped lookup of the members of one extension by id, sequence id and case insensitive URI, and by the id,
+ * URI and parent code scheme code value of their code.
+ *
+ * Built once from the persisted members when an import begins and kept up to date with the members created or updated
+ * by the import. Adding a member again reindexes it, so that a member whose code changed is found by its new code.
+ */
+public class MemberIndex {
+
+    private final UUID parentCodeSchemeId;
+    private final Map<UUID, Member> membersById;
+    private final Map<Integer, Member> membersBySequenceId;
+    private final Map<String, Member> membersByUri;
+    private final Map<UUID, Set<Member>> membersByCodeId;
+    private final Map<String, Set<Member>> membersByCodeUri;
+    private final Map<String, Set<Member>> membersByCodeValue;
+    private final Map<UUID, Code> indexedCodes;
+    private final Set<UUID> memberIdsWithoutCode;
+
+    public MemberIndex(final UUID parentCodeSchemeId,
+                       final Collection<Member> members) {
+        final int capacity = Math.max(16, members.size() * 4 / 3 + 1);
+        this.parentCodeSchemeId = parentCodeSchemeId;
+        this.membersById = new HashMap<>(capacity);
+        this.membersBySequenceId = new HashMap<>(capacity);
+        this.membersByUri = new HashMap<>(capacity);
+        this.membersByCodeId = new HashMap<>(capacity);
+        this.membersByCodeUri = new HashMap<>(capacity);
+        this.membersByCodeValue = new HashMap<>(capacity);
+        this.indexedCodes = new HashMap<>(capacity);
+        this.memberIdsWithoutCode = new HashSet<>();
+        members.forEach(this::add);
+    }
+
+    public static String normalizeUri(final String uri) {
+        return uri != null ? uri.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public void add(final Member member) {
+        final Member previous = membersById.put(member.getId(), member);
+        if (previous != null) {
+            removeCode(previous);
+        }
+        if (member.getSequenceId() != null) {
+            membersBySequenceId.put(member.getSequenceId(), member);
+        }
+        if (member.getUri() != null) {
+            membersByUri.put(normalizeUri(member.getUri()), member);
+        }
+        final Code code = member.getCode();
+        if (code != null) {
+            indexedCodes.put(member.getId(), code);
+            membersByCodeId.computeIfAbsent(code.getId(), id -> new LinkedHashSet<>()).add(member);
+            membersByCodeUri.computeIfAbsent(normalizeUri(code.getUri()), uri -> new LinkedHashSet<>()).add(member);
+            if (parentCodeSchemeId.equals(code.getCodeScheme().getId())) {
+                membersByCodeValue.computeIfAbsent(CodeIndex.normalizeCodeValue(code.getCodeValue()), codeValue -> new LinkedHashSet<>()).add(member);
+            }
+        } else {
+            memberIdsWithoutCode.add(member.getId());
+        }
+    }
+
+    private void removeCode(final Member member) {
+        memberIdsWithoutCode.remove(member.getId());
+        final Code code = indexedCodes.remove(member.getId());
+        if (code != null) {
+            remove(membersByCodeId, code.getId(), member);
+            remove(membersByCodeUri, normalizeUri(code.getUri()), member);
+            remove(membersByCodeValue, CodeIndex.normalizeCodeValue(code.getCodeValue()), member);
+        }
+    }
+
+    private static <K> void remove(final Map<K, Set<Member>> membersByKey,
+                                   final K key,
+                                   final Member member) {
+        final Set<Member> members = membersByKey.get(key);
+        if (members != null) {
+            members.remove(member);
+            if (members.isEmpty()) {
+                membersByKey.remove(key);
+            }
+        }
+    }
+
+    public Member findById(final UUID id) {
+        return id != null ? membersById.get(id) : null;
+    }
+
+    public Member findBySequenceId(final Integer sequenceId) {
+        return sequenceId != null ? membersBySequenceId.get(sequenceId) : null;
+    }
+
+    public Member findByUri(final String uri) {
+        return uri != null ? membersByUri.get(normalizeUri(uri)) : null;
+    }
+
+    public Set<Member> findByCodeId(final UUID codeId) {
+        return codeId != null ? membersByCodeId.getOrDefault(codeId, Collections.emptySet()) : Collections.emptySet();
+    }
+
+    public Set<Member> findByCodeUri(final String codeUri) {
+        return codeUri != null ? membersByCodeUri.getOrDefault(normalizeUri(codeUri), Collections.emptySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the members whose code is in the parent code scheme of the extension and has the given code value.
+     */
+    public Set<Member> findByCodeValue(final String codeValue) {
+        return codeValue != null ? membersByCodeValue.getOrDefault(CodeIndex.normalizeCodeValue(codeValue), Collections.emptySet()) : Collections.emptySet();
+    }
+
+    public boolean hasMembersWithoutCode() {
+        return !memberIdsWithoutCode.isEmpty();
+    }
+}
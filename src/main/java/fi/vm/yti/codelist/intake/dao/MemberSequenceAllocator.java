@@ -0,0 +1,95 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import fi.vm.yti.codelist.intake.jpa.MemberRepository;
+import fi.vm.yti.codelist.intake.model.Extension;
+import fi.vm.yti.codelist.intake.model.Member;
+
+/**
+ * Import scoped allocator for the sequence ids of the members of one extension.
+ *
+ * Ids are reserved from the sequence of the extension in blocks with one query and handed out in memory. Sequence ids
+ * already in use or given explicitly in the import are skipped, and the sequence is moved past the highest explicit id
+ * when the import finishes, so that later imports do not hand it out again.
+ */
+public class MemberSequenceAllocator {
+
+    private static final String PREFIX_FOR_EXTENSION_SEQUENCE_NAME = "seq_for_ext_";
+
+    private final MemberRepository memberRepository;
+    private final String sequenceName;
+    private final Set<Integer> usedSequenceIds;
+    private final Deque<Integer> reservedSequenceIds;
+    private Integer maxExplicitSequenceId;
+
+    public MemberSequenceAllocator(final MemberRepository memberRepository,
+                                   final Extension extension,
+                                   final Collection<Member> existingMembers) {
+        this.memberRepository = memberRepository;
+        this.sequenceName = constructSequenceName(extension);
+        this.usedSequenceIds = new HashSet<>();
+        existingMembers.forEach(member -> {
+            if (member.getSequenceId() != null) {
+                usedSequenceIds.add(member.getSequenceId());
+            }
+        });
+        this.reservedSequenceIds = new ArrayDeque<>();
+    }
+
+    private static String constructSequenceName(final Extension extension) {
+        return PREFIX_FOR_EXTENSION_SEQUENCE_NAME + extension.getId().toString().replaceAll("-", "_");
+    }
+
+    /**
+     * Reserves the given number of ids from the sequence with one query. The query takes the advisory lock of the
+     * sequence, which is held until the transaction ends.
+     */
+    public void reserve(final int count) {
+        if (count > 0) {
+            memberRepository.reserveMemberSequenceIds(sequenceName, count).stream().sorted().forEach(reservedSequenceIds::add);
+        }
+    }
+
+    /**
+     * Marks an explicitly given sequence id as used, so that it is not handed out by {@link #next()}.
+     */
+    public void use(final Integer sequenceId) {
+        if (sequenceId != null) {
+            usedSequenceIds.add(sequenceId);
+            if (maxExplicitSequenceId == null || sequenceId > maxExplicitSequenceId) {
+                maxExplicitSequenceId = sequenceId;
+            }
+        }
+    }
+
+    /**
+     * Returns the next free reserved id, reserving more from the sequence only when the block runs out.
+     */
+    public int next() {
+        while (true) {
+            if (reservedSequenceIds.isEmpty()) {
+                reserve(1);
+            }
+            final Integer sequenceId = reservedSequenceIds.poll();
+            if (usedSequenceIds.add(sequenceId)) {
+                return sequenceId;
+            }
+        }
+    }
+
+    /**
+     * Moves the sequence past the highest explicit id of the import with one setval under the advisory lock of the
+     * sequence, so that no other transaction reserves ids between reading and setting the sequence. Reserved ids left
+     * unused are not returned.
+     */
+    public void finish() {
+        if (maxExplicitSequenceId != null && maxExplicitSequenceId > 0) {
+            memberRepository.advanceMemberSequenceId(sequenceName, maxExplicitSequenceId);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Import scoped allocator for the flat orders of the codes of a code scheme or the members of an extension.
+ *
+ * Loaded once from the persisted entities when an import begins and keyed by an entity key, such as the entity itself
+ * or its id when the entities may be detached during the import. Explicit orders that collide with an order already in
+ * use move the previous holder to the end of the sequence in memory, so that no queries are needed per row. The
+ * allocator only keeps track of the orders, callers set them on the entities.
+ */
+public class OrderAllocator<K> {
+
+    private final TreeMap<Integer, K> keysByOrder;
+    private final Map<K, Integer> ordersByKey;
+
+    public <T> OrderAllocator(final Collection<T> entities,
+                              final Function<T, K> keyGetter,
+                              final Function<T, Integer> orderGetter) {
+        this.keysByOrder = new TreeMap<>();
+        this.ordersByKey = new HashMap<>(Math.max(16, entities.size() * 4 / 3 + 1));
+        entities.forEach(entity -> {
+            final Integer order = orderGetter.apply(entity);
+            final K key = keyGetter.apply(entity);
+            if (order != null && keysByOrder.putIfAbsent(order, key) == null) {
+                ordersByKey.put(key, order);
+            }
+        });
+    }
+
+    public int nextOrder() {
+        return keysByOrder.isEmpty() ? 1 : keysByOrder.lastKey() + 1;
+    }
+
+    /**
+     * Reserves the order for the key, moving another key holding the same order to the end of the sequence.
+     *
+     * @return the moved key or null if the order was free
+     */
+    public K assign(final K key,
+                    final int order) {
+        release(key);
+        final K holder = keysByOrder.get(order);
+        if (holder != null) {
+            put(holder, nextOrder());
+        }
+        put(key, order);
+        return holder;
+    }
+
+    /**
+     * Reserves the order at the end of the sequence for the key.
+     *
+     * @return the reserved order
+     */
+    public int assignNext(final K key) {
+        release(key);
+        final int order = nextOrder();
+        put(key, order);
+        return order;
+    }
+
+    /**
+     * Returns the order reserved for the key, or null if the key holds no order.
+     */
+    public Integer getOrder(final K key) {
+        return ordersByKey.get(key);
+    }
+
+    private void put(final K key,
+                     final int order) {
+        keysByOrder.put(order, key);
+        ordersByKey.put(key, order);
+    }
+
+    private void release(final K key) {
+        final Integer currentOrder = ordersByKey.remove(key);
+        if (currentOrder != null) {
+            keysByOrder.remove(currentOrder);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static fi.vm.yti.codelist.intake.configuration.ReferenceDataCacheConfig.*;
+
+/**
+ * Explicit invalidation of the cached reference data for the paths that reload it.
+ *
+ * Eviction is deferred until the current transaction commits, so that concurrent readers cannot cache the rows being
+ * replaced again before the reload is visible to them.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    private final Cache cache;
+
+    public ReferenceDataCache(final EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictPropertyTypes() {
+        evict(REGION_PROPERTYTYPE);
+    }
+
+    public void evictValueTypes() {
+        evict(REGION_VALUETYPE);
+    }
+
+    public void evictOrganizations() {
+        evict(REGION_ORGANIZATION);
+    }
+
+    private void evict(final String region) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    evictNow(region);
+                }
+            });
+        } else {
+            evictNow(region);
+        }
+    }
+
+    private void evictNow(final String region) {
+        cache.evictRegion(region);
+        cache.evictQueryRegion(REGION_QUERIES);
+        LOG.debug(String.format("Evicted cached %s data.", region));
+    }
+}
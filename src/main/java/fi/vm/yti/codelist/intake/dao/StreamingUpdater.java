@@ -0,0 +1,55 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies an update to every entity of a forward-only result stream.
+ *
+ * The persistence context is flushed and cleared after each batch, so that memory use and the cost of dirty checking
+ * at flush stay flat regardless of the row count. The stream has to be read within a transaction, and entities loaded
+ * before the call are detached by it.
+ */
+@Component
+public class StreamingUpdater {
+
+    public static final String FETCH_SIZE = "500";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingUpdater.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    public StreamingUpdater(final EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public <T> int update(final Stream<T> entities,
+                          final Consumer<T> update) {
+        int count = 0;
+        try (final Stream<T> stream = entities) {
+            final Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                update.accept(iterator.next());
+                if (++count % BATCH_SIZE == 0) {
+                    flushAndClear();
+                }
+            }
+        }
+        flushAndClear();
+        LOG.debug(String.format("Updated %d entities in streaming mode.", count));
+        return count;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
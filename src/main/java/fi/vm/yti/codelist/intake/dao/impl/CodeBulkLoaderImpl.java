@@ -0,0 +1,154 @@
+package fi.vm.yti.codelist.intake.dao.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.dao.CodeBulkLoader;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.LocalizedMapType;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_500;
+
+/**
+ * Streams the codes as CSV into a temporary staging table with COPY and merges them into the code table with one
+ * statement. The staging table is dropped when the transaction commits.
+ */
+@Component
+public class CodeBulkLoaderImpl implements CodeBulkLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CodeBulkLoaderImpl.class);
+
+    private static final String CODE_COLUMNS = "id, uri, codevalue, status, shortname, startdate, enddate, created, modified, status_modified, codescheme_id, broadercode_id, hierarchylevel, flatorder, vocabularies_uri, contenthash, preflabel, definition, description";
+
+    private final EntityManager entityManager;
+    private final int bulkLoadThreshold;
+
+    public CodeBulkLoaderImpl(final EntityManager entityManager,
+                              @Value("${intake.bulkload.threshold:1000}") final int bulkLoadThreshold) {
+        this.entityManager = entityManager;
+        this.bulkLoadThreshold = bulkLoadThreshold;
+    }
+
+    public boolean isApplicable(final int codeCount) {
+        return bulkLoadThreshold > 0 && codeCount >= bulkLoadThreshold;
+    }
+
+    public void load(final Collection<Code> codes) {
+        if (codes.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            createStagingTable(connection);
+            copyCodes(connection, codes);
+            mergeStagingTable(connection);
+        });
+    }
+
+    private void createStagingTable(final Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS code_bulkload (LIKE code) ON COMMIT DROP");
+            statement.execute("TRUNCATE code_bulkload");
+        }
+    }
+
+    private void copyCodes(final Connection connection,
+                           final Collection<Code> codes) throws SQLException {
+        try (final Writer writer = openCopyWriter(connection, "COPY code_bulkload (" + CODE_COLUMNS + ") FROM STDIN WITH (FORMAT csv)")) {
+            for (final Code code : codes) {
+                writeRow(writer,
+                    code.getId(),
+                    code.getUri(),
+                    code.getCodeValue(),
+                    code.getStatus(),
+                    code.getShortName(),
+                    formatDate(code.getStartDate()),
+                    formatDate(code.getEndDate()),
+                    formatTimestamp(code.getCreated()),
+                    formatTimestamp(code.getModified()),
+                    formatTimestamp(code.getStatusModified()),
+                    code.getCodeScheme().getId(),
+                    code.getBroaderCode() != null ? code.getBroaderCode().getId() : null,
+                    code.getHierarchyLevel(),
+                    code.getOrder(),
+                    code.getConceptUriInVocabularies(),
+                    code.getContentHash(),
+                    LocalizedMapType.toJson(code.getPrefLabel()),
+                    LocalizedMapType.toJson(code.getDefinition()),
+                    LocalizedMapType.toJson(code.getDescription()));
+            }
+        } catch (final IOException e) {
+            throw copyFailed(e);
+        }
+    }
+
+    private void mergeStagingTable(final Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            final int codeCount = statement.executeUpdate("INSERT INTO code (" + CODE_COLUMNS + ") SELECT " + CODE_COLUMNS + " FROM code_bulkload");
+            LOG.debug(String.format("Bulk loaded %d codes.", codeCount));
+        }
+    }
+
+    private static Writer openCopyWriter(final Connection connection,
+                                         final String sql) throws SQLException {
+        final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        return new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(pgConnection, sql), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one CSV row. Values are always quoted, so that only unquoted empty fields are read as null.
+     */
+    private static void writeRow(final Writer writer,
+                                 final Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            final Object value = values[i];
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.toString().replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String formatDate(final LocalDate date) {
+        return date != null ? date.toString() : null;
+    }
+
+    /**
+     * Formats timestamps in the default time zone of the JVM, as Hibernate binds them.
+     */
+    private static String formatTimestamp(final Date date) {
+        return date != null ? new Timestamp(date.getTime()).toString() : null;
+    }
+
+    private static YtiCodeListException copyFailed(final IOException e) {
+        LOG.error("Bulk loading codes failed!", e);
+        return new YtiCodeListException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
+    }
+}
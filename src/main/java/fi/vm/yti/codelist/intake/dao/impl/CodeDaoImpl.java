@@ -1,22 +1,31 @@
 package fi.vm.yti.codelist.intake.dao.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.apache.commons.lang3.mutable.MutableInt;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.Iterables;
+
 import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.common.dto.CodeSchemeDTO;
 import fi.vm.yti.codelist.common.dto.ErrorModel;
@@ -24,11 +33,17 @@ import fi.vm.yti.codelist.common.dto.ExtensionDTO;
 import fi.vm.yti.codelist.common.dto.MemberDTO;
 import fi.vm.yti.codelist.common.model.Status;
 import fi.vm.yti.codelist.intake.api.ApiUtils;
+import fi.vm.yti.codelist.intake.dao.CodeBulkLoader;
 import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.dao.CodeHierarchyEvaluator;
+import fi.vm.yti.codelist.intake.dao.CodeIndex;
+import fi.vm.yti.codelist.intake.dao.CodeImportContext;
 import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExtensionDao;
 import fi.vm.yti.codelist.intake.dao.ExternalReferenceDao;
+import fi.vm.yti.codelist.intake.dao.ExternalReferenceIndex;
 import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.OrderAllocator;
 import fi.vm.yti.codelist.intake.exception.ExistingCodeException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.jpa.CodeRepository;
@@ -41,6 +56,7 @@ import fi.vm.yti.codelist.intake.model.Extension;
 import fi.vm.yti.codelist.intake.model.ExternalReference;
 import fi.vm.yti.codelist.intake.model.Member;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import fi.vm.yti.codelist.intake.util.ContentHashUtils;
 import fi.vm.yti.codelist.intake.util.ValidationUtils;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
 import static fi.vm.yti.codelist.intake.parser.impl.AbstractBaseParser.validateCodeCodeValue;
@@ -48,8 +64,7 @@ import static fi.vm.yti.codelist.intake.parser.impl.AbstractBaseParser.validateC
 @Component
 public class CodeDaoImpl extends AbstractDao implements CodeDao {
 
-    private static final int MAX_LEVEL = 15;
-    private static final Logger LOG = LoggerFactory.getLogger(CodeDaoImpl.class);
+    private static final int MAX_IDS_PER_QUERY = 1000;
 
     private final EntityChangeLogger entityChangeLogger;
     private final ApiUtils apiUtils;
@@ -60,6 +75,8 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
     private final ExtensionDao extensionDao;
     private final MemberDao memberDao;
     private final CodeSchemeDao codeSchemeDao;
+    private final EntityManager entityManager;
+    private final CodeBulkLoader codeBulkLoader;
 
     public CodeDaoImpl(final EntityChangeLogger entityChangeLogger,
                        final ApiUtils apiUtils,
@@ -70,7 +87,9 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
                        final LanguageService languageService,
                        final CodeSchemeDao codeSchemeDao,
                        @Lazy final ExtensionDao extensionDao,
-                       @Lazy final MemberDao memberDao) {
+                       @Lazy final MemberDao memberDao,
+                       final EntityManager entityManager,
+                       final CodeBulkLoader codeBulkLoader) {
         super(languageService);
         this.entityChangeLogger = entityChangeLogger;
         this.apiUtils = apiUtils;
@@ -81,6 +100,8 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         this.codeSchemeDao = codeSchemeDao;
         this.extensionDao = extensionDao;
         this.memberDao = memberDao;
+        this.entityManager = entityManager;
+        this.codeBulkLoader = codeBulkLoader;
     }
 
     @Transactional
@@ -134,8 +155,13 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
     }
 
     @Transactional
-    public Set<Code> findAll(final PageRequest pageRequest) {
-        return new HashSet<>(codeRepository.findAll(pageRequest).getContent());
+    public List<Code> findPageAfter(final String codeValue,
+                                    final UUID id,
+                                    final int pageSize) {
+        if (codeValue == null) {
+            return codeRepository.findFirstPageOrderByCodeValue(pageSize);
+        }
+        return codeRepository.findPageAfterCodeValue(codeValue, id, pageSize);
     }
 
     @Transactional
@@ -143,11 +169,29 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         return codeRepository.findAll();
     }
 
+    @Transactional
+    public Stream<Code> streamAll() {
+        return codeRepository.streamAll();
+    }
+
     @Transactional
     public Code findByUri(final String uri) {
         return codeRepository.findByUriIgnoreCase(uri);
     }
 
+    @Transactional
+    public Set<Code> findByUrisIgnoreCase(final Collection<String> uris) {
+        if (uris.isEmpty()) {
+            return new HashSet<>();
+        }
+        final Set<Code> codes = new HashSet<>();
+        final List<String> lowerCaseUris = uris.stream().map(uri -> uri.toLowerCase(Locale.ROOT)).distinct().collect(Collectors.toList());
+        for (final List<String> pagedUris : Iterables.partition(lowerCaseUris, MAX_IDS_PER_QUERY)) {
+            codes.addAll(codeRepository.findByLowerCaseUriIn(pagedUris));
+        }
+        return codes;
+    }
+
     @Transactional
     public Set<Code> findBySubCodeScheme(final CodeScheme subCodeScheme) {
         return codeRepository.findBySubCodeScheme(subCodeScheme);
@@ -195,13 +239,14 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
     @Transactional
     public Set<Code> updateCodeFromDto(final CodeScheme codeScheme,
                                        final CodeDTO codeDto) {
-        final Code code = createOrUpdateCode(codeScheme, codeDto, null, null, null);
-        updateExternalReferences(codeScheme, code, codeDto);
-        checkCodeHierarchyLevels(code);
+        final Set<Code> existingCodes = findByCodeSchemeId(codeScheme.getId());
+        final OrderAllocator<UUID> orderAllocator = createOrderAllocator(existingCodes);
         final Set<Code> codesAffected = new HashSet<>();
+        final Code code = createOrUpdateCode(codeScheme, codeDto, null, codesAffected, orderAllocator);
+        updateExternalReferences(codeScheme, code, codeDto);
         codesAffected.add(code);
-        evaluateAndSetHierarchyLevels(codesAffected, findByCodeSchemeId(codeScheme.getId()));
-        save(code);
+        evaluateAndSetHierarchyLevels(codesAffected, existingCodes);
+        save(codesAffected);
         codeDto.setId(code.getId());
         setCodeExtensionMemberValues(codeDto);
         final Set<Member> codeMembers = memberDao.findByCodeId(code.getId());
@@ -212,7 +257,11 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         return codesAffected;
     }
 
-    private void setCodeExtensionMemberValues(final CodeDTO code) {
+    /**
+     * Returns the members of the code created or updated from the code extension values.
+     */
+    private Set<Member> setCodeExtensionMemberValues(final CodeDTO code) {
+        final Set<Member> codeMembers = new HashSet<>();
         final Set<ExtensionDTO> codeExtensionDtos = code.getCodeExtensions();
         if (codeExtensionDtos != null && !codeExtensionDtos.isEmpty()) {
             codeExtensionDtos.forEach(extensionDto -> {
@@ -225,7 +274,11 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
                                 member.setCode(code);
                             }
                             if (member.getCode().getId().equals(code.getId())) {
-                                memberDao.updateMemberEntityFromDto(codeExtension, member);
+                                memberDao.updateMemberEntityFromDto(codeExtension, member).forEach(codeMember -> {
+                                    if (codeMember.getCode() != null && code.getId().equals(codeMember.getCode().getId())) {
+                                        codeMembers.add(codeMember);
+                                    }
+                                });
                             }
                         });
                     } else if (members != null && members.size() > 1) {
@@ -236,6 +289,7 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
                 }
             });
         }
+        return codeMembers;
     }
 
     @Transactional
@@ -243,69 +297,370 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
                                          final Set<CodeDTO> codeDtos,
                                          final Map<String, String> broaderCodeMapping,
                                          final boolean updateExternalReferences) {
-        final Set<Code> codesAffected = new HashSet<>();
-        MutableInt nextOrder = new MutableInt(getNextOrderInSequence(codeScheme));
+        final CodeImportContext codeImport = beginCodeImport(codeScheme, broaderCodeMapping, updateExternalReferences);
+        importCodes(codeImport, codeDtos);
+        return finishCodeImport(codeImport);
+    }
+
+    @Transactional
+    public CodeImportContext beginCodeImport(final CodeScheme codeScheme,
+                                             final Map<String, String> broaderCodeMapping,
+                                             final boolean updateExternalReferences) {
         final Set<Code> existingCodes = codeRepository.findByCodeSchemeId(codeScheme.getId());
-        final Set<Code> addedOrUpdatedCodes = new HashSet<>();
+        findCodesByIds(existingCodes.stream().map(Code::getId).collect(Collectors.toList()));
+        final ExternalReferenceIndex externalReferenceIndex = updateExternalReferences ? externalReferenceDao.prefetchExternalReferences(codeScheme) : null;
+        return new CodeImportContext(codeScheme, broaderCodeMapping, updateExternalReferences, new CodeIndex(existingCodes, this::findCodesByIds), externalReferenceIndex, createOrderAllocator(existingCodes), existingCodes.isEmpty());
+    }
+
+    @Transactional
+    public Set<Code> importCodes(final CodeImportContext codeImport,
+                                 final Set<CodeDTO> codeDtos) {
+        final CodeScheme codeScheme = codeImport.getCodeScheme();
+        final Set<Code> codes = new HashSet<>();
+        attachReferencedCodes(codeImport, codeDtos);
         for (final CodeDTO codeDto : codeDtos) {
-            final Code code = createOrUpdateCode(codeScheme, codeDto, existingCodes, codesAffected, nextOrder);
-            save(code);
+            final String contentHash = resolveContentHash(codeImport, codeDto);
+            final Code unchangedCode = findUnchangedCode(codeImport, codeDto, contentHash);
+            if (unchangedCode != null) {
+                codeDto.setId(unchangedCode.getId());
+                codeImport.getCodesUnchanged().add(unchangedCode);
+                codes.add(unchangedCode);
+                continue;
+            }
+            if (codeImport.isBulkLoad() && !isBulkLoadable(codeDto)) {
+                endBulkLoad(codeImport);
+            }
+            final Code code = createOrUpdateCode(codeScheme, codeDto, codeImport.getCodeIndex(), codeImport.getCodesAffected(), codeImport.getOrderAllocator());
+            code.setContentHash(contentHash);
+            codeImport.getCodeIndex().add(code);
             codeDto.setId(code.getId());
-            setCodeExtensionMemberValues(codeDto);
-            final Set<Member> codeMembers = memberDao.findByCodeId(code.getId());
-            code.setMembers(codeMembers);
-            if (updateExternalReferences) {
-                updateExternalReferences(codeScheme, code, codeDto);
+            if (codeImport.isBulkLoad()) {
+                codeImport.getCodesAffected().add(code);
+                codes.add(code);
+                continue;
             }
-            codesAffected.add(code);
-            addedOrUpdatedCodes.add(code);
-        }
-        if (!addedOrUpdatedCodes.isEmpty()) {
-            save(addedOrUpdatedCodes);
+            persistIfNew(code);
+            if (code.getMembers() == null) {
+                code.setMembers(new HashSet<>());
+            }
+            code.getMembers().addAll(setCodeExtensionMemberValues(codeDto));
+            if (codeImport.isUpdateExternalReferences()) {
+                code.setExternalReferences(externalReferenceDao.updateExternalReferenceEntitiesFromDtos(codeDto.getExternalReferences(), codeScheme, codeImport.getExternalReferenceIndex()));
+            }
+            codeImport.getCodesAffected().add(code);
+            codes.add(code);
         }
+        return codes;
+    }
+
+    @Transactional
+    public void flushCodeImport(final CodeImportContext codeImport,
+                                final Consumer<Set<Code>> importedCodesConsumer) {
+        resolveBroaderCodes(codeImport);
+        estimateHierarchyLevels(codeImport.getCodesAffected());
+        handOverUnchangedCodes(codeImport, importedCodesConsumer);
+        writeCodeImport(codeImport, importedCodesConsumer);
+    }
+
+    @Transactional
+    public Set<Code> finishCodeImport(final CodeImportContext codeImport) {
+        final CodeScheme codeScheme = codeImport.getCodeScheme();
+        final Set<Code> codesAffected = codeImport.getCodesAffected();
         if (!codesAffected.isEmpty()) {
-            codesAffected.forEach(this::checkCodeHierarchyLevels);
-            setBroaderCodesAndEvaluateHierarchyLevels(broaderCodeMapping, codesAffected, codeScheme);
+            setBroaderCodes(codeImport.getBroaderCodeMapping(), codesAffected, codeImport.getCodeIndex());
+            evaluateAndSetHierarchyLevels(codesAffected, codeImport.getCodeIndex().getCodes());
+            if (codeImport.isBulkLoad() && codeBulkLoader.isApplicable(codesAffected.size())) {
+                return finishBulkLoad(codeImport);
+            } else if (codeImport.isBulkLoad()) {
+                endBulkLoad(codeImport);
+            }
             save(codesAffected);
             codeSchemeDao.updateContentModified(codeScheme.getId());
             codeSchemeRepository.save(codeScheme);
         }
-        return codesAffected;
+        final Set<Code> codes = new LinkedHashSet<>(codeImport.getCodesUnchanged());
+        codes.addAll(codesAffected);
+        return codes;
     }
 
-    private void updateExternalReferences(final CodeScheme codeScheme,
-                                          final Code code,
-                                          final CodeDTO codeDto) {
-        final Set<ExternalReference> externalReferences = externalReferenceDao.updateExternalReferenceEntitiesFromDtos(codeDto.getExternalReferences(), codeScheme);
-        code.setExternalReferences(externalReferences);
+    @Transactional
+    public void finishCodeImport(final CodeImportContext codeImport,
+                                 final Consumer<Set<Code>> importedCodesConsumer) {
+        flushCodeImport(codeImport, importedCodesConsumer);
+        final CodeIndex codeIndex = codeImport.getCodeIndex();
+        final Map<UUID, String> pendingBroaderCodeValues = codeImport.getPendingBroaderCodeValues();
+        for (final List<UUID> codeIds : Iterables.partition(new ArrayList<>(pendingBroaderCodeValues.keySet()), MAX_IDS_PER_QUERY)) {
+            final Set<UUID> referencedCodeIds = new HashSet<>(codeIds);
+            codeIds.forEach(codeId -> referencedCodeIds.add(codeIndex.findIdByCodeValue(pendingBroaderCodeValues.get(codeId))));
+            codeIndex.attach(referencedCodeIds);
+            codeIds.forEach(codeId -> {
+                final Code code = codeIndex.findById(codeId);
+                final String broaderCodeCodeValue = pendingBroaderCodeValues.get(codeId);
+                setBroaderCode(code, codeIndex.findByCodeValue(broaderCodeCodeValue), broaderCodeCodeValue);
+                codeImport.getCodesAffected().add(code);
+            });
+            writeCodeImport(codeImport, importedCodesConsumer);
+        }
+        pendingBroaderCodeValues.clear();
+        if (codeImport.isCodesWritten()) {
+            final Map<UUID, Integer> changedLevels = evaluateHierarchyLevels(codeImport.getCodeScheme());
+            for (final List<UUID> codeIds : Iterables.partition(new ArrayList<>(changedLevels.keySet()), MAX_IDS_PER_QUERY)) {
+                codeIndex.attach(codeIds);
+                codeIds.forEach(codeId -> {
+                    final Code code = codeIndex.findById(codeId);
+                    code.setHierarchyLevel(changedLevels.get(codeId));
+                    codeImport.getCodesAffected().add(code);
+                });
+                writeCodeImport(codeImport, importedCodesConsumer);
+            }
+            final CodeScheme codeScheme = codeImport.getCodeScheme();
+            codeSchemeDao.updateContentModified(codeScheme.getId());
+            codeSchemeRepository.save(codeScheme);
+        }
+    }
+
+    /**
+     * Hands the codes skipped as unchanged to the consumer while they are attached, so that they are part of the result
+     * of the import without being written.
+     */
+    private void handOverUnchangedCodes(final CodeImportContext codeImport,
+                                        final Consumer<Set<Code>> importedCodesConsumer) {
+        final Set<Code> codesUnchanged = codeImport.getCodesUnchanged();
+        if (!codesUnchanged.isEmpty()) {
+            importedCodesConsumer.accept(new LinkedHashSet<>(codesUnchanged));
+            codesUnchanged.clear();
+        }
+    }
+
+    /**
+     * Writes and change logs the affected codes, hands them to the consumer and clears the persistence context. The code
+     * scheme and the external reference index are loaded again for the chunks that follow.
+     */
+    private void writeCodeImport(final CodeImportContext codeImport,
+                                 final Consumer<Set<Code>> importedCodesConsumer) {
+        final Set<Code> codesAffected = codeImport.getCodesAffected();
+        if (codesAffected.isEmpty()) {
+            return;
+        }
+        final Set<Code> writtenCodes;
+        if (codeImport.isBulkLoad()) {
+            writtenCodes = bulkLoadCodes(codesAffected);
+        } else {
+            save(codesAffected);
+            writtenCodes = new LinkedHashSet<>(codesAffected);
+        }
+        entityChangeLogger.persistEditedEntities();
+        entityManager.flush();
+        importedCodesConsumer.accept(writtenCodes);
+        codesAffected.clear();
+        codeImport.setCodesWritten(true);
+        entityManager.clear();
+        codeImport.getCodeIndex().detach();
+        codeImport.setCodeScheme(codeSchemeRepository.findById(codeImport.getCodeScheme().getId()));
+        if (codeImport.isUpdateExternalReferences()) {
+            codeImport.setExternalReferenceIndex(externalReferenceDao.prefetchExternalReferences(codeImport.getCodeScheme()));
+        }
+    }
+
+    /**
+     * Writes the new codes among the given codes with the bulk loader when there are enough of them, and returns the
+     * written codes attached to the persistence context, so that they are change logged and mapped like other codes.
+     */
+    private Set<Code> bulkLoadCodes(final Set<Code> codes) {
+        final Set<Code> attachedCodes = new LinkedHashSet<>();
+        final Set<Code> newCodes = new LinkedHashSet<>();
+        codes.forEach(code -> (entityManager.contains(code) ? attachedCodes : newCodes).add(code));
+        if (codeBulkLoader.isApplicable(newCodes.size())) {
+            codeBulkLoader.load(newCodes);
+            final Set<Code> loadedCodes = findCodesByIds(newCodes.stream().map(Code::getId).collect(Collectors.toList()));
+            entityChangeLogger.logCodesChange(loadedCodes);
+            save(attachedCodes);
+            attachedCodes.addAll(loadedCodes);
+        } else {
+            newCodes.forEach(this::persistIfNew);
+            attachedCodes.addAll(newCodes);
+            save(attachedCodes);
+        }
+        return attachedCodes;
+    }
+
+    /**
+     * Computes the hierarchy levels of all codes of the code scheme from their persisted broader codes without loading
+     * the codes, and returns the levels that changed by code id.
+     */
+    private Map<UUID, Integer> evaluateHierarchyLevels(final CodeScheme codeScheme) {
+        final Map<UUID, UUID> broaderCodeIdsById = new HashMap<>();
+        final Map<UUID, Integer> levelsById = new HashMap<>();
+        codeRepository.findHierarchyByCodeSchemeId(codeScheme.getId()).forEach(row -> {
+            broaderCodeIdsById.put((UUID) row[0], (UUID) row[1]);
+            levelsById.put((UUID) row[0], (Integer) row[2]);
+        });
+        return CodeHierarchyEvaluator.evaluateLevels(broaderCodeIdsById, levelsById);
+    }
+
+    /**
+     * Attaches the indexed codes the rows of a chunk refer to with one query, when a flush has detached the index.
+     */
+    private void attachReferencedCodes(final CodeImportContext codeImport,
+                                       final Set<CodeDTO> codeDtos) {
+        final CodeIndex codeIndex = codeImport.getCodeIndex();
+        final Map<String, String> broaderCodeMapping = codeImport.getBroaderCodeMapping();
+        final Set<UUID> codeIds = new HashSet<>();
+        codeDtos.forEach(codeDto -> {
+            codeIds.add(codeDto.getId());
+            codeIds.add(codeIndex.findIdByCodeValue(codeDto.getCodeValue()));
+            if (codeDto.getBroaderCode() != null) {
+                codeIds.add(codeDto.getBroaderCode().getId());
+                codeIds.add(codeIndex.findIdByUri(codeDto.getBroaderCode().getUri()));
+            }
+            if (broaderCodeMapping != null && codeDto.getCodeValue() != null) {
+                codeIds.add(codeIndex.findIdByCodeValue(broaderCodeMapping.get(codeDto.getCodeValue().toLowerCase())));
+            }
+        });
+        codeIndex.attach(codeIds);
+    }
+
+    /**
+     * Loads the codes with the given ids together with their members, member values and external references, which are
+     * fetched by joins with two queries per {@link #MAX_IDS_PER_QUERY} ids instead of one query per code and association.
+     * Codes already in the persistence context get their associations initialized.
+     */
+    private Set<Code> findCodesByIds(final Collection<UUID> ids) {
+        final Set<Code> codes = new LinkedHashSet<>();
+        Iterables.partition(ids, MAX_IDS_PER_QUERY).forEach(partition -> {
+            codes.addAll(codeRepository.findWithMembersByIdIn(partition));
+            codeRepository.findWithExternalReferencesByIdIn(partition);
+        });
+        return codes;
+    }
+
+    /**
+     * Sets the broader codes of the affected codes from the broader code mapping. Codes whose broader code has not been
+     * imported yet are left pending until the import finishes.
+     */
+    private void resolveBroaderCodes(final CodeImportContext codeImport) {
+        final Map<String, String> broaderCodeMapping = codeImport.getBroaderCodeMapping();
+        final Map<UUID, String> pendingBroaderCodeValues = codeImport.getPendingBroaderCodeValues();
+        codeImport.getCodesAffected().forEach(code -> {
+            final String broaderCodeCodeValue = broaderCodeMapping != null ? broaderCodeMapping.get(code.getCodeValue().toLowerCase()) : null;
+            if (broaderCodeCodeValue != null) {
+                final Code broaderCode = codeImport.getCodeIndex().findByCodeValue(broaderCodeCodeValue);
+                if (broaderCode != null) {
+                    setBroaderCode(code, broaderCode, broaderCodeCodeValue);
+                    pendingBroaderCodeValues.remove(code.getId());
+                } else {
+                    pendingBroaderCodeValues.put(code.getId(), broaderCodeCodeValue);
+                }
+            }
+        });
     }
 
-    private Code findExistingCodeFromSet(final Set<Code> existingCodes,
-                                         final String codeValue) {
-        for (final Code code : existingCodes) {
-            if (code.getCodeValue().equalsIgnoreCase(codeValue)) {
-                return code;
+    /**
+     * Sets the hierarchy levels of the codes from their broader codes where these are loaded, so that codes imported
+     * after their broader codes are written with their final level. All levels are evaluated when the import finishes.
+     */
+    private void estimateHierarchyLevels(final Set<Code> codes) {
+        codes.forEach(code -> {
+            final Code broaderCode = code.getBroaderCode();
+            if (broaderCode == null) {
+                code.setHierarchyLevel(1);
+            } else if (Hibernate.isInitialized(broaderCode) && broaderCode.getHierarchyLevel() != null) {
+                code.setHierarchyLevel(broaderCode.getHierarchyLevel() + 1);
             }
+        });
+    }
+
+    /**
+     * Writes the collected codes with the bulk loader and returns them loaded into the persistence context, so that
+     * they are change logged and mapped for indexing like codes written through JPA.
+     */
+    private Set<Code> finishBulkLoad(final CodeImportContext codeImport) {
+        final CodeScheme codeScheme = codeImport.getCodeScheme();
+        codeBulkLoader.load(codeImport.getCodesAffected());
+        final Set<Code> codes = codeRepository.findByCodeSchemeId(codeScheme.getId());
+        entityChangeLogger.logCodesChange(codes);
+        codeSchemeDao.updateContentModified(codeScheme.getId());
+        codeSchemeRepository.save(codeScheme);
+        return codes;
+    }
+
+    /**
+     * Leaves bulk load mode by queuing the codes collected so far for insertion through JPA.
+     */
+    private void endBulkLoad(final CodeImportContext codeImport) {
+        codeImport.getCodeIndex().getCodes().forEach(this::persistIfNew);
+        codeImport.setBulkLoad(false);
+    }
+
+    /**
+     * Codes with extension member values, external references or a sub code scheme refer to other entities and are
+     * written through JPA.
+     */
+    private boolean isBulkLoadable(final CodeDTO codeDto) {
+        return (codeDto.getCodeExtensions() == null || codeDto.getCodeExtensions().isEmpty()) &&
+            (codeDto.getExternalReferences() == null || codeDto.getExternalReferences().isEmpty()) &&
+            codeDto.getSubCodeScheme() == null;
+    }
+
+    /**
+     * Queues new codes for insertion without the select that merging an entity with a pre-assigned id would cause.
+     * Codes loaded in the current transaction are written by dirty checking at flush.
+     */
+    private void persistIfNew(final Code code) {
+        if (!entityManager.contains(code)) {
+            entityManager.persist(code);
+        }
+    }
+
+    private String resolveContentHash(final CodeImportContext codeImport,
+                                      final CodeDTO codeDto) {
+        final Map<String, String> broaderCodeMapping = codeImport.getBroaderCodeMapping();
+        final String broaderCodeCodeValue = broaderCodeMapping != null && codeDto.getCodeValue() != null ? broaderCodeMapping.get(codeDto.getCodeValue().toLowerCase()) : null;
+        return ContentHashUtils.hashCodeContent(codeDto, broaderCodeCodeValue);
+    }
+
+    /**
+     * Returns the existing code if it was last written by an import of identical content, in which case the row can be
+     * skipped without persisting, change logging or indexing.
+     */
+    private Code findUnchangedCode(final CodeImportContext codeImport,
+                                   final CodeDTO codeDto,
+                                   final String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        final Code existingCode = codeImport.getCodeIndex().findByCodeValue(codeDto.getCodeValue());
+        if (existingCode != null && contentHash.equals(existingCode.getContentHash()) && (codeDto.getId() == null || codeDto.getId().equals(existingCode.getId()))) {
+            return existingCode;
         }
         return null;
     }
 
+    private void updateExternalReferences(final CodeScheme codeScheme,
+                                          final Code code,
+                                          final CodeDTO codeDto) {
+        final Set<ExternalReference> externalReferences = externalReferenceDao.updateExternalReferenceEntitiesFromDtos(codeDto.getExternalReferences(), codeScheme);
+        code.setExternalReferences(externalReferences);
+        code.setContentHash(null);
+    }
+
     @Transactional
     public Code createOrUpdateCode(final CodeScheme codeScheme,
                                    final CodeDTO codeDto,
-                                   final Set<Code> existingCodes,
+                                   final CodeIndex codeIndex,
                                    final Set<Code> codes,
-                                   final MutableInt nextOrder) {
-        validateCodeForCodeScheme(codeDto);
+                                   final OrderAllocator<UUID> orderAllocator) {
+        final Code codeWithId = findCodeWithId(codeDto.getId(), codeIndex);
+        validateCodeForCodeScheme(codeDto, codeWithId);
         final Code existingCode;
         if (codeDto.getId() != null) {
-            existingCode = codeRepository.findById(codeDto.getId());
+            existingCode = codeWithId;
             if (existingCode == null) {
-                checkForExistingCodeInCodeScheme(codeScheme, codeDto);
+                checkForExistingCodeInCodeScheme(codeScheme, codeDto, codeIndex);
             }
             validateCodeScheme(existingCode, codeScheme);
-        } else if (existingCodes != null) {
-            existingCode = findExistingCodeFromSet(existingCodes, codeDto.getCodeValue());
+        } else if (codeIndex != null) {
+            existingCode = codeIndex.findByCodeValue(codeDto.getCodeValue());
         } else {
             existingCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, codeDto.getCodeValue());
         }
@@ -314,9 +669,9 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
             if (codeStatusHasChanged(existingCode, codeDto) && !authorizationManager.isSuperUser()) {
                 validateCodeStatusChange(existingCode, codeDto);
             }
-            code = updateCode(codeScheme, existingCode, codeDto, codes, nextOrder);
+            code = updateCode(codeScheme, existingCode, codeDto, codeIndex, codes, orderAllocator);
         } else {
-            code = createCode(codeScheme, codeDto, codes, nextOrder);
+            code = createCode(codeScheme, codeDto, codeIndex, codes, orderAllocator);
         }
         return code;
     }
@@ -338,24 +693,34 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         }
     }
 
-    private void checkOrderAndShiftExistingCodeOrderIfInUse(final CodeScheme codeScheme,
-                                                            final CodeDTO fromCode,
-                                                            final Set<Code> codes) {
-        final Code code = codeRepository.findByCodeSchemeAndOrder(codeScheme, fromCode.getOrder());
-        if (code != null && !code.getCodeValue().equalsIgnoreCase(fromCode.getCodeValue())) {
-            code.setOrder(getNextOrderInSequence(codeScheme));
-            save(code);
-            codes.add(code);
+    private OrderAllocator<UUID> createOrderAllocator(final Set<Code> codes) {
+        return new OrderAllocator<>(codes, Code::getId, Code::getOrder);
+    }
+
+    private void assignOrder(final OrderAllocator<UUID> orderAllocator,
+                             final Code code,
+                             final int order,
+                             final CodeIndex codeIndex,
+                             final Set<Code> codes) {
+        final UUID shiftedCodeId = orderAllocator.assign(code.getId(), order);
+        code.setOrder(order);
+        if (shiftedCodeId != null) {
+            final Code shiftedCode = codeIndex != null ? codeIndex.findById(shiftedCodeId) : entityManager.find(Code.class, shiftedCodeId);
+            shiftedCode.setOrder(orderAllocator.getOrder(shiftedCodeId));
+            shiftedCode.setContentHash(null);
+            codes.add(shiftedCode);
         }
     }
 
     private Code updateCode(final CodeScheme codeScheme,
                             final Code existingCode,
                             final CodeDTO fromCode,
+                            final CodeIndex codeIndex,
                             final Set<Code> codes,
-                            final MutableInt nextOrder) {
+                            final OrderAllocator<UUID> orderAllocator) {
         final Date timeStamp = new Date(System.currentTimeMillis());
         final String uri = apiUtils.createCodeUri(codeScheme.getCodeRegistry(), codeScheme, existingCode);
+        existingCode.setContentHash(null);
         if (!Objects.equals(existingCode.getStatus(), fromCode.getStatus())) {
             if (!authorizationManager.isSuperUser() && Status.valueOf(existingCode.getStatus()).ordinal() >= Status.VALID.ordinal() && Status.valueOf(fromCode.getStatus()).ordinal() < Status.VALID.ordinal()) {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_STATUS_CHANGE_NOT_ALLOWED));
@@ -377,21 +742,12 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         }
         if (!Objects.equals(existingCode.getOrder(), fromCode.getOrder())) {
             if (fromCode.getOrder() != null) {
-                checkOrderAndShiftExistingCodeOrderIfInUse(codeScheme, fromCode, codes);
-                existingCode.setOrder(fromCode.getOrder());
-                if (fromCode.getOrder() > nextOrder.getValue()) {
-                    nextOrder.setValue(fromCode.getOrder() + 1);
-                }
-            } else if (fromCode.getOrder() == null && existingCode.getOrder() == null) {
-                final Integer next = getNextOrderInSequence(codeScheme);
-                existingCode.setOrder(next);
-                nextOrder.setValue(next + 1);
+                assignOrder(orderAllocator, existingCode, fromCode.getOrder(), codeIndex, codes);
             } else {
-                existingCode.setOrder(nextOrder.getValue());
-                nextOrder.setValue(nextOrder.getValue() + 1);
+                existingCode.setOrder(orderAllocator.assignNext(existingCode.getId()));
             }
         }
-        existingCode.setBroaderCode(resolveBroaderCode(fromCode, codeScheme));
+        existingCode.setBroaderCode(resolveBroaderCode(fromCode, codeScheme, codeIndex));
         mapPrefLabel(fromCode, existingCode, codeScheme);
         mapDescription(fromCode, existingCode, codeScheme);
         mapDefinition(fromCode, existingCode, codeScheme);
@@ -423,8 +779,9 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
 
     private Code createCode(final CodeScheme codeScheme,
                             final CodeDTO fromCode,
+                            final CodeIndex codeIndex,
                             final Set<Code> codes,
-                            final MutableInt nextOrder) {
+                            final OrderAllocator<UUID> orderAllocator) {
         final Date timeStamp = new Date(System.currentTimeMillis());
         final Code code = new Code();
         if (fromCode.getId() != null) {
@@ -441,21 +798,11 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         code.setCodeValue(codeValue);
         code.setShortName(fromCode.getShortName());
         code.setHierarchyLevel(fromCode.getHierarchyLevel());
-        code.setBroaderCode(resolveBroaderCode(fromCode, codeScheme));
+        code.setBroaderCode(resolveBroaderCode(fromCode, codeScheme, codeIndex));
         if (fromCode.getOrder() != null) {
-            checkOrderAndShiftExistingCodeOrderIfInUse(codeScheme, fromCode, codes);
-            final int order = fromCode.getOrder();
-            code.setOrder(order);
-            if (order >= nextOrder.getValue()) {
-                nextOrder.setValue(order + 1);
-            }
-        } else if (nextOrder == null) {
-            final int order = getNextOrderInSequence(codeScheme);
-            code.setOrder(order);
+            assignOrder(orderAllocator, code, fromCode.getOrder(), codeIndex, codes);
         } else {
-            final int order = nextOrder.getValue();
-            code.setOrder(order);
-            nextOrder.setValue(order + 1);
+            code.setOrder(orderAllocator.assignNext(code.getId()));
         }
         mapPrefLabel(fromCode, code, codeScheme);
         mapDescription(fromCode, code, codeScheme);
@@ -504,9 +851,17 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
     }
 
     private Code resolveBroaderCode(final CodeDTO fromCode,
-                                    final CodeScheme codeScheme) {
+                                    final CodeScheme codeScheme,
+                                    final CodeIndex codeIndex) {
         if (fromCode != null && fromCode.getBroaderCode() != null) {
-            final Code broaderCode = findById(fromCode.getBroaderCode().getId());
+            final CodeDTO broaderCodeDto = fromCode.getBroaderCode();
+            Code broaderCode = null;
+            if (codeIndex != null) {
+                broaderCode = broaderCodeDto.getId() != null ? codeIndex.findById(broaderCodeDto.getId()) : codeIndex.findByUri(broaderCodeDto.getUri());
+            }
+            if (broaderCode == null && broaderCodeDto.getId() != null) {
+                broaderCode = findById(broaderCodeDto.getId());
+            }
             if (broaderCode != null && broaderCode.getCodeScheme() != codeScheme) {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_EXISTING_CODE_MISMATCH));
             } else if (broaderCode == null) {
@@ -517,131 +872,67 @@ public class CodeDaoImpl extends AbstractDao implements CodeDao {
         return null;
     }
 
-    private void validateCodeForCodeScheme(final CodeDTO code) {
-        if (code.getId() != null) {
-            final Code existingCode = codeRepository.findById(code.getId());
-            if (existingCode != null && !existingCode.getCodeValue().equalsIgnoreCase(code.getCodeValue())) {
-                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_EXISTING_CODE_MISMATCH));
-            }
+    /**
+     * Resolves the code with the given id from the index, falling back to the repository for codes outside of it.
+     */
+    private Code findCodeWithId(final UUID id,
+                                final CodeIndex codeIndex) {
+        if (id == null) {
+            return null;
         }
+        final Code code = codeIndex != null ? codeIndex.findById(id) : null;
+        return code != null ? code : codeRepository.findById(id);
     }
 
-    private Integer getNextOrderInSequence(final CodeScheme codeScheme) {
-        final Integer maxOrder = codeRepository.getCodeMaxOrder(codeScheme.getId());
-        if (maxOrder == null) {
-            return 1;
-        } else {
-            return maxOrder + 1;
+    private void validateCodeForCodeScheme(final CodeDTO code,
+                                           final Code existingCode) {
+        if (existingCode != null && !existingCode.getCodeValue().equalsIgnoreCase(code.getCodeValue())) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_EXISTING_CODE_MISMATCH));
         }
     }
 
     private void checkForExistingCodeInCodeScheme(final CodeScheme codeScheme,
-                                                  final CodeDTO fromCode) {
-        final Code code = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, fromCode.getCodeValue());
+                                                  final CodeDTO fromCode,
+                                                  final CodeIndex codeIndex) {
+        final Code code = codeIndex != null ? codeIndex.findByCodeValue(fromCode.getCodeValue()) : codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, fromCode.getCodeValue());
         if (code != null) {
             throw new ExistingCodeException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
                 ERR_MSG_USER_ALREADY_EXISTING_CODE, code.getCodeValue()));
         }
     }
 
-    private void setBroaderCodesAndEvaluateHierarchyLevels(final Map<String, String> broaderCodeMapping,
-                                                           final Set<Code> codesAffected,
-                                                           final CodeScheme codeScheme) {
-        setBroaderCodes(broaderCodeMapping, codesAffected, codeScheme);
-        save(codesAffected);
-        evaluateAndSetHierarchyLevels(codesAffected, findByCodeSchemeId(codeScheme.getId()));
-    }
-
     private void setBroaderCodes(final Map<String, String> broaderCodeMapping,
                                  final Set<Code> affectedCodes,
-                                 final CodeScheme codeScheme) {
+                                 final CodeIndex codeIndex) {
         affectedCodes.forEach(code -> {
             final String broaderCodeCodeValue = broaderCodeMapping.get(code.getCodeValue().toLowerCase());
             if (broaderCodeCodeValue != null) {
-                final Code broaderCode = findByCodeSchemeAndCodeValue(codeScheme, broaderCodeCodeValue);
-                if (broaderCode == null) {
-                    throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_BROADER_CODE_DOES_NOT_EXIST, broaderCodeCodeValue));
-                } else if (broaderCode.getCodeValue().equalsIgnoreCase(code.getCodeValue())) {
-                    throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_BROADER_CODE_SELF_REFERENCE));
-                }
-                code.setBroaderCode(broaderCode);
+                setBroaderCode(code, codeIndex.findByCodeValue(broaderCodeCodeValue), broaderCodeCodeValue);
             }
         });
     }
 
-    public void evaluateAndSetHierarchyLevels(final Set<Code> codesToEvaluate,
-                                              final Set<Code> codeSchemeCodes) {
-        if (codeSchemeCodes != null && !codeSchemeCodes.isEmpty()) {
-            final Set<Code> allCodes = new HashSet<>(codeSchemeCodes);
-            final Map<Integer, Set<UUID>> hierarchyMapping = new HashMap<>();
-            int hierarchyLevel = 0;
-            while (!allCodes.isEmpty()) {
-                ++hierarchyLevel;
-                if (hierarchyLevel > MAX_LEVEL) {
-                    YtiCodeListException e = new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_HIERARCHY_MAXLEVEL_REACHED));
-                    LOG.error("Too many levels of hierarchical codes!", e);
-                    throw e;
-                }
-                evaluateAndSetHierarchyLevels(allCodes, codesToEvaluate, hierarchyMapping, hierarchyLevel);
-            }
+    private void setBroaderCode(final Code code,
+                                final Code broaderCode,
+                                final String broaderCodeCodeValue) {
+        if (broaderCode == null) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_BROADER_CODE_DOES_NOT_EXIST, broaderCodeCodeValue));
+        } else if (broaderCode.getCodeValue().equalsIgnoreCase(code.getCodeValue())) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_BROADER_CODE_SELF_REFERENCE));
         }
+        code.setBroaderCode(broaderCode);
     }
 
-    private void evaluateAndSetHierarchyLevels(final Set<Code> allCodes,
-                                               final Set<Code> codesAffected,
-                                               final Map<Integer, Set<UUID>> hierarchyMapping,
-                                               final Integer hierarchyLevel) {
-        final Set<Code> toRemove = new HashSet<>();
-        allCodes.forEach(code -> {
-            if ((hierarchyLevel == 1 && code.getBroaderCode() == null) ||
-                (hierarchyLevel > 1 && code.getBroaderCode() != null && code.getBroaderCode().getId() != null && hierarchyMapping.get(hierarchyLevel - 1) != null && hierarchyMapping.get(hierarchyLevel - 1).contains(code.getBroaderCode().getId()))) {
-                if (!hierarchyLevel.equals(code.getHierarchyLevel())) {
-                    boolean match = false;
-                    for (final Code codeOrig : codesAffected) {
-                        if (codeOrig.getId().equals(code.getId())) {
-                            match = true;
-                            codeOrig.setHierarchyLevel(hierarchyLevel);
-                        }
-                    }
-                    if (!match) {
-                        code.setHierarchyLevel(hierarchyLevel);
-                        codesAffected.add(code);
-                    }
-                }
-                if (hierarchyMapping.get(hierarchyLevel) != null) {
-                    hierarchyMapping.get(hierarchyLevel).add(code.getId());
-                } else {
-                    final Set<UUID> uuids = new HashSet<>();
-                    uuids.add(code.getId());
-                    hierarchyMapping.put(hierarchyLevel, uuids);
-                }
-                toRemove.add(code);
-            }
-        });
-        allCodes.removeAll(toRemove);
-    }
-
-    private void checkCodeHierarchyLevels(final Code code) {
-        final Set<Code> chainedCodes = new HashSet<>();
-        chainedCodes.add(code);
-        checkCodeHierarchyLevels(chainedCodes, code, 1);
-    }
-
-    private void checkCodeHierarchyLevels(final Set<Code> chainedCodes,
-                                          final Code code,
-                                          final int level) {
-        if (level > MAX_LEVEL) {
-            YtiCodeListException e = new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_HIERARCHY_MAXLEVEL_REACHED));
-            LOG.error("Too many levels of hierarchical codes!", e);
-            throw e;
-        }
-        final Code broaderCode = code.getBroaderCode();
-        if (broaderCode != null) {
-            if (chainedCodes.contains(broaderCode)) {
-                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_CYCLIC_DEPENDENCY_ISSUE));
-            }
-            chainedCodes.add(broaderCode);
-            checkCodeHierarchyLevels(chainedCodes, broaderCode, level + 1);
+    /**
+     * Evaluates the hierarchy levels of all codes of the code scheme and adds the codes whose level changed to the
+     * codes to evaluate.
+     */
+    public void evaluateAndSetHierarchyLevels(final Set<Code> codesToEvaluate,
+                                              final Set<Code> codeSchemeCodes) {
+        final Set<Code> codes = codeSchemeCodes != null ? new LinkedHashSet<>(codeSchemeCodes) : new LinkedHashSet<>();
+        codes.addAll(codesToEvaluate);
+        if (!codes.isEmpty()) {
+            codesToEvaluate.addAll(CodeHierarchyEvaluator.evaluate(codes));
         }
     }
 
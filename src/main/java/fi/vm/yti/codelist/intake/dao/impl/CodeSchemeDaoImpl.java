@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -141,6 +142,11 @@ public class CodeSchemeDaoImpl extends AbstractDao implements CodeSchemeDao {
         return codeSchemeRepository.findAll();
     }
 
+    @Transactional
+    public Stream<CodeScheme> streamAll() {
+        return codeSchemeRepository.streamAll();
+    }
+
     @Transactional
     public CodeScheme updateCodeSchemeFromDto(final CodeRegistry codeRegistry,
                                               final CodeSchemeDTO codeSchemeDto) {
@@ -1,6 +1,7 @@
 package fi.vm.yti.codelist.intake.dao.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -13,10 +14,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
-import org.springframework.data.domain.PageRequest;
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +31,7 @@ import fi.vm.yti.codelist.intake.api.ApiUtils;
 import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExtensionDao;
 import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.MemberSequenceAllocator;
 import fi.vm.yti.codelist.intake.dao.PropertyTypeDao;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.jpa.ExtensionRepository;
@@ -117,8 +120,17 @@ public class ExtensionDaoImpl extends AbstractDao implements ExtensionDao {
     }
 
     @Transactional
-    public Set<Extension> findAll(final PageRequest pageRequest) {
-        return new HashSet<>(extensionRepository.findAll(pageRequest).getContent());
+    public Stream<Extension> streamAll() {
+        return extensionRepository.streamAll();
+    }
+
+    @Transactional
+    public List<Extension> findPageAfter(final String uri,
+                                         final int pageSize) {
+        if (uri == null) {
+            return extensionRepository.findFirstPageOrderByUri(pageSize);
+        }
+        return extensionRepository.findPageAfterUri(uri, pageSize);
     }
 
     public Extension findById(final UUID id) {
@@ -339,14 +351,17 @@ public class ExtensionDaoImpl extends AbstractDao implements ExtensionDao {
             codeSchemesToGenerateAutoMembersFor.addAll(codeSchemesAlphabeticallyOrdered);
 
             codeSchemesToGenerateAutoMembersFor.forEach(cs -> populateMapWhereCodesAreOrderedBasedOnFlatOrderAscending(cs, codeSchemesWithCodesOrdered));
+            final MutableInt nextOrder = new MutableInt(memberDao.getNextOrderInSequence(extension));
+            final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, Collections.emptySet());
+            sequenceAllocator.reserve(codeSchemesWithCodesOrdered.values().stream().mapToInt(Set::size).sum());
 
             codeSchemesWithCodesOrdered.keySet().forEach(cs -> {
                 LinkedHashSet<Code> codesInCorrectOrder = codeSchemesWithCodesOrdered.get(cs);
                 codesInCorrectOrder.forEach(code -> {
                     Member m = new Member();
                     m.setId(UUID.randomUUID());
-                    m.setOrder(memberDao.getNextOrderInSequence(extension));
-                    m.setSequenceId(memberRepository.getNextMemberSequenceId("seq_for_ext_" + extension.getId().toString().replaceAll("-", "_")));
+                    m.setOrder(nextOrder.getAndIncrement());
+                    m.setSequenceId(sequenceAllocator.next());
                     m.setCode(code);
                     m.setRelatedMember(null);
                     m.setEndDate(code.getEndDate());
@@ -1,5 +1,7 @@
 package fi.vm.yti.codelist.intake.dao.impl;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
@@ -7,6 +9,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -15,8 +20,10 @@ import org.springframework.transaction.annotation.Transactional;
 import fi.vm.yti.codelist.common.dto.ErrorModel;
 import fi.vm.yti.codelist.common.dto.ExternalReferenceDTO;
 import fi.vm.yti.codelist.intake.dao.ExternalReferenceDao;
+import fi.vm.yti.codelist.intake.dao.ExternalReferenceIndex;
 import fi.vm.yti.codelist.intake.exception.JsonParsingException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.jpa.CodeRepository;
 import fi.vm.yti.codelist.intake.jpa.ExternalReferenceRepository;
 import fi.vm.yti.codelist.intake.jpa.PropertyTypeRepository;
 import fi.vm.yti.codelist.intake.language.LanguageService;
@@ -36,29 +43,37 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
 
     private final EntityChangeLogger entityChangeLogger;
     private final ExternalReferenceRepository externalReferenceRepository;
+    private final CodeRepository codeRepository;
     private final PropertyTypeRepository propertyTypeRepository;
     private final LanguageService languageService;
+    private final EntityManager entityManager;
 
     public ExternalReferenceDaoImpl(final EntityChangeLogger entityChangeLogger,
                                     final ExternalReferenceRepository externalReferenceRepository,
+                                    final CodeRepository codeRepository,
                                     final PropertyTypeRepository propertyTypeRepository,
-                                    final LanguageService languageService) {
+                                    final LanguageService languageService,
+                                    final EntityManager entityManager) {
         super(languageService);
         this.entityChangeLogger = entityChangeLogger;
         this.externalReferenceRepository = externalReferenceRepository;
+        this.codeRepository = codeRepository;
         this.propertyTypeRepository = propertyTypeRepository;
         this.languageService = languageService;
+        this.entityManager = entityManager;
     }
 
     @Transactional
     public void delete(final ExternalReference externalReference) {
         entityChangeLogger.logExternalReferenceChange(externalReference);
+        clearCodeContentHashes(Collections.singleton(externalReference));
         externalReferenceRepository.delete(externalReference);
     }
 
     @Transactional
     public void delete(final Set<ExternalReference> externalReferences) {
         externalReferences.forEach(entityChangeLogger::logExternalReferenceChange);
+        clearCodeContentHashes(externalReferences);
         externalReferenceRepository.deleteAll(externalReferences);
     }
 
@@ -66,12 +81,25 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
     public void save(final Set<ExternalReference> externalReferences) {
         externalReferenceRepository.saveAll(externalReferences);
         externalReferences.forEach(entityChangeLogger::logExternalReferenceChange);
+        clearCodeContentHashes(externalReferences);
     }
 
     @Transactional
     public void save(final ExternalReference externalReference) {
         externalReferenceRepository.save(externalReference);
         entityChangeLogger.logExternalReferenceChange(externalReference);
+        clearCodeContentHashes(Collections.singleton(externalReference));
+    }
+
+    /**
+     * Clears the content hashes of the codes linked to the given external references, so that the next import of those
+     * codes is not skipped as unchanged.
+     */
+    private void clearCodeContentHashes(final Collection<ExternalReference> externalReferences) {
+        final Set<UUID> externalReferenceIds = externalReferences.stream().map(ExternalReference::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!externalReferenceIds.isEmpty()) {
+            codeRepository.clearContentHashByExternalReferenceIds(externalReferenceIds);
+        }
     }
 
     @Transactional
@@ -88,6 +116,31 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
         return updateExternalReferenceEntitiesFromDtos(false, externalReferenceDtos, codeScheme);
     }
 
+    /**
+     * Updates the external references of an imported code. Content hashes are not cleared here, as codes imported with
+     * external references are never fingerprinted and codes with a content hash have no external references.
+     */
+    @Transactional
+    public Set<ExternalReference> updateExternalReferenceEntitiesFromDtos(final Set<ExternalReferenceDTO> externalReferenceDtos,
+                                                                          final CodeScheme codeScheme,
+                                                                          final ExternalReferenceIndex externalReferenceIndex) {
+        final Set<ExternalReference> externalReferences = new HashSet<>();
+        if (externalReferenceDtos != null) {
+            for (final ExternalReferenceDTO externalReferenceDto : externalReferenceDtos) {
+                final ExternalReference externalReference = createOrUpdateExternalReference(false, externalReferenceDto, codeScheme, externalReferenceIndex);
+                if (externalReference != null) {
+                    externalReferences.add(externalReference);
+                    if (!entityManager.contains(externalReference)) {
+                        entityManager.persist(externalReference);
+                    }
+                    entityChangeLogger.logExternalReferenceChange(externalReference);
+                    externalReferenceIndex.add(externalReference);
+                }
+            }
+        }
+        return externalReferences;
+    }
+
     @Transactional
     public Set<ExternalReference> updateExternalReferenceEntitiesFromDtos(final boolean internal,
                                                                           final Set<ExternalReferenceDTO> externalReferenceDtos,
@@ -105,6 +158,15 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
         return externalReferences;
     }
 
+    /**
+     * Loads the external references of the code scheme and the global external references for resolving the references
+     * of a whole import from memory.
+     */
+    @Transactional
+    public ExternalReferenceIndex prefetchExternalReferences(final CodeScheme codeScheme) {
+        return new ExternalReferenceIndex(externalReferenceRepository.findByParentCodeSchemeId(codeScheme.getId()), externalReferenceRepository.findByGlobalTrue());
+    }
+
     @Override
     public ExternalReference findById(UUID id) {
         return externalReferenceRepository.findById(id);
@@ -129,23 +191,30 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
     public ExternalReference createOrUpdateExternalReference(final boolean internal,
                                                              final ExternalReferenceDTO fromExternalReference,
                                                              final CodeScheme codeScheme) {
+        return createOrUpdateExternalReference(internal, fromExternalReference, codeScheme, null);
+    }
+
+    private ExternalReference createOrUpdateExternalReference(final boolean internal,
+                                                              final ExternalReferenceDTO fromExternalReference,
+                                                              final CodeScheme codeScheme,
+                                                              final ExternalReferenceIndex externalReferenceIndex) {
         final boolean isGlobal = fromExternalReference.getGlobal() != null ? fromExternalReference.getGlobal() : false;
         ExternalReference existingExternalReference;
         final String href = fromExternalReference.getHref();
         if (!internal && codeScheme != null && href != null) {
-            existingExternalReference = externalReferenceRepository.findByGlobalTrueAndHref(href);
+            existingExternalReference = findGlobalByHref(href, externalReferenceIndex);
             if (existingExternalReference != null) {
                 return existingExternalReference;
             }
         }
         if (codeScheme != null && fromExternalReference.getId() == null && fromExternalReference.getHref() != null && fromExternalReference.getPropertyType() == null) {
-            existingExternalReference = externalReferenceRepository.findByParentCodeSchemeIdAndHref(codeScheme.getId(), fromExternalReference.getHref());
+            existingExternalReference = findByCodeSchemeAndHref(codeScheme, fromExternalReference.getHref(), externalReferenceIndex);
             if (existingExternalReference != null) {
                 return existingExternalReference;
             }
         }
         if (codeScheme != null && fromExternalReference.getId() != null && fromExternalReference.getHref() == null && fromExternalReference.getPropertyType() == null) {
-            existingExternalReference = externalReferenceRepository.findByParentCodeSchemeIdAndId(codeScheme.getId(), fromExternalReference.getId());
+            existingExternalReference = findByCodeSchemeAndId(codeScheme, fromExternalReference.getId(), externalReferenceIndex);
             if (existingExternalReference != null) {
                 return existingExternalReference;
             }
@@ -156,11 +225,11 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
         }
 
         if (fromExternalReference.getId() != null && codeScheme != null && !isGlobal) {
-            existingExternalReference = externalReferenceRepository.findByIdAndParentCodeScheme(fromExternalReference.getId(), codeScheme);
+            existingExternalReference = findByCodeSchemeAndId(codeScheme, fromExternalReference.getId(), externalReferenceIndex);
         } else if (fromExternalReference.getId() != null && isGlobal) {
-            existingExternalReference = externalReferenceRepository.findById(fromExternalReference.getId());
+            existingExternalReference = findGlobalById(fromExternalReference.getId(), externalReferenceIndex);
         } else if (fromExternalReference.getHref() != null && codeScheme != null) {
-            existingExternalReference = externalReferenceRepository.findByParentCodeSchemeIdAndHref(codeScheme.getId(), fromExternalReference.getHref());
+            existingExternalReference = findByCodeSchemeAndHref(codeScheme, fromExternalReference.getHref(), externalReferenceIndex);
         } else {
             existingExternalReference = null;
         }
@@ -168,34 +237,89 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
         if (!internal && existingExternalReference != null && isGlobal) {
             externalReference = existingExternalReference;
         } else if (existingExternalReference != null) {
-            externalReference = updateExternalReference(existingExternalReference, fromExternalReference, codeScheme);
+            externalReference = updateExternalReference(existingExternalReference, fromExternalReference, codeScheme, externalReferenceIndex);
         } else if (!isGlobal) {
-            externalReference = createExternalReference(fromExternalReference, codeScheme);
+            externalReference = createExternalReference(fromExternalReference, codeScheme, externalReferenceIndex);
         } else if (codeScheme == null) {
-            externalReference = createExternalReference(fromExternalReference, null);
+            externalReference = createExternalReference(fromExternalReference, null, externalReferenceIndex);
         } else {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
         }
         return externalReference;
     }
 
-    private ExternalReference updateExternalReference(final ExternalReference existingExternalReference,
-                                                      final ExternalReferenceDTO fromExternalReference,
-                                                      final CodeScheme parentCodeScheme) {
-        if (!Objects.equals(existingExternalReference.getParentCodeScheme(), parentCodeScheme)) {
-            existingExternalReference.setParentCodeScheme(parentCodeScheme);
-            existingExternalReference.setGlobal(parentCodeScheme == null);
+    private ExternalReference findGlobalByHref(final String href,
+                                               final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            return externalReferenceIndex.findGlobalByHref(href);
+        }
+        return externalReferenceRepository.findByGlobalTrueAndHref(href);
+    }
+
+    private ExternalReference findGlobalById(final UUID id,
+                                             final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            final ExternalReference externalReference = externalReferenceIndex.findGlobalById(id);
+            if (externalReference != null) {
+                return externalReference;
+            }
         }
+        return externalReferenceRepository.findById(id);
+    }
+
+    private ExternalReference findByCodeSchemeAndHref(final CodeScheme codeScheme,
+                                                      final String href,
+                                                      final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            return externalReferenceIndex.findByHref(href);
+        }
+        return externalReferenceRepository.findByParentCodeSchemeIdAndHref(codeScheme.getId(), href);
+    }
+
+    private ExternalReference findByCodeSchemeAndId(final CodeScheme codeScheme,
+                                                    final UUID id,
+                                                    final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            return externalReferenceIndex.findById(id);
+        }
+        return externalReferenceRepository.findByParentCodeSchemeIdAndId(codeScheme.getId(), id);
+    }
+
+    private PropertyType resolvePropertyType(final ExternalReferenceDTO fromExternalReference,
+                                             final ExternalReferenceIndex externalReferenceIndex) {
         PropertyType propertyType = null;
         if (fromExternalReference.getPropertyType() != null) {
-            propertyType = propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, fromExternalReference.getPropertyType().getLocalName());
+            propertyType = findPropertyType(fromExternalReference.getPropertyType().getLocalName(), externalReferenceIndex);
             if (propertyType == null) {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_EXTERNALREFERENCE_PROPERTYTYPE_NOT_FOUND));
             }
         }
         if (propertyType == null) {
-            propertyType = propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, EXTERNALREFERENCE_LINK_TYPE);
+            propertyType = findPropertyType(EXTERNALREFERENCE_LINK_TYPE, externalReferenceIndex);
+        }
+        return propertyType;
+    }
+
+    private PropertyType findPropertyType(final String localName,
+                                          final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            return externalReferenceIndex.getPropertyTypesByLocalName().computeIfAbsent(localName, name -> propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, name));
+        }
+        return propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, localName);
+    }
+
+    private ExternalReference updateExternalReference(final ExternalReference existingExternalReference,
+                                                      final ExternalReferenceDTO fromExternalReference,
+                                                      final CodeScheme parentCodeScheme,
+                                                      final ExternalReferenceIndex externalReferenceIndex) {
+        if (externalReferenceIndex != null) {
+            externalReferenceIndex.remove(existingExternalReference);
+        }
+        if (!Objects.equals(existingExternalReference.getParentCodeScheme(), parentCodeScheme)) {
+            existingExternalReference.setParentCodeScheme(parentCodeScheme);
+            existingExternalReference.setGlobal(parentCodeScheme == null);
         }
+        final PropertyType propertyType = resolvePropertyType(fromExternalReference, externalReferenceIndex);
         if (!Objects.equals(existingExternalReference.getPropertyType(), propertyType)) {
             existingExternalReference.setPropertyType(propertyType);
         }
@@ -219,11 +343,15 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
             }
         }
         existingExternalReference.setModified(new Date(System.currentTimeMillis()));
+        if (externalReferenceIndex != null) {
+            externalReferenceIndex.add(existingExternalReference);
+        }
         return existingExternalReference;
     }
 
     private ExternalReference createExternalReference(final ExternalReferenceDTO fromExternalReference,
-                                                      final CodeScheme parentCodeScheme) {
+                                                      final CodeScheme parentCodeScheme,
+                                                      final ExternalReferenceIndex externalReferenceIndex) {
         final ExternalReference externalReference = new ExternalReference();
         if (fromExternalReference.getId() != null) {
             externalReference.setId(fromExternalReference.getId());
@@ -234,17 +362,7 @@ public class ExternalReferenceDaoImpl extends AbstractDao implements ExternalRef
         externalReference.setParentCodeScheme(parentCodeScheme);
         externalReference.setHref(fromExternalReference.getHref());
         externalReference.setGlobal(parentCodeScheme == null);
-        PropertyType propertyType = null;
-        if (fromExternalReference.getPropertyType() != null) {
-            propertyType = propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, fromExternalReference.getPropertyType().getLocalName());
-            if (propertyType == null) {
-                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_EXTERNALREFERENCE_PROPERTYTYPE_NOT_FOUND));
-            }
-        }
-        if (propertyType == null) {
-            propertyType = propertyTypeRepository.findByContextAndLocalName(CONTEXT_EXTERNALREFERENCE, EXTERNALREFERENCE_LINK_TYPE);
-        }
-        externalReference.setPropertyType(propertyType);
+        externalReference.setPropertyType(resolvePropertyType(fromExternalReference, externalReferenceIndex));
         mapTitle(fromExternalReference, externalReference);
         mapDescription(fromExternalReference, externalReference);
         final Date timeStamp = new Date(System.currentTimeMillis());
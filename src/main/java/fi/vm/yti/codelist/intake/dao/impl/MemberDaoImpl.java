@@ -12,13 +12,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,7 +36,10 @@ import fi.vm.yti.codelist.intake.dao.CodeDao;
 import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExtensionDao;
 import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.MemberIndex;
+import fi.vm.yti.codelist.intake.dao.MemberSequenceAllocator;
 import fi.vm.yti.codelist.intake.dao.MemberValueDao;
+import fi.vm.yti.codelist.intake.dao.OrderAllocator;
 import fi.vm.yti.codelist.intake.dao.ValueTypeDao;
 import fi.vm.yti.codelist.intake.exception.NotFoundException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
@@ -55,7 +60,6 @@ import static fi.vm.yti.codelist.intake.util.EncodingUtils.urlEncodeCodeValue;
 public class MemberDaoImpl extends AbstractDao implements MemberDao {
 
     private static final String LOCALNAME_CROSS_REFERENCE_LIST = "crossReferenceList";
-    private static final String PREFIX_FOR_EXTENSION_SEQUENCE_NAME = "seq_for_ext_";
     private static final int MAX_LEVEL = 15;
     private static final int MAX_LEVEL_FOR_CROSS_REFERENCE_LIST = 2;
     private static final String CODE_PREFIX = "code:";
@@ -71,6 +75,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     private final ApiUtils apiUtils;
     private final ExtensionDao extensionDao;
     private final ValueTypeDao valueTypeDao;
+    private final EntityManager entityManager;
 
     @Inject
     public MemberDaoImpl(final EntityChangeLogger entityChangeLogger,
@@ -82,7 +87,8 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                          final MemberValueDao memberValueDao,
                          final ApiUtils apiUtils,
                          @Lazy final ExtensionDao extensionDao,
-                         final ValueTypeDao valueTypeDao) {
+                         final ValueTypeDao valueTypeDao,
+                         final EntityManager entityManager) {
         super(languageService);
         this.entityChangeLogger = entityChangeLogger;
         this.memberRepository = memberRepository;
@@ -94,6 +100,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         this.apiUtils = apiUtils;
         this.extensionDao = extensionDao;
         this.valueTypeDao = valueTypeDao;
+        this.entityManager = entityManager;
     }
 
     @Transactional
@@ -139,8 +146,17 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     @Transactional
-    public Set<Member> findAll(final PageRequest pageRequest) {
-        return new HashSet<>(memberRepository.findAll(pageRequest).getContent());
+    public Stream<Member> streamAll() {
+        return memberRepository.streamAll();
+    }
+
+    @Transactional
+    public List<Member> findPageAfter(final String uri,
+                                      final int pageSize) {
+        if (uri == null) {
+            return memberRepository.findFirstPageOrderByUri(pageSize);
+        }
+        return memberRepository.findPageAfterUri(uri, pageSize);
     }
 
     @Transactional
@@ -193,47 +209,73 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                                                     final Set<MemberDTO> memberDtos) {
         final Map<String, ValueType> valueTypeMap = getValueTypeMap();
         final Set<Member> affectedMembers = new HashSet<>();
-        final Map<String, Code> parentCodeSchemeCodesMap = new HashMap<>();
         final CodeScheme parentCodeScheme = extension.getParentCodeScheme();
-        final Set<Code> parentCodeSchemeCodes = codeDao.findByCodeSchemeId(parentCodeScheme.getId());
-        parentCodeSchemeCodes.forEach(code -> parentCodeSchemeCodesMap.put(code.getUri(), code));
         final Set<CodeScheme> allowedCodeSchemes = gatherAllowedCodeSchemes(parentCodeScheme, extension);
         final Set<Member> membersToBeStored = new HashSet<>();
-        final Integer origNextSequenceId = getNextValueForMemberSequence(extension);
-        final MutableInt nextSequenceId = new MutableInt(origNextSequenceId);
         if (memberDtos != null) {
-            final Set<Member> existingMembers = findByExtensionId(extension.getId());
+            final Set<Member> existingMembers = memberRepository.findWithMemberValuesByExtensionId(extension.getId());
+            final MemberIndex memberIndex = new MemberIndex(parentCodeScheme.getId(), existingMembers);
+            final Map<String, Code> codesByUri = resolveCodesByUri(parentCodeScheme, memberDtos);
+            final OrderAllocator<Member> orderAllocator = new OrderAllocator<>(existingMembers, Function.identity(), Member::getOrder);
+            final MemberSequenceAllocator sequenceAllocator = beginSequenceAllocation(extension, existingMembers, memberIndex, memberDtos);
             for (final MemberDTO memberDto : memberDtos) {
-                final Member member = createOrUpdateMember(extension, existingMembers, parentCodeSchemeCodesMap, allowedCodeSchemes, memberDto, affectedMembers, nextSequenceId);
-                existingMembers.add(member);
+                final Member member = createOrUpdateMember(extension, memberIndex, codesByUri, allowedCodeSchemes, memberDto, affectedMembers, sequenceAllocator, orderAllocator);
+                memberIndex.add(member);
                 memberDto.setId(member.getId());
                 affectedMembers.add(member);
                 updateMemberMemberValues(extension, member, memberDto, valueTypeMap);
                 membersToBeStored.add(member);
-                resolveAffectedRelatedMembers(existingMembers, affectedMembers, member.getId());
             }
+            membersToBeStored.forEach(this::persistIfNew);
             save(membersToBeStored);
-            resolveMemberRelations(extension, existingMembers, affectedMembers, memberDtos);
+            resolveMemberRelations(extension, memberIndex, affectedMembers, memberDtos);
+            sequenceAllocator.finish();
         }
         if (!affectedMembers.isEmpty()) {
             codeSchemeDao.updateContentModified(extension.getParentCodeScheme().getId());
         }
-        if (nextSequenceId.toInteger() >= origNextSequenceId) {
-            setMemberSequence(extension, nextSequenceId.toInteger() - 1);
-        }
         return affectedMembers;
     }
 
-    private void resolveAffectedRelatedMembers(final Set<Member> existingMembers,
-                                               final Set<Member> affectedMembers,
-                                               final UUID memberId) {
-        final Set<Member> relatedMembers = new HashSet<>();
-        existingMembers.forEach(member -> {
-            if (member.getId().equals(memberId)) {
-                relatedMembers.add(member);
+    /**
+     * Reserves the sequence ids for the members that are created without an explicit sequence id in one block. The
+     * explicit sequence ids of the import are taken out of use first, so that no created member is given one of them.
+     */
+    private MemberSequenceAllocator beginSequenceAllocation(final Extension extension,
+                                                            final Set<Member> existingMembers,
+                                                            final MemberIndex memberIndex,
+                                                            final Set<MemberDTO> memberDtos) {
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, existingMembers);
+        int newMemberCount = 0;
+        for (final MemberDTO memberDto : memberDtos) {
+            if (memberDto.getSequenceId() != null) {
+                sequenceAllocator.use(memberDto.getSequenceId());
+            } else if (memberIndex.findById(memberDto.getId()) == null) {
+                newMemberCount++;
+            }
+        }
+        sequenceAllocator.reserve(newMemberCount);
+        return sequenceAllocator;
+    }
+
+    /**
+     * Resolves the codes referred to by the members with one query for the parent code scheme and one for the codes
+     * of the other code schemes, keyed by case insensitive URI.
+     */
+    private Map<String, Code> resolveCodesByUri(final CodeScheme parentCodeScheme,
+                                                final Set<MemberDTO> memberDtos) {
+        final Map<String, Code> codesByUri = new HashMap<>();
+        codeDao.findByCodeSchemeId(parentCodeScheme.getId()).forEach(code -> codesByUri.put(MemberIndex.normalizeUri(code.getUri()), code));
+        final Set<String> otherCodeUris = new HashSet<>();
+        memberDtos.forEach(memberDto -> {
+            final CodeDTO fromCode = memberDto.getCode();
+            final String codeUri = fromCode != null ? resolveCodeUri(parentCodeScheme, fromCode) : null;
+            if (codeUri != null && !codeUri.isEmpty() && !codesByUri.containsKey(MemberIndex.normalizeUri(codeUri))) {
+                otherCodeUris.add(codeUri);
             }
         });
-        affectedMembers.addAll(relatedMembers);
+        codeDao.findByUrisIgnoreCase(otherCodeUris).forEach(code -> codesByUri.put(MemberIndex.normalizeUri(code.getUri()), code));
+        return codesByUri;
     }
 
     private void updateMemberMemberValues(final Extension extension,
@@ -291,28 +333,26 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         }
     }
 
-    private void checkDuplicateCode(final Set<Member> members,
+    private void checkDuplicateCode(final MemberIndex memberIndex,
                                     final String identifier) {
-        boolean found = false;
-        for (final Member member : members) {
-            final Code code = member.getCode();
-            if (code == null) {
-                throw new NotFoundException();
-            }
-            if ((identifier.startsWith(uriSuomiProperties.getUriSuomiAddress()) && code.getUri().equalsIgnoreCase(identifier)) ||
-                (code.getCodeValue().equalsIgnoreCase(identifier) && code.getCodeScheme().getId().equals(member.getExtension().getParentCodeScheme().getId()))) {
-                if (found) {
-                    throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBERS_HAVE_DUPLICATE_CODE_USE_MEMBER_ID));
-                }
-                found = true;
-            }
+        if (memberIndex.hasMembersWithoutCode()) {
+            throw new NotFoundException();
+        }
+        final Set<Member> members = new HashSet<>(memberIndex.findByCodeValue(identifier));
+        if (identifier.startsWith(uriSuomiProperties.getUriSuomiAddress())) {
+            members.addAll(memberIndex.findByCodeUri(identifier));
+        }
+        if (members.size() > 1) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBERS_HAVE_DUPLICATE_CODE_USE_MEMBER_ID));
         }
     }
 
     private void linkMemberWithId(final Extension extension,
+                                  final MemberIndex memberIndex,
                                   final Member member,
                                   final UUID id) {
-        final Member relatedMember = findById(id);
+        final Member indexedMember = memberIndex.findById(id);
+        final Member relatedMember = indexedMember != null ? indexedMember : findById(id);
         if (relatedMember != null) {
             if (extension.getId().equals(relatedMember.getExtension().getId())) {
                 linkMembers(member, relatedMember, id.toString());
@@ -335,7 +375,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     private Set<Member> resolveMemberRelation(final Extension extension,
-                                              final Set<Member> existingMembers,
+                                              final MemberIndex memberIndex,
                                               final Member member,
                                               final MemberDTO fromMember) {
         final MemberDTO relatedMember = fromMember.getRelatedMember();
@@ -347,7 +387,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         }
         final Set<Member> linkedMembers = new HashSet<>();
         if (relatedMember != null && relatedMember.getId() != null) {
-            linkMemberWithId(extension, member, relatedMember.getId());
+            linkMemberWithId(extension, memberIndex, member, relatedMember.getId());
             linkedMembers.add(member);
         } else if (relatedMember != null && relatedMember.getCode() != null) {
             final String memberRelationUriIdentifier = relatedMember.getCode().getUri();
@@ -357,48 +397,34 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                 uuid = getUuidFromString(memberCodeCodeValueIdentifier);
             }
             if (uuid != null) {
-                linkMemberWithId(extension, member, uuid);
+                linkMemberWithId(extension, memberIndex, member, uuid);
                 linkedMembers.add(member);
             } else if (memberRelationUriIdentifier != null && memberRelationUriIdentifier.startsWith(extension.getUri())) {
-                boolean found = false;
-                for (final Member existingMember : existingMembers) {
-                    if (existingMember.getUri().equalsIgnoreCase(memberRelationUriIdentifier)) {
-                        linkMembers(member, existingMember, memberRelationUriIdentifier);
-                        linkedMembers.add(member);
-                        found = true;
-                    }
-                }
-                if (!found) {
+                final Member existingMember = memberIndex.findByUri(memberRelationUriIdentifier);
+                if (existingMember != null) {
+                    linkMembers(member, existingMember, memberRelationUriIdentifier);
+                    linkedMembers.add(member);
+                } else {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBER_NOT_FOUND_WITH_URI, memberRelationUriIdentifier));
                 }
             } else if (memberRelationUriIdentifier != null && memberRelationUriIdentifier.startsWith(uriSuomiProperties.getUriSuomiAddress())) {
-                boolean found = false;
-                for (final Member existingMember : existingMembers) {
-                    final Code existingMemberCode = existingMember.getCode();
-                    if (memberRelationUriIdentifier.startsWith(uriSuomiProperties.getUriSuomiAddress()) && existingMemberCode != null && existingMemberCode.getUri().equalsIgnoreCase(memberRelationUriIdentifier)) {
-                        checkDuplicateCode(existingMembers, memberRelationUriIdentifier);
-                        linkMembers(member, existingMember, memberRelationUriIdentifier);
-                        linkedMembers.add(member);
-                        found = true;
-                    }
-                }
-                if (!found) {
+                final Set<Member> codeMembers = memberIndex.findByCodeUri(memberRelationUriIdentifier);
+                if (!codeMembers.isEmpty()) {
+                    checkDuplicateCode(memberIndex, memberRelationUriIdentifier);
+                    linkMembers(member, codeMembers.iterator().next(), memberRelationUriIdentifier);
+                    linkedMembers.add(member);
+                } else {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBER_CODE_NOT_FOUND_WITH_IDENTIFIER, memberRelationUriIdentifier));
                 }
             } else if (memberCodeCodeValueIdentifier != null && !memberCodeCodeValueIdentifier.isEmpty()) {
                 if (memberCodeCodeValueIdentifier.startsWith(CODE_PREFIX) && memberCodeCodeValueIdentifier.length() > CODE_PREFIX.length()) {
                     final String codeValue = memberCodeCodeValueIdentifier.substring(CODE_PREFIX.length());
-                    boolean found = false;
-                    for (final Member extensionMember : existingMembers) {
-                        final Code existingMemberCode = extensionMember.getCode();
-                        if (existingMemberCode != null && existingMemberCode.getCodeValue().equalsIgnoreCase(codeValue) && existingMemberCode.getCodeScheme().getId().equals(extension.getParentCodeScheme().getId())) {
-                            checkDuplicateCode(existingMembers, codeValue);
-                            linkMembers(member, extensionMember, codeValue);
-                            linkedMembers.add(member);
-                            found = true;
-                        }
-                    }
-                    if (!found) {
+                    final Set<Member> codeMembers = memberIndex.findByCodeValue(codeValue);
+                    if (!codeMembers.isEmpty()) {
+                        checkDuplicateCode(memberIndex, codeValue);
+                        linkMembers(member, codeMembers.iterator().next(), codeValue);
+                        linkedMembers.add(member);
+                    } else {
                         throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBER_CODE_NOT_FOUND_WITH_IDENTIFIER, memberCodeCodeValueIdentifier));
                     }
                 } else {
@@ -409,15 +435,11 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                         memberSequenceId = memberCodeCodeValueIdentifier;
                     }
                     if (isStringInt(memberSequenceId)) {
-                        boolean found = false;
-                        for (final Member existingMember : existingMembers) {
-                            if (existingMember.getSequenceId().equals(Integer.parseInt(memberSequenceId))) {
-                                linkMembers(member, existingMember, memberRelationUriIdentifier);
-                                linkedMembers.add(member);
-                                found = true;
-                            }
-                        }
-                        if (!found) {
+                        final Member existingMember = memberIndex.findBySequenceId(Integer.parseInt(memberSequenceId));
+                        if (existingMember != null) {
+                            linkMembers(member, existingMember, memberRelationUriIdentifier);
+                            linkedMembers.add(member);
+                        } else {
                             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBER_NOT_FOUND_WITH_MEMBER_ID, memberCodeCodeValueIdentifier));
                         }
                     } else {
@@ -473,19 +495,16 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     private void resolveMemberRelations(final Extension extension,
-                                        final Set<Member> existingMembers,
+                                        final MemberIndex memberIndex,
                                         final Set<Member> members,
                                         final Set<MemberDTO> fromMembers) {
         final Set<Member> linkedMembersToBeStored = new HashSet<>();
+        final Map<UUID, Member> membersById = new HashMap<>();
+        members.forEach(mem -> membersById.put(mem.getId(), mem));
         fromMembers.forEach(fromMember -> {
-            Member member = null;
-            for (final Member mem : members) {
-                if (fromMember.getId().equals(mem.getId())) {
-                    member = mem;
-                }
-            }
+            final Member member = membersById.get(fromMember.getId());
             if (member != null) {
-                final Set<Member> linkedMembers = resolveMemberRelation(extension, existingMembers, member, fromMember);
+                final Set<Member> linkedMembers = resolveMemberRelation(extension, memberIndex, member, fromMember);
                 if (!linkedMembers.isEmpty()) {
                     linkedMembersToBeStored.addAll(linkedMembers);
                 }
@@ -496,31 +515,30 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
 
     @Transactional
     public Member createOrUpdateMember(final Extension extension,
-                                       final Set<Member> existingMembers,
+                                       final MemberIndex memberIndex,
                                        final Map<String, Code> codesMap,
                                        final Set<CodeScheme> allowedCodeSchemes,
                                        final MemberDTO fromMember,
                                        final Set<Member> members,
-                                       final MutableInt nextSequenceId) {
+                                       final MemberSequenceAllocator sequenceAllocator,
+                                       final OrderAllocator<Member> orderAllocator) {
         Member existingMember = null;
         if (extension != null) {
             if (fromMember.getId() != null || fromMember.getSequenceId() != null) {
-                for (final Member member : existingMembers) {
-                    if (member.getId().equals(fromMember.getId()) || member.getSequenceId().equals(fromMember.getSequenceId())) {
-                        existingMember = member;
-                        break;
-                    }
+                existingMember = memberIndex.findById(fromMember.getId());
+                if (existingMember == null) {
+                    existingMember = memberIndex.findBySequenceId(fromMember.getSequenceId());
                 }
                 if (existingMember != null) {
                     validateExtensionMatch(existingMember, extension);
                 }
             }
-            validateMultipleLinkedCodesForCodeExtensionMembers(extension, existingMembers, existingMember, fromMember);
+            validateMultipleLinkedCodesForCodeExtensionMembers(extension, memberIndex, existingMember, fromMember);
             final Member member;
             if (existingMember != null) {
-                member = updateMember(extension.getParentCodeScheme(), existingMembers, codesMap, allowedCodeSchemes, existingMember, fromMember, members);
+                member = updateMember(extension.getParentCodeScheme(), codesMap, allowedCodeSchemes, existingMember, fromMember, members, orderAllocator);
             } else {
-                member = createMember(extension.getParentCodeScheme(), existingMembers, codesMap, allowedCodeSchemes, extension, fromMember, members, nextSequenceId);
+                member = createMember(extension.getParentCodeScheme(), codesMap, allowedCodeSchemes, extension, fromMember, members, sequenceAllocator, orderAllocator);
             }
             return member;
         } else {
@@ -529,20 +547,19 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     private void validateMultipleLinkedCodesForCodeExtensionMembers(final Extension extension,
-                                                                    final Set<Member> existingMembers,
+                                                                    final MemberIndex memberIndex,
                                                                     final Member existingMember,
                                                                     final MemberDTO fromMember) {
-        if (CODE_EXTENSION.equalsIgnoreCase(extension.getPropertyType().getContext())) {
-            for (final Member member : existingMembers) {
-                if (existingMember != null && (existingMember.getSequenceId().equals(member.getSequenceId()) || existingMember.getId().equals(member.getId()))) {
-                    continue;
-                }
-                final Code code = member.getCode();
-                final String uriIdentifier = fromMember.getCode().getUri();
-                final String codeValueIdentifier = fromMember.getCode().getCodeValue();
-                if ((fromMember.getCode().getId() != null && fromMember.getCode().getId().equals(code.getId())) ||
-                    (uriIdentifier != null && uriIdentifier.startsWith(uriSuomiProperties.getUriSuomiAddress()) && code.getUri().equalsIgnoreCase(uriIdentifier)) ||
-                    (code.getCodeScheme().getId().equals(extension.getParentCodeScheme().getId()) && code.getCodeValue().equalsIgnoreCase(codeValueIdentifier))) {
+        if (CODE_EXTENSION.equalsIgnoreCase(extension.getPropertyType().getContext()) && fromMember.getCode() != null) {
+            final CodeDTO fromCode = fromMember.getCode();
+            final Set<Member> codeMembers = new HashSet<>(memberIndex.findByCodeId(fromCode.getId()));
+            final String uriIdentifier = fromCode.getUri();
+            if (uriIdentifier != null && uriIdentifier.startsWith(uriSuomiProperties.getUriSuomiAddress())) {
+                codeMembers.addAll(memberIndex.findByCodeUri(uriIdentifier));
+            }
+            codeMembers.addAll(memberIndex.findByCodeValue(fromCode.getCodeValue()));
+            for (final Member member : codeMembers) {
+                if (existingMember == null || !(existingMember.getSequenceId().equals(member.getSequenceId()) || existingMember.getId().equals(member.getId()))) {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODE_EXTENSION_MULTIPLE_MEMBERS));
                 }
             }
@@ -550,18 +567,17 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     private Member updateMember(final CodeScheme codeScheme,
-                                final Set<Member> existingMembers,
                                 final Map<String, Code> codesMap,
                                 final Set<CodeScheme> allowedCodeSchemes,
                                 final Member existingMember,
                                 final MemberDTO fromMember,
-                                final Set<Member> affectedMembers) {
+                                final Set<Member> affectedMembers,
+                                final OrderAllocator<Member> orderAllocator) {
         mapPrefLabel(fromMember, existingMember, codeScheme);
         if (fromMember.getOrder() != null && !Objects.equals(existingMember.getOrder(), fromMember.getOrder())) {
-            checkOrderAndShiftExistingMemberOrderIfInUse(existingMembers, fromMember.getOrder(), affectedMembers);
-            existingMember.setOrder(fromMember.getOrder());
+            assignOrder(orderAllocator, existingMember, fromMember.getOrder(), affectedMembers);
         } else if (existingMember.getOrder() == null && fromMember.getOrder() == null) {
-            existingMember.setOrder(findNextOrderFromMembers(existingMembers));
+            existingMember.setOrder(orderAllocator.assignNext(existingMember));
         }
         if (fromMember.getCode() != null) {
             final Code code = findCodeUsingCodeValueOrUri(codeScheme, codesMap, allowedCodeSchemes, fromMember);
@@ -582,13 +598,13 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
     }
 
     private Member createMember(final CodeScheme codeScheme,
-                                final Set<Member> existingMembers,
                                 final Map<String, Code> codesMap,
                                 final Set<CodeScheme> allowedCodeSchemes,
                                 final Extension extension,
                                 final MemberDTO fromMember,
                                 final Set<Member> affectedMembers,
-                                final MutableInt nextSequenceId) {
+                                final MemberSequenceAllocator sequenceAllocator,
+                                final OrderAllocator<Member> orderAllocator) {
         final Member member = new Member();
         if (fromMember.getId() != null) {
             member.setId(fromMember.getId());
@@ -598,10 +614,9 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         }
         mapPrefLabel(fromMember, member, codeScheme);
         if (fromMember.getOrder() != null) {
-            checkOrderAndShiftExistingMemberOrderIfInUse(existingMembers, fromMember.getOrder(), affectedMembers);
-            member.setOrder(fromMember.getOrder());
+            assignOrder(orderAllocator, member, fromMember.getOrder(), affectedMembers);
         } else {
-            member.setOrder(findNextOrderFromMembers(existingMembers));
+            member.setOrder(orderAllocator.assignNext(member));
         }
         if (fromMember.getCode() != null) {
             member.setCode(findCodeUsingCodeValueOrUri(codeScheme, codesMap, allowedCodeSchemes, fromMember));
@@ -612,40 +627,20 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         final Date timeStamp = new Date(System.currentTimeMillis());
         member.setCreated(timeStamp);
         member.setModified(timeStamp);
-        member.setSequenceId(resolveSequenceValue(fromMember, nextSequenceId));
+        member.setSequenceId(fromMember.getSequenceId() != null ? fromMember.getSequenceId() : sequenceAllocator.next());
         member.setUri(apiUtils.createMemberUri(member));
         return member;
     }
 
-    private Integer resolveSequenceValue(final MemberDTO fromMember,
-                                         final MutableInt nextSequenceId) {
-        final Integer fromMemberSequenceId = fromMember.getSequenceId();
-        if (fromMemberSequenceId != null) {
-            if (fromMemberSequenceId >= nextSequenceId.toInteger()) {
-                nextSequenceId.setValue(fromMemberSequenceId + 1);
-            }
-            return fromMemberSequenceId;
-        } else {
-            final Integer nextSeqId = nextSequenceId.toInteger();
-            nextSequenceId.setValue(nextSeqId + 1);
-            return nextSeqId;
+    /**
+     * See {@link CodeDaoImpl}, members created from DTOs carry their id already and are persisted instead of merged.
+     */
+    private void persistIfNew(final Member member) {
+        if (!entityManager.contains(member)) {
+            entityManager.persist(member);
         }
     }
 
-    private String constructSequenceName(final Extension extension) {
-        final String postFixPartOfTheSequenceName = extension.getId().toString().replaceAll("-", "_");
-        return PREFIX_FOR_EXTENSION_SEQUENCE_NAME + postFixPartOfTheSequenceName;
-    }
-
-    private Integer getNextValueForMemberSequence(final Extension extension) {
-        return memberRepository.getNextMemberSequenceId(constructSequenceName(extension));
-    }
-
-    private Integer setMemberSequence(final Extension extension,
-                                      final Integer value) {
-        return memberRepository.setMemberSequenceId(constructSequenceName(extension), value);
-    }
-
     private void validateExtensionMatch(final Member member,
                                         final Extension extension) {
         if (member.getExtension() != extension) {
@@ -661,11 +656,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         final Code code;
         final String codeUri = resolveCodeUri(parentCodeScheme, fromCode);
         if (codeUri != null && !codeUri.isEmpty()) {
-            if (codesMap.containsKey(codeUri)) {
-                code = codesMap.get(codeUri);
-            } else {
-                code = codeDao.findByUri(codeUri);
-            }
+            code = codesMap.get(MemberIndex.normalizeUri(codeUri));
             if (code != null) {
                 checkThatCodeIsInAllowedCodeScheme(code.getCodeScheme(), allowedCodeSchemes);
             } else {
@@ -702,27 +693,16 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         }
     }
 
-    private void checkOrderAndShiftExistingMemberOrderIfInUse(final Set<Member> existingMembers,
-                                                              final Integer order,
-                                                              final Set<Member> affectedMembers) {
-        final Set<Member> membersWithOrder = existingMembers.stream().filter(member -> member.getOrder().equals(order)).collect(Collectors.toSet());
-        membersWithOrder.forEach(member -> {
-            if (member.getOrder() != null && member.getOrder().equals(order)) {
-                member.setOrder(findNextOrderFromMembers(existingMembers));
-                affectedMembers.add(member);
-            }
-        });
-    }
-
-    private Integer findNextOrderFromMembers(final Set<Member> existingMembers) {
-        Integer maxOrder = 0;
-        for (final Member member : existingMembers) {
-            final Integer memberOrder = member.getOrder();
-            if (memberOrder != null && member.getOrder() > maxOrder) {
-                maxOrder = memberOrder;
-            }
+    private void assignOrder(final OrderAllocator<Member> orderAllocator,
+                             final Member member,
+                             final int order,
+                             final Set<Member> affectedMembers) {
+        final Member shiftedMember = orderAllocator.assign(member, order);
+        member.setOrder(order);
+        if (shiftedMember != null) {
+            shiftedMember.setOrder(orderAllocator.getOrder(shiftedMember));
+            affectedMembers.add(shiftedMember);
         }
-        return maxOrder + 1;
     }
 
     public Integer getNextOrderInSequence(final Extension extension) {
@@ -759,14 +739,14 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         final LinkedHashMap<CodeScheme, LinkedHashSet<Code>> codeSchemesWithCodesOrdered = new LinkedHashMap<>();
         codeSchemes.forEach(cs -> populateMapWhereCodesAreOrderedBasedOnFlatOrderAscending(cs, codeSchemesWithCodesOrdered));
 
+        final Set<Member> existingMembers = memberRepository.findWithMemberValuesByExtensionId(extension.getId());
+        final MemberIndex memberIndex = new MemberIndex(extension.getParentCodeScheme().getId(), existingMembers);
         codeSchemesWithCodesOrdered.keySet().forEach(cs ->
-            cs.getCodes().forEach(c ->
-                c.getMembers().forEach(member -> {
-                    if (member.getExtension().getId().compareTo(extension.getId()) == 0) {
-                        codesWithMembersInThisExtension.add(c);
-                    }
-                })
-            )
+            cs.getCodes().forEach(c -> {
+                if (!memberIndex.findByCodeId(c.getId()).isEmpty()) {
+                    codesWithMembersInThisExtension.add(c);
+                }
+            })
         );
 
         codeSchemesWithCodesOrdered.keySet().forEach(cs ->
@@ -778,6 +758,9 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
         );
 
         final Date timeStamp = new Date(System.currentTimeMillis());
+        final MutableInt nextOrder = new MutableInt(getNextOrderInSequence(extension));
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, existingMembers);
+        sequenceAllocator.reserve(codesWithNoMembersInThisExtension.size());
 
         codeSchemesWithCodesOrdered.keySet().forEach(cs -> {
             LinkedHashSet<Code> codesInCorrectOrder = codeSchemesWithCodesOrdered.get(cs);
@@ -785,7 +768,7 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                 if (codesWithNoMembersInThisExtension.contains(code)) {
                     Member m = new Member();
                     m.setId(UUID.randomUUID());
-                    m.setOrder(this.getNextOrderInSequence(extension));
+                    m.setOrder(nextOrder.getAndIncrement());
                     m.setCode(code);
                     m.setRelatedMember(null);
                     m.setEndDate(code.getEndDate());
@@ -793,17 +776,18 @@ public class MemberDaoImpl extends AbstractDao implements MemberDao {
                     m.setExtension(extension);
                     m.setMemberValues(null);
                     m.setPrefLabel(null);
-                    m.setSequenceId(getNextValueForMemberSequence(extension));
+                    m.setSequenceId(sequenceAllocator.next());
                     m.setUri(apiUtils.createMemberUri(m));
                     m.setCreated(timeStamp);
                     m.setModified(timeStamp);
-                    this.save(m);
+                    entityManager.persist(m);
                     createdMembers.add(m);
                 }
             });
         });
 
         if (!createdMembers.isEmpty()) {
+            save(createdMembers);
             codeSchemeDao.updateContentModified(extension.getParentCodeScheme().getId());
         }
 
@@ -27,12 +27,11 @@ import fi.vm.yti.codelist.intake.dao.CodeRegistryDao;
 import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExtensionDao;
 import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.language.LanguageService;
 import fi.vm.yti.codelist.intake.model.Code;
 import fi.vm.yti.codelist.intake.model.CodeRegistry;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
-import fi.vm.yti.codelist.intake.model.Extension;
-import fi.vm.yti.codelist.intake.model.Member;
 import fi.vm.yti.codelist.intake.model.UpdateStatus;
 import fi.vm.yti.codelist.intake.service.CodeRegistryService;
 import fi.vm.yti.codelist.intake.service.CodeSchemeService;
@@ -84,6 +83,7 @@ public class YtiDataAccess {
     private final ValueTypeService valueTypeService;
     private final ApiUtils apiUtils;
     private final LanguageService languageService;
+    private final StreamingUpdater streamingUpdater;
     private boolean isInitializing;
 
     @Inject
@@ -101,7 +101,8 @@ public class YtiDataAccess {
                          final PropertyTypeService propertyTypeService,
                          final ValueTypeService valueTypeService,
                          final ApiUtils apiUtils,
-                         final LanguageService languageService) {
+                         final LanguageService languageService,
+                         final StreamingUpdater streamingUpdater) {
         this.contentIntakeServiceProperties = contentIntakeServiceProperties;
         this.updateManager = updateManager;
         this.codeRegistryDao = codeRegistryDao;
@@ -117,6 +118,7 @@ public class YtiDataAccess {
         this.valueTypeService = valueTypeService;
         this.apiUtils = apiUtils;
         this.languageService = languageService;
+        this.streamingUpdater = streamingUpdater;
         isInitializing = true;
     }
 
@@ -154,15 +156,12 @@ public class YtiDataAccess {
             defaultLanguageCodes.add(languageService.getLanguageCode("fi"));
             defaultLanguageCodes.add(languageService.getLanguageCode("sv"));
             defaultLanguageCodes.add(languageService.getLanguageCode("en"));
-            final Set<CodeScheme> codeSchemes = codeSchemeDao.findAll();
-            if (codeSchemes != null) {
-                codeSchemes.forEach(codeScheme -> {
-                    if (codeScheme.getLanguageCodes() == null || codeScheme.getLanguageCodes().isEmpty()) {
-                        codeScheme.setLanguageCodes(defaultLanguageCodes);
-                        codeSchemeDao.save(codeScheme);
-                    }
-                });
-            }
+            streamingUpdater.update(codeSchemeDao.streamAll(), codeScheme -> {
+                if (codeScheme.getLanguageCodes() == null || codeScheme.getLanguageCodes().isEmpty()) {
+                    codeScheme.setLanguageCodes(new HashSet<>(defaultLanguageCodes));
+                    codeSchemeDao.save(codeScheme);
+                }
+            });
             if (updateStatus.getStatus().equals(UpdateManager.UPDATE_RUNNING)) {
                 updateManager.updateSuccessStatus(updateStatus);
             }
@@ -359,21 +358,15 @@ public class YtiDataAccess {
     }
 
     private void rewriteCodeUris() {
-        final Set<Code> codes = codeDao.findAll();
-        codes.forEach(code -> code.setUri(apiUtils.createCodeUri(code)));
-        codeDao.save(codes, false);
+        streamingUpdater.update(codeDao.streamAll(), code -> code.setUri(apiUtils.createCodeUri(code)));
     }
 
     private void rewriteExtensionUris() {
-        final Set<Extension> extensions = extensionDao.findAll();
-        extensions.forEach(extension -> extension.setUri(apiUtils.createExtensionUri(extension)));
-        extensionDao.save(extensions, false);
+        streamingUpdater.update(extensionDao.streamAll(), extension -> extension.setUri(apiUtils.createExtensionUri(extension)));
     }
 
     private void rewriteMemberUris() {
-        final Set<Member> members = memberDao.findAll();
-        members.forEach(member -> member.setUri(apiUtils.createMemberUri(member)));
-        memberDao.save(members, false);
+        streamingUpdater.update(memberDao.streamAll(), member -> member.setUri(apiUtils.createMemberUri(member)));
     }
 
     private void classifyServiceClassification() {
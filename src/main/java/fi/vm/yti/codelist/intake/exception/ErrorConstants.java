@@ -132,6 +132,9 @@ public class ErrorConstants {
     public static final String ERR_MSG_USER_CODE_STATUS_TRANSITION_WRONG_END_STATUS = "ERR_MSG_USER_CODE_STATUS_TRANSITION_WRONG_END_STATUS";
     public static final String ERR_MSG_USER_PROPERTYTYPE_NOT_ALLOWED_FOR_EXTENSION = "ERR_MSG_USER_PROPERTYTYPE_NOT_ALLOWED_FOR_EXTENSION";
     public static final String ERR_MSG_USER_IMPORTED_DATA_CONTAINS_INVALID_URLS_IN_LINKS = "ERR_MSG_USER_IMPORTED_DATA_CONTAINS_INVALID_URLS_IN_LINKS";
+    public static final String ERR_MSG_USER_IMPORT_JOB_NOT_FOUND = "ERR_MSG_USER_IMPORT_JOB_NOT_FOUND";
+    public static final String ERR_MSG_USER_IMPORT_JOB_QUEUE_FULL = "ERR_MSG_USER_IMPORT_JOB_QUEUE_FULL";
+    public static final String ERR_MSG_USER_IMPORT_JOB_INTERRUPTED = "ERR_MSG_USER_IMPORT_JOB_INTERRUPTED";
 
     private ErrorConstants() {
     }
@@ -15,6 +15,7 @@ import org.springframework.web.client.RestTemplate;
 
 import fi.vm.yti.codelist.common.dto.OrganizationDTO;
 import fi.vm.yti.codelist.intake.configuration.GroupManagementProperties;
+import fi.vm.yti.codelist.intake.dao.ReferenceDataCache;
 import fi.vm.yti.codelist.intake.service.OrganizationService;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.GROUPMANAGEMENT_API_CONTEXT_PATH;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.GROUPMANAGEMENT_API_ORGANIZATIONS;
@@ -26,14 +27,17 @@ public class OrganizationUpdater {
     private final OrganizationService organizationService;
     private final RestTemplate restTemplate;
     private final GroupManagementProperties groupManagementProperties;
+    private final ReferenceDataCache referenceDataCache;
 
     @Inject
     public OrganizationUpdater(final GroupManagementProperties groupManagementProperties,
                                final OrganizationService organizationService,
-                               final RestTemplate restTemplate) {
+                               final RestTemplate restTemplate,
+                               final ReferenceDataCache referenceDataCache) {
         this.groupManagementProperties = groupManagementProperties;
         this.organizationService = organizationService;
         this.restTemplate = restTemplate;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Transactional
@@ -48,6 +52,7 @@ public class OrganizationUpdater {
         try {
             final String response = restTemplate.getForObject(getGroupManagementOrganizationsApiUrl(), String.class, vars);
             final Set<OrganizationDTO> organizations = organizationService.parseAndPersistGroupManagementOrganizationsFromJson(response);
+            referenceDataCache.evictOrganizations();
             LOG.info(String.format("Successfully synced %d from groupmanagement service!", organizations.size()));
         } catch (final Exception e) {
             LOG.error("Organization fetching failed due to exception.", e);
@@ -2,14 +2,17 @@ package fi.vm.yti.codelist.intake.indexing.impl;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.persistence.EntityManager;
 
 import com.google.common.collect.Iterables;
 import org.apache.commons.collections4.ListUtils;
@@ -23,8 +26,6 @@ import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -94,6 +95,7 @@ public class IndexingImpl implements Indexing {
     private final MemberService memberService;
     private final RestHighLevelClient client;
     private final IndexingTools indexingTools;
+    private final EntityManager entityManager;
     private boolean hasError;
     private boolean fullIndexInProgress;
 
@@ -108,7 +110,8 @@ public class IndexingImpl implements Indexing {
                         final PropertyTypeService propertyTypeService,
                         final ValueTypeService valueTypeService,
                         final ExtensionService extensionService,
-                        final MemberService memberService) {
+                        final MemberService memberService,
+                        final EntityManager entityManager) {
         this.indexingTools = indexingTools;
         this.client = elasticSearchRestHighLevelClient;
         this.indexStatusRepository = indexStatusRepository;
@@ -120,6 +123,7 @@ public class IndexingImpl implements Indexing {
         this.valueTypeService = valueTypeService;
         this.extensionService = extensionService;
         this.memberService = memberService;
+        this.entityManager = entityManager;
     }
 
     private boolean indexCodeRegistries(final String indexName) {
@@ -138,26 +142,21 @@ public class IndexingImpl implements Indexing {
         return indexData(codeSchemes, indexName, ELASTIC_TYPE_CODESCHEME, NAME_CODESCHEMES, Views.ExtendedCodeScheme.class);
     }
 
-    private int getContentPageCount(final int contentCount,
-                                    final int maxCount) {
-        return contentCount / maxCount + 1;
-    }
-
     private boolean indexCodes(final String indexName) {
         final Stopwatch watch = Stopwatch.createStarted();
-        final int codeCount = codeService.getCodeCount();
-        final int pageCount = getContentPageCount(codeCount, MAX_PAGE_COUNT);
-        LOG.debug(String.format("ElasticSearch indexing: Starting to index %d pages of codes with %d items.", pageCount, codeCount));
-        int page = 0;
+        LOG.debug(String.format("ElasticSearch indexing: Starting to index codes in pages of %d items.", MAX_PAGE_COUNT));
+        int codeCount = 0;
         boolean success = true;
-        while (page + 1 <= pageCount) {
-            final PageRequest pageRequest = PageRequest.of(page, MAX_PAGE_COUNT, Sort.by(Sort.Direction.ASC, "codeValue"));
-            final Set<CodeDTO> codes = codeService.findAll(pageRequest);
-            final boolean partIndexSuccess = indexData(codes, indexName, ELASTIC_TYPE_CODE, NAME_CODES, Views.ExtendedCode.class);
+        List<CodeDTO> codes = codeService.findPageAfter(null, null, MAX_PAGE_COUNT);
+        while (!codes.isEmpty()) {
+            final boolean partIndexSuccess = indexData(new LinkedHashSet<>(codes), indexName, ELASTIC_TYPE_CODE, NAME_CODES, Views.ExtendedCode.class);
             if (!partIndexSuccess) {
                 success = false;
             }
-            page++;
+            codeCount += codes.size();
+            flushAndClear();
+            final CodeDTO lastCode = codes.get(codes.size() - 1);
+            codes = codes.size() < MAX_PAGE_COUNT ? Collections.emptyList() : codeService.findPageAfter(lastCode.getCodeValue(), lastCode.getId(), MAX_PAGE_COUNT);
         }
         if (success) {
             LOG.debug(String.format("ElasticSearch indexing: Successfully indexed %d codes in %s", codeCount, watch));
@@ -165,6 +164,15 @@ public class IndexingImpl implements Indexing {
         return success;
     }
 
+    /**
+     * Detaches the entities loaded for the indexed page, so that the persistence context of a full reindex does not
+     * grow with the row count. Pending changes of the calling transaction are flushed first so they are not lost.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     private boolean indexPropertyTypes(final String indexName) {
         final Set<PropertyTypeDTO> propertyTypes = propertyTypeService.findAll();
         return indexData(propertyTypes, indexName, ELASTIC_TYPE_PROPERTYTYPE, NAME_PROPERTYTYPES, Views.ExtendedPropertyType.class);
@@ -189,19 +197,19 @@ public class IndexingImpl implements Indexing {
 
     private boolean indexExtensions(final String indexName) {
         final Stopwatch watch = Stopwatch.createStarted();
-        final int extensionCount = extensionService.getExtensionCount();
-        final int pageCount = getContentPageCount(extensionCount, MAX_EXTENSION_PAGE_COUNT);
-        LOG.debug(String.format("ElasticSearch indexing: Starting to index %d pages of extensions with %d items.", pageCount, extensionCount));
-        int page = 0;
+        LOG.debug(String.format("ElasticSearch indexing: Starting to index extensions in pages of %d items.", MAX_EXTENSION_PAGE_COUNT));
+        int extensionCount = 0;
         boolean success = true;
-        while (page + 1 <= pageCount) {
-            final PageRequest pageRequest = PageRequest.of(page, MAX_EXTENSION_PAGE_COUNT, Sort.by(Sort.Direction.ASC, "uri"));
-            final Set<ExtensionDTO> extensions = extensionService.findAll(pageRequest);
-            final boolean partIndexSuccess = indexData(extensions, indexName, ELASTIC_TYPE_EXTENSION, NAME_EXTENSIONS, Views.ExtendedExtension.class);
+        List<ExtensionDTO> extensions = extensionService.findPageAfter(null, MAX_EXTENSION_PAGE_COUNT);
+        while (!extensions.isEmpty()) {
+            final boolean partIndexSuccess = indexData(new LinkedHashSet<>(extensions), indexName, ELASTIC_TYPE_EXTENSION, NAME_EXTENSIONS, Views.ExtendedExtension.class);
             if (!partIndexSuccess) {
                 success = false;
             }
-            page++;
+            extensionCount += extensions.size();
+            flushAndClear();
+            final ExtensionDTO lastExtension = extensions.get(extensions.size() - 1);
+            extensions = extensions.size() < MAX_EXTENSION_PAGE_COUNT ? Collections.emptyList() : extensionService.findPageAfter(lastExtension.getUri(), MAX_EXTENSION_PAGE_COUNT);
         }
         if (success) {
             LOG.debug(String.format("ElasticSearch indexing: Successfully indexed %d extensions in %s", extensionCount, watch));
@@ -211,25 +219,24 @@ public class IndexingImpl implements Indexing {
 
     private boolean indexMembers(final String indexName) {
         final Stopwatch watch = Stopwatch.createStarted();
-        final int memberCount = memberService.getMemberCount();
-        final int pageCount = getContentPageCount(memberCount, MAX_MEMBER_PAGE_COUNT);
-        LOG.debug(String.format("ElasticSearch indexing: Starting to index %d pages of members with %d items.", pageCount, memberCount));
-        int page = 0;
+        LOG.debug(String.format("ElasticSearch indexing: Starting to index members in pages of %d items.", MAX_MEMBER_PAGE_COUNT));
+        int memberCount = 0;
         boolean success = true;
-        while (page + 1 <= pageCount) {
-            final PageRequest pageRequest = PageRequest.of(page, MAX_MEMBER_PAGE_COUNT, Sort.by(Sort.Direction.ASC, "uri"));
-            final Set<MemberDTO> members = memberService.findAll(pageRequest);
-            final boolean partIndexSuccess = indexData(members, indexName, ELASTIC_TYPE_MEMBER, NAME_MEMBERS, Views.ExtendedMember.class);
+        List<MemberDTO> members = memberService.findPageAfter(null, MAX_MEMBER_PAGE_COUNT);
+        while (!members.isEmpty()) {
+            final boolean partIndexSuccess = indexData(new LinkedHashSet<>(members), indexName, ELASTIC_TYPE_MEMBER, NAME_MEMBERS, Views.ExtendedMember.class);
             if (!partIndexSuccess) {
                 success = false;
             }
-            page++;
+            memberCount += members.size();
+            flushAndClear();
+            final MemberDTO lastMember = members.get(members.size() - 1);
+            members = members.size() < MAX_MEMBER_PAGE_COUNT ? Collections.emptyList() : memberService.findPageAfter(lastMember.getUri(), MAX_MEMBER_PAGE_COUNT);
         }
         if (success) {
             LOG.debug(String.format("ElasticSearch indexing: Successfully indexed %d members in %s", memberCount, watch));
         }
         return success;
-
     }
 
     @SuppressFBWarnings("DLS_DEAD_LOCAL_STORE")
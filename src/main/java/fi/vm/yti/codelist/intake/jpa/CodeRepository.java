@@ -1,19 +1,26 @@
 package fi.vm.yti.codelist.intake.jpa;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.model.Code;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 @Transactional
@@ -21,6 +28,9 @@ public interface CodeRepository extends PagingAndSortingRepository<Code, String>
 
     Code findByUriIgnoreCase(final String uri);
 
+    @Query("SELECT c FROM Code AS c WHERE LOWER(c.uri) IN :uris")
+    Set<Code> findByLowerCaseUriIn(@Param("uris") final Collection<String> uris);
+
     Code findByCodeSchemeAndOrder(final CodeScheme codeScheme,
                                   final Integer order);
 
@@ -36,6 +46,12 @@ public interface CodeRepository extends PagingAndSortingRepository<Code, String>
 
     Code findById(final UUID id);
 
+    @Query("SELECT c FROM Code AS c LEFT JOIN FETCH c.members AS m LEFT JOIN FETCH m.memberValues WHERE c.id IN :ids")
+    Set<Code> findWithMembersByIdIn(@Param("ids") final Collection<UUID> ids);
+
+    @Query("SELECT c FROM Code AS c LEFT JOIN FETCH c.externalReferences WHERE c.id IN :ids")
+    Set<Code> findWithExternalReferencesByIdIn(@Param("ids") final Collection<UUID> ids);
+
     @Query(value = "SELECT c.flatorder FROM code AS c WHERE c.codescheme_id = :codeSchemeId ORDER BY c.flatorder DESC LIMIT 1", nativeQuery = true)
     Integer getCodeMaxOrder(@Param("codeSchemeId") final UUID codeSchemeId);
 
@@ -43,13 +59,30 @@ public interface CodeRepository extends PagingAndSortingRepository<Code, String>
 
     Set<Code> findByCodeSchemeId(final UUID codeSchemeId);
 
+    @Query("SELECT c.id, b.id, c.hierarchyLevel FROM Code AS c LEFT JOIN c.broaderCode AS b WHERE c.codeScheme.id = :codeSchemeId")
+    List<Object[]> findHierarchyByCodeSchemeId(@Param("codeSchemeId") final UUID codeSchemeId);
+
     Set<Code> findByCodeSchemeIdAndBroaderCodeIdIsNull(final UUID codeSchemeId);
 
     Set<Code> findByBroaderCodeId(final UUID broaderCodeId);
 
     Set<Code> findAll();
 
-    Page<Code> findAll(final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingUpdater.FETCH_SIZE))
+    @Query("SELECT c FROM Code AS c")
+    Stream<Code> streamAll();
+
+    @Query(value = "SELECT * FROM code AS c ORDER BY c.codevalue, c.id LIMIT :pageSize", nativeQuery = true)
+    List<Code> findFirstPageOrderByCodeValue(@Param("pageSize") final int pageSize);
+
+    @Query(value = "SELECT * FROM code AS c WHERE (c.codevalue, c.id) > (:codeValue, :id) ORDER BY c.codevalue, c.id LIMIT :pageSize", nativeQuery = true)
+    List<Code> findPageAfterCodeValue(@Param("codeValue") final String codeValue,
+                                      @Param("id") final UUID id,
+                                      @Param("pageSize") final int pageSize);
+
+    @Modifying
+    @Query(value = "UPDATE code SET contenthash = NULL WHERE contenthash IS NOT NULL AND id IN (SELECT ce.code_id FROM code_externalreference AS ce WHERE ce.externalreference_id IN :externalReferenceIds)", nativeQuery = true)
+    int clearContentHashByExternalReferenceIds(@Param("externalReferenceIds") final Collection<UUID> externalReferenceIds);
 
     @Query("SELECT COUNT(c) FROM Code as c")
     int getCodeCount();
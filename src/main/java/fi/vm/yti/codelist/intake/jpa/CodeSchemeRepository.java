@@ -3,16 +3,22 @@ package fi.vm.yti.codelist.intake.jpa;
 import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.model.CodeRegistry;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 @Transactional
@@ -31,6 +37,10 @@ public interface CodeSchemeRepository extends CrudRepository<CodeScheme, String>
 
     Set<CodeScheme> findAll();
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingUpdater.FETCH_SIZE))
+    @Query("SELECT cs FROM CodeScheme AS cs")
+    Stream<CodeScheme> streamAll();
+
     @Query("select cs from CodeScheme cs " +
         "left join fetch cs.codes cod left join fetch cod.externalReferences er left join fetch cod.members ext " +
         "left join fetch cs.infoDomains ids left join fetch ids.externalReferences idsExtRef left join fetch ids.members idsExt " +
@@ -49,12 +59,12 @@ public interface CodeSchemeRepository extends CrudRepository<CodeScheme, String>
     int updateContentModified(@Param("codeSchemeId") final UUID codeSchemeId,
                               @Param("timeStamp") final Date timeStamp);
 
-    @Query(value = "SELECT DISTINCT language FROM code_preflabel WHERE code_id IN (SELECT id FROM code WHERE codescheme_id = :codeSchemeId) " +
-        "UNION SELECT DISTINCT language FROM code_description WHERE code_id IN (SELECT id FROM code WHERE codescheme_id = :codeSchemeId) " +
-        "UNION SELECT DISTINCT language FROM code_definition WHERE code_id IN (SELECT id FROM code WHERE codescheme_id = :codeSchemeId) " +
-        "UNION SELECT DISTINCT language FROM member_preflabel WHERE member_id IN (SELECT id FROM member WHERE extension_id IN (SELECT id FROM extension where parentcodescheme_id = :codeSchemeId)) " +
-        "UNION SELECT DISTINCT language FROM extension_preflabel WHERE extension_id IN (SELECT id from extension WHERE parentcodescheme_id = :codeSchemeId) " +
-        "UNION SELECT DISTINCT language FROM externalreference_title WHERE externalreference_id IN (SELECT id FROM externalreference WHERE parentcodescheme_id = :codeSchemeId) " +
-        "UNION SELECT DISTINCT language FROM externalreference_description WHERE externalreference_id IN (SELECT id FROM externalreference WHERE parentcodescheme_id = :codeSchemeId)", nativeQuery = true)
+    @Query(value = "SELECT jsonb_object_keys(preflabel) FROM code WHERE codescheme_id = :codeSchemeId AND preflabel IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(description) FROM code WHERE codescheme_id = :codeSchemeId AND description IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(definition) FROM code WHERE codescheme_id = :codeSchemeId AND definition IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(preflabel) FROM member WHERE extension_id IN (SELECT id FROM extension where parentcodescheme_id = :codeSchemeId) AND preflabel IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(preflabel) FROM extension WHERE parentcodescheme_id = :codeSchemeId AND preflabel IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(title) FROM externalreference WHERE parentcodescheme_id = :codeSchemeId AND title IS NOT NULL " +
+        "UNION SELECT jsonb_object_keys(description) FROM externalreference WHERE parentcodescheme_id = :codeSchemeId AND description IS NOT NULL", nativeQuery = true)
     Set<String> getUsedLanguagesInContent(@Param("codeSchemeId") final UUID codeSchemeId);
 }
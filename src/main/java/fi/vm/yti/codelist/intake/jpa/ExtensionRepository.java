@@ -1,19 +1,24 @@
 package fi.vm.yti.codelist.intake.jpa;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
 import fi.vm.yti.codelist.intake.model.Extension;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 @Transactional
@@ -21,7 +26,16 @@ public interface ExtensionRepository extends CrudRepository<Extension, String> {
 
     Set<Extension> findAll();
 
-    Page<Extension> findAll(final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingUpdater.FETCH_SIZE))
+    @Query("SELECT e FROM Extension AS e")
+    Stream<Extension> streamAll();
+
+    @Query(value = "SELECT * FROM extension AS e ORDER BY e.uri LIMIT :pageSize", nativeQuery = true)
+    List<Extension> findFirstPageOrderByUri(@Param("pageSize") final int pageSize);
+
+    @Query(value = "SELECT * FROM extension AS e WHERE e.uri > :uri ORDER BY e.uri LIMIT :pageSize", nativeQuery = true)
+    List<Extension> findPageAfterUri(@Param("uri") final String uri,
+                                    @Param("pageSize") final int pageSize);
 
     Extension findById(final UUID id);
 
@@ -16,6 +16,8 @@ public interface ExternalReferenceRepository extends CrudRepository<ExternalRefe
 
     ExternalReference findByGlobalTrueAndHref(final String href);
 
+    Set<ExternalReference> findByGlobalTrue();
+
     Set<ExternalReference> findByParentCodeSchemeId(final UUID codeSchemeId);
 
     ExternalReference findByParentCodeSchemeIdAndHref(final UUID parentCodeSchemeId,
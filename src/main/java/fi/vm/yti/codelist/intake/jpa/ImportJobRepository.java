@@ -0,0 +1,24 @@
+package fi.vm.yti.codelist.intake.jpa;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.codelist.intake.model.ImportJob;
+
+@Repository
+@Transactional
+public interface ImportJobRepository extends CrudRepository<ImportJob, UUID> {
+
+    @Modifying
+    @Query(value = "UPDATE ImportJob AS j SET j.status = 'failed', j.errorCode = 500, j.errorMessage = :errorMessage, j.modified = :modified WHERE j.node = :node AND j.status IN ('queued', 'running')")
+    int failUnfinishedJobsOfNode(@Param("node") final String node,
+                                 @Param("errorMessage") final String errorMessage,
+                                 @Param("modified") final Date modified);
+}
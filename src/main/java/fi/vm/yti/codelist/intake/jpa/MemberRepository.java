@@ -1,19 +1,24 @@
 package fi.vm.yti.codelist.intake.jpa;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.model.Code;
 import fi.vm.yti.codelist.intake.model.Member;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 @Transactional
@@ -21,7 +26,16 @@ public interface MemberRepository extends CrudRepository<Member, String> {
 
     Set<Member> findAll();
 
-    Page<Member> findAll(final Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingUpdater.FETCH_SIZE))
+    @Query("SELECT m FROM Member AS m")
+    Stream<Member> streamAll();
+
+    @Query(value = "SELECT * FROM member AS m ORDER BY m.uri LIMIT :pageSize", nativeQuery = true)
+    List<Member> findFirstPageOrderByUri(@Param("pageSize") final int pageSize);
+
+    @Query(value = "SELECT * FROM member AS m WHERE m.uri > :uri ORDER BY m.uri LIMIT :pageSize", nativeQuery = true)
+    List<Member> findPageAfterUri(@Param("uri") final String uri,
+                                 @Param("pageSize") final int pageSize);
 
     Set<Member> findByCodeId(final UUID id);
 
@@ -34,17 +48,21 @@ public interface MemberRepository extends CrudRepository<Member, String> {
 
     Set<Member> findByExtensionId(final UUID extensionId);
 
+    @Query("SELECT m FROM Member AS m LEFT JOIN FETCH m.memberValues WHERE m.extension.id = :extensionId")
+    Set<Member> findWithMemberValuesByExtensionId(@Param("extensionId") final UUID extensionId);
+
     Set<Member> findByExtensionIdAndCodeId(final UUID extensionId,
                                            final UUID codeId);
 
     Member findById(final UUID id);
 
-    @Query(value = "SELECT nextval(:sequenceName)", nativeQuery = true)
-    Integer getNextMemberSequenceId(@Param("sequenceName") final String sequenceName);
+    @Query(value = "SELECT CAST(nextval(:sequenceName) AS integer) FROM (SELECT pg_advisory_xact_lock(hashtext(:sequenceName))) AS sequence_lock, generate_series(1, :count)", nativeQuery = true)
+    List<Integer> reserveMemberSequenceIds(@Param("sequenceName") final String sequenceName,
+                                           @Param("count") final int count);
 
-    @Query(value = "SELECT setval(:sequenceName, :sequenceValue)", nativeQuery = true)
-    Integer setMemberSequenceId(@Param("sequenceName") final String sequenceName,
-                                @Param("sequenceValue") final Integer sequenceValue);
+    @Query(value = "SELECT CAST(setval(:sequenceName, GREATEST(:sequenceValue, pg_sequence_last_value(CAST(:sequenceName AS regclass)))) AS integer) FROM (SELECT pg_advisory_xact_lock(hashtext(:sequenceName))) AS sequence_lock", nativeQuery = true)
+    Integer advanceMemberSequenceId(@Param("sequenceName") final String sequenceName,
+                                    @Param("sequenceValue") final Integer sequenceValue);
 
     @Query("SELECT COUNT(m) FROM Member as m")
     int getMemberCount();
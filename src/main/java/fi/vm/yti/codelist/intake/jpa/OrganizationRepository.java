@@ -3,21 +3,30 @@ package fi.vm.yti.codelist.intake.jpa;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.codelist.intake.model.Organization;
+import static fi.vm.yti.codelist.intake.configuration.ReferenceDataCacheConfig.REGION_QUERIES;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
 
 @Repository
 @Transactional
 public interface OrganizationRepository extends CrudRepository<Organization, String> {
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = REGION_QUERIES) })
     Organization findById(final UUID id);
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = REGION_QUERIES) })
     Set<Organization> findByRemovedIsFalse();
 
     Set<Organization> findByRemovedIsFalseAndCodeSchemesIsNotNull();
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = REGION_QUERIES) })
     Set<Organization> findAll();
 }
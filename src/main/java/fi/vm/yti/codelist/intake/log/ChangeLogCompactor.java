@@ -0,0 +1,200 @@
+package fi.vm.yti.codelist.intake.log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly partitions of the edited entity change log.
+ *
+ * Partitions are created ahead of the current month. Partitions older than the retention are collapsed into per commit
+ * counts in commitsummary and dropped, after which the latest modifier of an entity last edited before the retention
+ * is no longer known. Each step takes a transaction scoped advisory lock, so that only one node works at a time.
+ *
+ * Edited entities get their creation time from the database, so months are taken from the database clock as well.
+ */
+@Component
+public class ChangeLogCompactor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeLogCompactor.class);
+    private static final long LOCK_KEY = 0x6564697465646573L;
+    private static final String PARENT_TABLE = "editedentity";
+    private static final String DEFAULT_PARTITION = PARENT_TABLE + "_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARENT_TABLE + "_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionMonths;
+
+    @Inject
+    public ChangeLogCompactor(final EntityManager entityManager,
+                              final PlatformTransactionManager transactionManager,
+                              @Value("${intake.changelog.retentionmonths:24}") final int retentionMonths) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${intake.changelog.compaction.cron:0 15 3 * * *}")
+    public void compact() {
+        try {
+            doWorkLocked(connection -> {
+                final YearMonth currentMonth = currentMonth(connection);
+                createPartition(connection, currentMonth);
+                createPartition(connection, currentMonth.plusMonths(1));
+            });
+        } catch (final Exception e) {
+            LOG.error("Change log partition creation failed due to exception.", e);
+        }
+        if (retentionMonths > 0) {
+            try {
+                final List<String> partitions = new ArrayList<>();
+                doWorkLocked(connection -> partitions.addAll(findExpiredPartitions(connection, currentMonth(connection).minusMonths(retentionMonths))));
+                for (final String partition : partitions) {
+                    doWorkLocked(connection -> compactPartition(connection, partition));
+                }
+            } catch (final Exception e) {
+                LOG.error("Change log compaction failed due to exception.", e);
+            }
+        }
+    }
+
+    private void doWorkLocked(final PartitionWork work) {
+        transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                if (tryLock(connection)) {
+                    work.execute(connection);
+                } else {
+                    LOG.info("Change log compaction is running on another node, skipping.");
+                }
+            });
+            return null;
+        });
+    }
+
+    private static boolean tryLock(final Connection connection) throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_xact_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static YearMonth currentMonth(final Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement();
+             final ResultSet resultSet = statement.executeQuery("SELECT to_char(localtimestamp, 'YYYYMM')")) {
+            resultSet.next();
+            return YearMonth.parse(resultSet.getString(1), PARTITION_MONTH);
+        }
+    }
+
+    /**
+     * Creates the partition of the month unless it exists. Rows of the month that were written to the default partition
+     * while the partition was missing would make a plain CREATE TABLE ... PARTITION OF fail, so the partition is created
+     * as a standalone table, the rows are moved into it from the default partition and the table is then attached. Writes
+     * to the change log are locked out for the move, so that no rows of the month are added to the default meanwhile.
+     */
+    private static void createPartition(final Connection connection,
+                                        final YearMonth month) throws SQLException {
+        final String partition = partitionName(month);
+        if (partitionExists(connection, partition)) {
+            return;
+        }
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute(String.format("LOCK TABLE %s IN SHARE ROW EXCLUSIVE MODE", PARENT_TABLE));
+            statement.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)", partition, PARENT_TABLE));
+            final int movedCount = statement.executeUpdate(String.format(
+                "WITH moved AS (DELETE FROM %s WHERE created >= '%s' AND created < '%s' RETURNING *) INSERT INTO %s SELECT * FROM moved",
+                DEFAULT_PARTITION, month.atDay(1), month.plusMonths(1).atDay(1), partition));
+            statement.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                PARENT_TABLE, partition, month.atDay(1), month.plusMonths(1).atDay(1)));
+            LOG.info(String.format("Created change log partition %s and moved %d rows into it from the default partition.", partition, movedCount));
+        }
+    }
+
+    private static boolean partitionExists(final Connection connection,
+                                           final String partition) throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, partition);
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the monthly partitions that hold only rows created before the given month, oldest first.
+     */
+    private static List<String> findExpiredPartitions(final Connection connection,
+                                                      final YearMonth oldestRetainedMonth) throws SQLException {
+        final List<String> partitions = new ArrayList<>();
+        try (final PreparedStatement statement = connection.prepareStatement("SELECT c.relname FROM pg_inherits AS i JOIN pg_class AS c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass ORDER BY c.relname")) {
+            statement.setString(1, PARENT_TABLE);
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    final String partition = resultSet.getString(1);
+                    final Matcher matcher = PARTITION_NAME.matcher(partition);
+                    if (matcher.matches() && YearMonth.parse(matcher.group(1), PARTITION_MONTH).isBefore(oldestRetainedMonth)) {
+                        partitions.add(partition);
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Adds the edited entity counts of the partition to the commit summaries, and drops the partition. A commit can
+     * have rows in two partitions when its transaction spans a month boundary, so counts are summed on conflict.
+     */
+    private static void compactPartition(final Connection connection,
+                                         final String partition) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            final int commitCount = statement.executeUpdate(String.format(
+                "INSERT INTO commitsummary (commit_id, coderegistries, codeschemes, codes, externalreferences, propertytypes, extensions, members, valuetypes) " +
+                    "SELECT e.commit_id, count(e.coderegistry_id), count(e.codescheme_id), count(e.code_id), count(e.externalreference_id), count(e.propertytype_id), count(e.extension_id), count(e.member_id), count(e.valuetype_id) " +
+                    "FROM %s AS e WHERE e.commit_id IS NOT NULL GROUP BY e.commit_id " +
+                    "ON CONFLICT (commit_id) DO UPDATE SET coderegistries = commitsummary.coderegistries + EXCLUDED.coderegistries, codeschemes = commitsummary.codeschemes + EXCLUDED.codeschemes, " +
+                    "codes = commitsummary.codes + EXCLUDED.codes, externalreferences = commitsummary.externalreferences + EXCLUDED.externalreferences, propertytypes = commitsummary.propertytypes + EXCLUDED.propertytypes, " +
+                    "extensions = commitsummary.extensions + EXCLUDED.extensions, members = commitsummary.members + EXCLUDED.members, valuetypes = commitsummary.valuetypes + EXCLUDED.valuetypes",
+                partition));
+            statement.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT_TABLE, partition));
+            statement.execute(String.format("DROP TABLE %s", partition));
+            LOG.info(String.format("Compacted change log partition %s into summaries of %d commits.", partition, commitCount));
+        }
+    }
+
+    private static String partitionName(final YearMonth month) {
+        return PARENT_TABLE + "_p" + month.format(PARTITION_MONTH);
+    }
+
+    @FunctionalInterface
+    private interface PartitionWork {
+
+        void execute(final Connection connection) throws SQLException;
+    }
+}
@@ -32,4 +32,10 @@ public interface EntityChangeLogger {
     void logMemberChanges(final Set<Member> members);
 
     void logValueTypeChange(final ValueType member);
+
+    /**
+     * Persists the edited entities collected in the current transaction so far, so that the logged entities can be
+     * detached before the transaction commits.
+     */
+    void persistEditedEntities();
 }
@@ -1,19 +1,31 @@
 package fi.vm.yti.codelist.intake.log;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import brave.Span;
 import brave.Tracer;
 import fi.vm.yti.codelist.intake.jpa.CommitRepository;
-import fi.vm.yti.codelist.intake.jpa.EditedEntityRepository;
 import fi.vm.yti.codelist.intake.model.Code;
 import fi.vm.yti.codelist.intake.model.CodeRegistry;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
@@ -26,6 +38,13 @@ import fi.vm.yti.codelist.intake.model.PropertyType;
 import fi.vm.yti.codelist.intake.model.ValueType;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 
+/**
+ * Records the changed entities of a transaction as edited entities of its commit.
+ *
+ * The commit of the current trace is resolved once per transaction. Edited entities are collected per transaction and
+ * persisted just before it commits, so that they are written with the other changes of the transaction in JDBC batches
+ * instead of one insert per logged entity.
+ */
 @Service
 public class EntityChangeLoggerImpl implements EntityChangeLogger {
 
@@ -33,125 +52,182 @@ public class EntityChangeLoggerImpl implements EntityChangeLogger {
     private final AuthorizationManager authorizationManager;
     private final Tracer tracer;
     private final CommitRepository commitRepository;
-    private final EditedEntityRepository editedEntityRepository;
     private final EntityPayloadLogger entityPayloadLogger;
+    private final EntityManager entityManager;
 
     @Inject
     public EntityChangeLoggerImpl(final AuthorizationManager authorizationManager,
                                   final Tracer tracer,
                                   final CommitRepository commitRepository,
-                                  final EditedEntityRepository editedEntityRepository,
-                                  final EntityPayloadLogger entityPayloadLogger) {
+                                  final EntityPayloadLogger entityPayloadLogger,
+                                  final EntityManager entityManager) {
         this.authorizationManager = authorizationManager;
         this.tracer = tracer;
         this.commitRepository = commitRepository;
-        this.editedEntityRepository = editedEntityRepository;
         this.entityPayloadLogger = entityPayloadLogger;
+        this.entityManager = entityManager;
     }
 
     @Transactional
     public void logCodeRegistryChange(final CodeRegistry codeRegistry) {
         entityPayloadLogger.logCodeRegistry(codeRegistry);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setCodeRegistry(codeRegistry);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, codeRegistry.getId());
     }
 
     @Transactional
     public void logCodeSchemeChange(final CodeScheme codeScheme) {
         entityPayloadLogger.logCodeScheme(codeScheme);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setCodeScheme(codeScheme);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, codeScheme.getId());
     }
 
     @Transactional
     public void logCodesChange(final Set<Code> codes) {
-        final Commit commit = createCommit();
+        final Commit commit = getCommit();
         codes.forEach(code -> {
             entityPayloadLogger.logCode(code);
             final EditedEntity editedEntity = new EditedEntity(commit);
             editedEntity.setCode(code);
-            editedEntityRepository.save(editedEntity);
+            addEditedEntity(editedEntity, code.getId());
         });
     }
 
     @Transactional
     public void logCodeChange(final Code code) {
         entityPayloadLogger.logCode(code);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setCode(code);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, code.getId());
     }
 
     @Transactional
     public void logExternalReferenceChange(final ExternalReference externalReference) {
         entityPayloadLogger.logExternalReference(externalReference);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setExternalReference(externalReference);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, externalReference.getId());
     }
 
     @Transactional
     public void logPropertyTypeChange(final PropertyType propertyType) {
         entityPayloadLogger.logPropertyType(propertyType);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setPropertyType(propertyType);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, propertyType.getId());
     }
 
     @Transactional
     public void logExtensionChange(final Extension extension) {
         entityPayloadLogger.logExtension(extension);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setExtension(extension);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, extension.getId());
     }
 
     @Transactional
     public void logMemberChange(final Member member) {
         entityPayloadLogger.logMember(member);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setMember(member);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, member.getId());
     }
 
     @Transactional
     public void logMemberChanges(final Set<Member> members) {
-        final Set<EditedEntity> editedEntities = new HashSet<>();
-        final Commit commit = createCommit();
+        final Commit commit = getCommit();
         entityPayloadLogger.logMembers(members);
         members.forEach(member -> {
             final EditedEntity editedEntity = new EditedEntity(commit);
             editedEntity.setMember(member);
-            editedEntities.add(editedEntity);
+            addEditedEntity(editedEntity, member.getId());
         });
-        editedEntityRepository.saveAll(editedEntities);
     }
 
     @Transactional
     public void logValueTypeChange(final ValueType valueType) {
         entityPayloadLogger.logValueType(valueType);
-        final EditedEntity editedEntity = new EditedEntity(createCommit());
+        final EditedEntity editedEntity = new EditedEntity(getCommit());
         editedEntity.setValueType(valueType);
-        editedEntityRepository.save(editedEntity);
+        addEditedEntity(editedEntity, valueType.getId());
     }
 
-    private Commit createCommit() {
+    @Transactional
+    public void persistEditedEntities() {
+        final TransactionChanges transactionChanges = getTransactionChanges();
+        if (transactionChanges != null) {
+            transactionChanges.persistEditedEntities();
+        }
+    }
+
+    private void addEditedEntity(final EditedEntity editedEntity,
+                                 final UUID entityId) {
+        final TransactionChanges transactionChanges = getTransactionChanges();
+        if (transactionChanges != null) {
+            transactionChanges.addEditedEntity(editedEntity.getCommit().getId() + "/" + entityId, editedEntity);
+        } else {
+            entityManager.persist(editedEntity);
+        }
+    }
+
+    /**
+     * Resolves the commit of the current trace once per transaction. Only the id is kept, so that the commit is found
+     * without queries also after the persistence context has been cleared.
+     */
+    private Commit getCommit() {
         final String traceId = getTraceId();
-        Commit commit = null;
-        if (traceId != null && !traceId.isEmpty()) {
-            try {
-                commit = commitRepository.findByTraceId(traceId);
-            } catch (final Exception e) {
-                LOG.error("Issue with trying to find commit with traceId: " + traceId, e);
-            }
+        final TransactionChanges transactionChanges = getTransactionChanges();
+        if (transactionChanges != null) {
+            return entityManager.getReference(Commit.class, transactionChanges.commitIds.computeIfAbsent(traceId, id -> resolveCommit(id).getId()));
+        }
+        return resolveCommit(traceId);
+    }
+
+    private TransactionChanges getTransactionChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TransactionChanges transactionChanges = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+        if (transactionChanges == null) {
+            transactionChanges = new TransactionChanges();
+            TransactionSynchronizationManager.bindResource(this, transactionChanges);
+            TransactionSynchronizationManager.registerSynchronization(transactionChanges);
         }
-        if (commit == null) {
-            commit = new Commit(traceId, authorizationManager.getUserId());
+        return transactionChanges;
+    }
+
+    /**
+     * Returns the commit of the trace, creating it when missing. The commit row is inserted with ON CONFLICT on the
+     * unique trace id, so that concurrent transactions sharing a trace wait for each other and end up with the same
+     * commit.
+     */
+    private Commit resolveCommit(final String traceId) {
+        final Commit commit = new Commit(traceId, authorizationManager.getUserId());
+        if (traceId == null || traceId.isEmpty()) {
             commitRepository.save(commit);
+            return commit;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> insertCommitIfAbsent(connection, commit));
+        return commitRepository.findByTraceId(traceId);
+    }
+
+    private static void insertCommitIfAbsent(final Connection connection,
+                                             final Commit commit) throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement("INSERT INTO commit (id, trace_id, user_id, modified) VALUES (?, ?, ?, ?) ON CONFLICT (trace_id) DO NOTHING")) {
+            statement.setObject(1, commit.getId());
+            statement.setString(2, commit.getTraceId());
+            if (commit.getUserId() != null) {
+                statement.setObject(3, commit.getUserId());
+            } else {
+                statement.setNull(3, Types.OTHER);
+            }
+            statement.setTimestamp(4, new Timestamp(commit.getModified().getTime()));
+            if (statement.executeUpdate() == 0) {
+                LOG.debug(String.format("Commit for traceId: %s was created by another transaction.", commit.getTraceId()));
+            }
         }
-        return commit;
     }
 
     private String getTraceId() {
@@ -161,4 +237,50 @@ public class EntityChangeLoggerImpl implements EntityChangeLogger {
         }
         return null;
     }
+
+    /**
+     * Commit ids by trace id and edited entities of one transaction, with one edited entity per commit and entity
+     * however many times the entity is logged. Edited entities persisted ahead of the commit are remembered by key only.
+     * They are unbound while the transaction is suspended, so that an inner transaction collects its own.
+     */
+    private class TransactionChanges extends TransactionSynchronizationAdapter {
+
+        private final Map<String, UUID> commitIds = new HashMap<>();
+        private final Map<String, EditedEntity> editedEntities = new LinkedHashMap<>();
+        private final Set<String> persistedKeys = new HashSet<>();
+
+        private void addEditedEntity(final String key,
+                                     final EditedEntity editedEntity) {
+            if (!persistedKeys.contains(key)) {
+                editedEntities.putIfAbsent(key, editedEntity);
+            }
+        }
+
+        private void persistEditedEntities() {
+            editedEntities.values().forEach(entityManager::persist);
+            LOG.debug(String.format("Persisting %d edited entities.", editedEntities.size()));
+            persistedKeys.addAll(editedEntities.keySet());
+            editedEntities.clear();
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EntityChangeLoggerImpl.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EntityChangeLoggerImpl.this, this);
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            persistEditedEntities();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangeLoggerImpl.this);
+        }
+    }
 }
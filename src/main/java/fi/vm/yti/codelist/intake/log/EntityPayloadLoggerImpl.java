@@ -2,8 +2,11 @@ package fi.vm.yti.codelist.intake.log;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +33,9 @@ import fi.vm.yti.codelist.intake.model.PropertyType;
 import fi.vm.yti.codelist.intake.model.ValueType;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.impl.DtoMapperService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class EntityPayloadLoggerImpl implements EntityPayloadLogger {
@@ -48,15 +54,26 @@ public class EntityPayloadLoggerImpl implements EntityPayloadLogger {
     private final Tracer tracer;
     private final ObjectMapper mapper;
     private final DtoMapperService dtoMapperService;
+    private final ThreadPoolExecutor payloadLoggingExecutor;
+    private final Counter droppedPayloads;
 
     @Inject
     public EntityPayloadLoggerImpl(final AuthorizationManager authorizationManager,
                                    final Tracer tracer,
-                                   final DtoMapperService dtoMapperService) {
+                                   final DtoMapperService dtoMapperService,
+                                   @Named("payloadLoggingExecutor") final ThreadPoolExecutor payloadLoggingExecutor,
+                                   final MeterRegistry meterRegistry) {
         this.authorizationManager = authorizationManager;
         this.tracer = tracer;
         this.dtoMapperService = dtoMapperService;
+        this.payloadLoggingExecutor = payloadLoggingExecutor;
         this.mapper = createMapper();
+        Gauge.builder("intake.payloadlog.queue.size", payloadLoggingExecutor, executor -> executor.getQueue().size())
+            .description("Entity payloads waiting to be written to the log")
+            .register(meterRegistry);
+        this.droppedPayloads = Counter.builder("intake.payloadlog.dropped")
+            .description("Entity payloads dropped because the payload log queue was full")
+            .register(meterRegistry);
     }
 
     private ObjectMapper createMapper() {
@@ -70,107 +87,108 @@ public class EntityPayloadLoggerImpl implements EntityPayloadLogger {
 
     @Transactional
     public void logCodeRegistry(final CodeRegistry codeRegistry) {
-        beginPayloadLogging(CODEREGISTRY, codeRegistry.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.Normal.class).writeValueAsString(dtoMapperService.mapDeepCodeRegistryDto(codeRegistry)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for codeRegistry: %s", codeRegistry.getId()), e);
+        if (isEnabled()) {
+            enqueue(CODEREGISTRY, codeRegistry.getId(), Views.Normal.class, dtoMapperService.mapDeepCodeRegistryDto(codeRegistry));
         }
-        endPayloadLogging(CODEREGISTRY, codeRegistry.getId());
     }
 
     @Transactional
     public void logCodeScheme(final CodeScheme codeScheme) {
-        beginPayloadLogging(CODESCHEME, codeScheme.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.ExtendedCodeScheme.class).writeValueAsString(dtoMapperService.mapDeepCodeSchemeDto(codeScheme)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for codeScheme: %s", codeScheme.getId()), e);
+        if (isEnabled()) {
+            enqueue(CODESCHEME, codeScheme.getId(), Views.ExtendedCodeScheme.class, dtoMapperService.mapDeepCodeSchemeDto(codeScheme));
         }
-        endPayloadLogging(CODESCHEME, codeScheme.getId());
     }
 
     @Transactional
     public void logCode(final Code code) {
-        beginPayloadLogging(CODE, code.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.ExtendedCode.class).writeValueAsString(dtoMapperService.mapDeepCodeDto(code)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for code: %s", code.getId()), e);
+        if (isEnabled()) {
+            enqueue(CODE, code.getId(), Views.ExtendedCode.class, dtoMapperService.mapDeepCodeDto(code));
         }
-        endPayloadLogging(CODE, code.getId());
     }
 
     @Transactional
     public void logExternalReference(final ExternalReference externalReference) {
-        beginPayloadLogging(EXTERNALREFERENCE, externalReference.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.ExtendedExternalReference.class).writeValueAsString(dtoMapperService.mapDeepExternalReferenceDto(externalReference)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for externalReference: %s", externalReference.getId()), e);
-        } catch (final Exception e) {
-            LOG.error("Exception caught when logging externalReference: ", e);
+        if (isEnabled()) {
+            try {
+                enqueue(EXTERNALREFERENCE, externalReference.getId(), Views.ExtendedExternalReference.class, dtoMapperService.mapDeepExternalReferenceDto(externalReference));
+            } catch (final Exception e) {
+                LOG.error("Exception caught when logging externalReference: ", e);
+            }
         }
-        endPayloadLogging(EXTERNALREFERENCE, externalReference.getId());
     }
 
     @Transactional
     public void logPropertyType(final PropertyType propertyType) {
-        beginPayloadLogging(PROPERTYTYPE, propertyType.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.Normal.class).writeValueAsString(dtoMapperService.mapPropertyTypeDto(propertyType)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for propertyType: %s", propertyType.getId()), e);
+        if (isEnabled()) {
+            enqueue(PROPERTYTYPE, propertyType.getId(), Views.Normal.class, dtoMapperService.mapPropertyTypeDto(propertyType));
         }
-        endPayloadLogging(PROPERTYTYPE, propertyType.getId());
     }
 
     @Transactional
     public void logExtension(final Extension extension) {
-        beginPayloadLogging(EXTENSION, extension.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.Normal.class).writeValueAsString(dtoMapperService.mapExtensionDto(extension)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for extension: %s", extension.getId()), e);
+        if (isEnabled()) {
+            enqueue(EXTENSION, extension.getId(), Views.Normal.class, dtoMapperService.mapExtensionDto(extension));
         }
-        endPayloadLogging(EXTENSION, extension.getId());
     }
 
     @Transactional
     public void logMember(final Member member) {
-        beginPayloadLogging(MEMBER, member.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.Normal.class).writeValueAsString(dtoMapperService.mapMemberDto(member)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for member: %s", member.getId()), e);
+        if (isEnabled()) {
+            enqueue(MEMBER, member.getId(), Views.Normal.class, dtoMapperService.mapMemberDto(member));
         }
-        endPayloadLogging(MEMBER, member.getId());
     }
 
     @Transactional
     public void logMembers(final Set<Member> members) {
-        members.forEach(this::logMember);
+        if (isEnabled()) {
+            members.forEach(this::logMember);
+        }
     }
 
     @Transactional
     public void logValueType(final ValueType valueType) {
-        beginPayloadLogging(VALUETYPE, valueType.getId());
-        try {
-            LOG.debug(mapper.writerWithView(Views.Normal.class).writeValueAsString(dtoMapperService.mapValueTypeDto(valueType)));
-        } catch (final JsonProcessingException e) {
-            LOG.error(String.format("Failed to write log for valueType: %s", valueType.getId()), e);
+        if (isEnabled()) {
+            enqueue(VALUETYPE, valueType.getId(), Views.Normal.class, dtoMapperService.mapValueTypeDto(valueType));
         }
-        endPayloadLogging(VALUETYPE, valueType.getId());
     }
 
-    private void beginPayloadLogging(final String name,
-                                     final UUID identifier) {
-        LOG.debug(String.format("*** Begin %s payload logging for ID: %s with TraceId: %s and UserId: %s ***", name, identifier, getTraceId(), getUserId()));
+    /**
+     * Payloads are only written at debug level, so the mapping and serialization are skipped when it is not enabled.
+     */
+    private boolean isEnabled() {
+        return LOG.isDebugEnabled();
+    }
+
+    /**
+     * Mapping reads the entity and has to happen in the calling transaction, the serialization and writing of the
+     * mapped payload are left to the background queue. Payloads are dropped when the queue is full.
+     */
+    private void enqueue(final String name,
+                         final UUID identifier,
+                         final Class<?> view,
+                         final Object payload) {
+        final String traceId = getTraceId();
+        final String userId = getUserId();
+        try {
+            payloadLoggingExecutor.execute(() -> writePayload(name, identifier, traceId, userId, view, payload));
+        } catch (final RejectedExecutionException e) {
+            droppedPayloads.increment();
+        }
     }
 
-    private void endPayloadLogging(final String name,
-                                   final UUID identifier) {
-        LOG.debug(String.format("*** End %s payload logging for ID: %s ***", name, identifier.toString()));
+    private void writePayload(final String name,
+                              final UUID identifier,
+                              final String traceId,
+                              final String userId,
+                              final Class<?> view,
+                              final Object payload) {
+        LOG.debug(String.format("*** Begin %s payload logging for ID: %s with TraceId: %s and UserId: %s ***", name, identifier, traceId, userId));
+        try {
+            LOG.debug(mapper.writerWithView(view).writeValueAsString(payload));
+        } catch (final JsonProcessingException e) {
+            LOG.error(String.format("Failed to write log for %s: %s", name, identifier), e);
+        }
+        LOG.debug(String.format("*** End %s payload logging for ID: %s ***", name, identifier));
     }
 
     private String getTraceId() {
@@ -7,22 +7,20 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
-import javax.persistence.MapKeyColumn;
 import javax.persistence.OneToMany;
-import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import org.hibernate.annotations.Type;
+
 @Entity
 @Table(name = "code")
 public class Code extends AbstractHistoricalCode implements Serializable {
@@ -42,6 +40,7 @@ public class Code extends AbstractHistoricalCode implements Serializable {
     private String conceptUriInVocabularies;
     private CodeScheme subCodeScheme;
     private Date statusModified;
+    private String contentHash;
 
     @Column(name = "status_modified")
     @Temporal(TemporalType.TIMESTAMP)
@@ -60,6 +59,15 @@ public class Code extends AbstractHistoricalCode implements Serializable {
         }
     }
 
+    @Column(name = "contenthash")
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(final String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.DETACH)
     @JoinColumn(name = "codescheme_id", nullable = false, updatable = false)
     public CodeScheme getCodeScheme() {
@@ -88,11 +96,8 @@ public class Code extends AbstractHistoricalCode implements Serializable {
         this.shortName = shortName;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "code_preflabel", joinColumns = @JoinColumn(name = "code_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "preflabel")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getPrefLabel() {
         return prefLabel;
     }
@@ -121,11 +126,8 @@ public class Code extends AbstractHistoricalCode implements Serializable {
         setPrefLabel(this.prefLabel);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "code_definition", joinColumns = @JoinColumn(name = "code_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "definition")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDefinition() {
         if (definition == null) {
             definition = new HashMap<>();
@@ -158,11 +160,8 @@ public class Code extends AbstractHistoricalCode implements Serializable {
         setDefinition(this.definition);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "code_description", joinColumns = @JoinColumn(name = "code_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "description")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDescription() {
         if (description == null) {
             description = new HashMap<>();
@@ -8,22 +8,20 @@ import java.util.Set;
 import java.util.UUID;
 
 import javax.persistence.CascadeType;
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
-import javax.persistence.MapKeyColumn;
 import javax.persistence.OneToMany;
-import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import org.hibernate.annotations.Type;
+
 @Entity
 @Table(name = "codescheme")
 public class CodeScheme extends AbstractHistoricalCode implements Serializable {
@@ -164,11 +162,8 @@ public class CodeScheme extends AbstractHistoricalCode implements Serializable {
         this.defaultCode = defaultCode;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "codescheme_preflabel", joinColumns = @JoinColumn(name = "codescheme_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "preflabel")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getPrefLabel() {
         return prefLabel;
     }
@@ -197,11 +192,8 @@ public class CodeScheme extends AbstractHistoricalCode implements Serializable {
         setPrefLabel(this.prefLabel);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "codescheme_definition", joinColumns = @JoinColumn(name = "codescheme_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "definition")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDefinition() {
         if (definition == null) {
             definition = new HashMap<>();
@@ -233,11 +225,8 @@ public class CodeScheme extends AbstractHistoricalCode implements Serializable {
         setDefinition(this.definition);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "codescheme_description", joinColumns = @JoinColumn(name = "codescheme_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "description")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDescription() {
         if (description == null) {
             description = new HashMap<>();
@@ -269,11 +258,8 @@ public class CodeScheme extends AbstractHistoricalCode implements Serializable {
         setDescription(this.description);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "codescheme_changenote", joinColumns = @JoinColumn(name = "codescheme_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "changenote")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getChangeNote() {
         if (changeNote == null) {
             changeNote = new HashMap<>();
@@ -466,11 +452,8 @@ public class CodeScheme extends AbstractHistoricalCode implements Serializable {
         this.cumulative = cumulative;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "codescheme_feedback_channel", joinColumns = @JoinColumn(name = "codescheme_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "feedback_channel")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getFeedbackChannel() {
         return feedbackChannel;
     }
@@ -1,5 +1,6 @@
 package fi.vm.yti.codelist.intake.model;
 
+import java.util.Date;
 import java.util.UUID;
 
 import javax.persistence.Column;
@@ -9,6 +10,8 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 
 @Entity
 @Table(name = "editedentity")
@@ -24,6 +27,7 @@ public class EditedEntity {
     private Extension extension;
     private Member member;
     private ValueType valueType;
+    private Date created;
 
     public EditedEntity() {
     }
@@ -132,4 +136,14 @@ public class EditedEntity {
     public void setValueType(final ValueType valueType) {
         this.valueType = valueType;
     }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created", insertable = false, updatable = false)
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(final Date created) {
+        this.created = created;
+    }
 }
@@ -7,22 +7,20 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
-import javax.persistence.MapKeyColumn;
 import javax.persistence.OneToMany;
-import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import org.hibernate.annotations.Type;
+
 @Entity
 @Table(name = "extension")
 public class Extension extends AbstractHistoricalIdentifyableCodeWithStatus implements Serializable {
@@ -64,11 +62,8 @@ public class Extension extends AbstractHistoricalIdentifyableCodeWithStatus impl
         this.codeValue = codeValue;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "extension_preflabel", joinColumns = @JoinColumn(name = "extension_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "preflabel")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getPrefLabel() {
         return prefLabel;
     }
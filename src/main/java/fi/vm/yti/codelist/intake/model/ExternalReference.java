@@ -5,19 +5,17 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
-import javax.persistence.MapKeyColumn;
-import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Type;
+
 @Entity
 @Table(name = "externalreference")
 public class ExternalReference extends AbstractIdentifyableTimestampedCode implements Serializable {
@@ -42,11 +40,8 @@ public class ExternalReference extends AbstractIdentifyableTimestampedCode imple
         this.global = global;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "externalreference_title", joinColumns = @JoinColumn(name = "externalreference_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "title")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getTitle() {
         if (title == null) {
             title = new HashMap<>();
@@ -79,11 +74,8 @@ public class ExternalReference extends AbstractIdentifyableTimestampedCode imple
         setTitle(title);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "externalreference_description", joinColumns = @JoinColumn(name = "externalreference_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "description")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDescription() {
         if (description == null) {
             description = new HashMap<>();
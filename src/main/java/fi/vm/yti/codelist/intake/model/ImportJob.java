@@ -0,0 +1,179 @@
+package fi.vm.yti.codelist.intake.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Entity
+@Table(name = "importjob")
+@Schema(name = "ImportJob", description = "Status of an asynchronous file import.")
+public class ImportJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID id;
+    private String jobType;
+    private String identifier;
+    private String node;
+    private UUID userId;
+    private String status;
+    private String phase;
+    private int rowsProcessed;
+    private Integer errorCode;
+    private String errorMessage;
+    private String errorIdentifier;
+    private Date created;
+    private Date modified;
+
+    @Id
+    @Column(name = "id", unique = true)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(final UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "jobtype")
+    public String getJobType() {
+        return jobType;
+    }
+
+    public void setJobType(final String jobType) {
+        this.jobType = jobType;
+    }
+
+    @Column(name = "identifier")
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(final String identifier) {
+        this.identifier = identifier;
+    }
+
+    @JsonIgnore
+    @Column(name = "node")
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(final String node) {
+        this.node = node;
+    }
+
+    @JsonIgnore
+    @Column(name = "user_id")
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(final UUID userId) {
+        this.userId = userId;
+    }
+
+    @Column(name = "status")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    @Column(name = "phase")
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(final String phase) {
+        this.phase = phase;
+    }
+
+    @Column(name = "rowsprocessed")
+    public int getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public void setRowsProcessed(final int rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    @Column(name = "errorcode")
+    public Integer getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(final Integer errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    @Column(name = "errormessage")
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(final String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Column(name = "erroridentifier")
+    public String getErrorIdentifier() {
+        return errorIdentifier;
+    }
+
+    public void setErrorIdentifier(final String errorIdentifier) {
+        this.errorIdentifier = errorIdentifier;
+    }
+
+    @Schema(name = "dateTime")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created")
+    public Date getCreated() {
+        if (created != null) {
+            return new Date(created.getTime());
+        }
+        return null;
+    }
+
+    public void setCreated(final Date created) {
+        if (created != null) {
+            this.created = new Date(created.getTime());
+        } else {
+            this.created = null;
+        }
+    }
+
+    @Schema(name = "dateTime")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "modified")
+    public Date getModified() {
+        if (modified != null) {
+            return new Date(modified.getTime());
+        }
+        return null;
+    }
+
+    public void setModified(final Date modified) {
+        if (modified != null) {
+            this.modified = new Date(modified.getTime());
+        } else {
+            this.modified = null;
+        }
+    }
+}
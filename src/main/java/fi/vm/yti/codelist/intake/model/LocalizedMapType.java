@@ -0,0 +1,129 @@
+package fi.vm.yti.codelist.intake.model;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maps a localized value map, keyed by language, to a single jsonb column.
+ *
+ * Null and empty maps are equal and stored as null, and a null column is read as an empty map. Values are copied on
+ * snapshot, so that labels modified in place are detected as changes at flush.
+ */
+public class LocalizedMapType implements UserType {
+
+    public static final String NAME = "fi.vm.yti.codelist.intake.model.LocalizedMapType";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<HashMap<String, String>> MAP_TYPE = new TypeReference<HashMap<String, String>>() {
+    };
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{ Types.OTHER };
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return Map.class;
+    }
+
+    @Override
+    public boolean equals(final Object x,
+                          final Object y) {
+        return normalize(x).equals(normalize(y));
+    }
+
+    @Override
+    public int hashCode(final Object x) {
+        return normalize(x).hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(final ResultSet resultSet,
+                              final String[] names,
+                              final SharedSessionContractImplementor session,
+                              final Object owner) throws SQLException {
+        final String json = resultSet.getString(names[0]);
+        if (json == null) {
+            return new HashMap<String, String>();
+        }
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (final IOException e) {
+            throw new HibernateException("Invalid localized value in column " + names[0], e);
+        }
+    }
+
+    @Override
+    public void nullSafeSet(final PreparedStatement statement,
+                            final Object value,
+                            final int index,
+                            final SharedSessionContractImplementor session) throws SQLException {
+        final String json = toJson((Map<?, ?>) value);
+        if (json == null) {
+            statement.setNull(index, Types.OTHER);
+        } else {
+            statement.setObject(index, json, Types.OTHER);
+        }
+    }
+
+    /**
+     * Returns the column value of the localized map, null for null and empty maps.
+     */
+    public static String toJson(final Map<?, ?> value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (final JsonProcessingException e) {
+            throw new HibernateException("Localized value could not be serialized", e);
+        }
+    }
+
+    @Override
+    public Object deepCopy(final Object value) {
+        return value != null ? new HashMap<>((Map<?, ?>) value) : null;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(final Object value) {
+        return (Serializable) deepCopy(value);
+    }
+
+    @Override
+    public Object assemble(final Serializable cached,
+                           final Object owner) {
+        return deepCopy(cached);
+    }
+
+    @Override
+    public Object replace(final Object original,
+                          final Object target,
+                          final Object owner) {
+        return deepCopy(original);
+    }
+
+    private static Map<?, ?> normalize(final Object value) {
+        return value != null ? (Map<?, ?>) value : new HashMap<>();
+    }
+}
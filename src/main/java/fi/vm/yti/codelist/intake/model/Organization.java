@@ -5,20 +5,25 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import javax.persistence.CollectionTable;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
-import javax.persistence.MapKeyColumn;
-import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
+
+import static fi.vm.yti.codelist.intake.configuration.ReferenceDataCacheConfig.REGION_ORGANIZATION;
+
 @Entity
 @Table(name = "organization")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGION_ORGANIZATION)
 public class Organization extends AbstractIdentifyableCode implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -48,11 +53,8 @@ public class Organization extends AbstractIdentifyableCode implements Serializab
         this.removed = removed;
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "organization_preflabel", joinColumns = @JoinColumn(name = "organization_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "preflabel")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getPrefLabel() {
         return prefLabel;
     }
@@ -81,11 +83,8 @@ public class Organization extends AbstractIdentifyableCode implements Serializab
         setPrefLabel(this.prefLabel);
     }
 
-    @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "organization_description", joinColumns = @JoinColumn(name = "organization_id", referencedColumnName = "id"))
-    @MapKeyColumn(name = "language")
     @Column(name = "description")
-    @OrderColumn
+    @Type(type = LocalizedMapType.NAME)
     public Map<String, String> getDescription() {
         if (description == null) {
             description = new HashMap<>();
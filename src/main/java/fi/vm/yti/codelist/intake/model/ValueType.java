@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -14,8 +15,15 @@ import javax.persistence.MapKeyColumn;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import static fi.vm.yti.codelist.intake.configuration.ReferenceDataCacheConfig.REGION_VALUETYPE;
+
 @Entity
 @Table(name = "valuetype")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGION_VALUETYPE)
 public class ValueType extends AbstractIdentifyableCode implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -54,6 +62,7 @@ public class ValueType extends AbstractIdentifyableCode implements Serializable
         this.uri = uri;
     }
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGION_VALUETYPE)
     @ElementCollection(targetClass = String.class, fetch = FetchType.EAGER)
     @CollectionTable(name = "valuetype_preflabel", joinColumns = @JoinColumn(name = "valuetype_id", referencedColumnName = "id"))
     @MapKeyColumn(name = "language")
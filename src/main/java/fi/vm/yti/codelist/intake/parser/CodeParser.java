@@ -3,6 +3,7 @@ package fi.vm.yti.codelist.intake.parser;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.poi.ss.usermodel.Workbook;
 
@@ -13,6 +14,11 @@ public interface CodeParser {
     Set<CodeDTO> parseCodesFromCsvInputStream(final InputStream inputStream,
                                               final Map<String, String> broaderCodeMapping);
 
+    void parseCodesFromCsvInputStream(final InputStream inputStream,
+                                      final Map<String, String> broaderCodeMapping,
+                                      final int chunkSize,
+                                      final Consumer<Set<CodeDTO>> chunkConsumer);
+
     Set<CodeDTO> parseCodesFromExcelInputStream(final InputStream inputStream,
                                                 final String sheetName,
                                                 final Map<String, String> broaderCodeMapping);
@@ -24,4 +30,8 @@ public interface CodeParser {
     CodeDTO parseCodeFromJsonData(final String jsonPayload);
 
     Set<CodeDTO> parseCodesFromJsonData(final String jsonPayload);
+
+    void parseCodesFromJsonInputStream(final InputStream inputStream,
+                                       final int chunkSize,
+                                       final Consumer<Set<CodeDTO>> chunkConsumer);
 }
@@ -14,6 +14,8 @@ public interface MemberParser {
 
     Set<MemberDTO> parseMembersFromJson(final String jsonPayload);
 
+    Set<MemberDTO> parseMembersFromJsonInputStream(final InputStream inputStream);
+
     Set<MemberDTO> parseMembersFromCsvInputStream(final Extension extension,
                                                   final InputStream inputStream);
 
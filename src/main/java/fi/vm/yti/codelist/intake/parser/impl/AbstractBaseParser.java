@@ -1,5 +1,7 @@
 package fi.vm.yti.codelist.intake.parser.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
@@ -11,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.apache.commons.csv.CSVRecord;
@@ -25,6 +28,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
@@ -51,8 +57,6 @@ public abstract class AbstractBaseParser {
     public static final String JUPO_REGISTRY = "jupo";
     public static final String YTI_REGISTRY = "interoperabilityplatform";
     private static final Logger LOG = LoggerFactory.getLogger(AbstractBaseParser.class);
-    private static final String CODE_CODEVALUE_VALIDATOR = "^[a-zA-Z0-9_\\-\\.\\+\\&\\#\\*]*$";
-    private static final String CODESCHEME_CODEVALUE_VALIDATOR = "^[a-zA-Z0-9_\\-]*$";
     private static final String SUGGESTED_STATUS = "SUGGESTED";
     public static final Pattern URL_PATTERN = Pattern.compile("^https?://(?:[^\\s/@]+@)?(:?localhost|\\[[a-fA-F0-9:.]+\\]|[^\\s/@:.?#\\[\\]]+(?:\\.[^\\s/@:.?#\\[\\]]+)+)(?::\\d+)?(?:/\\S*)?$");
 
@@ -62,7 +66,7 @@ public abstract class AbstractBaseParser {
 
     public static void validateCodeCodeValue(final String codeValue,
                                              final String entityIdentifier) {
-        if (codeValue == null || !codeValue.matches(CODE_CODEVALUE_VALIDATOR)) {
+        if (!ValidationEngine.isValidCodeCodeValue(codeValue)) {
             LOG.error(String.format("Error with code: %s", codeValue));
             if (entityIdentifier != null) {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_INVALID_CODE_CODEVALUE_WITH_IDENTIFIER, entityIdentifier));
@@ -78,7 +82,7 @@ public abstract class AbstractBaseParser {
 
     public static void validateCodeValue(final String codeValue,
                                          final String entityIdentifier) {
-        if (!codeValue.matches(CODESCHEME_CODEVALUE_VALIDATOR)) {
+        if (!ValidationEngine.isValidCodeSchemeCodeValue(codeValue)) {
             LOG.error(String.format("Error with code: %s", codeValue));
             if (entityIdentifier != null) {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_INVALID_CODEVALUE_WITH_IDENTIFIER, entityIdentifier));
@@ -97,6 +101,31 @@ public abstract class AbstractBaseParser {
         return mapper;
     }
 
+    /**
+     * Reads a JSON array element by element from the stream without buffering the whole payload, handing each element
+     * to the consumer as soon as it has been bound.
+     */
+    <T> void readJsonArrayFromInputStream(final ObjectMapper mapper,
+                                          final InputStream inputStream,
+                                          final Class<T> elementType,
+                                          final Consumer<T> elementConsumer) throws IOException {
+        try (final JsonParser jsonParser = mapper.getFactory().createParser(inputStream)) {
+            final JsonToken firstToken = jsonParser.nextToken();
+            if (firstToken == null) {
+                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_JSON_PAYLOAD_EMPTY));
+            }
+            if (firstToken != JsonToken.START_ARRAY) {
+                throw new JsonMappingException(jsonParser, "Expected a JSON array.");
+            }
+            while (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+                elementConsumer.accept(mapper.readValue(jsonParser, elementType));
+            }
+            if (jsonParser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonMappingException(jsonParser, "Expected only objects in the JSON array.");
+            }
+        }
+    }
+
     boolean isRowEmpty(final Row row) {
         for (int cellIndex = row.getFirstCellNum(); cellIndex < row.getLastCellNum(); cellIndex++) {
             final Cell cell = row.getCell(cellIndex);
@@ -142,17 +171,15 @@ public abstract class AbstractBaseParser {
     }
 
     String parseStatusValueFromString(final String statusString) {
-        final String status;
-        try {
-            status = Status.valueOf(statusString.replaceAll(" ", "").trim().toUpperCase()).toString();
-        } catch (final Exception e) {
-            LOG.error("Caught exception in parseStatusValueFromString.", e);
+        final Status status = ValidationEngine.resolveStatus(statusString);
+        if (status == null) {
+            LOG.error(String.format("Parsing status failed from string: %s", statusString));
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_STATUS_NOT_VALID, statusString));
         }
-        if (SUGGESTED_STATUS.equalsIgnoreCase(status)) {
+        if (SUGGESTED_STATUS.equalsIgnoreCase(status.toString())) {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_SUGGESTED_STATUS_NOT_ALLOWED));
         }
-        return status;
+        return status.toString();
     }
 
     Map<String, String> parseLocalizedValueFromCsvRecord(final Map<String, Integer> valueHeaders,
@@ -225,16 +252,14 @@ public abstract class AbstractBaseParser {
 
     void checkOrdersForDuplicateValues(final Set<CodeDTO> codes) {
         final Set<Integer> orders = new HashSet<>();
-        codes.forEach(code -> {
-            final Integer order = code.getOrder();
-            if (order != null) {
-                if (!orders.contains(order)) {
-                    orders.add(order);
-                } else {
-                    throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_CODE_ORDER_CONTAINS_DUPLICATE_VALUES));
-                }
-            }
-        });
+        codes.forEach(code -> checkOrderForDuplicateValue(orders, code.getOrder()));
+    }
+
+    void checkOrderForDuplicateValue(final Set<Integer> orders,
+                                     final Integer order) {
+        if (order != null && !orders.add(order)) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_CODE_ORDER_CONTAINS_DUPLICATE_VALUES));
+        }
     }
 
     String parseStringFromCsvRecord(final CSVRecord record,
@@ -268,16 +293,6 @@ public abstract class AbstractBaseParser {
         return uuid;
     }
 
-    UUID parseIdFromRecord(final CSVRecord record) {
-        final UUID id;
-        if (record.isMapped(CONTENT_HEADER_ID)) {
-            id = parseUUIDFromString(record.get(CONTENT_HEADER_ID));
-        } else {
-            id = null;
-        }
-        return id;
-    }
-
     String parseCodeValueFromRecord(final CSVRecord record) {
         final String codeValue;
         if (record.isMapped(CONTENT_HEADER_CODEVALUE)) {
@@ -300,52 +315,8 @@ public abstract class AbstractBaseParser {
         return parseStringFromCsvRecord(record, CONTENT_HEADER_CONCEPTURI);
     }
 
-    Integer resolveOrderFromExcelRow(final Map<String, Integer> headerMap,
-                                     final Row row,
-                                     final DataFormatter formatter) {
-        final Integer order;
-        if (headerMap.containsKey(CONTENT_HEADER_ORDER)) {
-            order = resolveOrderFromString(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_ORDER))), String.valueOf(row.getRowNum()));
-        } else {
-            order = null;
-        }
-        return order;
-    }
-
-    Integer resolveSequenceIdFromExcelRow(final Map<String, Integer> headerMap,
-                                          final Row row,
-                                          final DataFormatter formatter) {
-        final Integer sequenceId;
-        if (headerMap.containsKey(CONTENT_HEADER_MEMBER_ID)) {
-            sequenceId = resolveSequenceIdFromString(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_MEMBER_ID))), String.valueOf(row.getRowNum()));
-        } else {
-            sequenceId = null;
-        }
-        return sequenceId;
-    }
-
-    Integer resolveOrderFromCsvRecord(final CSVRecord record) {
-        final Integer order;
-        if (record.isMapped(CONTENT_HEADER_ORDER)) {
-            order = resolveOrderFromString(record.get(CONTENT_HEADER_ORDER), String.valueOf(record.getRecordNumber()));
-        } else {
-            order = null;
-        }
-        return order;
-    }
-
-    Integer resolveSequenceIdFromCsvRecord(final CSVRecord record) {
-        final Integer order;
-        if (record.isMapped(CONTENT_HEADER_MEMBER_ID)) {
-            order = resolveSequenceIdFromString(record.get(CONTENT_HEADER_MEMBER_ID), String.valueOf(record.getRecordNumber()));
-        } else {
-            order = null;
-        }
-        return order;
-    }
-
-    private Integer resolveOrderFromString(final String orderString,
-                                           final String rowIdentifier) {
+    Integer resolveOrderFromString(final String orderString,
+                                   final String rowIdentifier) {
         final Integer order;
         if (!orderString.isEmpty()) {
             try {
@@ -361,8 +332,8 @@ public abstract class AbstractBaseParser {
         return order;
     }
 
-    private Integer resolveSequenceIdFromString(final String sequenceIdString,
-                                                final String rowIdentifier) {
+    Integer resolveSequenceIdFromString(final String sequenceIdString,
+                                        final String rowIdentifier) {
         final Integer sequenceId;
         if (!sequenceIdString.isEmpty()) {
             try {
@@ -381,17 +352,17 @@ public abstract class AbstractBaseParser {
     Set<OrganizationDTO> resolveOrganizations(final String organizationsString) {
         final Set<OrganizationDTO> organizations = new HashSet<>();
         if (organizationsString != null && !organizationsString.isEmpty()) {
-            for (final String organizationId : organizationsString.split(";")) {
+            ValidationEngine.forEachListItem(organizationsString, ';', organizationId -> {
                 final OrganizationDTO organization = new OrganizationDTO();
-                organization.setId(UUID.fromString(trimWhiteSpaceFromString(organizationId)));
+                organization.setId(UUID.fromString(organizationId));
                 organizations.add(organization);
-            }
+            });
         }
         return organizations;
     }
 
     public String trimWhiteSpaceFromString(final String string) {
-        return string.replaceAll(" ", "").trim();
+        return ValidationEngine.removeNonBreakingSpaces(string);
     }
 
     Set<ExternalReferenceDTO> resolveHrefs(final String externalReferencesString) {
@@ -439,9 +410,10 @@ public abstract class AbstractBaseParser {
         if (row.getLastCellNum() <= 0) {
             return true;
         }
+        final DataFormatter formatter = new DataFormatter();
         for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
             final Cell cell = row.getCell(cellNum);
-            if (cell != null && cell.getCellType() != CellType.BLANK && StringUtils.isNotBlank(trimWhiteSpaceFromString(cell.toString()))) {
+            if (cell != null && cell.getCellType() != CellType.BLANK && StringUtils.isNotBlank(trimWhiteSpaceFromString(formatter.formatCellValue(cell)))) {
                 return false;
             }
         }
@@ -477,7 +449,19 @@ public abstract class AbstractBaseParser {
                                       final MemberDTO memberDTO,
                                       final String theContentHeader,
                                       final String theErrorMessage) {
-        Cell cell = row.getCell(headerMap.get(theContentHeader));
+        parseDateFromExcel(formatter, headerMap.get(theContentHeader), row, rowIdentifier, targetDto, alternateTargetDto, memberDTO, theContentHeader, theErrorMessage);
+    }
+
+    protected void parseDateFromExcel(final DataFormatter formatter,
+                                      final int columnIndex,
+                                      final Row row,
+                                      final String rowIdentifier,
+                                      final AbstractHistoricalCodeDTO targetDto,
+                                      final AbstractHistoricalIdentifyableCodeWithStatusDTO alternateTargetDto,
+                                      final MemberDTO memberDTO,
+                                      final String theContentHeader,
+                                      final String theErrorMessage) {
+        Cell cell = row.getCell(columnIndex);
         if (cell == null) {
             return;
         }
@@ -485,19 +469,19 @@ public abstract class AbstractBaseParser {
         if (cellType.compareTo(CellType.STRING) == 0) {
             if (theContentHeader != null && theContentHeader.equals(CONTENT_HEADER_STARTDATE)) {
                 if (targetDto != null) {
-                    targetDto.setStartDate(parseStartDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    targetDto.setStartDate(parseStartDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 } else if (alternateTargetDto != null) {
-                    alternateTargetDto.setStartDate(parseStartDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    alternateTargetDto.setStartDate(parseStartDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 } else {
-                    memberDTO.setStartDate(parseStartDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    memberDTO.setStartDate(parseStartDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 }
             } else if (theContentHeader != null && theContentHeader.equals(CONTENT_HEADER_ENDDATE)) {
                 if (targetDto != null) {
-                    targetDto.setEndDate(parseEndDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    targetDto.setEndDate(parseEndDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 } else if (alternateTargetDto != null) {
-                    alternateTargetDto.setEndDate(parseEndDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    alternateTargetDto.setEndDate(parseEndDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 } else {
-                    memberDTO.setEndDate(parseEndDateFromString(formatter.formatCellValue(row.getCell(headerMap.get(theContentHeader))), rowIdentifier));
+                    memberDTO.setEndDate(parseEndDateFromString(formatter.formatCellValue(cell), rowIdentifier));
                 }
             }
         } else if (cellType.compareTo(CellType.NUMERIC) == 0) {
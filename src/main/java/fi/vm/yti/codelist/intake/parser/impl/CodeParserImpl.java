@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -23,7 +25,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -45,87 +46,91 @@ import fi.vm.yti.codelist.intake.exception.MissingRowValueCodeValueException;
 import fi.vm.yti.codelist.intake.exception.MissingRowValueStatusException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.parser.CodeParser;
+import fi.vm.yti.codelist.intake.parser.impl.RowSchema.Column;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Service
 public class CodeParserImpl extends AbstractBaseParser implements CodeParser {
 
     private static final Logger LOG = LoggerFactory.getLogger(CodeParserImpl.class);
+    private static final int CSV_CHUNK_SIZE = 1000;
+    private static final int EXCEL_VALIDATION_BATCH_SIZE = 4096;
 
     @Override
     public Set<CodeDTO> parseCodesFromCsvInputStream(final InputStream inputStream,
                                                      final Map<String, String> broaderCodeMapping) {
         final Set<CodeDTO> codes = new LinkedHashSet<>();
-        final Set<String> codeValues = new HashSet<>();
+        parseCodesFromCsvInputStream(inputStream, broaderCodeMapping, CSV_CHUNK_SIZE, codes::addAll);
+        return codes;
+    }
+
+    /**
+     * Reads CSV records one at a time and hands the resulting codes to the consumer in chunks of at most chunkSize
+     * codes, so that only the current chunk is held in memory. The records of each chunk are validated in parallel,
+     * uniqueness of code values and orders is checked across the whole file.
+     *
+     * Only failures to read the file are reported as CSV parsing errors. Exceptions thrown by the validation or by the
+     * consumer reach the caller unchanged.
+     */
+    @Override
+    public void parseCodesFromCsvInputStream(final InputStream inputStream,
+                                             final Map<String, String> broaderCodeMapping,
+                                             final int chunkSize,
+                                             final Consumer<Set<CodeDTO>> chunkConsumer) {
         try (final InputStreamReader inputStreamReader = new InputStreamReader(new BOMInputStream(inputStream), StandardCharsets.UTF_8);
              final BufferedReader in = new BufferedReader(inputStreamReader);
-             final CSVParser csvParser = new CSVParser(in, CSVFormat.newFormat(',').withQuote('"').withQuoteMode(QuoteMode.MINIMAL).withHeader())) {
+             final CSVParser csvParser = createCsvParser(in)) {
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
-            final Map<String, Integer> prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
-            final Map<String, Integer> definitionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DEFINITION_PREFIX);
-            final Map<String, Integer> descriptionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
             validateRequiredHeaders(headerMap);
-
-            final List<CSVRecord> records = csvParser.getRecords();
-
-            for (final CSVRecord record : records) {
-                final String recordIdentifier = getRecordIdentifier(record);
-                validateRequiredDataOnRecord(record);
-                final CodeDTO code = new CodeDTO();
-                code.setId(parseIdFromRecord(record));
-                final String codeValue = parseCodeValueFromRecord(record);
-                validateCodeCodeValue(codeValue, recordIdentifier);
-                checkForDuplicateCodeValueInImportData(codeValues, codeValue);
-                codeValues.add(codeValue.toLowerCase());
-                code.setCodeValue(codeValue);
-                code.setPrefLabel(parseLocalizedValueFromCsvRecord(prefLabelHeaders, record));
-                code.setDefinition(parseLocalizedValueFromCsvRecord(definitionHeaders, record));
-                code.setDescription(parseLocalizedValueFromCsvRecord(descriptionHeaders, record));
-                code.setShortName(parseShortNameFromCsvRecord(record));
-                code.setConceptUriInVocabularies(parseConceptUriFromCsvRecord(record));
-                code.setOrder(resolveOrderFromCsvRecord(record));
-                if (record.isMapped(CONTENT_HEADER_HREF)) {
-                    code.setExternalReferences(resolveHrefs(record.get(CONTENT_HEADER_HREF)));
-                }
-                if (record.isMapped(CONTENT_HEADER_BROADER)) {
-                    final String broaderCodeCodeValue = record.get(CONTENT_HEADER_BROADER);
-                    if (broaderCodeCodeValue != null && !broaderCodeCodeValue.isEmpty()) {
-                        broaderCodeMapping.put(codeValue.toLowerCase(), broaderCodeCodeValue.toLowerCase());
-                    } else {
-                        broaderCodeMapping.put(codeValue.toLowerCase(), null);
-                    }
-                }
-                code.setStatus(parseStatusValueFromString(record.get(CONTENT_HEADER_STATUS)));
-                if (record.isMapped(CONTENT_HEADER_STARTDATE)) {
-                    code.setStartDate(parseStartDateFromString(parseStartDateStringFromCsvRecord(record), recordIdentifier));
-                }
-                if (record.isMapped(CONTENT_HEADER_ENDDATE)) {
-                    code.setEndDate(parseEndDateFromString(parseEndDateStringFromCsvRecord(record), recordIdentifier));
-                }
-                validateStartDateIsBeforeEndDate(code);
-                if (record.isMapped(CONTENT_HEADER_SUBCODESCHEME)) {
-                    code.setSubCodeScheme(parseSubCodeSchemeFromString(parseStringFromCsvRecord(record, CONTENT_HEADER_SUBCODESCHEME).trim()));
+            final RowSchema schema = new RowSchema(headerMap);
+            final ParallelRowValidator<CSVRecord, CodeDTO> validator = new ParallelRowValidator<>(() -> record -> parseCodeFromCsvRecord(schema, record), CodeDTO::getCodeValue, CodeDTO::getOrder);
+            final List<CSVRecord> records = new ArrayList<>(chunkSize);
+            final Iterator<CSVRecord> recordIterator = csvParser.iterator();
+            CSVRecord record;
+            while ((record = nextCsvRecord(recordIterator)) != null) {
+                records.add(record);
+                if (records.size() >= chunkSize) {
+                    chunkConsumer.accept(validateCsvRecords(schema, validator, records, broaderCodeMapping));
+                    records.clear();
                 }
-
-                codes.add(code);
             }
-            checkOrdersForDuplicateValues(codes);
+            if (!records.isEmpty()) {
+                chunkConsumer.accept(validateCsvRecords(schema, validator, records, broaderCodeMapping));
+            }
+        } catch (final IOException e) {
+            LOG.error("Error parsing CSV file!", e);
+            throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
+        }
+    }
+
+    private static CSVParser createCsvParser(final BufferedReader in) throws IOException {
+        try {
+            return new CSVParser(in, CSVFormat.newFormat(',').withQuote('"').withQuoteMode(QuoteMode.MINIMAL).withHeader());
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        }
+    }
+
+    /**
+     * Returns the next record, or null at the end of the file.
+     */
+    private static CSVRecord nextCsvRecord(final Iterator<CSVRecord> recordIterator) {
+        try {
+            return recordIterator.hasNext() ? recordIterator.next() : null;
+        } catch (final IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
-        return codes;
     }
 
     @Override
     public Set<CodeDTO> parseCodesFromExcelInputStream(final InputStream inputStream,
                                                        final String sheetName,
                                                        final Map<String, String> broaderCodeMapping) {
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             return parseCodesFromExcelWorkbook(workbook, sheetName, broaderCodeMapping);
         } catch (final EmptyFileException | IOException e) {
             LOG.error("Error parsing Excel file!", e);
@@ -139,7 +144,6 @@ public class CodeParserImpl extends AbstractBaseParser implements CodeParser {
                                                     final String sheetName,
                                                     final Map<String, String> broaderCodeMapping) {
         final Set<CodeDTO> codes = new LinkedHashSet<>();
-        final Set<String> codeValues = new HashSet<>();
         final DataFormatter formatter = new DataFormatter();
         Sheet sheet = workbook.getSheet(sheetName);
         if (sheet == null) {
@@ -150,69 +154,146 @@ public class CodeParserImpl extends AbstractBaseParser implements CodeParser {
         }
         final Iterator<Row> rowIterator = sheet.rowIterator();
         boolean firstRow = true;
-        Map<String, Integer> headerMap = null;
-        Map<String, Integer> prefLabelHeaders = null;
-        Map<String, Integer> definitionHeaders = null;
-        Map<String, Integer> descriptionHeaders = null;
+        RowSchema schema = null;
+        ParallelRowValidator<Row, CodeDTO> validator = null;
+        final List<Row> rows = new ArrayList<>(EXCEL_VALIDATION_BATCH_SIZE);
         checkIfExcelEmpty(rowIterator);
         while (rowIterator.hasNext()) {
             final Row row = rowIterator.next();
-            final String rowIdentifier = getRowIdentifier(row);
             if (firstRow) {
                 firstRow = false;
-                headerMap = resolveHeaderMap(row);
-                prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
-                definitionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DEFINITION_PREFIX);
-                descriptionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
+                final Map<String, Integer> headerMap = resolveHeaderMap(row);
                 validateRequiredHeaders(headerMap);
+                final RowSchema rowSchema = new RowSchema(headerMap);
+                schema = rowSchema;
+                validator = new ParallelRowValidator<>(() -> {
+                    final DataFormatter rowFormatter = new DataFormatter();
+                    return excelRow -> parseCodeFromExcelRow(rowSchema, excelRow, rowFormatter);
+                }, CodeDTO::getCodeValue, null);
             } else if (!checkIfRowIsEmpty(row)) {
-                final CodeDTO code = new CodeDTO();
-                final String codeValue = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))).trim();
-                final String status = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_STATUS)));
-                validateRequiredDataOnRow(row, headerMap, formatter);
-                validateCodeCodeValue(codeValue, rowIdentifier);
-                checkForDuplicateCodeValueInImportData(codeValues, codeValue);
-                codeValues.add(codeValue.toLowerCase());
-                code.setCodeValue(codeValue);
-                code.setStatus(parseStatusValueFromString(status));
-                if (headerMap.containsKey(CONTENT_HEADER_ID)) {
-                    code.setId(parseUUIDFromString(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_ID)))));
+                rows.add(row);
+                if (rows.size() >= EXCEL_VALIDATION_BATCH_SIZE) {
+                    validateExcelRows(schema, validator, rows, formatter, broaderCodeMapping, codes);
+                    rows.clear();
                 }
-                code.setPrefLabel(parseLocalizedValueFromExcelRow(prefLabelHeaders, row, formatter));
-                code.setDefinition(parseLocalizedValueFromExcelRow(definitionHeaders, row, formatter));
-                code.setDescription(parseLocalizedValueFromExcelRow(descriptionHeaders, row, formatter));
-                code.setShortName(parseShortNameFromExcelRow(headerMap, row, formatter));
-                code.setConceptUriInVocabularies(parseConceptUriFromExcelRow(headerMap, row, formatter));
-                code.setOrder(resolveOrderFromExcelRow(headerMap, row, formatter));
-                if (headerMap.containsKey(CONTENT_HEADER_HREF)) {
-                    code.setExternalReferences(resolveHrefs(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_HREF)))));
-                }
-                if (headerMap.containsKey(CONTENT_HEADER_BROADER)) {
-                    final String broaderCodeCodeValue = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_BROADER)));
-                    if (broaderCodeCodeValue != null && !broaderCodeCodeValue.isEmpty()) {
-                        broaderCodeMapping.put(codeValue.toLowerCase(), broaderCodeCodeValue.toLowerCase());
-                    } else {
-                        broaderCodeMapping.put(codeValue.toLowerCase(), null);
-                    }
-                }
-                if (headerMap.containsKey(CONTENT_HEADER_STARTDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, rowIdentifier, code, null, null, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
-                }
-                if (headerMap.containsKey(CONTENT_HEADER_ENDDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, rowIdentifier, code, null, null, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
-                }
-                if (headerMap.containsKey(CONTENT_HEADER_SUBCODESCHEME)) {
-                    code.setSubCodeScheme(parseSubCodeSchemeFromString(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_SUBCODESCHEME)))));
-                }
-                validateStartDateIsBeforeEndDate(code);
-                codes.add(code);
             }
-
+        }
+        if (!rows.isEmpty()) {
+            validateExcelRows(schema, validator, rows, formatter, broaderCodeMapping, codes);
         }
         checkOrdersForDuplicateValues(codes);
         return codes;
     }
 
+    private Set<CodeDTO> validateCsvRecords(final RowSchema schema,
+                                            final ParallelRowValidator<CSVRecord, CodeDTO> validator,
+                                            final List<CSVRecord> records,
+                                            final Map<String, String> broaderCodeMapping) {
+        final List<CodeDTO> validatedCodes = validator.validate(records);
+        if (schema.has(Column.BROADER)) {
+            for (int i = 0; i < validatedCodes.size(); i++) {
+                putBroaderCodeMapping(broaderCodeMapping, validatedCodes.get(i).getCodeValue(), schema.get(records.get(i), Column.BROADER));
+            }
+        }
+        return new LinkedHashSet<>(validatedCodes);
+    }
+
+    private void validateExcelRows(final RowSchema schema,
+                                   final ParallelRowValidator<Row, CodeDTO> validator,
+                                   final List<Row> rows,
+                                   final DataFormatter formatter,
+                                   final Map<String, String> broaderCodeMapping,
+                                   final Set<CodeDTO> codes) {
+        final List<CodeDTO> validatedCodes = validator.validate(rows);
+        if (schema.has(Column.BROADER)) {
+            for (int i = 0; i < validatedCodes.size(); i++) {
+                putBroaderCodeMapping(broaderCodeMapping, validatedCodes.get(i).getCodeValue(), schema.get(rows.get(i), formatter, Column.BROADER));
+            }
+        }
+        codes.addAll(validatedCodes);
+    }
+
+    /**
+     * Row local parsing and validation of a CSV record, called concurrently for different records.
+     */
+    private CodeDTO parseCodeFromCsvRecord(final RowSchema schema,
+                                           final CSVRecord record) {
+        final String recordIdentifier = getRecordIdentifier(record);
+        final String codeValue = schema.get(record, Column.CODEVALUE);
+        final String status = schema.get(record, Column.STATUS);
+        validateRequiredDataOnRecord(codeValue, status, recordIdentifier);
+        final CodeDTO code = new CodeDTO();
+        code.setId(parseUUIDFromString(schema.get(record, Column.ID)));
+        final String trimmedCodeValue = codeValue.trim();
+        validateCodeCodeValue(trimmedCodeValue, recordIdentifier);
+        code.setCodeValue(trimmedCodeValue);
+        code.setPrefLabel(schema.getPrefLabelColumns().read(record));
+        code.setDefinition(schema.getDefinitionColumns().read(record));
+        code.setDescription(schema.getDescriptionColumns().read(record));
+        code.setShortName(schema.get(record, Column.SHORTNAME));
+        code.setConceptUriInVocabularies(schema.get(record, Column.CONCEPTURI));
+        if (schema.has(Column.ORDER)) {
+            code.setOrder(resolveOrderFromString(schema.get(record, Column.ORDER), String.valueOf(record.getRecordNumber())));
+        }
+        if (schema.has(Column.HREF)) {
+            code.setExternalReferences(resolveHrefs(schema.get(record, Column.HREF)));
+        }
+        code.setStatus(parseStatusValueFromString(status));
+        if (schema.has(Column.STARTDATE)) {
+            code.setStartDate(parseStartDateFromString(schema.get(record, Column.STARTDATE), recordIdentifier));
+        }
+        if (schema.has(Column.ENDDATE)) {
+            code.setEndDate(parseEndDateFromString(schema.get(record, Column.ENDDATE), recordIdentifier));
+        }
+        validateStartDateIsBeforeEndDate(code);
+        if (schema.has(Column.SUBCODESCHEME)) {
+            code.setSubCodeScheme(parseSubCodeSchemeFromString(schema.get(record, Column.SUBCODESCHEME).trim()));
+        }
+        return code;
+    }
+
+    /**
+     * Row local parsing and validation of an Excel row, called concurrently for different rows with a formatter per
+     * thread.
+     */
+    private CodeDTO parseCodeFromExcelRow(final RowSchema schema,
+                                          final Row row,
+                                          final DataFormatter formatter) {
+        final String rowIdentifier = getRowIdentifier(row);
+        final CodeDTO code = new CodeDTO();
+        final String codeValue = schema.get(row, formatter, Column.CODEVALUE).trim();
+        final String status = schema.get(row, formatter, Column.STATUS);
+        validateRequiredDataOnRow(codeValue, status, rowIdentifier);
+        validateCodeCodeValue(codeValue, rowIdentifier);
+        code.setCodeValue(codeValue);
+        code.setStatus(parseStatusValueFromString(status));
+        if (schema.has(Column.ID)) {
+            code.setId(parseUUIDFromString(schema.get(row, formatter, Column.ID)));
+        }
+        code.setPrefLabel(schema.getPrefLabelColumns().read(row, formatter));
+        code.setDefinition(schema.getDefinitionColumns().read(row, formatter));
+        code.setDescription(schema.getDescriptionColumns().read(row, formatter));
+        code.setShortName(schema.get(row, formatter, Column.SHORTNAME));
+        code.setConceptUriInVocabularies(schema.get(row, formatter, Column.CONCEPTURI));
+        if (schema.has(Column.ORDER)) {
+            code.setOrder(resolveOrderFromString(schema.get(row, formatter, Column.ORDER), String.valueOf(row.getRowNum())));
+        }
+        if (schema.has(Column.HREF)) {
+            code.setExternalReferences(resolveHrefs(schema.get(row, formatter, Column.HREF)));
+        }
+        if (schema.has(Column.STARTDATE)) {
+            parseDateFromExcel(formatter, schema.indexOf(Column.STARTDATE), row, rowIdentifier, code, null, null, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
+        }
+        if (schema.has(Column.ENDDATE)) {
+            parseDateFromExcel(formatter, schema.indexOf(Column.ENDDATE), row, rowIdentifier, code, null, null, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
+        }
+        if (schema.has(Column.SUBCODESCHEME)) {
+            code.setSubCodeScheme(parseSubCodeSchemeFromString(schema.get(row, formatter, Column.SUBCODESCHEME)));
+        }
+        validateStartDateIsBeforeEndDate(code);
+        return code;
+    }
+
     @Override
     public CodeDTO parseCodeFromJsonData(final String jsonPayload) {
         final ObjectMapper mapper = createObjectMapper();
@@ -248,6 +329,39 @@ public class CodeParserImpl extends AbstractBaseParser implements CodeParser {
         return codes;
     }
 
+    /**
+     * Streams a JSON array of codes and hands them to the consumer in chunks of at most chunkSize codes. Code values,
+     * orders and start and end dates are validated per element as they are read.
+     */
+    @Override
+    public void parseCodesFromJsonInputStream(final InputStream inputStream,
+                                              final int chunkSize,
+                                              final Consumer<Set<CodeDTO>> chunkConsumer) {
+        final ObjectMapper mapper = createObjectMapper();
+        final Set<String> codeValues = new HashSet<>();
+        final Set<Integer> orders = new HashSet<>();
+        final Set<CodeDTO> codes = new LinkedHashSet<>();
+        try {
+            readJsonArrayFromInputStream(mapper, inputStream, CodeDTO.class, code -> {
+                checkForDuplicateCodeValueInImportData(codeValues, code.getCodeValue());
+                validateStartDateIsBeforeEndDate(code);
+                codeValues.add(code.getCodeValue().toLowerCase());
+                checkOrderForDuplicateValue(orders, code.getOrder());
+                codes.add(code);
+                if (codes.size() >= chunkSize) {
+                    chunkConsumer.accept(new LinkedHashSet<>(codes));
+                    codes.clear();
+                }
+            });
+        } catch (final IOException e) {
+            LOG.error("Codes parsing failed from JSON!", e);
+            throw new JsonParsingException(ERR_MSG_USER_CODE_PARSING_FAILED);
+        }
+        if (!codes.isEmpty()) {
+            chunkConsumer.accept(codes);
+        }
+    }
+
     private void validateRequiredHeaders(final Map<String, Integer> headerMap) {
         if (!headerMap.containsKey(CONTENT_HEADER_CODEVALUE)) {
             throw new MissingHeaderCodeValueException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
@@ -259,69 +373,48 @@ public class CodeParserImpl extends AbstractBaseParser implements CodeParser {
         }
     }
 
-    protected void validateRequiredDataOnRow(final Row row,
-                                             final Map<String, Integer> headerMap,
-                                             final DataFormatter formatter) {
-        if (formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))) == null ||
-            formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))).isEmpty()) {
+    private void validateRequiredDataOnRow(final String codeValue,
+                                           final String status,
+                                           final String rowIdentifier) {
+        if (codeValue == null || codeValue.isEmpty()) {
             throw new MissingRowValueCodeValueException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODEVALUE, getRowIdentifier(row)));
+                ERR_MSG_USER_ROW_MISSING_CODEVALUE, rowIdentifier));
         }
-        if (formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_STATUS))) == null ||
-            formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_STATUS))).isEmpty()) {
+        if (status == null || status.isEmpty()) {
             throw new MissingRowValueStatusException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_STATUS, getRowIdentifier(row)));
+                ERR_MSG_USER_ROW_MISSING_STATUS, rowIdentifier));
         }
     }
 
-    private void validateRequiredDataOnRecord(final CSVRecord record) {
-        // This try-catch block prevents an ugly and large vomit of non-UTF-8 characters from polluting the log.
-        // The problem emanates from Apache's CVSRecord itself so hacking around it for now like this.
-        // This problem happens for example when the user specifies CSV but gives Excel with certain kind of data.
-        if (record.get(CONTENT_HEADER_CODEVALUE) == null || record.get(CONTENT_HEADER_CODEVALUE).isEmpty()) {
+    private void validateRequiredDataOnRecord(final String codeValue,
+                                              final String status,
+                                              final String recordIdentifier) {
+        if (codeValue == null || codeValue.isEmpty()) {
             LOG.error("CODEVALUE header not found or value empty in CSV file!");
             throw new MissingRowValueCodeValueException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODEVALUE, getRecordIdentifier(record)));
+                ERR_MSG_USER_ROW_MISSING_CODEVALUE, recordIdentifier));
         }
-        if (record.get(CONTENT_HEADER_STATUS) == null || record.get(CONTENT_HEADER_STATUS).isEmpty()) {
+        if (status == null || status.isEmpty()) {
             LOG.error("STATUS header not found or value empty in CSV file!");
             throw new MissingRowValueStatusException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_STATUS, getRecordIdentifier(record)));
+                ERR_MSG_USER_ROW_MISSING_STATUS, recordIdentifier));
         }
     }
 
-    private void validateStartDateIsBeforeEndDate(final CodeDTO code) {
-        if (!startDateIsBeforeEndDateSanityCheck(code.getStartDate(), code.getEndDate())) {
-            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_END_BEFORE_START_DATE));
-        }
-    }
-
-    private String parseShortNameFromCsvRecord(final CSVRecord record) {
-        return parseStringFromCsvRecord(record, CONTENT_HEADER_SHORTNAME);
-    }
-
-    private String parseShortNameFromExcelRow(final Map<String, Integer> genericHeaders,
-                                              final Row row,
-                                              final DataFormatter formatter) {
-        final String shortName;
-        if (genericHeaders.get(CONTENT_HEADER_SHORTNAME) != null) {
-            shortName = formatter.formatCellValue(row.getCell(genericHeaders.get(CONTENT_HEADER_SHORTNAME)));
+    private void putBroaderCodeMapping(final Map<String, String> broaderCodeMapping,
+                                       final String codeValue,
+                                       final String broaderCodeCodeValue) {
+        if (broaderCodeCodeValue != null && !broaderCodeCodeValue.isEmpty()) {
+            broaderCodeMapping.put(codeValue.toLowerCase(), broaderCodeCodeValue.toLowerCase());
         } else {
-            shortName = null;
+            broaderCodeMapping.put(codeValue.toLowerCase(), null);
         }
-        return shortName;
     }
 
-    private String parseConceptUriFromExcelRow(final Map<String, Integer> genericHeaders,
-                                               final Row row,
-                                               final DataFormatter formatter) {
-        final String conceptUri;
-        if (genericHeaders.get(CONTENT_HEADER_CONCEPTURI) != null) {
-            conceptUri = formatter.formatCellValue(row.getCell(genericHeaders.get(CONTENT_HEADER_CONCEPTURI)));
-        } else {
-            conceptUri = null;
+    private void validateStartDateIsBeforeEndDate(final CodeDTO code) {
+        if (!startDateIsBeforeEndDateSanityCheck(code.getStartDate(), code.getEndDate())) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_END_BEFORE_START_DATE));
         }
-        return conceptUri;
     }
 
     private CodeSchemeDTO parseSubCodeSchemeFromString(final String subCodeSchemeIdentifier) {
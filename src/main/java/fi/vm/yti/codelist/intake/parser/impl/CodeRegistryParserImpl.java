@@ -22,7 +22,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -44,6 +43,7 @@ import fi.vm.yti.codelist.intake.exception.MissingRowValuePrefLabelException;
 import fi.vm.yti.codelist.intake.parser.CodeRegistryParser;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Service
 public class CodeRegistryParserImpl extends AbstractBaseParser implements CodeRegistryParser {
@@ -92,8 +92,7 @@ public class CodeRegistryParserImpl extends AbstractBaseParser implements CodeRe
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
             final Map<String, Integer> prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
             final Map<String, Integer> descriptionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
-            final List<CSVRecord> records = csvParser.getRecords();
-            records.forEach(record -> {
+            csvParser.forEach(record -> {
                 final String recordIdentifier = getRecordIdentifier(record);
                 final CodeRegistryDTO fromCodeRegistry = new CodeRegistryDTO();
                 final String codeValue = parseCodeValueFromRecord(record);
@@ -111,7 +110,7 @@ public class CodeRegistryParserImpl extends AbstractBaseParser implements CodeRe
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -123,7 +122,7 @@ public class CodeRegistryParserImpl extends AbstractBaseParser implements CodeRe
     public Set<CodeRegistryDTO> parseCodeRegistriesFromExcelInputStream(final InputStream inputStream) {
         final Set<CodeRegistryDTO> codeRegistries = new HashSet<>();
         final Set<String> codeValues = new HashSet<>();
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             final DataFormatter formatter = new DataFormatter();
             Sheet sheet = workbook.getSheet(EXCEL_SHEET_CODEREGISTRIES);
             if (sheet == null) {
@@ -6,7 +6,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -123,8 +122,7 @@ public class CodeSchemeParserImpl extends AbstractBaseParser implements CodeSche
             final Map<String, Integer> descriptionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
             final Map<String, Integer> changeNoteHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_CHANGENOTE_PREFIX);
             validateRequiredHeaders(headerMap);
-            final List<CSVRecord> records = csvParser.getRecords();
-            for (final CSVRecord record : records) {
+            for (final CSVRecord record : csvParser) {
                 final String recordIdentifier = getRecordIdentifier(record);
                 validateRequiredDataOnRecord(record, headerMap);
                 final CodeSchemeDTO codeScheme = new CodeSchemeDTO();
@@ -186,7 +184,7 @@ public class CodeSchemeParserImpl extends AbstractBaseParser implements CodeSche
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -328,13 +326,10 @@ public class CodeSchemeParserImpl extends AbstractBaseParser implements CodeSche
         if (infoDomainCodes == null || infoDomainCodes.isEmpty()) {
             throw new BadInformationDomainException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_BAD_INFORMATIONDOMAIN));
         }
-        final List<String> codes = Arrays.asList(infoDomainCodes.split(";"));
-        codes.forEach(code -> {
-            if (!code.isEmpty()) {
-                final CodeDTO infoDomain = new CodeDTO();
-                infoDomain.setCodeValue(trimWhiteSpaceFromString(code));
-                infoDomains.add(infoDomain);
-            }
+        ValidationEngine.forEachListItem(infoDomainCodes, ';', code -> {
+            final CodeDTO infoDomain = new CodeDTO();
+            infoDomain.setCodeValue(code);
+            infoDomains.add(infoDomain);
         });
         return infoDomains;
     }
@@ -344,13 +339,10 @@ public class CodeSchemeParserImpl extends AbstractBaseParser implements CodeSche
         if (languageCodes == null || languageCodes.isEmpty()) {
             return languages;
         }
-        final List<String> codes = Arrays.asList(languageCodes.split(";"));
-        codes.forEach(code -> {
-            if (!code.isEmpty()) {
-                final CodeDTO languageCode = new CodeDTO();
-                languageCode.setCodeValue(trimWhiteSpaceFromString(code));
-                languages.add(languageCode);
-            }
+        ValidationEngine.forEachListItem(languageCodes, ';', code -> {
+            final CodeDTO languageCode = new CodeDTO();
+            languageCode.setCodeValue(code);
+            languages.add(languageCode);
         });
         return languages;
     }
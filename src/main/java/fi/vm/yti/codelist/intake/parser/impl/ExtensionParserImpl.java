@@ -5,11 +5,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -23,7 +20,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -46,8 +42,10 @@ import fi.vm.yti.codelist.intake.exception.MissingRowValueCodeValueException;
 import fi.vm.yti.codelist.intake.exception.MissingRowValueStatusException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.parser.ExtensionParser;
+import fi.vm.yti.codelist.intake.parser.impl.RowSchema.Column;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Component
 public class ExtensionParserImpl extends AbstractBaseParser implements ExtensionParser {
@@ -91,40 +89,38 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
              final BufferedReader in = new BufferedReader(inputStreamReader);
              final CSVParser csvParser = new CSVParser(in, CSVFormat.newFormat(',').withQuote('"').withQuoteMode(QuoteMode.MINIMAL).withHeader())) {
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
-            final Map<String, Integer> prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
             validateRequiredHeaders(headerMap);
-            final List<CSVRecord> records = csvParser.getRecords();
-            for (final CSVRecord record : records) {
+            final RowSchema schema = new RowSchema(headerMap);
+            for (final CSVRecord record : csvParser) {
                 final String recordIdentifier = getRecordIdentifier(record);
-                validateRequiredDataOnRecord(record);
+                final String codeValue = schema.get(record, Column.CODEVALUE);
+                final String propertyTypeLocalName = schema.get(record, Column.PROPERTYTYPE);
+                validateRequiredDataOnRecord(codeValue, propertyTypeLocalName, recordIdentifier);
                 final ExtensionDTO extension = new ExtensionDTO();
-                extension.setId(parseIdFromRecord(record));
-                final String codeValue = parseCodeValueFromRecord(record);
-                validateCodeValue(codeValue, recordIdentifier);
-                extension.setCodeValue(codeValue);
-                extension.setId(parseIdFromRecord(record));
-                checkForDuplicateCodeValueInImportData(codeValues, codeValue);
-                codeValues.add(codeValue.toLowerCase());
-                extension.setPrefLabel(parseLocalizedValueFromCsvRecord(prefLabelHeaders, record));
-                if (headerMap.containsKey(CONTENT_HEADER_CODESCHEMES)) {
+                final String trimmedCodeValue = codeValue.trim();
+                validateCodeValue(trimmedCodeValue, recordIdentifier);
+                extension.setCodeValue(trimmedCodeValue);
+                extension.setId(parseUUIDFromString(schema.get(record, Column.ID)));
+                checkForDuplicateCodeValueInImportData(codeValues, trimmedCodeValue);
+                codeValues.add(trimmedCodeValue.toLowerCase());
+                extension.setPrefLabel(schema.getPrefLabelColumns().read(record));
+                if (schema.has(Column.CODESCHEMES)) {
                     final Set<CodeSchemeDTO> codeSchemes = new HashSet<>();
-                    final List<String> uris = parseCodeSchemesFromRecord(record);
-                    uris.forEach(uri -> {
+                    for (final String uri : schema.get(record, Column.CODESCHEMES).split(";")) {
                         final CodeSchemeDTO codeScheme = new CodeSchemeDTO();
                         codeScheme.setUri(trimWhiteSpaceFromString(uri));
                         codeSchemes.add(codeScheme);
-                    });
+                    }
                     extension.setCodeSchemes(codeSchemes);
                 }
-                if (record.isMapped(CONTENT_HEADER_STARTDATE)) {
-                    extension.setStartDate(parseStartDateFromString(parseStartDateStringFromCsvRecord(record), recordIdentifier));
+                if (schema.has(Column.STARTDATE)) {
+                    extension.setStartDate(parseStartDateFromString(schema.get(record, Column.STARTDATE), recordIdentifier));
                 }
-                if (record.isMapped(CONTENT_HEADER_ENDDATE)) {
-                    extension.setEndDate(parseEndDateFromString(parseEndDateStringFromCsvRecord(record), recordIdentifier));
+                if (schema.has(Column.ENDDATE)) {
+                    extension.setEndDate(parseEndDateFromString(schema.get(record, Column.ENDDATE), recordIdentifier));
                 }
                 validateStartDateIsBeforeEndDate(extension);
-                extension.setStatus(parseStatusValueFromString(record.get(CONTENT_HEADER_STATUS)));
-                final String propertyTypeLocalName = record.get(CONTENT_HEADER_PROPERTYTYPE);
+                extension.setStatus(parseStatusValueFromString(schema.get(record, Column.STATUS)));
                 final PropertyTypeDTO propertyType = new PropertyTypeDTO();
                 propertyType.setLocalName(propertyTypeLocalName);
                 extension.setPropertyType(propertyType);
@@ -133,7 +129,7 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -144,7 +140,7 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
     public Set<ExtensionDTO> parseExtensionsFromExcelInputStream(final InputStream inputStream,
                                                                  final String sheetName,
                                                                  final Map<ExtensionDTO, String> membersSheetNames) {
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             return parseExtensionsFromExcelWorkbook(workbook, sheetName, membersSheetNames);
         } catch (final EmptyFileException | IOException e) {
             LOG.error("Error parsing Excel file!", e);
@@ -167,56 +163,54 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_EXTENSIONS_SHEET_NOT_FOUND, sheetName));
         }
         final Iterator<Row> rowIterator = sheet.rowIterator();
-        Map<String, Integer> headerMap = null;
-        Map<String, Integer> prefLabelHeaders = null;
+        RowSchema schema = null;
         boolean firstRow = true;
         checkIfExcelEmpty(rowIterator);
         while (rowIterator.hasNext()) {
             final Row row = rowIterator.next();
             if (firstRow) {
                 firstRow = false;
-                headerMap = resolveHeaderMap(row);
-                prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
+                final Map<String, Integer> headerMap = resolveHeaderMap(row);
                 validateRequiredHeaders(headerMap);
+                schema = new RowSchema(headerMap);
             } else if (!checkIfRowIsEmpty(row)) {
+                final String rowIdentifier = getRowIdentifier(row);
                 final ExtensionDTO extension = new ExtensionDTO();
-                final String codeValue = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))).trim();
-                final String status = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_STATUS)));
-                validateRequiredDataOnRow(row, headerMap, formatter);
-                validateCodeValue(codeValue, getRowIdentifier(row));
+                final String codeValue = schema.get(row, formatter, Column.CODEVALUE).trim();
+                final String status = schema.get(row, formatter, Column.STATUS);
+                validateRequiredDataOnRow(codeValue, rowIdentifier);
+                validateCodeValue(codeValue, rowIdentifier);
                 checkForDuplicateCodeValueInImportData(codeValues, codeValue);
                 codeValues.add(codeValue.toLowerCase());
                 extension.setCodeValue(codeValue);
                 extension.setStatus(parseStatusValueFromString(status));
-                if (headerMap.containsKey(CONTENT_HEADER_ID)) {
-                    extension.setId(parseUUIDFromString(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_ID)))));
+                if (schema.has(Column.ID)) {
+                    extension.setId(parseUUIDFromString(schema.get(row, formatter, Column.ID)));
                 }
-                if (headerMap.containsKey(CONTENT_HEADER_CODESCHEMES)) {
+                if (schema.has(Column.CODESCHEMES)) {
                     final Set<CodeSchemeDTO> codeSchemes = new HashSet<>();
-                    final List<String> uris = Arrays.asList(formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODESCHEMES))).split(";"));
-                    uris.forEach(uri -> {
+                    for (final String uri : schema.get(row, formatter, Column.CODESCHEMES).split(";")) {
                         if (!uri.isEmpty()) {
                             final CodeSchemeDTO codeScheme = new CodeSchemeDTO();
                             codeScheme.setUri(trimWhiteSpaceFromString(uri));
                             codeSchemes.add(codeScheme);
                         }
-                    });
+                    }
                     extension.setCodeSchemes(codeSchemes);
                 }
-                extension.setPrefLabel(parseLocalizedValueFromExcelRow(prefLabelHeaders, row, formatter));
-                if (headerMap.containsKey(CONTENT_HEADER_STARTDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, getRowIdentifier(row), null, extension, null, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
+                extension.setPrefLabel(schema.getPrefLabelColumns().read(row, formatter));
+                if (schema.has(Column.STARTDATE)) {
+                    parseDateFromExcel(formatter, schema.indexOf(Column.STARTDATE), row, rowIdentifier, null, extension, null, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
                 }
-                if (headerMap.containsKey(CONTENT_HEADER_ENDDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, getRowIdentifier(row), null, extension, null, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
+                if (schema.has(Column.ENDDATE)) {
+                    parseDateFromExcel(formatter, schema.indexOf(Column.ENDDATE), row, rowIdentifier, null, extension, null, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
                 }
                 validateStartDateIsBeforeEndDate(extension);
-                final String propertyTypeLocalName = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_PROPERTYTYPE)));
                 final PropertyTypeDTO propertyType = new PropertyTypeDTO();
-                propertyType.setLocalName(propertyTypeLocalName);
+                propertyType.setLocalName(schema.get(row, formatter, Column.PROPERTYTYPE));
                 extension.setPropertyType(propertyType);
-                if (headerMap.containsKey(CONTENT_HEADER_MEMBERSSHEET)) {
-                    final String membersSheetName = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_MEMBERSSHEET)));
+                if (schema.has(Column.MEMBERSSHEET)) {
+                    final String membersSheetName = schema.get(row, formatter, Column.MEMBERSSHEET);
                     if (membersSheetName != null && !membersSheetName.isEmpty()) {
                         membersSheetNames.put(extension, membersSheetName);
                     }
@@ -227,24 +221,24 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
         return extensions;
     }
 
-    protected void validateRequiredDataOnRow(final Row row,
-                                             final Map<String, Integer> headerMap,
-                                             final DataFormatter formatter) {
-        if (formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))) == null ||
-            formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODEVALUE))).isEmpty()) {
+    private void validateRequiredDataOnRow(final String codeValue,
+                                           final String rowIdentifier) {
+        if (codeValue == null || codeValue.isEmpty()) {
             throw new MissingRowValueCodeValueException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODEVALUE, getRowIdentifier(row)));
+                ERR_MSG_USER_ROW_MISSING_CODEVALUE, rowIdentifier));
         }
     }
 
-    private void validateRequiredDataOnRecord(final CSVRecord record) {
-        if (record.get(CONTENT_HEADER_CODEVALUE) == null || record.get(CONTENT_HEADER_CODEVALUE).isEmpty()) {
+    private void validateRequiredDataOnRecord(final String codeValue,
+                                              final String propertyTypeLocalName,
+                                              final String recordIdentifier) {
+        if (codeValue == null || codeValue.isEmpty()) {
             throw new MissingRowValueCodeValueException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODEVALUE, getRecordIdentifier(record)));
+                ERR_MSG_USER_ROW_MISSING_CODEVALUE, recordIdentifier));
         }
-        if (record.get(CONTENT_HEADER_PROPERTYTYPE) == null || record.get(CONTENT_HEADER_PROPERTYTYPE).isEmpty()) {
+        if (propertyTypeLocalName == null || propertyTypeLocalName.isEmpty()) {
             throw new MissingRowValueStatusException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_PROPERTYTYPE, getRecordIdentifier(record)));
+                ERR_MSG_USER_ROW_MISSING_PROPERTYTYPE, recordIdentifier));
         }
     }
 
@@ -264,12 +258,4 @@ public class ExtensionParserImpl extends AbstractBaseParser implements Extension
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_END_BEFORE_START_DATE));
         }
     }
-
-    private List<String> parseCodeSchemesFromRecord(final CSVRecord record) {
-        final List<String> codeSchemeUris = new ArrayList<>();
-        if (record.isMapped(CONTENT_HEADER_CODESCHEMES)) {
-            codeSchemeUris.addAll(Arrays.asList(parseStringFromCsvRecord(record, CONTENT_HEADER_CODESCHEMES).split(";")));
-        }
-        return codeSchemeUris;
-    }
 }
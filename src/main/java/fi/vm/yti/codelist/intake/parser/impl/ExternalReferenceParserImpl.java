@@ -7,7 +7,6 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -22,7 +21,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -44,6 +42,7 @@ import fi.vm.yti.codelist.intake.model.CodeScheme;
 import fi.vm.yti.codelist.intake.parser.ExternalReferenceParser;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Service
 public class ExternalReferenceParserImpl extends AbstractBaseParser implements ExternalReferenceParser {
@@ -91,8 +90,7 @@ public class ExternalReferenceParserImpl extends AbstractBaseParser implements E
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
             final Map<String, Integer> titleHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_TITLE_PREFIX);
             final Map<String, Integer> descriptionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
-            final List<CSVRecord> records = csvParser.getRecords();
-            for (final CSVRecord record : records) {
+            for (final CSVRecord record : csvParser) {
                 final ExternalReferenceDTO externalReference = new ExternalReferenceDTO();
                 final UUID id = parseUUIDFromString(record.get(CONTENT_HEADER_ID));
                 externalReference.setId(id);
@@ -119,7 +117,7 @@ public class ExternalReferenceParserImpl extends AbstractBaseParser implements E
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -129,7 +127,7 @@ public class ExternalReferenceParserImpl extends AbstractBaseParser implements E
     @Override
     public Set<ExternalReferenceDTO> parseExternalReferencesFromExcelInputStream(final InputStream inputStream,
                                                                                  final String sheetName) {
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             return parseExternalReferencesFromExcelWorkbook(workbook, sheetName, null);
         } catch (final EmptyFileException | IOException e) {
             LOG.error("Error parsing Excel file!", e);
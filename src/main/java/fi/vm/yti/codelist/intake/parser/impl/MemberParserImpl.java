@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -25,7 +26,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -50,9 +50,10 @@ import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.model.Extension;
 import fi.vm.yti.codelist.intake.model.ValueType;
 import fi.vm.yti.codelist.intake.parser.MemberParser;
+import fi.vm.yti.codelist.intake.parser.impl.RowSchema.Column;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
-import static fi.vm.yti.codelist.intake.util.ValidationUtils.validateStringAgainstRegexp;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Component
 public class MemberParserImpl extends AbstractBaseParser implements MemberParser {
@@ -86,6 +87,21 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
         return members;
     }
 
+    public Set<MemberDTO> parseMembersFromJsonInputStream(final InputStream inputStream) {
+        final ObjectMapper mapper = createObjectMapper();
+        final Set<MemberDTO> members = new LinkedHashSet<>();
+        try {
+            readJsonArrayFromInputStream(mapper, inputStream, MemberDTO.class, member -> {
+                validateStartDateIsBeforeEndDate(member);
+                members.add(member);
+            });
+        } catch (final IOException e) {
+            LOG.error("Member parsing failed from JSON!", e);
+            throw new JsonParsingException(ERR_MSG_USER_MEMBER_PARSING_FAILED);
+        }
+        return members;
+    }
+
     @SuppressFBWarnings("UC_USELESS_OBJECT")
     public Set<MemberDTO> parseMembersFromCsvInputStream(final Extension extension,
                                                          final InputStream inputStream) {
@@ -96,43 +112,40 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
              final BufferedReader in = new BufferedReader(inputStreamReader);
              final CSVParser csvParser = new CSVParser(in, CSVFormat.newFormat(',').withQuote('"').withQuoteMode(QuoteMode.MINIMAL).withHeader())) {
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
-            final Map<String, Integer> prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
             validateRequiredHeaders(filterRequiredValueTypes(valueTypes), headerMap);
-            final List<CSVRecord> records = csvParser.getRecords();
-            for (final CSVRecord record : records) {
+            final RowSchema schema = new RowSchema(headerMap);
+            final ValueTypeColumns valueTypeColumns = new ValueTypeColumns(schema, valueTypes);
+            for (final CSVRecord record : csvParser) {
                 final String recordIdentifier = getRecordIdentifier(record);
-                validateRequiredDataOnRecord(filterRequiredValueTypes(valueTypes), record);
+                final String codeIdentifier = schema.get(record, Column.CODE);
+                validateRequiredDataOnRecord(valueTypeColumns, codeIdentifier, record, recordIdentifier);
                 final MemberDTO member = new MemberDTO();
-                member.setOrder(resolveOrderFromCsvRecord(record));
-                member.setSequenceId(resolveSequenceIdFromCsvRecord(record));
+                if (schema.has(Column.ORDER)) {
+                    member.setOrder(resolveOrderFromString(schema.get(record, Column.ORDER), String.valueOf(record.getRecordNumber())));
+                }
+                if (schema.has(Column.MEMBER_ID)) {
+                    member.setSequenceId(resolveSequenceIdFromString(schema.get(record, Column.MEMBER_ID), String.valueOf(record.getRecordNumber())));
+                }
                 sequenceIds.add(member.getSequenceId());
-                member.setPrefLabel(parseLocalizedValueFromCsvRecord(prefLabelHeaders, record));
+                member.setPrefLabel(schema.getPrefLabelColumns().read(record));
                 if (!valueTypes.isEmpty()) {
                     final HashSet<MemberValueDTO> memberValues = new HashSet<>();
-                    for (final ValueType valueType : valueTypes) {
-                        final String headerName = valueType.getLocalName().toUpperCase();
-                        if (headerMap.containsKey(headerName)) {
-                            final String value = parseStringFromCsvRecord(record, headerName).trim();
-                            if (!value.isEmpty()) {
-                                validateMemberValue(valueType.getRegexp(), value, recordIdentifier);
-                                memberValues.add(createMemberValueWithValue(value, valueType.getLocalName()));
-                            } else if (valueType.getRequired()) {
-                                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_ROW_MISSING_MEMBERVALUE));
-                            }
-                        }
+                    for (int i = 0; i < valueTypeColumns.size(); i++) {
+                        final String value = RowSchema.get(record, valueTypeColumns.getIndex(i));
+                        addMemberValue(memberValues, valueTypeColumns.getValueType(i), value != null ? value.trim() : null, recordIdentifier);
                     }
                     member.setMemberValues(memberValues);
                 }
-                member.setCode(createCodeUsingIdentifier(parseCodeIdentifierFromCsvRecord(record), recordIdentifier));
-                final String relationCodeValue = parseMemberRelationFromCsvRecord(record);
+                member.setCode(createCodeUsingIdentifier(codeIdentifier, recordIdentifier));
+                final String relationCodeValue = schema.get(record, Column.RELATION);
                 if (relationCodeValue != null && !relationCodeValue.isEmpty()) {
                     member.setRelatedMember(createMemberWithCodeAndCodeValue(relationCodeValue));
                 }
-                if (record.isMapped(CONTENT_HEADER_STARTDATE)) {
-                    member.setStartDate(parseStartDateFromString(parseStartDateStringFromCsvRecord(record), recordIdentifier));
+                if (schema.has(Column.STARTDATE)) {
+                    member.setStartDate(parseStartDateFromString(schema.get(record, Column.STARTDATE), recordIdentifier));
                 }
-                if (record.isMapped(CONTENT_HEADER_ENDDATE)) {
-                    member.setEndDate(parseEndDateFromString(parseEndDateStringFromCsvRecord(record), recordIdentifier));
+                if (schema.has(Column.ENDDATE)) {
+                    member.setEndDate(parseEndDateFromString(schema.get(record, Column.ENDDATE), recordIdentifier));
                 }
                 validateStartDateIsBeforeEndDate(member);
                 members.add(member);
@@ -140,7 +153,7 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -190,8 +203,8 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBERS_SHEET_NOT_FOUND, sheetName));
         }
         final Iterator<Row> rowIterator = sheet.rowIterator();
-        Map<String, Integer> headerMap = null;
-        Map<String, Integer> prefLabelHeaders = null;
+        RowSchema schema = null;
+        ValueTypeColumns valueTypeColumns = null;
         boolean firstRow = true;
         checkIfExcelEmpty(rowIterator);
         List<Integer> sequenceIds = new LinkedList<>();
@@ -199,46 +212,43 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
             final Row row = rowIterator.next();
             if (firstRow) {
                 firstRow = false;
-                headerMap = resolveHeaderMap(row);
-                prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
+                final Map<String, Integer> headerMap = resolveHeaderMap(row);
                 validateRequiredHeaders(filterRequiredValueTypes(valueTypes), headerMap);
+                schema = new RowSchema(headerMap);
+                valueTypeColumns = new ValueTypeColumns(schema, valueTypes);
             } else if (!checkIfRowIsEmpty(row)) {
                 final String rowIdentifier = getRowIdentifier(row);
                 final MemberDTO member = new MemberDTO();
-                final String codeIdentifier = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODE)));
+                final String codeIdentifier = schema.get(row, formatter, Column.CODE);
                 member.setCode(createCodeUsingIdentifier(codeIdentifier, rowIdentifier));
-                validateRequiredDataOnRow(filterRequiredValueTypes(valueTypes), row, headerMap, formatter);
-                member.setPrefLabel(parseLocalizedValueFromExcelRow(prefLabelHeaders, row, formatter));
-                member.setOrder(resolveOrderFromExcelRow(headerMap, row, formatter));
-                member.setSequenceId(resolveSequenceIdFromExcelRow(headerMap, row, formatter));
+                validateRequiredDataOnRow(valueTypeColumns, codeIdentifier, row, formatter, rowIdentifier);
+                member.setPrefLabel(schema.getPrefLabelColumns().read(row, formatter));
+                if (schema.has(Column.ORDER)) {
+                    member.setOrder(resolveOrderFromString(schema.get(row, formatter, Column.ORDER), String.valueOf(row.getRowNum())));
+                }
+                if (schema.has(Column.MEMBER_ID)) {
+                    member.setSequenceId(resolveSequenceIdFromString(schema.get(row, formatter, Column.MEMBER_ID), String.valueOf(row.getRowNum())));
+                }
                 sequenceIds.add(member.getSequenceId());
                 if (!valueTypes.isEmpty()) {
                     final HashSet<MemberValueDTO> memberValues = new HashSet<>();
-                    for (final ValueType valueType : valueTypes) {
-                        if (headerMap.containsKey(valueType.getLocalName().toUpperCase())) {
-                            final String headerName = valueType.getLocalName().toUpperCase();
-                            final String value = formatter.formatCellValue(row.getCell(headerMap.get(headerName))).trim();
-                            if (!value.isEmpty()) {
-                                validateMemberValue(valueType.getRegexp(), value, rowIdentifier);
-                                memberValues.add(createMemberValueWithValue(value, valueType.getLocalName()));
-                            } else if (valueType.getRequired()) {
-                                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_ROW_MISSING_MEMBERVALUE));
-                            }
-                        }
+                    for (int i = 0; i < valueTypeColumns.size(); i++) {
+                        final String value = RowSchema.get(row, formatter, valueTypeColumns.getIndex(i));
+                        addMemberValue(memberValues, valueTypeColumns.getValueType(i), value != null ? value.trim() : null, rowIdentifier);
                     }
                     member.setMemberValues(memberValues);
                 }
-                if (headerMap.containsKey(CONTENT_HEADER_RELATION)) {
-                    final String relationCodeValue = formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_RELATION)));
+                if (schema.has(Column.RELATION)) {
+                    final String relationCodeValue = schema.get(row, formatter, Column.RELATION);
                     if (relationCodeValue != null && !relationCodeValue.isEmpty()) {
                         member.setRelatedMember(createMemberWithCodeAndCodeValue(relationCodeValue));
                     }
                 }
-                if (headerMap.containsKey(CONTENT_HEADER_STARTDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, rowIdentifier, null, null, member, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
+                if (schema.has(Column.STARTDATE)) {
+                    parseDateFromExcel(formatter, schema.indexOf(Column.STARTDATE), row, rowIdentifier, null, null, member, CONTENT_HEADER_STARTDATE, ERR_MSG_USER_ERRONEOUS_START_DATE);
                 }
-                if (headerMap.containsKey(CONTENT_HEADER_ENDDATE)) {
-                    parseDateFromExcel(formatter, headerMap, row, rowIdentifier, null, null, member, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
+                if (schema.has(Column.ENDDATE)) {
+                    parseDateFromExcel(formatter, schema.indexOf(Column.ENDDATE), row, rowIdentifier, null, null, member, CONTENT_HEADER_ENDDATE, ERR_MSG_USER_ERRONEOUS_END_DATE);
                 }
                 validateStartDateIsBeforeEndDate(member);
                 members.add(member);
@@ -252,7 +262,7 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
     private void validateMemberValue(final String regexp,
                                      final String value,
                                      final String identifier) {
-        if (regexp != null && !regexp.isEmpty() && !validateStringAgainstRegexp(value, regexp)) {
+        if (regexp != null && !regexp.isEmpty() && !ValidationEngine.matches(value, regexp)) {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_MEMBERVALUE_VALIDATION_FAILED_WITH_IDENTIFIER, identifier));
         }
     }
@@ -271,40 +281,54 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
         return valueTypes.stream().filter(ValueType::getRequired).collect(Collectors.toSet());
     }
 
-    private void validateRequiredDataOnRow(final Set<ValueType> requiredValueTypes,
+    private void addMemberValue(final Set<MemberValueDTO> memberValues,
+                                final ValueType valueType,
+                                final String value,
+                                final String identifier) {
+        if (value != null && !value.isEmpty()) {
+            validateMemberValue(valueType.getRegexp(), value, identifier);
+            memberValues.add(createMemberValueWithValue(value, valueType.getLocalName()));
+        } else if (valueType.getRequired()) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_ROW_MISSING_MEMBERVALUE));
+        }
+    }
+
+    private void validateRequiredDataOnRow(final ValueTypeColumns valueTypeColumns,
+                                           final String codeIdentifier,
                                            final Row row,
-                                           final Map<String, Integer> headerMap,
-                                           final DataFormatter formatter) {
-        if (requiredValueTypes != null && !requiredValueTypes.isEmpty()) {
-            requiredValueTypes.forEach(valueType -> {
-                if ((formatter.formatCellValue(row.getCell(headerMap.get(valueType.getLocalName().toUpperCase()))) == null ||
-                    formatter.formatCellValue(row.getCell(headerMap.get(valueType.getLocalName().toUpperCase()))).isEmpty())) {
+                                           final DataFormatter formatter,
+                                           final String rowIdentifier) {
+        for (int i = 0; i < valueTypeColumns.size(); i++) {
+            if (valueTypeColumns.getValueType(i).getRequired()) {
+                final String value = RowSchema.get(row, formatter, valueTypeColumns.getIndex(i));
+                if (value == null || value.isEmpty()) {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                        ERR_MSG_USER_ROW_MISSING_MEMBERVALUE, getRowIdentifier(row)));
+                        ERR_MSG_USER_ROW_MISSING_MEMBERVALUE, rowIdentifier));
                 }
-            });
+            }
         }
-        if (formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODE))) == null ||
-            formatter.formatCellValue(row.getCell(headerMap.get(CONTENT_HEADER_CODE))).isEmpty()) {
+        if (codeIdentifier == null || codeIdentifier.isEmpty()) {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODE, getRowIdentifier(row)));
+                ERR_MSG_USER_ROW_MISSING_CODE, rowIdentifier));
         }
     }
 
-    private void validateRequiredDataOnRecord(final Set<ValueType> requiredValueTypes,
-                                              final CSVRecord record) {
-        if (requiredValueTypes != null && !requiredValueTypes.isEmpty()) {
-            requiredValueTypes.forEach(valueType -> {
-                final String headerName = valueType.getLocalName().toUpperCase();
-                if ((record.get(headerName) == null || record.get(headerName).isEmpty())) {
+    private void validateRequiredDataOnRecord(final ValueTypeColumns valueTypeColumns,
+                                              final String codeIdentifier,
+                                              final CSVRecord record,
+                                              final String recordIdentifier) {
+        for (int i = 0; i < valueTypeColumns.size(); i++) {
+            if (valueTypeColumns.getValueType(i).getRequired()) {
+                final String value = RowSchema.get(record, valueTypeColumns.getIndex(i));
+                if (value == null || value.isEmpty()) {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                        ERR_MSG_USER_ROW_MISSING_MEMBERVALUE, getRecordIdentifier(record)));
+                        ERR_MSG_USER_ROW_MISSING_MEMBERVALUE, recordIdentifier));
                 }
-            });
+            }
         }
-        if (record.get(CONTENT_HEADER_CODE) == null || record.get(CONTENT_HEADER_CODE).isEmpty()) {
+        if (codeIdentifier == null || codeIdentifier.isEmpty()) {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(),
-                ERR_MSG_USER_ROW_MISSING_CODE, getRecordIdentifier(record)));
+                ERR_MSG_USER_ROW_MISSING_CODE, recordIdentifier));
         }
     }
 
@@ -324,10 +348,6 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
         }
     }
 
-    private String parseCodeIdentifierFromCsvRecord(final CSVRecord record) {
-        return parseStringFromCsvRecord(record, CONTENT_HEADER_CODE);
-    }
-
     private CodeDTO createCodeUsingIdentifier(final String identifier,
                                               final String rowIdentifier) {
         final CodeDTO code = new CodeDTO();
@@ -341,10 +361,6 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
         return code;
     }
 
-    private String parseMemberRelationFromCsvRecord(final CSVRecord record) {
-        return parseStringFromCsvRecord(record, CONTENT_HEADER_RELATION);
-    }
-
     private void validateStartDateIsBeforeEndDate(final MemberDTO member) {
         if (!startDateIsBeforeEndDateSanityCheck(member.getStartDate(), member.getEndDate())) {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_END_BEFORE_START_DATE));
@@ -366,11 +382,50 @@ public class MemberParserImpl extends AbstractBaseParser implements MemberParser
     public Set<MemberDTO> parseMembersFromExcelInputStream(final Extension extension,
                                                            final InputStream inputStream,
                                                            final String sheetName) {
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             return parseMembersFromExcelWorkbook(extension, workbook, sheetName);
         } catch (final EmptyFileException | IOException e) {
             LOG.error("Error parsing Excel file!", e);
             throw new ExcelParsingException(ERR_MSG_USER_ERROR_PARSING_EXCEL_FILE);
         }
     }
+
+    /**
+     * Member value type columns of the extension resolved against the header row once per file.
+     */
+    private static final class ValueTypeColumns {
+
+        private final ValueType[] valueTypes;
+        private final int[] indexes;
+
+        private ValueTypeColumns(final RowSchema schema,
+                                 final Set<ValueType> extensionValueTypes) {
+            final List<ValueType> mappedValueTypes = new ArrayList<>();
+            final List<Integer> mappedIndexes = new ArrayList<>();
+            for (final ValueType valueType : extensionValueTypes) {
+                final int index = schema.indexOf(valueType.getLocalName().toUpperCase());
+                if (index != RowSchema.MISSING) {
+                    mappedValueTypes.add(valueType);
+                    mappedIndexes.add(index);
+                }
+            }
+            valueTypes = mappedValueTypes.toArray(new ValueType[0]);
+            indexes = new int[mappedIndexes.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = mappedIndexes.get(i);
+            }
+        }
+
+        private int size() {
+            return indexes.length;
+        }
+
+        private ValueType getValueType(final int i) {
+            return valueTypes[i];
+        }
+
+        private int getIndex(final int i) {
+            return indexes[i];
+        }
+    }
 }
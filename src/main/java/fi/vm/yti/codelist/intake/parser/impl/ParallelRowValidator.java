@@ -0,0 +1,190 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+
+/**
+ * Validates batches of parsed rows with fork/join, keeping code value and order uniqueness global over all batches.
+ *
+ * Row local validation runs concurrently in chunks and stops at the first failing row of each chunk. Uniqueness is
+ * tracked with concurrent maps holding the first row of each value, and is resolved in row order afterwards, so the
+ * reported error is always the one of the first failing row, the same as with sequential validation.
+ *
+ * @param <R> type of the raw rows, for example a CSV record or an Excel row
+ * @param <T> type of the validated rows
+ */
+final class ParallelRowValidator<R, T> {
+
+    static final int DEFAULT_LEAF_SIZE = 256;
+
+    private final Supplier<Function<R, T>> rowValidatorFactory;
+    private final Function<T, String> codeValueResolver;
+    private final Function<T, Integer> orderResolver;
+    private final int leafSize;
+    private final Map<String, Integer> firstRowsByCodeValue = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> firstRowsByOrder = new ConcurrentHashMap<>();
+    private int rowsValidated;
+
+    /**
+     * @param rowValidatorFactory creates a row validator for each chunk, validators must not share mutable state
+     * @param codeValueResolver   resolves the code value of a validated row for the duplicate check
+     * @param orderResolver       resolves the order of a validated row for the duplicate check, or null to skip it
+     */
+    ParallelRowValidator(final Supplier<Function<R, T>> rowValidatorFactory,
+                         final Function<T, String> codeValueResolver,
+                         final Function<T, Integer> orderResolver) {
+        this(rowValidatorFactory, codeValueResolver, orderResolver, DEFAULT_LEAF_SIZE);
+    }
+
+    ParallelRowValidator(final Supplier<Function<R, T>> rowValidatorFactory,
+                         final Function<T, String> codeValueResolver,
+                         final Function<T, Integer> orderResolver,
+                         final int leafSize) {
+        this.rowValidatorFactory = rowValidatorFactory;
+        this.codeValueResolver = codeValueResolver;
+        this.orderResolver = orderResolver;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Validates the next batch of rows and returns the validated rows in the same order, or throws the error of the
+     * first failing row. Batches must be passed in file order.
+     */
+    List<T> validate(final List<R> rows) {
+        final int offset = rowsValidated;
+        final Object[] results = new Object[rows.size()];
+        final Failure localFailure = new ValidationTask<>(this, rows, results, offset, 0, rows.size()).invoke();
+        final int validRowCount = localFailure != null ? localFailure.index : rows.size();
+        for (int i = 0; i < validRowCount; i++) {
+            checkUniqueness(castResult(results[i]), offset + i);
+        }
+        if (localFailure != null) {
+            throw localFailure.exception;
+        }
+        rowsValidated += rows.size();
+        final List<T> validatedRows = new ArrayList<>(rows.size());
+        for (final Object result : results) {
+            validatedRows.add(castResult(result));
+        }
+        return validatedRows;
+    }
+
+    private void register(final T validatedRow,
+                          final int rowNumber) {
+        firstRowsByCodeValue.merge(codeValueResolver.apply(validatedRow).toLowerCase(), rowNumber, Math::min);
+        if (orderResolver != null) {
+            final Integer order = orderResolver.apply(validatedRow);
+            if (order != null) {
+                firstRowsByOrder.merge(order, rowNumber, Math::min);
+            }
+        }
+    }
+
+    private void checkUniqueness(final T validatedRow,
+                                 final int rowNumber) {
+        if (firstRowsByCodeValue.get(codeValueResolver.apply(validatedRow).toLowerCase()) != rowNumber) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_DUPLICATE_CODE_VALUE));
+        }
+        if (orderResolver != null) {
+            final Integer order = orderResolver.apply(validatedRow);
+            if (order != null && firstRowsByOrder.get(order) != rowNumber) {
+                throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_CODE_ORDER_CONTAINS_DUPLICATE_VALUES));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T castResult(final Object result) {
+        return (T) result;
+    }
+
+    private static final class Failure implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final RuntimeException exception;
+
+        private Failure(final int index,
+                        final RuntimeException exception) {
+            this.index = index;
+            this.exception = exception;
+        }
+
+        private static Failure first(final Failure a,
+                                     final Failure b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            return a.index <= b.index ? a : b;
+        }
+    }
+
+    private static final class ValidationTask<R, T> extends RecursiveTask<Failure> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ParallelRowValidator<R, T> validator;
+        private final transient List<R> rows;
+        private final transient Object[] results;
+        private final int offset;
+        private final int from;
+        private final int to;
+
+        private ValidationTask(final ParallelRowValidator<R, T> validator,
+                               final List<R> rows,
+                               final Object[] results,
+                               final int offset,
+                               final int from,
+                               final int to) {
+            this.validator = validator;
+            this.rows = rows;
+            this.results = results;
+            this.offset = offset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Failure compute() {
+            if (to - from <= validator.leafSize) {
+                return validateChunk();
+            }
+            final int middle = (from + to) >>> 1;
+            final ValidationTask<R, T> head = new ValidationTask<>(validator, rows, results, offset, from, middle);
+            final ValidationTask<R, T> tail = new ValidationTask<>(validator, rows, results, offset, middle, to);
+            tail.fork();
+            final Failure headFailure = head.compute();
+            return Failure.first(headFailure, tail.join());
+        }
+
+        private Failure validateChunk() {
+            final Function<R, T> rowValidator = validator.rowValidatorFactory.get();
+            for (int i = from; i < to; i++) {
+                try {
+                    final T validatedRow = rowValidator.apply(rows.get(i));
+                    validator.register(validatedRow, offset + i);
+                    results[i] = validatedRow;
+                } catch (final RuntimeException e) {
+                    return new Failure(i, e);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -38,6 +37,7 @@ import fi.vm.yti.codelist.intake.exception.JsonParsingException;
 import fi.vm.yti.codelist.intake.parser.PropertyTypeParser;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 import static java.util.Arrays.asList;
 
 @Service
@@ -82,8 +82,7 @@ public class PropertyTypeParserImpl extends AbstractBaseParser implements Proper
             final Map<String, Integer> headerMap = csvParser.getHeaderMap();
             final Map<String, Integer> prefLabelHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
             final Map<String, Integer> definitionHeaders = parseHeadersWithPrefix(headerMap, CONTENT_HEADER_DEFINITION_PREFIX);
-            final List<CSVRecord> records = csvParser.getRecords();
-            for (final CSVRecord record : records) {
+            for (final CSVRecord record : csvParser) {
                 final PropertyTypeDTO propertyType = new PropertyTypeDTO();
                 propertyType.setId(parseUUIDFromString(record.get(CONTENT_HEADER_ID)));
                 propertyType.setLocalName(record.get(CONTENT_HEADER_LOCALNAME));
@@ -99,7 +98,7 @@ public class PropertyTypeParserImpl extends AbstractBaseParser implements Proper
         } catch (final IllegalArgumentException e) {
             LOG.error("Duplicate header value found in CSV!", e);
             throw new CsvParsingException(ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
-        } catch (final IOException e) {
+        } catch (final IOException | IllegalStateException e) {
             LOG.error("Error parsing CSV file!", e);
             throw new CsvParsingException(ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
         }
@@ -122,7 +121,7 @@ public class PropertyTypeParserImpl extends AbstractBaseParser implements Proper
     @Override
     public Set<PropertyTypeDTO> parsePropertyTypesFromExcelInputStream(final InputStream inputStream) {
         final Set<PropertyTypeDTO> propertyTypes = new HashSet<>();
-        try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (final Workbook workbook = openWorkbook(inputStream)) {
             final DataFormatter formatter = new DataFormatter();
             Sheet sheet = workbook.getSheet(EXCEL_SHEET_PROPERTYTYPES);
             if (sheet == null) {
@@ -0,0 +1,190 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+
+import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
+
+/**
+ * Column plan compiled once from the header row of a sheet or a CSV file.
+ *
+ * Known columns and localized column groups are resolved to plain column indexes up front, so that reading a row is
+ * an indexed access without header map lookups.
+ */
+final class RowSchema {
+
+    static final int MISSING = -1;
+
+    enum Column {
+        ID(CONTENT_HEADER_ID),
+        CODEVALUE(CONTENT_HEADER_CODEVALUE),
+        STATUS(CONTENT_HEADER_STATUS),
+        SHORTNAME(CONTENT_HEADER_SHORTNAME),
+        CONCEPTURI(CONTENT_HEADER_CONCEPTURI),
+        ORDER(CONTENT_HEADER_ORDER),
+        HREF(CONTENT_HEADER_HREF),
+        BROADER(CONTENT_HEADER_BROADER),
+        STARTDATE(CONTENT_HEADER_STARTDATE),
+        ENDDATE(CONTENT_HEADER_ENDDATE),
+        SUBCODESCHEME(CONTENT_HEADER_SUBCODESCHEME),
+        MEMBER_ID(CONTENT_HEADER_MEMBER_ID),
+        CODE(CONTENT_HEADER_CODE),
+        RELATION(CONTENT_HEADER_RELATION),
+        CODESCHEMES(CONTENT_HEADER_CODESCHEMES),
+        PROPERTYTYPE(CONTENT_HEADER_PROPERTYTYPE),
+        MEMBERSSHEET(CONTENT_HEADER_MEMBERSSHEET);
+
+        private final String header;
+
+        Column(final String header) {
+            this.header = header;
+        }
+
+        String getHeader() {
+            return header;
+        }
+    }
+
+    private final Map<String, Integer> headerMap;
+    private final int[] columnIndexes;
+    private final LocalizedColumns prefLabelColumns;
+    private final LocalizedColumns definitionColumns;
+    private final LocalizedColumns descriptionColumns;
+
+    RowSchema(final Map<String, Integer> headerMap) {
+        this.headerMap = headerMap;
+        final Column[] columns = Column.values();
+        columnIndexes = new int[columns.length];
+        for (final Column column : columns) {
+            columnIndexes[column.ordinal()] = indexOf(column.getHeader());
+        }
+        prefLabelColumns = new LocalizedColumns(headerMap, CONTENT_HEADER_PREFLABEL_PREFIX);
+        definitionColumns = new LocalizedColumns(headerMap, CONTENT_HEADER_DEFINITION_PREFIX);
+        descriptionColumns = new LocalizedColumns(headerMap, CONTENT_HEADER_DESCRIPTION_PREFIX);
+    }
+
+    boolean has(final Column column) {
+        return columnIndexes[column.ordinal()] != MISSING;
+    }
+
+    int indexOf(final Column column) {
+        return columnIndexes[column.ordinal()];
+    }
+
+    /**
+     * Resolves the index of a dynamic column such as a member value type, meant to be called once per header row.
+     */
+    int indexOf(final String header) {
+        final Integer index = headerMap.get(header);
+        return index != null ? index : MISSING;
+    }
+
+    String get(final CSVRecord record,
+               final Column column) {
+        return get(record, indexOf(column));
+    }
+
+    /**
+     * Returns the raw value in the column, or null if the column is missing from the header. Columns beyond the end of a
+     * short record are read as empty values, the same way as missing cells of an Excel row.
+     */
+    static String get(final CSVRecord record,
+                      final int index) {
+        if (index == MISSING) {
+            return null;
+        }
+        if (index >= record.size()) {
+            return "";
+        }
+        return record.get(index);
+    }
+
+    String get(final Row row,
+               final DataFormatter formatter,
+               final Column column) {
+        return get(row, formatter, indexOf(column));
+    }
+
+    /**
+     * Returns the formatted cell value in the column, or null if the column is missing from the header row.
+     */
+    static String get(final Row row,
+                      final DataFormatter formatter,
+                      final int index) {
+        if (index == MISSING) {
+            return null;
+        }
+        return formatter.formatCellValue(row.getCell(index));
+    }
+
+    LocalizedColumns getPrefLabelColumns() {
+        return prefLabelColumns;
+    }
+
+    LocalizedColumns getDefinitionColumns() {
+        return definitionColumns;
+    }
+
+    LocalizedColumns getDescriptionColumns() {
+        return descriptionColumns;
+    }
+
+    /**
+     * Languages and column indexes of one localized column group, for example all PREFLABEL_* columns.
+     */
+    static final class LocalizedColumns {
+
+        private final String[] languages;
+        private final int[] indexes;
+
+        private LocalizedColumns(final Map<String, Integer> headerMap,
+                                 final String headerPrefix) {
+            final Map<String, Integer> valueHeaders = new LinkedHashMap<>();
+            headerMap.forEach((header, index) -> {
+                if (header.startsWith(headerPrefix)) {
+                    valueHeaders.put(header.substring(headerPrefix.length()).toLowerCase(), index);
+                }
+            });
+            languages = new String[valueHeaders.size()];
+            indexes = new int[valueHeaders.size()];
+            int i = 0;
+            for (final Map.Entry<String, Integer> entry : valueHeaders.entrySet()) {
+                languages[i] = entry.getKey();
+                indexes[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        Map<String, String> read(final CSVRecord record) {
+            final Map<String, String> value = new LinkedHashMap<>();
+            for (int i = 0; i < indexes.length; i++) {
+                putIfNotBlank(value, languages[i], get(record, indexes[i]));
+            }
+            return value;
+        }
+
+        Map<String, String> read(final Row row,
+                                 final DataFormatter formatter) {
+            final Map<String, String> value = new LinkedHashMap<>();
+            for (int i = 0; i < indexes.length; i++) {
+                putIfNotBlank(value, languages[i], formatter.formatCellValue(row.getCell(indexes[i])));
+            }
+            return value;
+        }
+
+        private static void putIfNotBlank(final Map<String, String> value,
+                                          final String language,
+                                          final String localizedValue) {
+            if (localizedValue != null) {
+                final String trimmedValue = localizedValue.trim();
+                if (!trimmedValue.isEmpty()) {
+                    value.put(language, trimmedValue);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import fi.vm.yti.codelist.common.model.Status;
+
+/**
+ * Per row validation primitives shared by the parsers.
+ *
+ * Code values are checked with character class lookup tables instead of regular expressions, statuses are resolved
+ * through a lookup table without exceptions, value type regular expressions are compiled only once and separated
+ * lists such as organization ids and language codes are scanned in place.
+ */
+final class ValidationEngine {
+
+    private static final char NON_BREAKING_SPACE = '\u00A0';
+    private static final String CODE_CODEVALUE_SPECIAL_CHARACTERS = "_-.+&#*";
+    private static final String CODESCHEME_CODEVALUE_SPECIAL_CHARACTERS = "_-";
+    private static final boolean[] CODE_CODEVALUE_CHARACTERS = createCharacterTable(CODE_CODEVALUE_SPECIAL_CHARACTERS);
+    private static final boolean[] CODESCHEME_CODEVALUE_CHARACTERS = createCharacterTable(CODESCHEME_CODEVALUE_SPECIAL_CHARACTERS);
+    private static final Map<String, Status> STATUSES = createStatusLookup();
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private ValidationEngine() {
+    }
+
+    static boolean isValidCodeCodeValue(final String codeValue) {
+        return codeValue != null && containsOnly(codeValue, CODE_CODEVALUE_CHARACTERS);
+    }
+
+    static boolean isValidCodeSchemeCodeValue(final String codeValue) {
+        return containsOnly(codeValue, CODESCHEME_CODEVALUE_CHARACTERS);
+    }
+
+    /**
+     * Resolves a status ignoring case and non-breaking spaces, returns null for unknown statuses.
+     */
+    static Status resolveStatus(final String statusString) {
+        if (statusString == null) {
+            return null;
+        }
+        final Status status = STATUSES.get(statusString);
+        if (status != null) {
+            return status;
+        }
+        return STATUSES.get(removeNonBreakingSpaces(statusString).toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Removes all non-breaking spaces and trims the result, allocating only when the string actually contains them.
+     */
+    static String removeNonBreakingSpaces(final String string) {
+        final int firstSpace = string.indexOf(NON_BREAKING_SPACE);
+        if (firstSpace < 0) {
+            return string.trim();
+        }
+        final StringBuilder builder = new StringBuilder(string.length());
+        builder.append(string, 0, firstSpace);
+        for (int i = firstSpace + 1; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c != NON_BREAKING_SPACE) {
+                builder.append(c);
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * Passes the non-empty items of a separated list to the consumer, trimmed as in {@link #removeNonBreakingSpaces},
+     * scanning the string once without a regular expression or an intermediate array.
+     */
+    static void forEachListItem(final String list,
+                                final char separator,
+                                final Consumer<String> itemConsumer) {
+        int start = 0;
+        while (start < list.length()) {
+            final int separatorIndex = list.indexOf(separator, start);
+            final int end = separatorIndex < 0 ? list.length() : separatorIndex;
+            if (end > start) {
+                itemConsumer.accept(removeNonBreakingSpaces(list.substring(start, end)));
+            }
+            start = end + 1;
+        }
+    }
+
+    static boolean matches(final String value,
+                           final String regexp) {
+        return PATTERNS.computeIfAbsent(regexp, Pattern::compile).matcher(value).matches();
+    }
+
+    private static boolean containsOnly(final String value,
+                                        final boolean[] allowedCharacters) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= allowedCharacters.length || !allowedCharacters[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean[] createCharacterTable(final String specialCharacters) {
+        final boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            table[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            table[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            table[c] = true;
+        }
+        for (final char c : specialCharacters.toCharArray()) {
+            table[c] = true;
+        }
+        return table;
+    }
+
+    private static Map<String, Status> createStatusLookup() {
+        final Map<String, Status> statuses = new HashMap<>();
+        for (final Status status : Status.values()) {
+            statuses.put(status.name(), status);
+        }
+        return statuses;
+    }
+}
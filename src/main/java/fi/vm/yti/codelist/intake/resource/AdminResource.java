@@ -20,18 +20,17 @@ import fi.vm.yti.codelist.common.dto.ExternalReferenceDTO;
 import fi.vm.yti.codelist.common.dto.PropertyTypeDTO;
 import fi.vm.yti.codelist.common.dto.ValueTypeDTO;
 import fi.vm.yti.codelist.intake.api.ApiUtils;
+import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.dao.ExtensionDao;
+import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.ReferenceDataCache;
+import fi.vm.yti.codelist.intake.dao.StreamingUpdater;
 import fi.vm.yti.codelist.intake.groupmanagement.OrganizationUpdater;
 import fi.vm.yti.codelist.intake.indexing.Indexing;
 import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
-import fi.vm.yti.codelist.intake.jpa.CodeRepository;
 import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
-import fi.vm.yti.codelist.intake.jpa.ExtensionRepository;
-import fi.vm.yti.codelist.intake.jpa.MemberRepository;
-import fi.vm.yti.codelist.intake.model.Code;
 import fi.vm.yti.codelist.intake.model.CodeRegistry;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
-import fi.vm.yti.codelist.intake.model.Extension;
-import fi.vm.yti.codelist.intake.model.Member;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.ExternalReferenceService;
 import fi.vm.yti.codelist.intake.service.PropertyTypeService;
@@ -51,43 +50,49 @@ public class AdminResource implements AbstractBaseResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(AdminResource.class);
     private final AuthorizationManager authorizationManager;
-    private final ExtensionRepository extensionRepository;
-    private final MemberRepository memberRepository;
+    private final ExtensionDao extensionDao;
+    private final MemberDao memberDao;
     private final CodeRegistryRepository codeRegistryRepository;
     private final CodeSchemeRepository codeSchemeRepository;
-    private final CodeRepository codeRepository;
+    private final CodeDao codeDao;
     private final PropertyTypeService propertyTypeService;
     private final ExternalReferenceService externalReferenceService;
     private final ApiUtils apiUtils;
     private final Indexing indexing;
     private final OrganizationUpdater organizationUpdater;
     private final ValueTypeService valueTypeService;
+    private final ReferenceDataCache referenceDataCache;
+    private final StreamingUpdater streamingUpdater;
 
     @Inject
     public AdminResource(final AuthorizationManager authorizationManager,
-                         final ExtensionRepository extensionRepository,
-                         final MemberRepository memberRepository,
+                         final ExtensionDao extensionDao,
+                         final MemberDao memberDao,
                          final CodeRegistryRepository codeRegistryRepository,
                          final CodeSchemeRepository codeSchemeRepository,
-                         final CodeRepository codeRepository,
+                         final CodeDao codeDao,
                          final PropertyTypeService propertyTypeService,
                          final ExternalReferenceService externalReferenceService,
                          final ApiUtils apiUtils,
                          final Indexing indexing,
                          final OrganizationUpdater organizationUpdater,
-                         final ValueTypeService valueTypeService) {
+                         final ValueTypeService valueTypeService,
+                         final ReferenceDataCache referenceDataCache,
+                         final StreamingUpdater streamingUpdater) {
         this.authorizationManager = authorizationManager;
-        this.extensionRepository = extensionRepository;
-        this.memberRepository = memberRepository;
+        this.extensionDao = extensionDao;
+        this.memberDao = memberDao;
         this.codeRegistryRepository = codeRegistryRepository;
         this.codeSchemeRepository = codeSchemeRepository;
-        this.codeRepository = codeRepository;
+        this.codeDao = codeDao;
         this.propertyTypeService = propertyTypeService;
         this.externalReferenceService = externalReferenceService;
         this.apiUtils = apiUtils;
         this.indexing = indexing;
         this.organizationUpdater = organizationUpdater;
         this.valueTypeService = valueTypeService;
+        this.referenceDataCache = referenceDataCache;
+        this.streamingUpdater = streamingUpdater;
     }
 
     @Path("/updateorganizations")
@@ -154,11 +159,7 @@ public class AdminResource implements AbstractBaseResource {
     @Transactional
     public Response rewriteCodeUris() {
         if (authorizationManager.isSuperUser()) {
-            final Set<Code> codes = codeRepository.findAll();
-            for (final Code code : codes) {
-                code.setUri(apiUtils.createCodeUri(code));
-            }
-            codeRepository.saveAll(codes);
+            streamingUpdater.update(codeDao.streamAll(), code -> code.setUri(apiUtils.createCodeUri(code)));
             indexing.reIndexEverything();
             LOG.info("Code uris rewritten.");
             return Response.ok().build();
@@ -175,11 +176,7 @@ public class AdminResource implements AbstractBaseResource {
     @Transactional
     public Response rewriteExtensionUris() {
         if (authorizationManager.isSuperUser()) {
-            final Set<Extension> extensions = extensionRepository.findAll();
-            for (final Extension extension : extensions) {
-                extension.setUri(apiUtils.createExtensionUrl(extension));
-            }
-            extensionRepository.saveAll(extensions);
+            streamingUpdater.update(extensionDao.streamAll(), extension -> extension.setUri(apiUtils.createExtensionUrl(extension)));
             indexing.reIndexEverything();
             LOG.info("Extension uris rewritten.");
             return Response.ok().build();
@@ -196,11 +193,7 @@ public class AdminResource implements AbstractBaseResource {
     @Transactional
     public Response rewriteMemberUris() {
         if (authorizationManager.isSuperUser()) {
-            final Set<Member> members = memberRepository.findAll();
-            for (final Member member : members) {
-                member.setUri(apiUtils.createMemberUri(member));
-            }
-            memberRepository.saveAll(members);
+            streamingUpdater.update(memberDao.streamAll(), member -> member.setUri(apiUtils.createMemberUri(member)));
             indexing.reIndexEverything();
             LOG.info("Member uris rewritten.");
             return Response.ok().build();
@@ -243,6 +236,7 @@ public class AdminResource implements AbstractBaseResource {
             try (final InputStream inputStream = FileUtils.loadFileFromClassPath("/" + DATA_PROPERTYTYPES + "/" + DEFAULT_PROPERTYTYPE_FILENAME)) {
                 final Set<PropertyTypeDTO> propertyTypeDtos = propertyTypeService.parseAndPersistPropertyTypesFromSourceData(true, FORMAT_CSV, inputStream, null);
                 LOG.info(String.format("Reloaded %d PropertyTypes from initial data!", propertyTypeDtos.size()));
+                referenceDataCache.evictPropertyTypes();
                 indexing.reIndexEverything();
                 LOG.info("Reindexing finished.");
             } catch (final IOException e) {
@@ -266,6 +260,7 @@ public class AdminResource implements AbstractBaseResource {
             try (final InputStream inputStream = FileUtils.loadFileFromClassPath("/" + DATA_VALUETYPES + "/" + DEFAULT_VALUETYPE_FILENAME)) {
                 final Set<ValueTypeDTO> valueTypeDtos = valueTypeService.parseAndPersistValueTypesFromSourceData(true, FORMAT_CSV, inputStream, null);
                 LOG.info(String.format("Reloaded %d ValueTypes from initial data!", valueTypeDtos.size()));
+                referenceDataCache.evictValueTypes();
                 indexing.reIndexEverything();
                 LOG.info("Reindexing finished.");
             } catch (final IOException e) {
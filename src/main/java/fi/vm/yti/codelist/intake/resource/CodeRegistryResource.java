@@ -47,6 +47,7 @@ import fi.vm.yti.codelist.intake.api.ResponseWrapper;
 import fi.vm.yti.codelist.intake.exception.TooManyCodeSchemesException;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.indexing.Indexing;
+import fi.vm.yti.codelist.intake.model.ImportJob;
 import fi.vm.yti.codelist.intake.parser.CodeSchemeParser;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.CloningService;
@@ -56,6 +57,9 @@ import fi.vm.yti.codelist.intake.service.CodeService;
 import fi.vm.yti.codelist.intake.service.ExtensionService;
 import fi.vm.yti.codelist.intake.service.ExternalReferenceService;
 import fi.vm.yti.codelist.intake.service.MemberService;
+import fi.vm.yti.codelist.intake.update.ImportJobManager;
+import fi.vm.yti.codelist.intake.util.SpooledUpload;
+import fi.vm.yti.codelist.intake.util.UploadSpooler;
 import fi.vm.yti.codelist.intake.util.ValidationUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -69,6 +73,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.update.ImportJobManager.*;
 import static fi.vm.yti.codelist.intake.util.EncodingUtils.urlDecodeCodeValue;
 import static fi.vm.yti.codelist.intake.util.EncodingUtils.urlDecodeString;
 
@@ -87,6 +92,8 @@ public class CodeRegistryResource implements AbstractBaseResource {
     private final CloningService cloningService;
     private final CodeSchemeParser codeSchemeParser;
     private final AuthorizationManager authorizationManager;
+    private final UploadSpooler uploadSpooler;
+    private final ImportJobManager importJobManager;
 
     @Inject
     public CodeRegistryResource(final CodeService codeService,
@@ -98,7 +105,9 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                 final Indexing indexing,
                                 final CloningService cloningService,
                                 final CodeSchemeParser codeSchemeParser,
-                                final AuthorizationManager authorizationManager) {
+                                final AuthorizationManager authorizationManager,
+                                final UploadSpooler uploadSpooler,
+                                final ImportJobManager importJobManager) {
         this.codeService = codeService;
         this.codeSchemeService = codeSchemeService;
         this.codeRegistryService = codeRegistryService;
@@ -109,6 +118,8 @@ public class CodeRegistryResource implements AbstractBaseResource {
         this.cloningService = cloningService;
         this.codeSchemeParser = codeSchemeParser;
         this.authorizationManager = authorizationManager;
+        this.uploadSpooler = uploadSpooler;
+        this.importJobManager = importJobManager;
     }
 
     @POST
@@ -132,7 +143,9 @@ public class CodeRegistryResource implements AbstractBaseResource {
     public Response addOrUpdateCodeRegistriesFromFile(@Parameter(description = "Format for input.", required = true) @QueryParam("format") @DefaultValue("json") final String format,
                                                       @Parameter(description = "Pretty format JSON output.") @QueryParam("pretty") final String pretty,
                                                       @Parameter(description = "Input-file for CSV or Excel import.", required = true, style = ParameterStyle.FORM, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistCodeRegistriesFromSource(format, inputStream, null, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistCodeRegistriesFromSource(format, upload, null, pretty);
+        }
     }
 
     @POST
@@ -221,7 +234,31 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                                    @Parameter(description = "If creating new version, id of previous code list version", in = ParameterIn.QUERY) @QueryParam("originalCodeSchemeId") final String originalCodeSchemeId,
                                                    @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
                                                    @Parameter(description = "Input-file for CSV or Excel import.", in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistCodeSchemesFromSource(codeRegistryCodeValue, format, inputStream, null, userIsCreatingANewVersionOfACodeScheme, originalCodeSchemeId, updatingExistingCodeScheme, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistCodeSchemesFromSource(codeRegistryCodeValue, format, upload, null, userIsCreatingANewVersionOfACodeScheme, originalCodeSchemeId, updatingExistingCodeScheme, pretty);
+        }
+    }
+
+    @POST
+    @Path("{codeRegistryCodeValue}/codeschemes/jobs")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
+    @Operation(summary = "Starts an asynchronous import job that creates or updates CodeSchemes from Excel or CSV file.", operationId = "addOrUpdateCodeSchemesFromFileAsJob")
+    @ApiResponse(responseCode = "202", description = "Import job queued, status can be polled from the importjobs API.", content = @Content(schema = @Schema(implementation = ImportJob.class)))
+    @Tag(name = "CodeScheme")
+    public Response addOrUpdateCodeSchemesFromFileAsJob(@Parameter(description = "CodeRegistry codeValue", required = true, in = ParameterIn.PATH) @PathParam("codeRegistryCodeValue") final String codeRegistryCodeValue,
+                                                        @Parameter(description = "Format for input.", in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("csv") final String format,
+                                                        @Parameter(description = "New Codelist version", in = ParameterIn.QUERY) @QueryParam("newVersionOfCodeScheme") @DefaultValue("false") final boolean userIsCreatingANewVersionOfACodeScheme,
+                                                        @Parameter(description = "True if user is updating a particular code list with a file from the code list page menu", in = ParameterIn.QUERY) @QueryParam("updatingExistingCodeScheme") @DefaultValue("false") final boolean updatingExistingCodeScheme,
+                                                        @Parameter(description = "If creating new version, id of previous code list version", in = ParameterIn.QUERY) @QueryParam("originalCodeSchemeId") final String originalCodeSchemeId,
+                                                        @Parameter(description = "Input-file for CSV or Excel import.", in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
+        final SpooledUpload upload = uploadSpooler.spool(inputStream, format);
+        final ImportJob job = importJobManager.submit(JOB_TYPE_CODESCHEMES, codeRegistryCodeValue, progress -> {
+            final Set<CodeSchemeDTO> codeSchemes = codeSchemeService.parseAndPersistCodeSchemesFromSourceData(codeRegistryCodeValue, format, upload, null, userIsCreatingANewVersionOfACodeScheme, originalCodeSchemeId, updatingExistingCodeScheme);
+            progress.phase(JOB_PHASE_INDEXING);
+            indexCodeSchemes(codeRegistryCodeValue, codeSchemes);
+        }, upload);
+        return Response.status(Response.Status.ACCEPTED).entity(job).build();
     }
 
     @POST
@@ -234,7 +271,10 @@ public class CodeRegistryResource implements AbstractBaseResource {
     public Response canANewVersionOfACodeSchemeBeCreatedFromTheIncomingFileDirectly(@Parameter(description = "CodeRegistry codeValue", required = true, in = ParameterIn.PATH) @PathParam("codeRegistryCodeValue") final String codeRegistryCodeValue,
                                                                                     @Parameter(description = "Format for input.", in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("csv") final String format,
                                                                                     @Parameter(description = "Input-file for CSV or Excel import.", in = ParameterIn.QUERY, style = ParameterStyle.FORM, schema = @Schema(type = "string", format = "binary", description = "Incoming file."), content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA)) @FormDataParam("file") final InputStream inputStream) {
-        boolean okToCreateANewVersion = codeSchemeService.canANewVersionOfACodeSchemeBeCreatedFromTheIncomingFileDirectly(codeRegistryCodeValue, format, inputStream);
+        final boolean okToCreateANewVersion;
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            okToCreateANewVersion = codeSchemeService.canANewVersionOfACodeSchemeBeCreatedFromTheIncomingFileDirectly(codeRegistryCodeValue, format, upload);
+        }
         final ObjectMapper mapper = new ObjectMapper();
         Response response;
         try {
@@ -524,7 +564,9 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                                   @Parameter(description = "Auto-create members for all codes in the extensions codeschemes", in = ParameterIn.QUERY) @QueryParam("autoCreateMembers") @DefaultValue("false") final boolean autoCreateMembers,
                                                   @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
                                                   @Parameter(description = "Input-file for CSV or Excel import.", required = true, in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistExtensionsFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, inputStream, null, EXCEL_SHEET_EXTENSIONS, false, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistExtensionsFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, upload, null, EXCEL_SHEET_EXTENSIONS, false, pretty);
+        }
     }
 
     @POST
@@ -558,8 +600,8 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                                @Parameter(description = "Extension codeValue", required = true) @PathParam("extensionCodeValue") final String extensionCodeValue,
                                                @Parameter(description = "Format for input.", in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("json") final String format,
                                                @Parameter(description = "Pretty format JSON output.") @QueryParam("pretty") final String pretty,
-                                               @RequestBody(description = "JSON payload for Member data.", required = true) final String jsonPayload) {
-        return parseAndPersistMembersFromSource(codeRegistryCodeValue, codeSchemeCodeValue, extensionCodeValue, FORMAT_JSON, null, jsonPayload, null, pretty);
+                                               @RequestBody(description = "JSON payload for Member data.", required = true) final InputStream inputStream) {
+        return parseAndPersistMembersFromSource(codeRegistryCodeValue, codeSchemeCodeValue, extensionCodeValue, FORMAT_JSON, inputStream, null, null, pretty);
     }
 
     @POST
@@ -575,7 +617,9 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                                @Parameter(description = "Format for input.", in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("csv") final String format,
                                                @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
                                                @Parameter(description = "Input-file for CSV or Excel import.", required = true, in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistMembersFromSource(codeRegistryCodeValue, codeSchemeCodeValue, extensionCodeValue, format, inputStream, null, EXCEL_SHEET_MEMBERS, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistMembersFromSource(codeRegistryCodeValue, codeSchemeCodeValue, extensionCodeValue, format, upload, null, EXCEL_SHEET_MEMBERS, pretty);
+        }
     }
 
     @POST
@@ -742,11 +786,11 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                              @Parameter(description = "Code status before change.", in = ParameterIn.QUERY) @QueryParam("initialCodeStatus") final String initialCodeStatus,
                                              @Parameter(description = "Code status after change.", in = ParameterIn.QUERY) @QueryParam("endCodeStatus") final String endCodeStatus,
                                              @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
-                                             @RequestBody(description = "JSON payload for Code data.") final String jsonPayload) {
+                                             @RequestBody(description = "JSON payload for Code data.") final InputStream inputStream) {
         if (initialCodeStatus != null && !initialCodeStatus.isEmpty() && endCodeStatus != null && !endCodeStatus.isEmpty()) {
             return massChangeCodeStatuses(codeRegistryCodeValue, codeSchemeCodeValue, parseStatusFromString(initialCodeStatus), parseStatusFromString(endCodeStatus), pretty);
         }
-        return parseAndPersistCodesFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, null, jsonPayload, pretty);
+        return parseAndPersistCodesFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, inputStream, null, pretty);
     }
 
     @POST
@@ -763,7 +807,29 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                              @Parameter(description = "Pretty format JSON output.") @QueryParam("pretty") final String pretty,
                                              @Parameter(description = "Input-file for CSV or Excel import.", required = true, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
 
-        return parseAndPersistCodesFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, inputStream, null, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistCodesFromSource(codeRegistryCodeValue, codeSchemeCodeValue, format, upload, null, pretty);
+        }
+    }
+
+    @POST
+    @Path("{codeRegistryCodeValue}/codeschemes/{codeSchemeCodeValue}/codes/jobs")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
+    @Operation(summary = "Starts an asynchronous import job that creates or updates Codes from CSV or Excel input data.")
+    @ApiResponse(responseCode = "202", description = "Import job queued, status can be polled from the importjobs API.", content = @Content(schema = @Schema(implementation = ImportJob.class)))
+    @Tag(name = "Code")
+    public Response addOrUpdateCodesFromFileAsJob(@Parameter(description = "Format for input.", required = true) @QueryParam("format") @DefaultValue("csv") final String format,
+                                                  @Parameter(description = "CodeRegistry codeValue", required = true) @PathParam("codeRegistryCodeValue") final String codeRegistryCodeValue,
+                                                  @Parameter(description = "CodeScheme codeValue", required = true) @PathParam("codeSchemeCodeValue") final String codeSchemeCodeValue,
+                                                  @Parameter(description = "Input-file for CSV or Excel import.", required = true, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
+        final SpooledUpload upload = uploadSpooler.spool(inputStream, format);
+        final ImportJob job = importJobManager.submit(JOB_TYPE_CODES, codeRegistryCodeValue + "/" + codeSchemeCodeValue, progress -> {
+            final Set<CodeDTO> codes = codeService.parseAndPersistCodesFromSourceData(codeRegistryCodeValue, codeSchemeCodeValue, format, upload, null);
+            progress.phase(JOB_PHASE_INDEXING);
+            indexCodes(codeRegistryCodeValue, codeSchemeCodeValue, codes);
+        }, upload);
+        return Response.status(Response.Status.ACCEPTED).entity(job).build();
     }
 
     @POST
@@ -1012,6 +1078,18 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                                           final boolean updatingExistingCodeScheme,
                                                           final String pretty) {
         final Set<CodeSchemeDTO> codeSchemes = codeSchemeService.parseAndPersistCodeSchemesFromSourceData(codeRegistryCodeValue, format, inputStream, jsonPayload, userIsCreatingANewVersionOfACodeScheme, originalCodeSchemeId, updatingExistingCodeScheme);
+        indexCodeSchemes(codeRegistryCodeValue, codeSchemes);
+        final Meta meta = new Meta();
+        ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProvider(FILTER_NAME_CODESCHEME, "codeRegistry,code,extension,valueType,member,memberValue"), pretty));
+        final ResponseWrapper<CodeSchemeDTO> responseWrapper = new ResponseWrapper<>(meta);
+        meta.setMessage("CodeSchemes added or modified: " + codeSchemes.size());
+        meta.setCode(200);
+        responseWrapper.setResults(codeSchemes);
+        return Response.ok(responseWrapper).build();
+    }
+
+    private void indexCodeSchemes(final String codeRegistryCodeValue,
+                                  final Set<CodeSchemeDTO> codeSchemes) {
         for (CodeSchemeDTO codeScheme : codeSchemes) {
             if (codeScheme.getLastCodeschemeId() != null) {
                 codeSchemeService.populateAllVersionsToCodeSchemeDTO(codeScheme);
@@ -1037,13 +1115,6 @@ public class CodeRegistryResource implements AbstractBaseResource {
                 }
             }
         }
-        final Meta meta = new Meta();
-        ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProvider(FILTER_NAME_CODESCHEME, "codeRegistry,code,extension,valueType,member,memberValue"), pretty));
-        final ResponseWrapper<CodeSchemeDTO> responseWrapper = new ResponseWrapper<>(meta);
-        meta.setMessage("CodeSchemes added or modified: " + codeSchemes.size());
-        meta.setCode(200);
-        responseWrapper.setResults(codeSchemes);
-        return Response.ok(responseWrapper).build();
     }
 
     private Response parseAndPersistExtensionsFromSource(final String codeRegistryCodeValue,
@@ -1158,13 +1229,7 @@ public class CodeRegistryResource implements AbstractBaseResource {
                                            final String codeSchemeCodeValue,
                                            final Set<CodeDTO> codes,
                                            final String pretty) {
-        final CodeSchemeDTO codeScheme = codeSchemeService.findByCodeRegistryCodeValueAndCodeValue(codeRegistryCodeValue, codeSchemeCodeValue);
-        indexing.updateCodes(codes);
-        codes.forEach(code -> indexing.updateMembers(memberService.findByCodeId(code.getId())));
-        codeSchemeService.populateAllVersionsToCodeSchemeDTO(codeScheme);
-        indexing.updateCodeScheme(codeScheme);
-        indexing.updateExternalReferences(externalReferenceService.findByParentCodeSchemeId(codeScheme.getId()));
-        indexing.updateCodeRegistry(codeRegistryService.findByCodeValue(codeRegistryCodeValue));
+        indexCodes(codeRegistryCodeValue, codeSchemeCodeValue, codes);
         final Meta meta = new Meta();
         ObjectWriterInjector.set(new FilterModifier(createSimpleFilterProvider(FILTER_NAME_CODE, "codeRegistry,codeScheme,extension,valueType,member,memberValue"), pretty));
         final ResponseWrapper<CodeDTO> responseWrapper = new ResponseWrapper<>(meta);
@@ -1175,6 +1240,18 @@ public class CodeRegistryResource implements AbstractBaseResource {
 
     }
 
+    private void indexCodes(final String codeRegistryCodeValue,
+                            final String codeSchemeCodeValue,
+                            final Set<CodeDTO> codes) {
+        final CodeSchemeDTO codeScheme = codeSchemeService.findByCodeRegistryCodeValueAndCodeValue(codeRegistryCodeValue, codeSchemeCodeValue);
+        indexing.updateCodes(codes);
+        codes.forEach(code -> indexing.updateMembers(memberService.findByCodeId(code.getId())));
+        codeSchemeService.populateAllVersionsToCodeSchemeDTO(codeScheme);
+        indexing.updateCodeScheme(codeScheme);
+        indexing.updateExternalReferences(externalReferenceService.findByParentCodeSchemeId(codeScheme.getId()));
+        indexing.updateCodeRegistry(codeRegistryService.findByCodeValue(codeRegistryCodeValue));
+    }
+
     private String parseStatusFromString(final String status) {
         try {
             return Status.valueOf(status.replaceAll(" ", "").trim().toUpperCase()).toString();
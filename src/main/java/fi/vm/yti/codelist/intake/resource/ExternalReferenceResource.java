@@ -27,6 +27,8 @@ import fi.vm.yti.codelist.intake.api.ResponseWrapper;
 import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.indexing.Indexing;
 import fi.vm.yti.codelist.intake.service.ExternalReferenceService;
+import fi.vm.yti.codelist.intake.util.SpooledUpload;
+import fi.vm.yti.codelist.intake.util.UploadSpooler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -45,12 +47,15 @@ public class ExternalReferenceResource implements AbstractBaseResource {
 
     private final ExternalReferenceService externalReferenceService;
     private final Indexing indexing;
+    private final UploadSpooler uploadSpooler;
 
     @Inject
     public ExternalReferenceResource(final ExternalReferenceService externalReferenceService,
-                                     final Indexing indexing) {
+                                     final Indexing indexing,
+                                     final UploadSpooler uploadSpooler) {
         this.externalReferenceService = externalReferenceService;
         this.indexing = indexing;
+        this.uploadSpooler = uploadSpooler;
     }
 
     @POST
@@ -65,7 +70,9 @@ public class ExternalReferenceResource implements AbstractBaseResource {
         if (jsonPayload != null && !jsonPayload.isEmpty() && FORMAT_JSON.equalsIgnoreCase(format)) {
             return parseAndPersistExistingReferencesFromSource(FORMAT_JSON, null, jsonPayload, pretty);
         } else if (inputStream != null && (FORMAT_EXCEL.equalsIgnoreCase(format) || FORMAT_EXCEL_XLS.equalsIgnoreCase(format) || FORMAT_EXCEL_XLSX.equalsIgnoreCase(format) || FORMAT_CSV.equalsIgnoreCase(format))) {
-            return parseAndPersistExistingReferencesFromSource(format, inputStream, null, pretty);
+            try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+                return parseAndPersistExistingReferencesFromSource(format, upload, null, pretty);
+            }
         }
         throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_406));
     }
@@ -0,0 +1,66 @@
+package fi.vm.yti.codelist.intake.resource;
+
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.UnauthorizedException;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.model.ImportJob;
+import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import fi.vm.yti.codelist.intake.update.ImportJobManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_401;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_IMPORT_JOB_NOT_FOUND;
+
+@Component
+@Path("/v1/importjobs")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "ImportJob")
+public class ImportJobResource implements AbstractBaseResource {
+
+    private final ImportJobManager importJobManager;
+    private final AuthorizationManager authorizationManager;
+
+    @Inject
+    public ImportJobResource(final ImportJobManager importJobManager,
+                             final AuthorizationManager authorizationManager) {
+        this.importJobManager = importJobManager;
+        this.authorizationManager = authorizationManager;
+    }
+
+    @GET
+    @Path("{jobId}")
+    @Produces(MediaType.APPLICATION_JSON + ";charset=UTF-8")
+    @Operation(summary = "Returns the status and progress of an asynchronous import job.")
+    @ApiResponse(responseCode = "200", description = "Returns the import job.", content = @Content(schema = @Schema(implementation = ImportJob.class)))
+    @ApiResponse(responseCode = "401", description = "User is not logged in.")
+    @ApiResponse(responseCode = "404", description = "Import job not found or not submitted by the user.")
+    public Response getImportJob(@Parameter(description = "Import job UUID", required = true, in = ParameterIn.PATH) @PathParam("jobId") final UUID jobId) {
+        final UUID userId = authorizationManager.getUserId();
+        if (userId == null) {
+            throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
+        }
+        final ImportJob job = importJobManager.findById(jobId);
+        if (job == null || (!userId.equals(job.getUserId()) && !authorizationManager.isSuperUser())) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_FOUND.value(), ERR_MSG_USER_IMPORT_JOB_NOT_FOUND));
+        }
+        return Response.ok(job).build();
+    }
+}
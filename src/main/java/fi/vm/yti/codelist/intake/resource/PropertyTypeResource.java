@@ -24,6 +24,8 @@ import fi.vm.yti.codelist.intake.api.MetaResponseWrapper;
 import fi.vm.yti.codelist.intake.api.ResponseWrapper;
 import fi.vm.yti.codelist.intake.indexing.Indexing;
 import fi.vm.yti.codelist.intake.service.PropertyTypeService;
+import fi.vm.yti.codelist.intake.util.SpooledUpload;
+import fi.vm.yti.codelist.intake.util.UploadSpooler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -44,12 +46,15 @@ public class PropertyTypeResource implements AbstractBaseResource {
 
     private final PropertyTypeService propertyTypeService;
     private final Indexing indexing;
+    private final UploadSpooler uploadSpooler;
 
     @Inject
     public PropertyTypeResource(final PropertyTypeService propertyTypeService,
-                                final Indexing indexing) {
+                                final Indexing indexing,
+                                final UploadSpooler uploadSpooler) {
         this.propertyTypeService = propertyTypeService;
         this.indexing = indexing;
+        this.uploadSpooler = uploadSpooler;
     }
 
     @POST
@@ -71,7 +76,9 @@ public class PropertyTypeResource implements AbstractBaseResource {
     public Response addOrUpdatePropertyTypesFromFile(@Parameter(description = "Format for input.", required = true, in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("json") final String format,
                                                      @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
                                                      @Parameter(description = "Input-file for CSV or Excel import.", required = true, in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistPropertyTypesFromSource(format, inputStream, null, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistPropertyTypesFromSource(format, upload, null, pretty);
+        }
     }
 
     @POST
@@ -25,6 +25,8 @@ import fi.vm.yti.codelist.intake.api.MetaResponseWrapper;
 import fi.vm.yti.codelist.intake.api.ResponseWrapper;
 import fi.vm.yti.codelist.intake.indexing.Indexing;
 import fi.vm.yti.codelist.intake.service.ValueTypeService;
+import fi.vm.yti.codelist.intake.util.SpooledUpload;
+import fi.vm.yti.codelist.intake.util.UploadSpooler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -45,12 +47,15 @@ public class ValueTypeResource implements AbstractBaseResource {
 
     private final ValueTypeService valueTypeService;
     private final Indexing indexing;
+    private final UploadSpooler uploadSpooler;
 
     @Inject
     public ValueTypeResource(final ValueTypeService valueTypeService,
-                             final Indexing indexing) {
+                             final Indexing indexing,
+                             final UploadSpooler uploadSpooler) {
         this.valueTypeService = valueTypeService;
         this.indexing = indexing;
+        this.uploadSpooler = uploadSpooler;
     }
 
     @POST
@@ -72,7 +77,9 @@ public class ValueTypeResource implements AbstractBaseResource {
     public Response addOrUpdateValueTypesFromFile(@Parameter(description = "Format for input.", required = true, in = ParameterIn.QUERY) @QueryParam("format") @DefaultValue("json") final String format,
                                                   @Parameter(description = "Pretty format JSON output.", in = ParameterIn.QUERY) @QueryParam("pretty") final String pretty,
                                                   @Parameter(description = "Input-file for CSV or Excel import.", required = true, in = ParameterIn.QUERY, schema = @Schema(type = "string", format = "binary", description = "Incoming file.")) @FormDataParam("file") final InputStream inputStream) {
-        return parseAndPersistValueTypesFromSource(format, inputStream, null, pretty);
+        try (final SpooledUpload upload = uploadSpooler.spool(inputStream, format)) {
+            return parseAndPersistValueTypesFromSource(format, upload, null, pretty);
+        }
     }
 
     @POST
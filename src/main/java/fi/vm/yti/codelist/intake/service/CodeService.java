@@ -1,11 +1,12 @@
 package fi.vm.yti.codelist.intake.service;
 
 import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import org.apache.poi.ss.usermodel.Workbook;
-import org.springframework.data.domain.PageRequest;
 
 import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
@@ -16,7 +17,9 @@ public interface CodeService {
 
     Set<CodeDTO> findAll();
 
-    Set<CodeDTO> findAll(final PageRequest pageRequest);
+    List<CodeDTO> findPageAfter(final String codeValue,
+                                final UUID id,
+                                final int pageSize);
 
     CodeDTO findById(final UUID codeId);
 
@@ -26,6 +29,10 @@ public interface CodeService {
                                                        final String sheetName,
                                                        final CodeScheme codeScheme);
 
+    Set<CodeDTO> persistCodesFromDtos(final CodeScheme codeScheme,
+                                      final Set<CodeDTO> codeDtos,
+                                      final Map<String, String> broaderCodeMapping);
+
     Set<CodeDTO> parseAndPersistCodesFromSourceData(final boolean isAuthorized,
                                                     final String codeRegistryCodeValue,
                                                     final String codeSchemeCodeValue,
@@ -1,12 +1,12 @@
 package fi.vm.yti.codelist.intake.service;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import org.apache.poi.ss.usermodel.Workbook;
-import org.springframework.data.domain.PageRequest;
 
 import fi.vm.yti.codelist.common.dto.ExtensionDTO;
 import fi.vm.yti.codelist.intake.model.CodeScheme;
@@ -17,7 +17,8 @@ public interface ExtensionService {
 
     Set<ExtensionDTO> findAll();
 
-    Set<ExtensionDTO> findAll(final PageRequest pageRequest);
+    List<ExtensionDTO> findPageAfter(final String uri,
+                                     final int pageSize);
 
     ExtensionDTO findById(final UUID id);
 
@@ -42,6 +43,10 @@ public interface ExtensionService {
                                                                  final Map<ExtensionDTO, String> membersSheetNames,
                                                                  final boolean autoCreateMembers);
 
+    Set<ExtensionDTO> persistExtensionsFromDtos(final CodeScheme codeScheme,
+                                                final Set<ExtensionDTO> extensionDtos,
+                                                final boolean autoCreateMembers);
+
     ExtensionDTO parseAndPersistExtensionFromJson(final String codeRegistryCodeValue,
                                                   final String codeSchemeCodeValue,
                                                   final String extensionCodeValue,
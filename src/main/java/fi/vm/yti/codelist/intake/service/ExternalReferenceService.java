@@ -36,4 +36,7 @@ public interface ExternalReferenceService {
     void parseAndPersistExternalReferencesFromExcelWorkbook(final Workbook workbook,
                                                             final String sheetName,
                                                             final CodeScheme codeScheme);
+
+    void persistExternalReferencesFromDtos(final Set<ExternalReferenceDTO> externalReferenceDtos,
+                                           final CodeScheme codeScheme);
 }
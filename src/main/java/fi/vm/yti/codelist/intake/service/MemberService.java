@@ -1,11 +1,11 @@
 package fi.vm.yti.codelist.intake.service;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 import org.apache.poi.ss.usermodel.Workbook;
-import org.springframework.data.domain.PageRequest;
 
 import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.common.dto.ExtensionDTO;
@@ -21,7 +21,8 @@ public interface MemberService {
 
     Set<MemberDTO> findAll();
 
-    Set<MemberDTO> findAll(final PageRequest pageRequest);
+    List<MemberDTO> findPageAfter(final String uri,
+                                  final int pageSize);
 
     MemberDTO findById(final UUID id);
 
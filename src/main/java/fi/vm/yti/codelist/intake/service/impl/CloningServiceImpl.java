@@ -1,6 +1,7 @@
 package fi.vm.yti.codelist.intake.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExtensionDao;
 import fi.vm.yti.codelist.intake.dao.ExternalReferenceDao;
 import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.dao.MemberSequenceAllocator;
 import fi.vm.yti.codelist.intake.exception.UnauthorizedException;
 import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
 import fi.vm.yti.codelist.intake.jpa.MemberRepository;
@@ -284,9 +286,11 @@ public class CloningServiceImpl implements CloningService {
             HashMap<UUID, UUID> oldIdToNewIdPointerMap = new HashMap<>();
             HashMap<UUID, UUID> oldIdToOldRelatedMemberIdMap = new HashMap<>();
             HashMap<UUID, Member> newMembersMap = new HashMap<>();
+            final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, clonedExtension, Collections.emptySet());
+            sequenceAllocator.reserve(originalMembers.size());
 
             for (final Member originalMember : originalMembers) {
-                final Member newMember = populateMember(newCodes, clonedExtension, new Date(System.currentTimeMillis()), originalMember, originalCodeScheme);
+                final Member newMember = populateMember(newCodes, clonedExtension, new Date(System.currentTimeMillis()), originalMember, originalCodeScheme, sequenceAllocator.next());
                 newMembers.add(newMember);
                 newMembersMap.put(newMember.getId(), newMember);
                 oldIdToNewIdPointerMap.put(originalMember.getId(), UUID.randomUUID());
@@ -429,13 +433,14 @@ public class CloningServiceImpl implements CloningService {
                                   final Extension extension,
                                   final Date timeStamp,
                                   final Member originalMember,
-                                  final CodeScheme originalCodeScheme) {
+                                  final CodeScheme originalCodeScheme,
+                                  final Integer sequenceId) {
         final Member newMember = new Member();
         getCodeForMember(newCodes, originalMember, newMember, originalCodeScheme);
         newMember.setId(originalMember.getId());
         newMember.setExtension(extension);
         newMember.setOrder(originalMember.getOrder());
-        newMember.setSequenceId(memberRepository.getNextMemberSequenceId("seq_for_ext_" + extension.getId().toString().replaceAll("-", "_")));
+        newMember.setSequenceId(sequenceId);
         newMember.setPrefLabel(originalMember.getPrefLabel());
         newMember.setCreated(timeStamp);
         newMember.setModified(timeStamp);
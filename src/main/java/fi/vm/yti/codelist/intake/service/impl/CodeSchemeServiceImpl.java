@@ -1,5 +1,6 @@
 package fi.vm.yti.codelist.intake.service.impl;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -11,16 +12,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.poi.EmptyFileException;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -31,6 +41,7 @@ import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.common.dto.CodeSchemeDTO;
 import fi.vm.yti.codelist.common.dto.ErrorModel;
 import fi.vm.yti.codelist.common.dto.ExtensionDTO;
+import fi.vm.yti.codelist.common.dto.ExternalReferenceDTO;
 import fi.vm.yti.codelist.common.model.CodeSchemeListItem;
 import fi.vm.yti.codelist.common.model.Status;
 import fi.vm.yti.codelist.intake.dao.CodeDao;
@@ -52,6 +63,9 @@ import fi.vm.yti.codelist.intake.model.CodeScheme;
 import fi.vm.yti.codelist.intake.model.Extension;
 import fi.vm.yti.codelist.intake.model.ExternalReference;
 import fi.vm.yti.codelist.intake.model.Member;
+import fi.vm.yti.codelist.intake.parser.CodeParser;
+import fi.vm.yti.codelist.intake.parser.ExtensionParser;
+import fi.vm.yti.codelist.intake.parser.ExternalReferenceParser;
 import fi.vm.yti.codelist.intake.parser.impl.CodeSchemeParserImpl;
 import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.CloningService;
@@ -60,8 +74,12 @@ import fi.vm.yti.codelist.intake.service.CodeService;
 import fi.vm.yti.codelist.intake.service.ExtensionService;
 import fi.vm.yti.codelist.intake.service.ExternalReferenceService;
 import fi.vm.yti.codelist.intake.service.MemberService;
+import fi.vm.yti.codelist.intake.update.ImportJobProgress;
+import fi.vm.yti.codelist.intake.util.SpooledUpload;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.update.ImportJobManager.JOB_PHASE_PERSISTING;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Singleton
 @Service
@@ -83,6 +101,11 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
     private final CloningService cloningService;
     private final CodeSchemeRepository codeSchemeRepository;
     private final ExternalReferenceService externalReferenceService;
+    private final CodeParser codeParser;
+    private final ExternalReferenceParser externalReferenceParser;
+    private final ExtensionParser extensionParser;
+    private final ExecutorService sheetParsingExecutor;
+    private final boolean parallelSheetParsing;
 
     @Inject
     public CodeSchemeServiceImpl(final AuthorizationManager authorizationManager,
@@ -98,7 +121,12 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
                                  final DtoMapperService dtoMapperService,
                                  @Lazy final CloningService cloningService,
                                  final CodeSchemeRepository codeSchemeRepository,
-                                 final ExternalReferenceService externalReferenceService) {
+                                 final ExternalReferenceService externalReferenceService,
+                                 final CodeParser codeParser,
+                                 final ExternalReferenceParser externalReferenceParser,
+                                 final ExtensionParser extensionParser,
+                                 @Named("sheetParsingExecutor") final ExecutorService sheetParsingExecutor,
+                                 @Value("${intake.sheetparsing.parallel:false}") final boolean parallelSheetParsing) {
         this.codeRegistryDao = codeRegistryDao;
         this.authorizationManager = authorizationManager;
         this.codeSchemeParser = codeSchemeParser;
@@ -113,6 +141,11 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
         this.cloningService = cloningService;
         this.codeSchemeRepository = codeSchemeRepository;
         this.externalReferenceService = externalReferenceService;
+        this.codeParser = codeParser;
+        this.externalReferenceParser = externalReferenceParser;
+        this.extensionParser = extensionParser;
+        this.sheetParsingExecutor = sheetParsingExecutor;
+        this.parallelSheetParsing = parallelSheetParsing;
     }
 
     @Transactional
@@ -166,7 +199,7 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
         if (codeRegistry != null) {
             switch (format.toLowerCase()) {
                 case FORMAT_EXCEL:
-                    try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+                    try (final Workbook workbook = openWorkbook(inputStream)) {
                         final Map<CodeSchemeDTO, String> codesSheetNames = new HashMap<>();
                         final Map<CodeSchemeDTO, String> externalReferencesSheetNames = new HashMap<>();
                         final Map<CodeSchemeDTO, String> extensionsSheetNames = new HashMap<>();
@@ -271,7 +304,7 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
                     }
                     break;
                 case FORMAT_EXCEL:
-                    try (final Workbook workbook = WorkbookFactory.create(inputStream)) {
+                    try (final Workbook workbook = openWorkbook(inputStream)) {
                         CodeScheme previousCodeScheme = null;
                         final Map<CodeSchemeDTO, String> externalReferencesSheetNames = new HashMap<>();
                         final Map<CodeSchemeDTO, String> extensionsSheetNames = new HashMap<>();
@@ -286,11 +319,16 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
                                 codeSchemeDtos.iterator().next().setCumulative(true); // this could be wrong in the Excel, if any prev version is cumulative, it cant change back to false
                             }
                         }
+                        ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
                         codeSchemes = codeSchemeDao.updateCodeSchemesFromDtos(isAuthorized, codeRegistry, codeSchemeDtos, false);
-                        parseExternalReferences(codeSchemes, externalReferencesSheetNames, workbook);
-                        parseExternalReferencesFromCodeSchemeDtos(codeSchemes, codeSchemeDtos);
-                        final Map<CodeScheme, Set<CodeDTO>> codeParsingResult = parseCodes(codeSchemes, codeSchemeDtos, codesSheetNames, workbook);
-                        parseExtensions(codeSchemes, extensionsSheetNames, workbook);
+                        final File uploadFile = inputStream instanceof SpooledUpload ? ((SpooledUpload) inputStream).getFile() : null;
+                        final Map<CodeScheme, Set<CodeDTO>> codeParsingResult;
+                        try (final ParsedSheets parsedSheets = parallelSheetParsing && uploadFile != null ? parseSheetsConcurrently(codeSchemes, externalReferencesSheetNames, codesSheetNames, extensionsSheetNames, workbook, uploadFile) : null) {
+                            parseExternalReferences(codeSchemes, externalReferencesSheetNames, workbook, parsedSheets);
+                            parseExternalReferencesFromCodeSchemeDtos(codeSchemes, codeSchemeDtos);
+                            codeParsingResult = parseCodes(codeSchemes, codeSchemeDtos, codesSheetNames, workbook, parsedSheets);
+                            parseExtensions(codeSchemes, extensionsSheetNames, workbook, parsedSheets);
+                        }
                         if (userIsCreatingANewVersionOfACodeScheme) {
                             if (previousCodeScheme.isCumulative()) {
                                 if (preventPossibleImplicitCodeDeletionDuringFileImport) {
@@ -312,7 +350,9 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
                     if (updatingExistingCodeScheme) {
                         handleUpdatingOneParticularCodeSchemeThroughFileUpload(originalCodeSchemeId, codeSchemeDtos);
                     }
+                    ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
                     codeSchemes = codeSchemeDao.updateCodeSchemesFromDtos(isAuthorized, codeRegistry, codeSchemeDtos, false);
+                    ImportJobProgress.current().addRowsProcessed(codeSchemes.size());
                     if (userIsCreatingANewVersionOfACodeScheme) {
                         otherCodeSchemeDtosThatNeedToGetIndexedInCaseANewCodeSchemeVersionWasCreated = handleNewVersionCreationFromFileRelatedActivities(codeSchemes, originalCodeSchemeId);
                     }
@@ -396,17 +436,18 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
 
     private void parseExternalReferences(final Set<CodeScheme> codeSchemes,
                                          final Map<CodeSchemeDTO, String> externalReferencesSheetNames,
-                                         final Workbook workbook) {
+                                         final Workbook workbook,
+                                         final ParsedSheets parsedSheets) {
         if (externalReferencesSheetNames.isEmpty() && codeSchemes != null && codeSchemes.size() == 1 && workbook.getSheet(EXCEL_SHEET_LINKS) != null) {
             final CodeScheme codeScheme = codeSchemes.iterator().next();
-            externalReferenceService.parseAndPersistExternalReferencesFromExcelWorkbook(workbook, EXCEL_SHEET_LINKS, codeScheme);
+            persistExternalReferencesSheet(workbook, EXCEL_SHEET_LINKS, codeScheme, parsedSheets);
             codeSchemeDao.save(codeScheme);
         } else if (!externalReferencesSheetNames.isEmpty()) {
             externalReferencesSheetNames.forEach((codeSchemeDto, sheetName) -> {
                 if (workbook.getSheet(sheetName) != null) {
                     for (final CodeScheme codeScheme : codeSchemes) {
                         if (codeScheme.getCodeValue().equalsIgnoreCase(codeSchemeDto.getCodeValue())) {
-                            externalReferenceService.parseAndPersistExternalReferencesFromExcelWorkbook(workbook, sheetName, codeScheme);
+                            persistExternalReferencesSheet(workbook, sheetName, codeScheme, parsedSheets);
                             codeSchemeDao.save(codeScheme);
                         }
                     }
@@ -438,18 +479,19 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
     private Map<CodeScheme, Set<CodeDTO>> parseCodes(final Set<CodeScheme> codeSchemes,
                                                      final Set<CodeSchemeDTO> codeSchemeDtos,
                                                      final Map<CodeSchemeDTO, String> codesSheetNames,
-                                                     final Workbook workbook) {
+                                                     final Workbook workbook,
+                                                     final ParsedSheets parsedSheets) {
         final Map<CodeScheme, Set<CodeDTO>> returnMap = new HashMap<>();
         if (codesSheetNames.isEmpty() && codeSchemes != null && codeSchemes.size() == 1 && workbook.getSheet(EXCEL_SHEET_CODES) != null) {
             final CodeScheme codeScheme = codeSchemes.iterator().next();
-            returnMap.put(codeScheme, codeService.parseAndPersistCodesFromExcelWorkbook(workbook, EXCEL_SHEET_CODES, codeScheme));
+            returnMap.put(codeScheme, persistCodesSheet(workbook, EXCEL_SHEET_CODES, codeScheme, parsedSheets));
             resolveAndSetCodeSchemeDefaultCode(codeScheme, codeSchemeDtos.iterator().next());
         } else if (!codesSheetNames.isEmpty()) {
             codesSheetNames.forEach((codeSchemeDto, sheetName) -> {
                 if (workbook.getSheet(sheetName) != null) {
                     for (final CodeScheme codeScheme : codeSchemes) {
                         if (codeScheme.getCodeValue().equalsIgnoreCase(codeSchemeDto.getCodeValue())) {
-                            returnMap.put(codeScheme, codeService.parseAndPersistCodesFromExcelWorkbook(workbook, sheetName, codeScheme));
+                            returnMap.put(codeScheme, persistCodesSheet(workbook, sheetName, codeScheme, parsedSheets));
                             resolveAndSetCodeSchemeDefaultCode(codeScheme, codeSchemeDto);
                         }
                     }
@@ -463,12 +505,13 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
 
     private void parseExtensions(final Set<CodeScheme> codeSchemes,
                                  final Map<CodeSchemeDTO, String> extensionsSheetNames,
-                                 final Workbook workbook) {
+                                 final Workbook workbook,
+                                 final ParsedSheets parsedSheets) {
         if (codeSchemes != null && !codeSchemes.isEmpty()) {
             extensionsSheetNames.forEach((codeSchemeDto, sheetName) -> {
                 for (final CodeScheme codeScheme : codeSchemes) {
                     if (codeScheme.getCodeValue().equalsIgnoreCase(codeSchemeDto.getCodeValue())) {
-                        parseExtensions(workbook, sheetName, codeScheme);
+                        parseExtensions(workbook, sheetName, codeScheme, parsedSheets);
                     }
                 }
             });
@@ -478,10 +521,19 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
     @SuppressFBWarnings("DLS_DEAD_LOCAL_STORE")
     private void parseExtensions(final Workbook workbook,
                                  final String sheetName,
-                                 final CodeScheme codeScheme) {
+                                 final CodeScheme codeScheme,
+                                 final ParsedSheets parsedSheets) {
         if (workbook.getSheet(sheetName) != null) {
-            final Map<ExtensionDTO, String> membersSheetNames = new HashMap<>();
-            final Set<ExtensionDTO> extensions = extensionService.parseAndPersistExtensionsFromExcelWorkbook(codeScheme, workbook, sheetName, membersSheetNames, false);
+            final Map<ExtensionDTO, String> membersSheetNames;
+            final Set<ExtensionDTO> extensions;
+            if (parsedSheets != null) {
+                final ParsedExtensions parsedExtensions = awaitSheet(parsedSheets.extensions.get(sheetKey(codeScheme, sheetName)));
+                membersSheetNames = parsedExtensions.membersSheetNames;
+                extensions = extensionService.persistExtensionsFromDtos(codeScheme, parsedExtensions.extensionDtos, false);
+            } else {
+                membersSheetNames = new HashMap<>();
+                extensions = extensionService.parseAndPersistExtensionsFromExcelWorkbook(codeScheme, workbook, sheetName, membersSheetNames, false);
+            }
             if (extensions != null && !extensions.isEmpty()) {
                 membersSheetNames.forEach((extensionDto, memberSheetName) -> {
                     final Extension extension = extensionDao.findById(extensionDto.getId());
@@ -495,6 +547,125 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
         }
     }
 
+    private void persistExternalReferencesSheet(final Workbook workbook,
+                                                final String sheetName,
+                                                final CodeScheme codeScheme,
+                                                final ParsedSheets parsedSheets) {
+        if (parsedSheets != null) {
+            externalReferenceService.persistExternalReferencesFromDtos(awaitSheet(parsedSheets.externalReferences.get(sheetKey(codeScheme, sheetName))), codeScheme);
+        } else {
+            externalReferenceService.parseAndPersistExternalReferencesFromExcelWorkbook(workbook, sheetName, codeScheme);
+        }
+    }
+
+    private Set<CodeDTO> persistCodesSheet(final Workbook workbook,
+                                           final String sheetName,
+                                           final CodeScheme codeScheme,
+                                           final ParsedSheets parsedSheets) {
+        if (parsedSheets != null) {
+            final ParsedCodes parsedCodes = awaitSheet(parsedSheets.codes.get(sheetKey(codeScheme, sheetName)));
+            return codeService.persistCodesFromDtos(codeScheme, parsedCodes.codeDtos, parsedCodes.broaderCodeMapping);
+        }
+        return codeService.parseAndPersistCodesFromExcelWorkbook(workbook, sheetName, codeScheme);
+    }
+
+    /**
+     * Submits parsing of the links, codes and extensions sheets of the workbook to the sheet parsing executor, so that
+     * the sheets are parsed into DTOs concurrently. Persisting the results still happens on the calling thread in the
+     * original order. Members sheets are not included as parsing them needs the persisted extension.
+     *
+     * Workbooks are not thread safe, so each sheet is parsed from a workbook of its own opened from the spooled upload
+     * file, and the workers are given only the id of the code scheme instead of the managed entity.
+     */
+    private ParsedSheets parseSheetsConcurrently(final Set<CodeScheme> codeSchemes,
+                                                 final Map<CodeSchemeDTO, String> externalReferencesSheetNames,
+                                                 final Map<CodeSchemeDTO, String> codesSheetNames,
+                                                 final Map<CodeSchemeDTO, String> extensionsSheetNames,
+                                                 final Workbook workbook,
+                                                 final File uploadFile) {
+        final ParsedSheets parsedSheets = new ParsedSheets();
+        final BiConsumer<CodeScheme, String> externalReferencesSheetParsing = (codeScheme, sheetName) -> {
+            final CodeScheme parentCodeScheme = new CodeScheme();
+            parentCodeScheme.setId(codeScheme.getId());
+            parsedSheets.externalReferences.put(sheetKey(codeScheme, sheetName), submitSheetParsing(parsedSheets, uploadFile, sheetWorkbook ->
+                externalReferenceParser.parseExternalReferencesFromExcelWorkbook(sheetWorkbook, sheetName, parentCodeScheme)));
+        };
+        final BiConsumer<CodeScheme, String> codesSheetParsing = (codeScheme, sheetName) ->
+            parsedSheets.codes.put(sheetKey(codeScheme, sheetName), submitSheetParsing(parsedSheets, uploadFile, sheetWorkbook -> {
+                final Map<String, String> broaderCodeMapping = new HashMap<>();
+                final Set<CodeDTO> codeDtos = codeParser.parseCodesFromExcelWorkbook(sheetWorkbook, sheetName, broaderCodeMapping);
+                return new ParsedCodes(codeDtos, broaderCodeMapping);
+            }));
+        final BiConsumer<CodeScheme, String> extensionsSheetParsing = (codeScheme, sheetName) ->
+            parsedSheets.extensions.put(sheetKey(codeScheme, sheetName), submitSheetParsing(parsedSheets, uploadFile, sheetWorkbook -> {
+                final Map<ExtensionDTO, String> membersSheetNames = new HashMap<>();
+                final Set<ExtensionDTO> extensionDtos = extensionParser.parseExtensionsFromExcelWorkbook(sheetWorkbook, sheetName, membersSheetNames);
+                return new ParsedExtensions(extensionDtos, membersSheetNames);
+            }));
+        if (externalReferencesSheetNames.isEmpty() && codeSchemes.size() == 1 && workbook.getSheet(EXCEL_SHEET_LINKS) != null) {
+            externalReferencesSheetParsing.accept(codeSchemes.iterator().next(), EXCEL_SHEET_LINKS);
+        } else {
+            forEachMatchingSheet(codeSchemes, externalReferencesSheetNames, workbook, externalReferencesSheetParsing);
+        }
+        if (codesSheetNames.isEmpty() && codeSchemes.size() == 1 && workbook.getSheet(EXCEL_SHEET_CODES) != null) {
+            codesSheetParsing.accept(codeSchemes.iterator().next(), EXCEL_SHEET_CODES);
+        } else {
+            forEachMatchingSheet(codeSchemes, codesSheetNames, workbook, codesSheetParsing);
+        }
+        forEachMatchingSheet(codeSchemes, extensionsSheetNames, workbook, extensionsSheetParsing);
+        return parsedSheets;
+    }
+
+    private <T> Future<T> submitSheetParsing(final ParsedSheets parsedSheets,
+                                             final File uploadFile,
+                                             final Function<Workbook, T> sheetParser) {
+        final SheetParsing<T> sheetParsing = new SheetParsing<>(() -> {
+            try (final Workbook sheetWorkbook = openWorkbook(uploadFile)) {
+                return sheetParser.apply(sheetWorkbook);
+            }
+        });
+        parsedSheets.sheetParsings.add(sheetParsing);
+        return sheetParsingExecutor.submit(sheetParsing);
+    }
+
+    private void forEachMatchingSheet(final Set<CodeScheme> codeSchemes,
+                                      final Map<CodeSchemeDTO, String> sheetNames,
+                                      final Workbook workbook,
+                                      final BiConsumer<CodeScheme, String> sheetConsumer) {
+        sheetNames.forEach((codeSchemeDto, sheetName) -> {
+            if (workbook.getSheet(sheetName) != null) {
+                for (final CodeScheme codeScheme : codeSchemes) {
+                    if (codeScheme.getCodeValue().equalsIgnoreCase(codeSchemeDto.getCodeValue())) {
+                        sheetConsumer.accept(codeScheme, sheetName);
+                    }
+                }
+            }
+        });
+    }
+
+    private static String sheetKey(final CodeScheme codeScheme,
+                                   final String sheetName) {
+        return codeScheme.getId() + "/" + sheetName;
+    }
+
+    private static <T> T awaitSheet(final Future<T> parsedSheet) {
+        try {
+            return parsedSheet.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            LOG.error("Error parsing Excel sheet!", cause);
+            throw new ExcelParsingException(ERR_MSG_USER_ERROR_PARSING_EXCEL_FILE);
+        }
+    }
+
     private void parseMembers(final Workbook workbook,
                               final String sheetName,
                               final Extension extension) {
@@ -825,4 +996,87 @@ public class CodeSchemeServiceImpl implements CodeSchemeService, AbstractBaseSer
         }
         codeSchemeDTOsToIndex.addAll(allVersions);
     }
+
+    /**
+     * Results of the sheets parsed concurrently. Closing cancels the sheets whose parsing has not started and waits for
+     * the running ones, so that no worker is left reading the upload after the import has returned or failed.
+     */
+    private static final class ParsedSheets implements AutoCloseable {
+
+        private final Map<String, Future<Set<ExternalReferenceDTO>>> externalReferences = new HashMap<>();
+        private final Map<String, Future<ParsedCodes>> codes = new HashMap<>();
+        private final Map<String, Future<ParsedExtensions>> extensions = new HashMap<>();
+        private final List<SheetParsing<?>> sheetParsings = new ArrayList<>();
+
+        @Override
+        public void close() {
+            boolean interrupted = false;
+            for (final SheetParsing<?> sheetParsing : sheetParsings) {
+                try {
+                    sheetParsing.cancel();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Parsing of one sheet that runs at most once, either on a worker or not at all when cancelled before it started.
+     */
+    private static final class SheetParsing<T> implements Callable<T> {
+
+        private final Callable<T> parser;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private SheetParsing(final Callable<T> parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return parser.call();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        private void cancel() throws InterruptedException {
+            if (!claimed.compareAndSet(false, true)) {
+                finished.await();
+            }
+        }
+    }
+
+    private static final class ParsedCodes {
+
+        private final Set<CodeDTO> codeDtos;
+        private final Map<String, String> broaderCodeMapping;
+
+        private ParsedCodes(final Set<CodeDTO> codeDtos,
+                            final Map<String, String> broaderCodeMapping) {
+            this.codeDtos = codeDtos;
+            this.broaderCodeMapping = broaderCodeMapping;
+        }
+    }
+
+    private static final class ParsedExtensions {
+
+        private final Set<ExtensionDTO> extensionDtos;
+        private final Map<ExtensionDTO, String> membersSheetNames;
+
+        private ParsedExtensions(final Set<ExtensionDTO> extensionDtos,
+                                 final Map<ExtensionDTO, String> membersSheetNames) {
+            this.extensionDtos = extensionDtos;
+            this.membersSheetNames = membersSheetNames;
+        }
+    }
 }
@@ -3,9 +3,13 @@ package fi.vm.yti.codelist.intake.service.impl;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -16,7 +20,6 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +28,7 @@ import fi.vm.yti.codelist.common.constants.ApiConstants;
 import fi.vm.yti.codelist.common.dto.CodeDTO;
 import fi.vm.yti.codelist.common.dto.ErrorModel;
 import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.dao.CodeImportContext;
 import fi.vm.yti.codelist.intake.dao.CodeRegistryDao;
 import fi.vm.yti.codelist.intake.dao.CodeSchemeDao;
 import fi.vm.yti.codelist.intake.dao.ExternalReferenceDao;
@@ -42,15 +46,18 @@ import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.CloningService;
 import fi.vm.yti.codelist.intake.service.CodeSchemeService;
 import fi.vm.yti.codelist.intake.service.CodeService;
+import fi.vm.yti.codelist.intake.update.ImportJobProgress;
 import fi.vm.yti.codelist.intake.util.ValidationUtils;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.update.ImportJobManager.JOB_PHASE_PERSISTING;
 
 @Singleton
 @Service
 public class CodeServiceImpl implements CodeService, AbstractBaseService {
 
     private static final Logger LOG = LoggerFactory.getLogger(CodeServiceImpl.class);
+    private static final int CODE_IMPORT_CHUNK_SIZE = 1000;
     private final AuthorizationManager authorizationManager;
     private final CodeRegistryDao codeRegistryDao;
     private final CodeSchemeDao codeSchemeDao;
@@ -86,9 +93,10 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
     }
 
     @Transactional
-    public Set<CodeDTO> findAll(final PageRequest pageRequest) {
-        final Set<Code> codes = codeDao.findAll(pageRequest);
-        return dtoMapperService.mapDeepCodeDtos(codes);
+    public List<CodeDTO> findPageAfter(final String codeValue,
+                                       final UUID id,
+                                       final int pageSize) {
+        return codeDao.findPageAfter(codeValue, id, pageSize).stream().map(dtoMapperService::mapDeepCodeDto).collect(Collectors.toList());
     }
 
     @Transactional
@@ -115,14 +123,33 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
     public Set<CodeDTO> parseAndPersistCodesFromExcelWorkbook(final Workbook workbook,
                                                               final String sheetName,
                                                               final CodeScheme codeScheme) {
-        Set<Code> codes;
         if (codeScheme != null) {
             if (!authorizationManager.canBeModifiedByUserInOrganization(codeScheme.getOrganizations())) {
                 throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
             }
             final HashMap<String, String> broaderCodeMapping = new HashMap<>();
             final Set<CodeDTO> codeDtos = codeParser.parseCodesFromExcelWorkbook(workbook, sheetName, broaderCodeMapping);
+            return persistCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping);
+        } else {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
+        }
+    }
+
+    /**
+     * Persists codes that have already been parsed from a file, for example a codes sheet parsed ahead of time.
+     */
+    @Transactional
+    public Set<CodeDTO> persistCodesFromDtos(final CodeScheme codeScheme,
+                                             final Set<CodeDTO> codeDtos,
+                                             final Map<String, String> broaderCodeMapping) {
+        final Set<Code> codes;
+        if (codeScheme != null) {
+            if (!authorizationManager.canBeModifiedByUserInOrganization(codeScheme.getOrganizations())) {
+                throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
+            }
+            ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
             codes = codeDao.updateCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping, true);
+            ImportJobProgress.current().addRowsProcessed(codes.size());
         } else {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
         }
@@ -145,7 +172,7 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
                                                            final String format,
                                                            final InputStream inputStream,
                                                            final String jsonPayload) {
-        final Set<Code> codes;
+        final Set<CodeDTO> codes;
         final CodeRegistry codeRegistry = codeRegistryDao.findByCodeValue(codeRegistryCodeValue);
         if (codeRegistry != null) {
             final CodeScheme codeScheme = codeSchemeDao.findByCodeRegistryAndCodeValue(codeRegistry, codeSchemeCodeValue);
@@ -162,7 +189,11 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
                     case FORMAT_JSON:
                         if (jsonPayload != null && !jsonPayload.isEmpty()) {
                             final Set<CodeDTO> codeDtos = codeParser.parseCodesFromJsonData(jsonPayload);
-                            codes = codeDao.updateCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping, true);
+                            ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
+                            codes = dtoMapperService.mapDeepCodeDtos(codeDao.updateCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping, true));
+                            ImportJobProgress.current().addRowsProcessed(codes.size());
+                        } else if (inputStream != null) {
+                            codes = parseAndPersistCodesFromJsonInChunks(codeScheme, inputStream, broaderCodeMapping);
                         } else {
                             throw new YtiCodeListException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_JSON_PAYLOAD_EMPTY));
                         }
@@ -175,19 +206,25 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
                                 handleMissingCodesInCaseOfCumulativeCodeScheme(missingCodes);
                             }
                         }
-                        codes = codeDao.updateCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping, false);
-                        parseExternalReferencesFromCodeDtos(codeScheme, codes, codeDtos);
+                        ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
+                        final Set<Code> excelCodes = codeDao.updateCodesFromDtos(codeScheme, codeDtos, broaderCodeMapping, false);
+                        parseExternalReferencesFromCodeDtos(codeScheme, excelCodes, codeDtos);
+                        codes = dtoMapperService.mapDeepCodeDtos(excelCodes);
+                        ImportJobProgress.current().addRowsProcessed(codes.size());
                         break;
                     case FORMAT_CSV:
-                        final Set<CodeDTO> codeDtosFromCsv = codeParser.parseCodesFromCsvInputStream(inputStream, broaderCodeMapping);
-                        if (previousCodeScheme != null && previousCodeScheme.isCumulative()) {
-                            if (preventPossibleImplicitCodeDeletionDuringFileImport) {
-                                LinkedHashSet<CodeDTO> missingCodesFromCvs = checkPossiblyMissingCodesInCaseOfCumulativeCodeScheme(previousCodeScheme, codeDtosFromCsv);
-                                handleMissingCodesInCaseOfCumulativeCodeScheme(missingCodesFromCvs);
-                            }
+                        if (previousCodeScheme != null && previousCodeScheme.isCumulative() && preventPossibleImplicitCodeDeletionDuringFileImport) {
+                            final Set<CodeDTO> codeDtosFromCsv = codeParser.parseCodesFromCsvInputStream(inputStream, broaderCodeMapping);
+                            LinkedHashSet<CodeDTO> missingCodesFromCvs = checkPossiblyMissingCodesInCaseOfCumulativeCodeScheme(previousCodeScheme, codeDtosFromCsv);
+                            handleMissingCodesInCaseOfCumulativeCodeScheme(missingCodesFromCvs);
+                            ImportJobProgress.current().phase(JOB_PHASE_PERSISTING);
+                            final Set<Code> csvCodes = codeDao.updateCodesFromDtos(codeScheme, codeDtosFromCsv, broaderCodeMapping, false);
+                            parseExternalReferencesFromCodeDtos(codeScheme, csvCodes, codeDtosFromCsv);
+                            codes = dtoMapperService.mapDeepCodeDtos(csvCodes);
+                            ImportJobProgress.current().addRowsProcessed(codes.size());
+                        } else {
+                            codes = parseAndPersistCodesFromCsvInChunks(codeScheme, inputStream, broaderCodeMapping);
                         }
-                        codes = codeDao.updateCodesFromDtos(codeScheme, codeDtosFromCsv, broaderCodeMapping, false);
-                        parseExternalReferencesFromCodeDtos(codeScheme, codes, codeDtosFromCsv);
                         break;
                     default:
                         throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_INVALID_FORMAT));
@@ -198,28 +235,81 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
         } else {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODEREGISTRY_NOT_FOUND));
         }
-        return dtoMapperService.mapDeepCodeDtos(codes);
+        return codes;
+    }
+
+    /**
+     * Persists the codes chunk by chunk, mapping each written chunk to DTOs before the persistence context is cleared,
+     * so that only the DTOs of the written codes are kept across chunks.
+     */
+    private Set<CodeDTO> parseAndPersistCodesFromCsvInChunks(final CodeScheme codeScheme,
+                                                             final InputStream inputStream,
+                                                             final Map<String, String> broaderCodeMapping) {
+        final CodeImportContext codeImport = codeDao.beginCodeImport(codeScheme, broaderCodeMapping, false);
+        final ImportJobProgress progress = ImportJobProgress.current();
+        final Map<UUID, CodeDTO> codeDtosById = new LinkedHashMap<>();
+        final Consumer<Set<Code>> codeMapper = createCodeMapper(codeDtosById);
+        codeParser.parseCodesFromCsvInputStream(inputStream, broaderCodeMapping, CODE_IMPORT_CHUNK_SIZE, codeDtos -> {
+            progress.phase(JOB_PHASE_PERSISTING);
+            final Set<Code> codes = codeDao.importCodes(codeImport, codeDtos);
+            parseExternalReferencesFromCodeDtos(codeImport.getCodeScheme(), codes, codeDtos);
+            codeDao.flushCodeImport(codeImport, codeMapper);
+            progress.addRowsProcessed(codeDtos.size());
+        });
+        codeDao.finishCodeImport(codeImport, codeMapper);
+        return new LinkedHashSet<>(codeDtosById.values());
+    }
+
+    private Set<CodeDTO> parseAndPersistCodesFromJsonInChunks(final CodeScheme codeScheme,
+                                                              final InputStream inputStream,
+                                                              final Map<String, String> broaderCodeMapping) {
+        final CodeImportContext codeImport = codeDao.beginCodeImport(codeScheme, broaderCodeMapping, true);
+        final ImportJobProgress progress = ImportJobProgress.current();
+        final Map<UUID, CodeDTO> codeDtosById = new LinkedHashMap<>();
+        final Consumer<Set<Code>> codeMapper = createCodeMapper(codeDtosById);
+        codeParser.parseCodesFromJsonInputStream(inputStream, CODE_IMPORT_CHUNK_SIZE, codeDtos -> {
+            progress.phase(JOB_PHASE_PERSISTING);
+            codeDao.importCodes(codeImport, codeDtos);
+            codeDao.flushCodeImport(codeImport, codeMapper);
+            progress.addRowsProcessed(codeDtos.size());
+        });
+        codeDao.finishCodeImport(codeImport, codeMapper);
+        return new LinkedHashSet<>(codeDtosById.values());
+    }
+
+    /**
+     * Returns a consumer that maps written codes into the given DTOs by id. Codes written again in a later chunk replace
+     * their earlier DTOs.
+     */
+    private Consumer<Set<Code>> createCodeMapper(final Map<UUID, CodeDTO> codeDtosById) {
+        return codes -> codes.forEach(code -> codeDtosById.put(code.getId(), dtoMapperService.mapDeepCodeDto(code)));
     }
 
     private void parseExternalReferencesFromCodeDtos(final CodeScheme codeScheme,
                                                      final Set<Code> codes,
                                                      final Set<CodeDTO> codeDtos) {
         if (!codeDtos.isEmpty()) {
+            final Map<String, Code> codesByCodeValue = new HashMap<>();
+            codes.forEach(code -> codesByCodeValue.put(code.getCodeValue().toLowerCase(), code));
             codeDtos.forEach(codeDto -> {
-                for (final Code code : codes) {
-                    if (code.getCodeValue().equalsIgnoreCase(codeDto.getCodeValue())) {
-                        final Set<ExternalReference> externalReferences = findOrCreateExternalReferences(externalReferenceDao, codeScheme, codeDto.getExternalReferences());
-                        if (externalReferences != null && !externalReferences.isEmpty()) {
-                            externalReferenceDao.save(externalReferences);
-                        }
-                        code.setExternalReferences(externalReferences);
-                        codeDao.save(code);
+                final Code code = codeDto.getCodeValue() != null ? codesByCodeValue.get(codeDto.getCodeValue().toLowerCase()) : null;
+                if (code != null && (hasExternalReferences(codeDto.getExternalReferences()) || hasExternalReferences(code.getExternalReferences()))) {
+                    final Set<ExternalReference> externalReferences = findOrCreateExternalReferences(externalReferenceDao, codeScheme, codeDto.getExternalReferences());
+                    if (externalReferences != null && !externalReferences.isEmpty()) {
+                        externalReferenceDao.save(externalReferences);
                     }
+                    code.setExternalReferences(externalReferences);
+                    code.setContentHash(null);
+                    codeDao.save(code);
                 }
             });
         }
     }
 
+    private static boolean hasExternalReferences(final Set<?> externalReferences) {
+        return externalReferences != null && !externalReferences.isEmpty();
+    }
+
     /**
      * In some cases the validation has to be done already at the resource/controller level of the API, and in this case, skipValidation is true
      * which means we do not redundantly validate again here.
@@ -243,7 +333,10 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
                     throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
                 }
                 codes = codeDao.findByCodeSchemeAndStatus(codeScheme, initialCodeStatus);
-                codes.forEach(code -> code.setStatus(endCodeStatus));
+                codes.forEach(code -> {
+                    code.setStatus(endCodeStatus);
+                    code.setContentHash(null);
+                });
                 codeDao.save(codes);
             } else {
                 throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
@@ -310,6 +403,7 @@ public class CodeServiceImpl implements CodeService, AbstractBaseService {
             childCodes.forEach(code -> {
                 code.setBroaderCode(null);
                 code.setHierarchyLevel(1);
+                code.setContentHash(null);
                 removeBroaderCodeId(code.getId(), affectedCodes);
             });
             affectedCodes.addAll(dtoMapperService.mapDeepCodeDtos(childCodes));
@@ -3,18 +3,18 @@ package fi.vm.yti.codelist.intake.service.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.inject.Singleton;
 
 import org.apache.poi.EmptyFileException;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +35,7 @@ import fi.vm.yti.codelist.intake.security.AuthorizationManager;
 import fi.vm.yti.codelist.intake.service.ExtensionService;
 import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
 import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.util.ExcelUtils.openWorkbook;
 
 @Singleton
 @Service
@@ -77,9 +78,9 @@ public class ExtensionServiceImpl implements ExtensionService {
     }
 
     @Transactional
-    public Set<ExtensionDTO> findAll(final PageRequest pageRequest) {
-        final Set<Extension> extensions = extensionDao.findAll(pageRequest);
-        return dtoMapperService.mapDeepExtensionDtos(extensions);
+    public List<ExtensionDTO> findPageAfter(final String uri,
+                                            final int pageSize) {
+        return extensionDao.findPageAfter(uri, pageSize).stream().map(dtoMapperService::mapDeepExtensionDto).collect(Collectors.toList());
     }
 
     @Transactional
@@ -135,9 +136,8 @@ public class ExtensionServiceImpl implements ExtensionService {
                     }
                     break;
                 case FORMAT_EXCEL:
-                    try {
+                    try (final Workbook workbook = openWorkbook(inputStream)) {
                         final Map<ExtensionDTO, String> membersSheetNames = new HashMap<>();
-                        final Workbook workbook = WorkbookFactory.create(inputStream);
                         extensions = extensionDao.updateExtensionEntitiesFromDtos(codeScheme, extensionParser.parseExtensionsFromExcelWorkbook(workbook, sheetName, membersSheetNames), autoCreateMembers);
                         if (!membersSheetNames.isEmpty()) {
                             membersSheetNames.forEach((extensionDto, membersSheetName) -> extensions.forEach(extension -> {
@@ -173,6 +173,19 @@ public class ExtensionServiceImpl implements ExtensionService {
             throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
         }
         final Set<ExtensionDTO> extensionDtos = extensionParser.parseExtensionsFromExcelWorkbook(workbook, sheetName, membersSheetNames);
+        return persistExtensionsFromDtos(codeScheme, extensionDtos, autoCreateMembers);
+    }
+
+    /**
+     * Persists extensions that have already been parsed from a file and sets the resulting ids back to the given DTOs.
+     */
+    @Transactional
+    public Set<ExtensionDTO> persistExtensionsFromDtos(final CodeScheme codeScheme,
+                                                       final Set<ExtensionDTO> extensionDtos,
+                                                       final boolean autoCreateMembers) {
+        if (!authorizationManager.canBeModifiedByUserInOrganization(codeScheme.getOrganizations())) {
+            throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
+        }
         final Set<Extension> extensions = extensionDao.updateExtensionEntitiesFromDtos(codeScheme, extensionDtos, autoCreateMembers);
         extensionDtos.forEach(extensionDto -> extensions.forEach(extension -> {
             if (extension.getCodeValue().equalsIgnoreCase(extensionDto.getCodeValue())) {
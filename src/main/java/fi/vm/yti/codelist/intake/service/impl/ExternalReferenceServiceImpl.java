@@ -76,7 +76,20 @@ public class ExternalReferenceServiceImpl implements ExternalReferenceService {
                 throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
             }
             final Set<ExternalReferenceDTO> externalReferenceDtos = externalReferenceParser.parseExternalReferencesFromExcelWorkbook(workbook, sheetName, codeScheme);
-            final Set<ExternalReference> externalReferences = externalReferenceDao.updateExternalReferenceEntitiesFromDtos(externalReferenceDtos, codeScheme);
+            persistExternalReferencesFromDtos(externalReferenceDtos, codeScheme);
+        } else {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
+        }
+    }
+
+    @Transactional
+    public void persistExternalReferencesFromDtos(final Set<ExternalReferenceDTO> externalReferenceDtos,
+                                                  final CodeScheme codeScheme) {
+        if (codeScheme != null) {
+            if (!authorizationManager.canBeModifiedByUserInOrganization(codeScheme.getOrganizations())) {
+                throw new UnauthorizedException(new ErrorModel(HttpStatus.UNAUTHORIZED.value(), ERR_MSG_USER_401));
+            }
+            externalReferenceDao.updateExternalReferenceEntitiesFromDtos(externalReferenceDtos, codeScheme);
         } else {
             throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
         }
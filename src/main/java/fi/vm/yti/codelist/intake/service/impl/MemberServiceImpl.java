@@ -1,14 +1,15 @@
 package fi.vm.yti.codelist.intake.service.impl;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.poi.ss.usermodel.Workbook;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -95,9 +96,9 @@ public class MemberServiceImpl implements MemberService {
     }
 
     @Transactional
-    public Set<MemberDTO> findAll(final PageRequest pageRequest) {
-        final Set<Member> members = memberDao.findAll(pageRequest);
-        return dtoMapperService.mapDeepMemberDtos(members);
+    public List<MemberDTO> findPageAfter(final String uri,
+                                         final int pageSize) {
+        return memberDao.findPageAfter(uri, pageSize).stream().map(dtoMapperService::mapDeepMemberDto).collect(Collectors.toList());
     }
 
     @Transactional
@@ -179,6 +180,8 @@ public class MemberServiceImpl implements MemberService {
             case FORMAT_JSON:
                 if (jsonPayload != null && !jsonPayload.isEmpty()) {
                     return memberParser.parseMembersFromJson(jsonPayload);
+                } else if (inputStream != null) {
+                    return memberParser.parseMembersFromJsonInputStream(inputStream);
                 } else {
                     throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_JSON_PAYLOAD_EMPTY));
                 }
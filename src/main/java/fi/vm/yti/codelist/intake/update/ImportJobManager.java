@@ -0,0 +1,206 @@
+package fi.vm.yti.codelist.intake.update;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.jpa.ImportJobRepository;
+import fi.vm.yti.codelist.intake.model.ImportJob;
+import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+
+/**
+ * Runs file imports as asynchronous jobs on a bounded worker pool and keeps their state in the importjob table.
+ *
+ * Job state is written in transactions of its own, so that progress is visible while the import transaction is still
+ * open. Jobs left unfinished by a previous run of this node are marked failed at startup.
+ */
+@Component
+public class ImportJobManager implements ApplicationRunner {
+
+    public static final String JOB_TYPE_CODESCHEMES = "codeschemes";
+    public static final String JOB_TYPE_CODES = "codes";
+    public static final String JOB_STATUS_QUEUED = "queued";
+    public static final String JOB_STATUS_RUNNING = "running";
+    public static final String JOB_STATUS_SUCCESSFUL = "successful";
+    public static final String JOB_STATUS_FAILED = "failed";
+    public static final String JOB_PHASE_QUEUED = "queued";
+    public static final String JOB_PHASE_PARSING = "parsing";
+    public static final String JOB_PHASE_PERSISTING = "persisting";
+    public static final String JOB_PHASE_INDEXING = "indexing";
+    public static final String JOB_PHASE_DONE = "done";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportJobManager.class);
+
+    private final ImportJobRepository importJobRepository;
+    private final AuthorizationManager authorizationManager;
+    private final ExecutorService importJobExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final String node;
+
+    @Inject
+    public ImportJobManager(final ImportJobRepository importJobRepository,
+                            final AuthorizationManager authorizationManager,
+                            @Named("importJobExecutor") final ExecutorService importJobExecutor,
+                            final PlatformTransactionManager transactionManager,
+                            @Value("${intake.importjob.node:}") final String node) {
+        this.importJobRepository = importJobRepository;
+        this.authorizationManager = authorizationManager;
+        this.importJobExecutor = importJobExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.node = node != null && !node.isEmpty() ? node : resolveHostName();
+    }
+
+    @Override
+    public void run(final ApplicationArguments applicationArguments) {
+        final int interruptedJobs = transactionTemplate.execute(status -> importJobRepository.failUnfinishedJobsOfNode(node, ERR_MSG_USER_IMPORT_JOB_INTERRUPTED, new Date()));
+        if (interruptedJobs > 0) {
+            LOG.warn(String.format("Marked %d import jobs interrupted by a restart of node %s as failed.", interruptedJobs, node));
+        }
+    }
+
+    public ImportJob findById(final UUID id) {
+        return importJobRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Queues the task as a new import job run with the security context of the calling thread and owned by the calling
+     * user. The resource, for example the uploaded file, is closed when the job finishes or if it cannot be queued.
+     */
+    public ImportJob submit(final String jobType,
+                            final String identifier,
+                            final ImportJobTask task,
+                            final Closeable resource) {
+        final ImportJob job = new ImportJob();
+        final Date now = new Date();
+        job.setId(UUID.randomUUID());
+        job.setJobType(jobType);
+        job.setIdentifier(identifier);
+        job.setNode(node);
+        job.setUserId(authorizationManager.getUserId());
+        job.setStatus(JOB_STATUS_QUEUED);
+        job.setPhase(JOB_PHASE_QUEUED);
+        job.setCreated(now);
+        job.setModified(now);
+        save(job);
+        try {
+            importJobExecutor.execute(new DelegatingSecurityContextRunnable(() -> run(job.getId(), task, resource)));
+        } catch (final RejectedExecutionException e) {
+            closeQuietly(resource);
+            fail(job.getId(), new ErrorModel(HttpStatus.SERVICE_UNAVAILABLE.value(), ERR_MSG_USER_IMPORT_JOB_QUEUE_FULL));
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.SERVICE_UNAVAILABLE.value(), ERR_MSG_USER_IMPORT_JOB_QUEUE_FULL));
+        }
+        return job;
+    }
+
+    void updateProgress(final UUID jobId,
+                        final String phase,
+                        final int rowsProcessed) {
+        update(jobId, job -> {
+            job.setPhase(phase);
+            job.setRowsProcessed(rowsProcessed);
+        });
+    }
+
+    private void run(final UUID jobId,
+                     final ImportJobTask task,
+                     final Closeable resource) {
+        final ImportJobProgress progress = new ImportJobProgress(this, jobId);
+        ImportJobProgress.bind(progress);
+        try {
+            update(jobId, job -> job.setStatus(JOB_STATUS_RUNNING));
+            progress.phase(JOB_PHASE_PARSING);
+            task.run(progress);
+            update(jobId, job -> {
+                job.setStatus(JOB_STATUS_SUCCESSFUL);
+                job.setPhase(JOB_PHASE_DONE);
+                job.setRowsProcessed(progress.getRowsProcessed());
+            });
+        } catch (final YtiCodeListException e) {
+            LOG.info(String.format("Import job %s failed: %s", jobId, e.getMessage()));
+            fail(jobId, e.getErrorModel());
+        } catch (final RuntimeException e) {
+            LOG.error(String.format("Import job %s failed!", jobId), e);
+            fail(jobId, new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
+        } finally {
+            ImportJobProgress.unbind();
+            closeQuietly(resource);
+        }
+    }
+
+    private void fail(final UUID jobId,
+                      final ErrorModel errorModel) {
+        update(jobId, job -> {
+            job.setStatus(JOB_STATUS_FAILED);
+            job.setErrorCode(errorModel.getHttpStatusCode());
+            job.setErrorMessage(errorModel.getMessage());
+            job.setErrorIdentifier(errorModel.getEntityIdentifier());
+        });
+    }
+
+    private void update(final UUID jobId,
+                        final Consumer<ImportJob> modifier) {
+        transactionTemplate.execute(status -> {
+            final ImportJob job = importJobRepository.findById(jobId).orElse(null);
+            if (job != null) {
+                modifier.accept(job);
+                job.setModified(new Date());
+                importJobRepository.save(job);
+            }
+            return job;
+        });
+    }
+
+    private void save(final ImportJob job) {
+        transactionTemplate.execute(status -> importJobRepository.save(job));
+    }
+
+    private static void closeQuietly(final Closeable resource) {
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (final IOException e) {
+                LOG.error("Error closing import job resource!", e);
+            }
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (final UnknownHostException e) {
+            LOG.error("Could not resolve host name for import jobs, using a random node name.", e);
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ImportJobTask {
+
+        void run(final ImportJobProgress progress);
+    }
+}
@@ -0,0 +1,70 @@
+package fi.vm.yti.codelist.intake.update;
+
+import java.util.UUID;
+
+/**
+ * Progress of the import job running on the current thread.
+ *
+ * Services report phase changes and processed rows through {@link #current()} without knowing whether they are run as
+ * part of an import job. Outside of import jobs the returned progress ignores all reports.
+ */
+public final class ImportJobProgress {
+
+    private static final long ROWS_WRITE_INTERVAL_MILLIS = 1000;
+    private static final ThreadLocal<ImportJobProgress> CURRENT = new ThreadLocal<>();
+    private static final ImportJobProgress DETACHED = new ImportJobProgress(null, null);
+
+    private final ImportJobManager importJobManager;
+    private final UUID jobId;
+    private String phase;
+    private int rowsProcessed;
+    private long lastWritten;
+
+    ImportJobProgress(final ImportJobManager importJobManager,
+                      final UUID jobId) {
+        this.importJobManager = importJobManager;
+        this.jobId = jobId;
+    }
+
+    public static ImportJobProgress current() {
+        final ImportJobProgress progress = CURRENT.get();
+        return progress != null ? progress : DETACHED;
+    }
+
+    static void bind(final ImportJobProgress progress) {
+        CURRENT.set(progress);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    public void phase(final String phase) {
+        if (importJobManager != null && !phase.equals(this.phase)) {
+            this.phase = phase;
+            write();
+        }
+    }
+
+    public void addRowsProcessed(final int rows) {
+        if (importJobManager != null) {
+            rowsProcessed += rows;
+            if (System.currentTimeMillis() - lastWritten >= ROWS_WRITE_INTERVAL_MILLIS) {
+                write();
+            }
+        }
+    }
+
+    String getPhase() {
+        return phase;
+    }
+
+    int getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    private void write() {
+        lastWritten = System.currentTimeMillis();
+        importJobManager.updateProgress(jobId, phase, rowsProcessed);
+    }
+}
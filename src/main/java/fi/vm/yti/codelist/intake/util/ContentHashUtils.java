@@ -0,0 +1,80 @@
+package fi.vm.yti.codelist.intake.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import fi.vm.yti.codelist.common.dto.CodeDTO;
+import fi.vm.yti.codelist.common.dto.CodeSchemeDTO;
+
+/**
+ * Fingerprints of imported rows, used to detect rows that would not change the persisted entity on re-import.
+ */
+public interface ContentHashUtils {
+
+    char FIELD_SEPARATOR = '\u001f';
+    String NULL_VALUE = "\u0000";
+
+    /**
+     * Returns the fingerprint of the user-editable content of the code, or null if the code carries content that is
+     * not covered by the fingerprint and must always be persisted. External references and code extension members are
+     * separate entities updated by the import, so codes that carry them are never fingerprinted.
+     */
+    static String hashCodeContent(final CodeDTO code,
+                                  final String broaderCodeCodeValue) {
+        if (!isEmpty(code.getCodeExtensions()) || !isEmpty(code.getExternalReferences())) {
+            return null;
+        }
+        final Hasher hasher = Hashing.sha256().newHasher();
+        putValue(hasher, code.getCodeValue());
+        putValue(hasher, code.getStatus());
+        putValue(hasher, code.getShortName());
+        putValue(hasher, code.getOrder());
+        putValue(hasher, code.getStartDate());
+        putValue(hasher, code.getEndDate());
+        putValue(hasher, code.getConceptUriInVocabularies());
+        putValue(hasher, code.getBroaderCode() != null ? code.getBroaderCode().getId() : null);
+        putValue(hasher, broaderCodeCodeValue != null ? broaderCodeCodeValue.toLowerCase() : null);
+        putValue(hasher, resolveSubCodeSchemeIdentifier(code.getSubCodeScheme()));
+        putLocalizable(hasher, code.getPrefLabel());
+        putLocalizable(hasher, code.getDescription());
+        putLocalizable(hasher, code.getDefinition());
+        return hasher.hash().toString();
+    }
+
+    static boolean isEmpty(final Set<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    static String resolveSubCodeSchemeIdentifier(final CodeSchemeDTO subCodeScheme) {
+        if (subCodeScheme == null) {
+            return null;
+        }
+        return subCodeScheme.getId() != null ? subCodeScheme.getId().toString() : subCodeScheme.getUri();
+    }
+
+    static void putLocalizable(final Hasher hasher,
+                               final Map<String, String> localizable) {
+        if (localizable == null) {
+            putValue(hasher, null);
+            return;
+        }
+        final Map<String, String> sorted = new TreeMap<>();
+        localizable.forEach((language, value) -> sorted.put(language != null ? language.toLowerCase() : null, value));
+        hasher.putInt(sorted.size());
+        sorted.forEach((language, value) -> {
+            putValue(hasher, language);
+            putValue(hasher, value);
+        });
+    }
+
+    static void putValue(final Hasher hasher,
+                         final Object value) {
+        hasher.putString(value != null ? value.toString() : NULL_VALUE, StandardCharsets.UTF_8);
+        hasher.putChar(FIELD_SEPARATOR);
+    }
+}
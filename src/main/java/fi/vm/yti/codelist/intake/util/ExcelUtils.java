@@ -0,0 +1,74 @@
+package fi.vm.yti.codelist.intake.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import com.monitorjbl.xlsx.StreamingReader;
+
+/**
+ * Opens Excel workbooks for intake parsing.
+ *
+ * OOXML (.xlsx) files are read with an event based streaming reader, which keeps only a window of rows and the shared
+ * strings table in memory instead of the full XSSF DOM. Sheets of a streamed workbook can be iterated only once, from
+ * top to bottom. Legacy OLE2 (.xls) files fall back to {@link WorkbookFactory}. Uploads spooled to disk are opened
+ * from the file, which gives random access to the zip entries without copying the content again.
+ */
+public interface ExcelUtils {
+
+    int STREAMING_ROW_CACHE_SIZE = 100;
+    int STREAMING_BUFFER_SIZE = 4096;
+
+    static Workbook openWorkbook(final InputStream inputStream) throws IOException {
+        if (inputStream instanceof SpooledUpload) {
+            final SpooledUpload upload = (SpooledUpload) inputStream;
+            validateExcelFileMagic(upload.getFileMagic());
+            if (upload.getFile() != null) {
+                return openWorkbook(upload.getFile(), upload.getFileMagic());
+            }
+        }
+        final InputStream markableInputStream = FileMagic.prepareToCheckMagic(inputStream);
+        if (FileMagic.valueOf(markableInputStream) == FileMagic.OOXML) {
+            try {
+                return createStreamingReader().open(markableInputStream);
+            } catch (final RuntimeException e) {
+                throw new IOException("Error opening Excel workbook for streaming.", e);
+            }
+        }
+        return WorkbookFactory.create(markableInputStream);
+    }
+
+    static Workbook openWorkbook(final File file) throws IOException {
+        final FileMagic fileMagic = FileMagic.valueOf(file);
+        validateExcelFileMagic(fileMagic);
+        return openWorkbook(file, fileMagic);
+    }
+
+    static void validateExcelFileMagic(final FileMagic fileMagic) throws IOException {
+        if (fileMagic != FileMagic.OOXML && fileMagic != FileMagic.OLE2) {
+            throw new IOException("File is not an Excel workbook, detected type: " + fileMagic);
+        }
+    }
+
+    static Workbook openWorkbook(final File file,
+                                 final FileMagic fileMagic) throws IOException {
+        if (fileMagic == FileMagic.OOXML) {
+            try {
+                return createStreamingReader().open(file);
+            } catch (final RuntimeException e) {
+                throw new IOException("Error opening Excel workbook for streaming.", e);
+            }
+        }
+        return WorkbookFactory.create(file, null, true);
+    }
+
+    static StreamingReader.Builder createStreamingReader() {
+        return StreamingReader.builder()
+            .rowCacheSize(STREAMING_ROW_CACHE_SIZE)
+            .bufferSize(STREAMING_BUFFER_SIZE);
+    }
+}
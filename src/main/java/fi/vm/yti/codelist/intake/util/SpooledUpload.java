@@ -0,0 +1,97 @@
+package fi.vm.yti.codelist.intake.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uploaded file content kept in memory up to a threshold and spooled to a temporary file above it.
+ *
+ * Spooled uploads expose the file so that parsers can use file based entry points with random access instead of
+ * buffering the stream, see {@link ExcelUtils#openWorkbook(InputStream)}. The temporary file is deleted on close.
+ */
+public final class SpooledUpload extends FilterInputStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpooledUpload.class);
+    private static final int MAGIC_LENGTH = 8;
+
+    private final Path file;
+    private final FileMagic fileMagic;
+
+    private SpooledUpload(final InputStream in,
+                          final Path file,
+                          final FileMagic fileMagic) {
+        super(in);
+        this.file = file;
+        this.fileMagic = fileMagic;
+    }
+
+    /**
+     * Reads the whole upload, keeping it in memory when it is at most thresholdBytes long and otherwise writing it to
+     * a temporary file in the given directory. The file type detected from the first bytes is passed to the validator
+     * before anything is written to disk, so that the validator can reject the upload by throwing.
+     */
+    public static SpooledUpload spool(final InputStream inputStream,
+                                      final long thresholdBytes,
+                                      final Path tempDirectory,
+                                      final Consumer<FileMagic> fileMagicValidator) throws IOException {
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        final long headLength = IOUtils.copyLarge(inputStream, head, 0, thresholdBytes + 1);
+        final byte[] headBytes = head.toByteArray();
+        final FileMagic fileMagic = FileMagic.valueOf(Arrays.copyOf(headBytes, MAGIC_LENGTH));
+        fileMagicValidator.accept(fileMagic);
+        if (headLength <= thresholdBytes) {
+            return new SpooledUpload(new ByteArrayInputStream(headBytes), null, fileMagic);
+        }
+        final Path file = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            out.write(headBytes);
+            IOUtils.copyLarge(inputStream, out);
+        } catch (final IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        LOG.debug(String.format("Spooled upload of %d bytes to temporary file %s.", Files.size(file), file));
+        return new SpooledUpload(new BufferedInputStream(Files.newInputStream(file)), file, fileMagic);
+    }
+
+    /**
+     * Returns the temporary file holding the upload, or null if the upload is kept in memory.
+     */
+    public File getFile() {
+        return file != null ? file.toFile() : null;
+    }
+
+    /**
+     * Returns the file type detected from the first bytes of the upload.
+     */
+    public FileMagic getFileMagic() {
+        return fileMagic;
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (final IOException e) {
+            LOG.error("Error deleting spooled upload " + file, e);
+        }
+    }
+}
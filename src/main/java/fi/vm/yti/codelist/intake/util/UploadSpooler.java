@@ -0,0 +1,69 @@
+package fi.vm.yti.codelist.intake.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.inject.Inject;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+
+/**
+ * Spools file uploads to temporary files when they exceed the configured threshold.
+ */
+@Component
+public class UploadSpooler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UploadSpooler.class);
+
+    private final long thresholdBytes;
+    private final Path tempDirectory;
+
+    @Inject
+    public UploadSpooler(@Value("${intake.upload.spoolthreshold:1048576}") final long thresholdBytes,
+                         @Value("${intake.upload.tempdir:${java.io.tmpdir}}") final String tempDirectory) {
+        this.thresholdBytes = thresholdBytes;
+        this.tempDirectory = Paths.get(tempDirectory);
+    }
+
+    /**
+     * Returns the spooled upload to be closed by the caller once parsing is done, or null if there is no upload.
+     *
+     * Uploads declared as CSV or Excel are rejected from their first bytes, before the rest is spooled, when the file
+     * type does not match the declared format.
+     */
+    public SpooledUpload spool(final InputStream inputStream,
+                               final String format) {
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            return SpooledUpload.spool(inputStream, thresholdBytes, tempDirectory, fileMagic -> validateFileMagic(format, fileMagic));
+        } catch (final IOException e) {
+            LOG.error("Error spooling file upload!", e);
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), ERR_MSG_USER_500));
+        }
+    }
+
+    static void validateFileMagic(final String format,
+                                  final FileMagic fileMagic) {
+        final boolean isWorkbook = fileMagic == FileMagic.OOXML || fileMagic == FileMagic.OLE2;
+        if ((FORMAT_EXCEL.equalsIgnoreCase(format) || FORMAT_EXCEL_XLS.equalsIgnoreCase(format) || FORMAT_EXCEL_XLSX.equalsIgnoreCase(format)) && !isWorkbook) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_ERROR_PARSING_EXCEL_FILE));
+        }
+        if (FORMAT_CSV.equalsIgnoreCase(format) && isWorkbook) {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_ERROR_PARSING_CSV_FILE));
+        }
+    }
+}
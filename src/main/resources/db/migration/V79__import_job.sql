@@ -0,0 +1,20 @@
+-- Asynchronous file import jobs
+
+CREATE TABLE importjob (
+  id uuid UNIQUE NOT NULL,
+  jobtype text NOT NULL,
+  identifier text NOT NULL,
+  node text NOT NULL,
+  user_id uuid NULL,
+  status text NOT NULL,
+  phase text NOT NULL,
+  rowsprocessed integer NOT NULL DEFAULT 0,
+  errorcode integer NULL,
+  errormessage text NULL,
+  erroridentifier text NULL,
+  created timestamp without time zone NOT NULL,
+  modified timestamp without time zone NOT NULL,
+  CONSTRAINT importjob_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX importjob_node_status_idx ON importjob (node, status);
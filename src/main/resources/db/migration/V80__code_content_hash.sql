@@ -0,0 +1,3 @@
+-- Fingerprint of the import row that last wrote the code, cleared when the code is modified by other means
+
+ALTER TABLE code ADD contenthash text NULL;
@@ -0,0 +1,41 @@
+-- Localized values as jsonb columns keyed by language instead of one collection table per field
+
+ALTER TABLE code ADD preflabel jsonb NULL, ADD definition jsonb NULL, ADD description jsonb NULL;
+UPDATE code AS t SET preflabel = l.labels FROM (SELECT code_id, jsonb_object_agg(language, preflabel) AS labels FROM code_preflabel GROUP BY code_id) AS l WHERE t.id = l.code_id;
+UPDATE code AS t SET definition = l.labels FROM (SELECT code_id, jsonb_object_agg(language, definition) AS labels FROM code_definition GROUP BY code_id) AS l WHERE t.id = l.code_id;
+UPDATE code AS t SET description = l.labels FROM (SELECT code_id, jsonb_object_agg(language, description) AS labels FROM code_description GROUP BY code_id) AS l WHERE t.id = l.code_id;
+DROP TABLE code_preflabel;
+DROP TABLE code_definition;
+DROP TABLE code_description;
+
+ALTER TABLE codescheme ADD preflabel jsonb NULL, ADD definition jsonb NULL, ADD description jsonb NULL, ADD changenote jsonb NULL, ADD feedback_channel jsonb NULL;
+UPDATE codescheme AS t SET preflabel = l.labels FROM (SELECT codescheme_id, jsonb_object_agg(language, preflabel) AS labels FROM codescheme_preflabel GROUP BY codescheme_id) AS l WHERE t.id = l.codescheme_id;
+UPDATE codescheme AS t SET definition = l.labels FROM (SELECT codescheme_id, jsonb_object_agg(language, definition) AS labels FROM codescheme_definition GROUP BY codescheme_id) AS l WHERE t.id = l.codescheme_id;
+UPDATE codescheme AS t SET description = l.labels FROM (SELECT codescheme_id, jsonb_object_agg(language, description) AS labels FROM codescheme_description GROUP BY codescheme_id) AS l WHERE t.id = l.codescheme_id;
+UPDATE codescheme AS t SET changenote = l.labels FROM (SELECT codescheme_id, jsonb_object_agg(language, changenote) AS labels FROM codescheme_changenote GROUP BY codescheme_id) AS l WHERE t.id = l.codescheme_id;
+UPDATE codescheme AS t SET feedback_channel = l.labels FROM (SELECT codescheme_id, jsonb_object_agg(language, feedback_channel) AS labels FROM codescheme_feedback_channel GROUP BY codescheme_id) AS l WHERE t.id = l.codescheme_id;
+DROP TABLE codescheme_preflabel;
+DROP TABLE codescheme_definition;
+DROP TABLE codescheme_description;
+DROP TABLE codescheme_changenote;
+DROP TABLE codescheme_feedback_channel;
+
+ALTER TABLE extension ADD preflabel jsonb NULL;
+UPDATE extension AS t SET preflabel = l.labels FROM (SELECT extension_id, jsonb_object_agg(language, preflabel) AS labels FROM extension_preflabel GROUP BY extension_id) AS l WHERE t.id = l.extension_id;
+DROP TABLE extension_preflabel;
+
+ALTER TABLE member ADD preflabel jsonb NULL;
+UPDATE member AS t SET preflabel = l.labels FROM (SELECT member_id, jsonb_object_agg(language, preflabel) AS labels FROM member_preflabel GROUP BY member_id) AS l WHERE t.id = l.member_id;
+DROP TABLE member_preflabel;
+
+ALTER TABLE externalreference ADD title jsonb NULL, ADD description jsonb NULL;
+UPDATE externalreference AS t SET title = l.labels FROM (SELECT externalreference_id, jsonb_object_agg(language, title) AS labels FROM externalreference_title GROUP BY externalreference_id) AS l WHERE t.id = l.externalreference_id;
+UPDATE externalreference AS t SET description = l.labels FROM (SELECT externalreference_id, jsonb_object_agg(language, description) AS labels FROM externalreference_description GROUP BY externalreference_id) AS l WHERE t.id = l.externalreference_id;
+DROP TABLE externalreference_title;
+DROP TABLE externalreference_description;
+
+ALTER TABLE organization ADD preflabel jsonb NULL, ADD description jsonb NULL;
+UPDATE organization AS t SET preflabel = l.labels FROM (SELECT organization_id, jsonb_object_agg(language, preflabel) AS labels FROM organization_preflabel GROUP BY organization_id) AS l WHERE t.id = l.organization_id;
+UPDATE organization AS t SET description = l.labels FROM (SELECT organization_id, jsonb_object_agg(language, description) AS labels FROM organization_description GROUP BY organization_id) AS l WHERE t.id = l.organization_id;
+DROP TABLE organization_preflabel;
+DROP TABLE organization_description;
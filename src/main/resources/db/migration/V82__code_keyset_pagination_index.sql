@@ -0,0 +1,3 @@
+-- Index for keyset pagination of codes in (codevalue, id) order, extensions and members are paged by uri alone on their unique uri indexes
+
+CREATE INDEX CONCURRENTLY ON code (codevalue, id);
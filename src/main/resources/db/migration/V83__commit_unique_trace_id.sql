@@ -0,0 +1,16 @@
+-- One commit per trace, duplicate commits of a trace are merged into its earliest commit
+
+CREATE TEMPORARY TABLE commit_duplicate AS
+SELECT d.id, d.keep_id
+  FROM (SELECT c.id, first_value(c.id) OVER (PARTITION BY c.trace_id ORDER BY c.modified, c.id) AS keep_id
+          FROM commit AS c
+         WHERE c.trace_id IS NOT NULL) AS d
+ WHERE d.id <> d.keep_id;
+
+UPDATE editedentity AS e SET commit_id = d.keep_id FROM commit_duplicate AS d WHERE e.commit_id = d.id;
+
+DELETE FROM commit AS c USING commit_duplicate AS d WHERE c.id = d.id;
+
+DROP TABLE commit_duplicate;
+
+CREATE UNIQUE INDEX commit_trace_id_key ON commit (trace_id);
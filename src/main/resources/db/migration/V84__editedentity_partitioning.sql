@@ -0,0 +1,64 @@
+-- Partition editedentity monthly by creation time, so that old change log rows can be dropped with their partition
+
+ALTER TABLE editedentity RENAME TO editedentity_old;
+ALTER TABLE editedentity_old RENAME CONSTRAINT editedentity_pkey TO editedentity_old_pkey;
+
+CREATE TABLE editedentity (
+  id uuid NOT NULL,
+  commit_id uuid NULL,
+  coderegistry_id uuid NULL,
+  codescheme_id uuid NULL,
+  code_id uuid NULL,
+  externalreference_id uuid NULL,
+  propertytype_id uuid NULL,
+  extension_id uuid NULL,
+  member_id uuid NULL,
+  valuetype_id uuid NULL,
+  created timestamp without time zone NOT NULL DEFAULT now(),
+  CONSTRAINT editedentity_pkey PRIMARY KEY (id, created)
+) PARTITION BY RANGE (created);
+
+CREATE TABLE editedentity_default PARTITION OF editedentity DEFAULT;
+
+-- Monthly partitions from the oldest commit up to next month, named editedentity_pYYYYMM
+
+DO $$
+DECLARE
+  month date := date_trunc('month', COALESCE((SELECT min(modified) FROM commit), now()))::date;
+BEGIN
+  WHILE month <= date_trunc('month', now() + interval '1 month')::date LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF editedentity FOR VALUES FROM (%L) TO (%L)',
+                   'editedentity_p' || to_char(month, 'YYYYMM'), month, (month + interval '1 month')::date);
+    month := (month + interval '1 month')::date;
+  END LOOP;
+END
+$$;
+
+INSERT INTO editedentity (id, commit_id, coderegistry_id, codescheme_id, code_id, externalreference_id, propertytype_id, extension_id, member_id, valuetype_id, created)
+SELECT e.id, e.commit_id, e.coderegistry_id, e.codescheme_id, e.code_id, e.externalreference_id, e.propertytype_id, e.extension_id, e.member_id, e.valuetype_id, COALESCE(c.modified, now())
+  FROM editedentity_old AS e
+  LEFT JOIN commit AS c ON c.id = e.commit_id;
+
+DROP TABLE editedentity_old;
+
+CREATE INDEX editedentity_commit_id_idx ON editedentity (commit_id);
+CREATE INDEX editedentity_coderegistry_id_idx ON editedentity (coderegistry_id);
+CREATE INDEX editedentity_codescheme_id_idx ON editedentity (codescheme_id);
+CREATE INDEX editedentity_code_id_idx ON editedentity (code_id);
+CREATE INDEX editedentity_extension_id_idx ON editedentity (extension_id);
+CREATE INDEX editedentity_member_id_idx ON editedentity (member_id);
+
+-- Per commit counts of the edited entities, kept when the partitions holding the entity rows are dropped
+
+CREATE TABLE commitsummary (
+  commit_id uuid NOT NULL,
+  coderegistries integer NOT NULL DEFAULT 0,
+  codeschemes integer NOT NULL DEFAULT 0,
+  codes integer NOT NULL DEFAULT 0,
+  externalreferences integer NOT NULL DEFAULT 0,
+  propertytypes integer NOT NULL DEFAULT 0,
+  extensions integer NOT NULL DEFAULT 0,
+  members integer NOT NULL DEFAULT 0,
+  valuetypes integer NOT NULL DEFAULT 0,
+  CONSTRAINT commitsummary_pkey PRIMARY KEY (commit_id)
+);
@@ -0,0 +1,3 @@
+-- Case insensitive code lookups by URI
+
+CREATE INDEX CONCURRENTLY code_lower_uri_idx ON code (lower(uri));
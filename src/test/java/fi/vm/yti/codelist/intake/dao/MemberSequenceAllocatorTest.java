@@ -0,0 +1,81 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import fi.vm.yti.codelist.intake.jpa.MemberRepository;
+import fi.vm.yti.codelist.intake.model.Extension;
+import fi.vm.yti.codelist.intake.model.Member;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MemberSequenceAllocatorTest {
+
+    private static final UUID EXTENSION_ID = UUID.fromString("5f6b4e2a-1c3d-4e5f-8a9b-0c1d2e3f4a5b");
+    private static final String SEQUENCE_NAME = "seq_for_ext_5f6b4e2a_1c3d_4e5f_8a9b_0c1d2e3f4a5b";
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    private Extension extension;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        extension = new Extension();
+        extension.setId(EXTENSION_ID);
+    }
+
+    @Test
+    public void skipSequenceIdsOfExistingMembersTest() {
+        when(memberRepository.reserveMemberSequenceIds(SEQUENCE_NAME, 3)).thenReturn(Arrays.asList(3, 1, 2));
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, Collections.singleton(createMember(2)));
+        sequenceAllocator.reserve(3);
+        assertEquals(1, sequenceAllocator.next());
+        assertEquals(3, sequenceAllocator.next());
+    }
+
+    @Test
+    public void skipExplicitSequenceIdsTest() {
+        when(memberRepository.reserveMemberSequenceIds(SEQUENCE_NAME, 2)).thenReturn(Arrays.asList(1, 2));
+        when(memberRepository.reserveMemberSequenceIds(SEQUENCE_NAME, 1)).thenReturn(Collections.singletonList(3));
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, Collections.emptySet());
+        sequenceAllocator.use(1);
+        sequenceAllocator.reserve(2);
+        assertEquals(2, sequenceAllocator.next());
+        assertEquals(3, sequenceAllocator.next());
+    }
+
+    @Test
+    public void finishAdvancesSequencePastHighestExplicitIdTest() {
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, Collections.emptySet());
+        sequenceAllocator.use(7);
+        sequenceAllocator.use(12);
+        sequenceAllocator.use(4);
+        sequenceAllocator.finish();
+        verify(memberRepository).advanceMemberSequenceId(SEQUENCE_NAME, 12);
+    }
+
+    @Test
+    public void finishWithoutExplicitIdsTest() {
+        final MemberSequenceAllocator sequenceAllocator = new MemberSequenceAllocator(memberRepository, extension, Collections.emptySet());
+        sequenceAllocator.finish();
+        verify(memberRepository, never()).advanceMemberSequenceId(anyString(), anyInt());
+    }
+
+    private static Member createMember(final int sequenceId) {
+        final Member member = new Member();
+        member.setSequenceId(sequenceId);
+        return member;
+    }
+}
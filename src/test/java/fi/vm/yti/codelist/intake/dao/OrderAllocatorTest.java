@@ -0,0 +1,86 @@
+package fi.vm.yti.codelist.intake.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import fi.vm.yti.codelist.intake.model.Code;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OrderAllocatorTest {
+
+    @Test
+    public void startFromOneWithoutExistingOrdersTest() {
+        final OrderAllocator<UUID> orderAllocator = new OrderAllocator<>(Collections.<Code>emptySet(), Code::getId, Code::getOrder);
+        assertEquals(1, orderAllocator.nextOrder());
+        assertEquals(1, orderAllocator.assignNext(UUID.randomUUID()));
+        assertEquals(2, orderAllocator.nextOrder());
+    }
+
+    @Test
+    public void loadExistingOrdersWithGapsTest() {
+        final Code first = createCode(1);
+        final Code second = createCode(2);
+        final Code fifth = createCode(5);
+        final Code withoutOrder = createCode(null);
+        final Code duplicateOrder = createCode(2);
+        final OrderAllocator<UUID> orderAllocator = new OrderAllocator<>(Arrays.asList(first, second, fifth, withoutOrder, duplicateOrder), Code::getId, Code::getOrder);
+        assertEquals(6, orderAllocator.nextOrder());
+        assertEquals(2, (int) orderAllocator.getOrder(second.getId()));
+        assertEquals(5, (int) orderAllocator.getOrder(fifth.getId()));
+        assertNull(orderAllocator.getOrder(withoutOrder.getId()));
+        assertNull(orderAllocator.getOrder(duplicateOrder.getId()));
+    }
+
+    @Test
+    public void assignMixedExplicitAndImplicitOrdersTest() {
+        final Code first = createCode(1);
+        final Code second = createCode(2);
+        final Code fifth = createCode(5);
+        final OrderAllocator<UUID> orderAllocator = new OrderAllocator<>(Arrays.asList(first, second, fifth), Code::getId, Code::getOrder);
+
+        final UUID implicit = UUID.randomUUID();
+        assertEquals(6, orderAllocator.assignNext(implicit));
+
+        final UUID explicitInGap = UUID.randomUUID();
+        assertNull(orderAllocator.assign(explicitInGap, 3));
+        assertEquals(3, (int) orderAllocator.getOrder(explicitInGap));
+        assertEquals(7, orderAllocator.nextOrder());
+
+        final UUID explicitInUse = UUID.randomUUID();
+        assertEquals(second.getId(), orderAllocator.assign(explicitInUse, 2));
+        assertEquals(2, (int) orderAllocator.getOrder(explicitInUse));
+        assertEquals(7, (int) orderAllocator.getOrder(second.getId()));
+
+        final UUID implicitAfterMove = UUID.randomUUID();
+        assertEquals(8, orderAllocator.assignNext(implicitAfterMove));
+    }
+
+    @Test
+    public void reassignKeyHoldingAnOrderTest() {
+        final Code first = createCode(1);
+        final Code second = createCode(2);
+        final Code third = createCode(3);
+        final OrderAllocator<UUID> orderAllocator = new OrderAllocator<>(Arrays.asList(first, second, third), Code::getId, Code::getOrder);
+
+        assertEquals(first.getId(), orderAllocator.assign(third.getId(), 1));
+        assertEquals(1, (int) orderAllocator.getOrder(third.getId()));
+        assertEquals(3, (int) orderAllocator.getOrder(first.getId()));
+
+        assertEquals(4, orderAllocator.assignNext(second.getId()));
+        assertEquals(5, orderAllocator.assignNext(UUID.randomUUID()));
+        assertNull(orderAllocator.assign(second.getId(), 2));
+        assertEquals(2, (int) orderAllocator.getOrder(second.getId()));
+        assertEquals(6, orderAllocator.nextOrder());
+    }
+
+    private static Code createCode(final Integer order) {
+        final Code code = new Code();
+        code.setId(UUID.randomUUID());
+        code.setOrder(order);
+        return code;
+    }
+}
@@ -3,6 +3,7 @@ package fi.vm.yti.codelist.intake.integration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -36,6 +37,13 @@ abstract public class AbstractIntegrationTestBase {
         return uploadCodesToCodeScheme(codeRegistryCodeValue, codeSchemeCodeValue, codesFilename, FORMAT_CSV);
     }
 
+    ResponseEntity<String> uploadCodesToCodeSchemeFromCsv(final String codeRegistryCodeValue,
+                                                          final String codeSchemeCodeValue,
+                                                          final Resource codesFile) {
+        final String apiUrl = createApiUrl(randomServerPort) + codeRegistryCodeValue + API_PATH_CODESCHEMES + "/" + codeSchemeCodeValue + API_PATH_CODES + "/" + "?format=" + FORMAT_CSV;
+        return uploadFile(apiUrl, codesFile);
+    }
+
     @SuppressWarnings("SameParameterValue")
     ResponseEntity<String> uploadCodesToCodeSchemeFromExcel(final String codeRegistryCodeValue,
                                                             final String codeSchemeCodeValue,
@@ -85,8 +93,13 @@ abstract public class AbstractIntegrationTestBase {
 
     private ResponseEntity<String> uploadFile(final String apiUrl,
                                               final String registryFilePath) {
+        return uploadFile(apiUrl, new ClassPathResource(registryFilePath));
+    }
+
+    private ResponseEntity<String> uploadFile(final String apiUrl,
+                                              final Resource file) {
         final LinkedMultiValueMap<String, Object> parameters = new LinkedMultiValueMap<>();
-        parameters.add(PARAMETER_FILE, new ClassPathResource(registryFilePath));
+        parameters.add(PARAMETER_FILE, file);
         final HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         final HttpEntity<LinkedMultiValueMap<String, Object>> entity = new HttpEntity<>(parameters, headers);
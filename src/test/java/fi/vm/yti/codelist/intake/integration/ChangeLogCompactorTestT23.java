@@ -0,0 +1,106 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.log.ChangeLogCompactor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class ChangeLogCompactorTestT23 extends AbstractIntegrationTestBase {
+
+    private static final String PARTITION_NAME_SQL = "SELECT 'editedentity_p' || to_char(localtimestamp + (? || ' months')::interval, 'YYYYMM')";
+    private static final String MONTH_START_SQL = "date_trunc('month', localtimestamp + (? || ' months')::interval)";
+
+    @Inject
+    private ChangeLogCompactor changeLogCompactor;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void editedEntityPartitioningMigrationTest() {
+        assertEquals("p", jdbcTemplate.queryForObject("SELECT relkind FROM pg_class WHERE relname = 'editedentity'", String.class));
+        final List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits AS i JOIN pg_class AS c ON c.oid = i.inhrelid WHERE i.inhparent = 'editedentity'::regclass", String.class);
+        assertTrue(partitions.contains("editedentity_default"));
+        assertTrue(partitions.contains(partitionName(0)));
+        assertTrue(partitions.contains(partitionName(1)));
+        assertTrue(countRows("SELECT COUNT(*) FROM editedentity") > 0);
+        assertEquals(0, countRows("SELECT COUNT(*) FROM editedentity_default"));
+        assertTrue(tableExists("commitsummary"));
+    }
+
+    @Test
+    public void createPartitionMovesRowsFromDefaultPartitionTest() {
+        final String partition = partitionName(1);
+        jdbcTemplate.execute("ALTER TABLE editedentity DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        final UUID commitId = insertCommit();
+        final UUID editedEntityId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO editedentity (id, commit_id, code_id, created) VALUES (?, ?, ?, " + MONTH_START_SQL + ")", editedEntityId, commitId, UUID.randomUUID(), "1");
+        assertEquals(1, countRows("SELECT COUNT(*) FROM editedentity_default WHERE id = ?", editedEntityId));
+
+        changeLogCompactor.compact();
+
+        assertEquals(0, countRows("SELECT COUNT(*) FROM editedentity_default WHERE id = ?", editedEntityId));
+        assertEquals(1, countRows("SELECT COUNT(*) FROM " + partition + " WHERE id = ?", editedEntityId));
+        assertEquals(1, countRows("SELECT COUNT(*) FROM editedentity WHERE id = ?", editedEntityId));
+    }
+
+    @Test
+    public void compactExpiredPartitionTest() {
+        final String partition = partitionName(-30);
+        jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF editedentity FOR VALUES FROM ('%s') TO ('%s')", partition, monthStart(-30), monthStart(-29)));
+        final UUID commitId = insertCommit();
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("INSERT INTO editedentity (id, commit_id, code_id, created) VALUES (?, ?, ?, " + MONTH_START_SQL + ")", UUID.randomUUID(), commitId, UUID.randomUUID(), "-30");
+        }
+        jdbcTemplate.update("INSERT INTO editedentity (id, commit_id, codescheme_id, created) VALUES (?, ?, ?, " + MONTH_START_SQL + ")", UUID.randomUUID(), commitId, UUID.randomUUID(), "-30");
+
+        changeLogCompactor.compact();
+
+        assertFalse(tableExists(partition));
+        assertEquals(2, countRows("SELECT codes FROM commitsummary WHERE commit_id = ?", commitId));
+        assertEquals(1, countRows("SELECT codeschemes FROM commitsummary WHERE commit_id = ?", commitId));
+        assertEquals(0, countRows("SELECT members FROM commitsummary WHERE commit_id = ?", commitId));
+    }
+
+    private UUID insertCommit() {
+        final UUID commitId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO commit (id, trace_id, modified) VALUES (?, ?, now())", commitId, commitId.toString());
+        return commitId;
+    }
+
+    private String partitionName(final int monthOffset) {
+        return jdbcTemplate.queryForObject(PARTITION_NAME_SQL, String.class, String.valueOf(monthOffset));
+    }
+
+    private String monthStart(final int monthOffset) {
+        return jdbcTemplate.queryForObject("SELECT CAST(" + MONTH_START_SQL + " AS date)::text", String.class, String.valueOf(monthOffset));
+    }
+
+    private boolean tableExists(final String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private int countRows(final String sql,
+                          final Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
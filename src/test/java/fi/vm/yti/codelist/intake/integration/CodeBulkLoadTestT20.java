@@ -0,0 +1,87 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class CodeBulkLoadTestT20 extends AbstractIntegrationTestBase {
+
+    private static final String TEST_CODESCHEME_CODEVALUE = "testscheme5";
+    private static final int CODE_COUNT = 1200;
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeRepository codeRepository;
+
+    @Test
+    @Transactional
+    public void bulkLoadCodesToEmptyCodeSchemeTest() {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, TEST_CODESCHEME_CODEVALUE);
+        assertNotNull(codeScheme);
+        assertEquals(0, codeRepository.findByCodeSchemeId(codeScheme.getId()).size());
+        final ResponseEntity<String> response = uploadCodesToCodeSchemeFromCsv(codeRegistry.getCodeValue(), codeScheme.getCodeValue(), createCodesFile(CODE_COUNT));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final Set<Code> codes = codeRepository.findByCodeSchemeId(codeScheme.getId());
+        assertEquals(CODE_COUNT, codes.size());
+        final Code topCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "bulk00001");
+        assertNotNull(topCode);
+        assertNull(topCode.getBroaderCode());
+        assertEquals(Integer.valueOf(1), topCode.getHierarchyLevel());
+        assertEquals("Koodi 1", topCode.getPrefLabel().get("fi"));
+        assertEquals("Code 1", topCode.getPrefLabel().get("en"));
+        assertEquals("Määrite \"1\", rivi", topCode.getDefinition().get("fi"));
+        final Code narrowerCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "bulk00002");
+        assertNotNull(narrowerCode);
+        assertEquals(topCode.getId(), narrowerCode.getBroaderCode().getId());
+        assertEquals(Integer.valueOf(2), narrowerCode.getHierarchyLevel());
+    }
+
+    private static ByteArrayResource createCodesFile(final int codeCount) {
+        final StringBuilder builder = new StringBuilder("CODEVALUE,BROADER,STATUS,PREFLABEL_FI,PREFLABEL_EN,DEFINITION_FI,STARTDATE\n");
+        for (int i = 1; i <= codeCount; i++) {
+            final String broaderCodeValue = i % 10 == 1 ? "" : String.format("bulk%05d", i - (i - 1) % 10);
+            builder.append(String.format("bulk%05d,%s,VALID,Koodi %d,Code %d,\"Määrite \"\"%d\"\", rivi\",2017-01-01\n", i, broaderCodeValue, i, i, i));
+        }
+        return new ByteArrayResource(builder.toString().getBytes(StandardCharsets.UTF_8)) {
+
+            @Override
+            public String getFilename() {
+                return "v1_bulkload_codes.csv";
+            }
+        };
+    }
+}
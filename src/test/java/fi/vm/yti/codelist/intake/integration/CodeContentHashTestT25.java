@@ -0,0 +1,168 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.codelist.common.dto.CodeDTO;
+import fi.vm.yti.codelist.common.dto.ExternalReferenceDTO;
+import fi.vm.yti.codelist.common.dto.PropertyTypeDTO;
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.jpa.ExternalReferenceRepository;
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import fi.vm.yti.codelist.intake.model.ExternalReference;
+import fi.vm.yti.codelist.intake.service.CodeService;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class CodeContentHashTestT25 extends AbstractIntegrationTestBase {
+
+    private static final String REIMPORT_CODESCHEME_CODEVALUE = "testscheme3";
+    private static final String LINK_CODESCHEME_CODEVALUE = "testscheme2";
+    private static final String LINK_HREF = "https://example.com/contenthash";
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeRepository codeRepository;
+
+    @Inject
+    private ExternalReferenceRepository externalReferenceRepository;
+
+    @Inject
+    private CodeDao codeDao;
+
+    @Inject
+    private CodeService codeService;
+
+    @Test
+    public void reimportUnchangedCodesTest() {
+        final CodeScheme codeScheme = findCodeScheme(REIMPORT_CODESCHEME_CODEVALUE);
+        assertEquals(HttpStatus.OK, uploadCodesToCodeSchemeFromCsv(TEST_CODEREGISTRY_CODEVALUE, codeScheme.getCodeValue(), createCodesFile()).getStatusCode());
+        final Code importedCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "hash00002");
+        assertNotNull(importedCode);
+        final String contentHash = importedCode.getContentHash();
+        final Date modified = importedCode.getModified();
+        assertNotNull(contentHash);
+
+        assertEquals(HttpStatus.OK, uploadCodesToCodeSchemeFromCsv(TEST_CODEREGISTRY_CODEVALUE, codeScheme.getCodeValue(), createCodesFile()).getStatusCode());
+        final Code reimportedCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "hash00002");
+        assertEquals(contentHash, reimportedCode.getContentHash());
+        assertEquals(modified, reimportedCode.getModified());
+
+        codeService.massChangeCodeStatuses(TEST_CODEREGISTRY_CODEVALUE, codeScheme.getCodeValue(), "VALID", "RETIRED", true);
+        final Code editedCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "hash00002");
+        assertEquals("RETIRED", editedCode.getStatus());
+        assertNull(editedCode.getContentHash());
+    }
+
+    @Test
+    @Transactional
+    public void reimportReturnsUnchangedCodesTest() {
+        final CodeScheme codeScheme = findCodeScheme(LINK_CODESCHEME_CODEVALUE);
+        final Set<Code> importedCodes = codeDao.updateCodesFromDtos(codeScheme, Collections.singleton(createCodeDto(null)), new HashMap<>(), true);
+        assertEquals(1, importedCodes.size());
+        final Code importedCode = importedCodes.iterator().next();
+        assertNotNull(importedCode.getContentHash());
+
+        final Set<Code> reimportedCodes = codeDao.updateCodesFromDtos(codeScheme, Collections.singleton(createCodeDto(null)), new HashMap<>(), true);
+        assertEquals(1, reimportedCodes.size());
+        assertEquals(importedCode.getId(), reimportedCodes.iterator().next().getId());
+    }
+
+    @Test
+    @Transactional
+    public void reimportWithChangedLinkTitleTest() {
+        final CodeScheme codeScheme = findCodeScheme(LINK_CODESCHEME_CODEVALUE);
+        final Code importedCode = codeDao.updateCodesFromDtos(codeScheme, Collections.singleton(createCodeDto("Linkki")), new HashMap<>(), true).iterator().next();
+        assertNull(importedCode.getContentHash());
+        assertEquals("Linkki", findLink(codeScheme).getTitle().get("fi"));
+
+        codeDao.updateCodesFromDtos(codeScheme, Collections.singleton(createCodeDto("Muutettu linkki")), new HashMap<>(), true);
+        final ExternalReference link = findLink(codeScheme);
+        assertEquals("Muutettu linkki", link.getTitle().get("fi"));
+        assertEquals(1, codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "hashlink").getExternalReferences().size());
+    }
+
+    private CodeScheme findCodeScheme(final String codeSchemeCodeValue) {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, codeSchemeCodeValue);
+        assertNotNull(codeScheme);
+        return codeScheme;
+    }
+
+    private ExternalReference findLink(final CodeScheme codeScheme) {
+        final ExternalReference link = externalReferenceRepository.findByParentCodeSchemeIdAndHref(codeScheme.getId(), LINK_HREF);
+        assertNotNull(link);
+        return link;
+    }
+
+    private static CodeDTO createCodeDto(final String linkTitle) {
+        final CodeDTO codeDto = new CodeDTO();
+        codeDto.setCodeValue("hashlink");
+        codeDto.setStatus("DRAFT");
+        codeDto.setPrefLabel(createLabel("Linkitetty koodi"));
+        if (linkTitle != null) {
+            final ExternalReferenceDTO externalReferenceDto = new ExternalReferenceDTO();
+            externalReferenceDto.setHref(LINK_HREF);
+            externalReferenceDto.setTitle(createLabel(linkTitle));
+            final PropertyTypeDTO propertyTypeDto = new PropertyTypeDTO();
+            propertyTypeDto.setLocalName("link");
+            externalReferenceDto.setPropertyType(propertyTypeDto);
+            codeDto.setExternalReferences(Collections.singleton(externalReferenceDto));
+        }
+        return codeDto;
+    }
+
+    private static Map<String, String> createLabel(final String label) {
+        final Map<String, String> prefLabel = new HashMap<>();
+        prefLabel.put("fi", label);
+        return prefLabel;
+    }
+
+    private static ByteArrayResource createCodesFile() {
+        final StringBuilder builder = new StringBuilder("CODEVALUE,BROADER,STATUS,PREFLABEL_FI,STARTDATE\n");
+        for (int i = 1; i <= 10; i++) {
+            final String broaderCodeValue = i == 1 ? "" : "hash00001";
+            builder.append(String.format("hash%05d,%s,VALID,Koodi %d,2017-01-01\n", i, broaderCodeValue, i));
+        }
+        return new ByteArrayResource(builder.toString().getBytes(StandardCharsets.UTF_8)) {
+
+            @Override
+            public String getFilename() {
+                return "v1_contenthash_codes.csv";
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class CodeCsvChunkImportTestT26 extends AbstractIntegrationTestBase {
+
+    private static final String FORWARD_BROADER_CODESCHEME_CODEVALUE = "testscheme4";
+    private static final int CODE_COUNT = 1200;
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeRepository codeRepository;
+
+    @Test
+    public void importCodesWithBroaderCodeInLaterChunkTest() {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, FORWARD_BROADER_CODESCHEME_CODEVALUE);
+        assertNotNull(codeScheme);
+        final ResponseEntity<String> response = uploadCodesToCodeSchemeFromCsv(codeRegistry.getCodeValue(), codeScheme.getCodeValue(), createForwardBroaderCodesFile(CODE_COUNT));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(CODE_COUNT, codeRepository.findByCodeSchemeId(codeScheme.getId()).size());
+        final Code topCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, String.format("fwd%05d", CODE_COUNT));
+        assertNotNull(topCode);
+        assertNull(topCode.getBroaderCode());
+        assertEquals(Integer.valueOf(1), topCode.getHierarchyLevel());
+        final Code narrowerCode = codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "fwd00001");
+        assertNotNull(narrowerCode);
+        assertEquals(topCode.getId(), narrowerCode.getBroaderCode().getId());
+        assertEquals(Integer.valueOf(2), narrowerCode.getHierarchyLevel());
+    }
+
+    /**
+     * Creates a file in which the broader code of all rows is on the last row, so that it is imported in a later chunk
+     * than the rows referring to it.
+     */
+    @SuppressWarnings("SameParameterValue")
+    private static ByteArrayResource createForwardBroaderCodesFile(final int codeCount) {
+        final StringBuilder builder = new StringBuilder("CODEVALUE,BROADER,STATUS,PREFLABEL_FI,STARTDATE\n");
+        final String broaderCodeValue = String.format("fwd%05d", codeCount);
+        for (int i = 1; i < codeCount; i++) {
+            builder.append(String.format("fwd%05d,%s,VALID,Koodi %d,2017-01-01\n", i, broaderCodeValue, i));
+        }
+        builder.append(String.format("%s,,VALID,Koodi %d,2017-01-01\n", broaderCodeValue, codeCount));
+        return new ByteArrayResource(builder.toString().getBytes(StandardCharsets.UTF_8)) {
+
+            @Override
+            public String getFilename() {
+                return "v1_chunked_forward_broader_codes.csv";
+            }
+        };
+    }
+}
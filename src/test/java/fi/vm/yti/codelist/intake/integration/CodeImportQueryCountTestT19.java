@@ -0,0 +1,115 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import brave.Span;
+import brave.Tracer;
+import fi.vm.yti.codelist.common.dto.CodeDTO;
+import fi.vm.yti.codelist.common.dto.ExternalReferenceDTO;
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.jpa.CommitRepository;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties", properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CodeImportQueryCountTestT19 extends AbstractIntegrationTestBase {
+
+    private static final String SMALL_CODESCHEME_CODEVALUE = "testscheme6";
+    private static final String LARGE_CODESCHEME_CODEVALUE = "testscheme7";
+    private static final String EXTERNALREFERENCE_HREF = "https://www.example.com/querycounttest";
+    private static final int SMALL_CODE_COUNT = 10;
+    private static final int LARGE_CODE_COUNT = 500;
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeDao codeDao;
+
+    @Inject
+    private CommitRepository commitRepository;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private Tracer tracer;
+
+    @Test
+    @Transactional
+    public void codeImportQueryCountDoesNotDependOnCodeCountTest() {
+        final long smallImportQueryCount = importCodesAndCountQueries(SMALL_CODESCHEME_CODEVALUE, SMALL_CODE_COUNT);
+        final long largeImportQueryCount = importCodesAndCountQueries(LARGE_CODESCHEME_CODEVALUE, LARGE_CODE_COUNT);
+        assertTrue(String.format("Importing %d codes took %d queries, %d codes took %d.", SMALL_CODE_COUNT, smallImportQueryCount, LARGE_CODE_COUNT, largeImportQueryCount), largeImportQueryCount <= smallImportQueryCount);
+    }
+
+    private long importCodesAndCountQueries(final String codeSchemeCodeValue,
+                                            final int codeCount) {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, codeSchemeCodeValue);
+        assertNotNull(codeScheme);
+        final Set<CodeDTO> codeDtos = createCodeDtos(codeCount);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        final Span span = tracer.nextSpan().name("codeimportquerycount").start();
+        try (final Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            codeDao.updateCodesFromDtos(codeScheme, codeDtos, new HashMap<>(), true);
+        } finally {
+            span.finish();
+        }
+        assertEquals(codeCount, codeDtos.stream().filter(codeDto -> codeDto.getId() != null).count());
+        final long queryCount = statistics.getQueryExecutionCount() + statistics.getEntityFetchCount() + statistics.getCollectionFetchCount();
+        assertNotNull(commitRepository.findByTraceId(span.context().traceIdString()));
+        return queryCount;
+    }
+
+    private static Set<CodeDTO> createCodeDtos(final int codeCount) {
+        final Set<CodeDTO> codeDtos = new HashSet<>();
+        for (int i = 1; i <= codeCount; i++) {
+            final CodeDTO codeDto = new CodeDTO();
+            codeDto.setCodeValue(String.format("querycount%05d", i));
+            codeDto.setStatus("DRAFT");
+            final Map<String, String> prefLabel = new HashMap<>();
+            prefLabel.put("fi", "Koodi " + i);
+            codeDto.setPrefLabel(prefLabel);
+            final ExternalReferenceDTO externalReferenceDto = new ExternalReferenceDTO();
+            externalReferenceDto.setHref(EXTERNALREFERENCE_HREF);
+            final Map<String, String> title = new HashMap<>();
+            title.put("fi", "Linkki");
+            externalReferenceDto.setTitle(title);
+            codeDto.setExternalReferences(Collections.singleton(externalReferenceDto));
+            codeDtos.add(codeDto);
+        }
+        return codeDtos;
+    }
+}
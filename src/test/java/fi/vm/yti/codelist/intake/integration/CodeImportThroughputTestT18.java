@@ -0,0 +1,114 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties", properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CodeImportThroughputTestT18 extends AbstractIntegrationTestBase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CodeImportThroughputTestT18.class);
+    private static final String TEST_CODESCHEME_CODEVALUE = "testscheme8";
+    private static final int CODE_COUNT = 5000;
+    private static final int MAX_STATEMENTS_PER_BATCHED_ROW_DIVISOR = 10;
+    private static final long MIN_ROWS_PER_SECOND = 250;
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeRepository codeRepository;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Imports a large code file through the API and checks the import rate against a floor of 250 rows per second,
+     * 20 seconds for the whole file. The floor is kept well below the rate of the batched import on a developer machine
+     * so that slower build hosts pass, while a return to flushing every row separately fails the test. The measured
+     * rate is logged for comparing runs before and after import changes.
+     */
+    @Test
+    public void postLargeCodeFileToCodeSchemeTest() {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, TEST_CODESCHEME_CODEVALUE);
+        assertNotNull(codeScheme);
+        final long start = System.currentTimeMillis();
+        final ResponseEntity<String> response = uploadCodesToCodeSchemeFromCsv(codeRegistry.getCodeValue(), codeScheme.getCodeValue(), createCodesFile(CODE_COUNT, "Koodi"));
+        final long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(CODE_COUNT, codeRepository.findByCodeSchemeId(codeScheme.getId()).size());
+        final long rowsPerSecond = CODE_COUNT * 1000L / elapsed;
+        LOG.info(String.format("Imported %d codes in %d ms, %d rows per second.", CODE_COUNT, elapsed, rowsPerSecond));
+        assertTrue(String.format("Importing %d codes ran at %d rows per second.", CODE_COUNT, rowsPerSecond), rowsPerSecond >= MIN_ROWS_PER_SECOND);
+    }
+
+    /**
+     * Updates every code of the code scheme with a second import, which writes the codes and their change log entries
+     * through Hibernate, and checks that the writes are sent in JDBC batches instead of one statement per row.
+     */
+    @Test
+    public void updateLargeCodeFileInBatchesTest() {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, TEST_CODESCHEME_CODEVALUE);
+        assertNotNull(codeScheme);
+        if (codeRepository.findByCodeSchemeId(codeScheme.getId()).isEmpty()) {
+            assertEquals(HttpStatus.OK, uploadCodesToCodeSchemeFromCsv(codeRegistry.getCodeValue(), codeScheme.getCodeValue(), createCodesFile(CODE_COUNT, "Koodi")).getStatusCode());
+        }
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        final ResponseEntity<String> response = uploadCodesToCodeSchemeFromCsv(codeRegistry.getCodeValue(), codeScheme.getCodeValue(), createCodesFile(CODE_COUNT, "Muutettu koodi"));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final long statementCount = statistics.getPrepareStatementCount();
+        assertTrue(String.format("Updating %d codes prepared %d statements.", CODE_COUNT, statementCount), statementCount < CODE_COUNT / MAX_STATEMENTS_PER_BATCHED_ROW_DIVISOR);
+        assertEquals("Muutettu koodi 1", codeRepository.findByCodeSchemeAndCodeValueIgnoreCase(codeScheme, "code00001").getPrefLabel().get("fi"));
+    }
+
+    private static ByteArrayResource createCodesFile(final int codeCount,
+                                                     final String prefLabelPrefix) {
+        final StringBuilder builder = new StringBuilder("CODEVALUE,ID,STATUS,PREFLABEL_FI,PREFLABEL_EN,STARTDATE\n");
+        for (int i = 1; i <= codeCount; i++) {
+            builder.append(String.format("code%05d,,VALID,%s %d,Code %d,2017-01-01\n", i, prefLabelPrefix, i, i));
+        }
+        return new ByteArrayResource(builder.toString().getBytes(StandardCharsets.UTF_8)) {
+
+            @Override
+            public String getFilename() {
+                return "v1_throughput_codes.csv";
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import brave.Span;
+import brave.Tracer;
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.log.EntityChangeLogger;
+import fi.vm.yti.codelist.intake.model.Code;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties", properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class EntityChangeLoggerTestT22 extends AbstractIntegrationTestBase {
+
+    @Inject
+    private EntityChangeLogger entityChangeLogger;
+
+    @Inject
+    private CodeDao codeDao;
+
+    @Inject
+    private Tracer tracer;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void logSameEntityTwiceInTransactionTest() {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        final Span span = tracer.nextSpan().name("logsameentitytwice").start();
+        final Code code;
+        try (final Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            code = transactionTemplate.execute(status -> {
+                final List<Code> codes = codeDao.findPageAfter(null, null, 1);
+                assertFalse(codes.isEmpty());
+                entityChangeLogger.logCodeChange(codes.get(0));
+                entityChangeLogger.logCodeChange(codes.get(0));
+                return codes.get(0);
+            });
+        } finally {
+            span.finish();
+        }
+        assertEquals(1, countEditedEntities(span.context().traceIdString(), code));
+    }
+
+    @Test
+    public void logTwoEntitiesInTransactionTest() {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final Span span = tracer.nextSpan().name("logtwoentities").start();
+        final List<Code> codes;
+        try (final Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            codes = transactionTemplate.execute(status -> {
+                final List<Code> pageCodes = codeDao.findPageAfter(null, null, 2);
+                assertEquals(2, pageCodes.size());
+                statistics.clear();
+                entityChangeLogger.logCodeChange(pageCodes.get(0));
+                entityChangeLogger.logCodeChange(pageCodes.get(1));
+                assertEquals(1, countCommitQueries(statistics));
+                return pageCodes;
+            });
+        } finally {
+            span.finish();
+        }
+        final String traceId = span.context().traceIdString();
+        assertEquals(1, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commit WHERE trace_id = ?", Integer.class, traceId));
+        assertEquals(1, countEditedEntities(traceId, codes.get(0)));
+        assertEquals(1, countEditedEntities(traceId, codes.get(1)));
+    }
+
+    private static long countCommitQueries(final Statistics statistics) {
+        return Arrays.stream(statistics.getQueries())
+            .filter(query -> query.contains("Commit"))
+            .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+            .sum();
+    }
+
+    private int countEditedEntities(final String traceId,
+                                    final Code code) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM editedentity AS e JOIN commit AS c ON c.id = e.commit_id WHERE c.trace_id = ? AND e.code_id = ?", Integer.class, traceId, code.getId());
+    }
+}
@@ -0,0 +1,73 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.jpa.ImportJobRepository;
+import fi.vm.yti.codelist.intake.model.ImportJob;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_IMPORT_JOB_INTERRUPTED;
+import static fi.vm.yti.codelist.intake.update.ImportJobManager.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class ImportJobTestT27 extends AbstractIntegrationTestBase {
+
+    private static final String RESTARTED_NODE = "restartednode";
+    private static final String OTHER_NODE = "othernode";
+
+    @Inject
+    private ImportJobRepository importJobRepository;
+
+    @Test
+    public void failUnfinishedJobsOfRestartedNodeTest() {
+        final UUID userId = UUID.randomUUID();
+        final ImportJob queuedJob = saveJob(RESTARTED_NODE, JOB_STATUS_QUEUED, userId);
+        final ImportJob runningJob = saveJob(RESTARTED_NODE, JOB_STATUS_RUNNING, userId);
+        final ImportJob successfulJob = saveJob(RESTARTED_NODE, JOB_STATUS_SUCCESSFUL, userId);
+        final ImportJob otherNodeJob = saveJob(OTHER_NODE, JOB_STATUS_RUNNING, userId);
+
+        assertEquals(2, importJobRepository.failUnfinishedJobsOfNode(RESTARTED_NODE, ERR_MSG_USER_IMPORT_JOB_INTERRUPTED, new Date()));
+
+        final ImportJob failedJob = importJobRepository.findById(queuedJob.getId()).orElse(null);
+        assertEquals(JOB_STATUS_FAILED, failedJob.getStatus());
+        assertEquals(500, (int) failedJob.getErrorCode());
+        assertEquals(ERR_MSG_USER_IMPORT_JOB_INTERRUPTED, failedJob.getErrorMessage());
+        assertEquals(userId, failedJob.getUserId());
+        assertEquals(JOB_STATUS_FAILED, importJobRepository.findById(runningJob.getId()).get().getStatus());
+        assertEquals(JOB_STATUS_SUCCESSFUL, importJobRepository.findById(successfulJob.getId()).get().getStatus());
+        final ImportJob otherJob = importJobRepository.findById(otherNodeJob.getId()).get();
+        assertEquals(JOB_STATUS_RUNNING, otherJob.getStatus());
+        assertNull(otherJob.getErrorCode());
+    }
+
+    private ImportJob saveJob(final String node,
+                              final String status,
+                              final UUID userId) {
+        final ImportJob job = new ImportJob();
+        final Date now = new Date();
+        job.setId(UUID.randomUUID());
+        job.setJobType(JOB_TYPE_CODES);
+        job.setIdentifier("testregistry1/testscheme1");
+        job.setNode(node);
+        job.setUserId(userId);
+        job.setStatus(status);
+        job.setPhase(JOB_PHASE_QUEUED);
+        job.setCreated(now);
+        job.setModified(now);
+        return importJobRepository.save(job);
+    }
+}
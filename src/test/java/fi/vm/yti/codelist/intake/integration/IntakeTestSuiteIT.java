@@ -21,7 +21,17 @@ import org.junit.runners.Suite;
     CodeSchemeExtensionTestT14.class,
     CodeSchemeDcatTestT15.class,
     CodeSchemeWithExtensionsTestT16.class,
-    CodeSchemeCaseTestT17.class
+    CodeSchemeCaseTestT17.class,
+    CodeImportThroughputTestT18.class,
+    CodeImportQueryCountTestT19.class,
+    CodeBulkLoadTestT20.class,
+    ReferenceDataCacheTestT21.class,
+    EntityChangeLoggerTestT22.class,
+    ChangeLogCompactorTestT23.class,
+    MemberImportTestT24.class,
+    CodeContentHashTestT25.class,
+    CodeCsvChunkImportTestT26.class,
+    ImportJobTestT27.class
 })
 public class IntakeTestSuiteIT {
 
@@ -0,0 +1,175 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.codelist.common.dto.CodeDTO;
+import fi.vm.yti.codelist.common.dto.ExtensionDTO;
+import fi.vm.yti.codelist.common.dto.MemberDTO;
+import fi.vm.yti.codelist.common.dto.PropertyTypeDTO;
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.dao.CodeDao;
+import fi.vm.yti.codelist.intake.dao.ExtensionDao;
+import fi.vm.yti.codelist.intake.dao.MemberDao;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.jpa.CodeRegistryRepository;
+import fi.vm.yti.codelist.intake.jpa.CodeSchemeRepository;
+import fi.vm.yti.codelist.intake.model.CodeRegistry;
+import fi.vm.yti.codelist.intake.model.CodeScheme;
+import fi.vm.yti.codelist.intake.model.Extension;
+import fi.vm.yti.codelist.intake.model.Member;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class MemberImportTestT24 extends AbstractIntegrationTestBase {
+
+    private static final String TEST_CODESCHEME_CODEVALUE = "testscheme2";
+    private static final String HIERARCHY_PROPERTYTYPE = "definitionHierarchy";
+    private static final String CODE_EXTENSION_PROPERTYTYPE = "dpmExplicitDomain";
+    private static final String FIRST_CODEVALUE = "memberimport1";
+    private static final String SECOND_CODEVALUE = "memberimport2";
+
+    @Inject
+    private CodeRegistryRepository codeRegistryRepository;
+
+    @Inject
+    private CodeSchemeRepository codeSchemeRepository;
+
+    @Inject
+    private CodeDao codeDao;
+
+    @Inject
+    private ExtensionDao extensionDao;
+
+    @Inject
+    private MemberDao memberDao;
+
+    @Test
+    @Transactional
+    public void relationToDuplicateCodeFailsTest() {
+        final Extension extension = createExtension(HIERARCHY_PROPERTYTYPE);
+        final Set<MemberDTO> memberDtos = new LinkedHashSet<>();
+        memberDtos.add(createMemberDto(FIRST_CODEVALUE, 1, null));
+        memberDtos.add(createMemberDto(FIRST_CODEVALUE, 2, null));
+        memberDtos.add(createMemberDto(SECOND_CODEVALUE, 3, "code:" + FIRST_CODEVALUE));
+        assertImportFails(extension, memberDtos, ERR_MSG_USER_MEMBERS_HAVE_DUPLICATE_CODE_USE_MEMBER_ID);
+    }
+
+    @Test
+    @Transactional
+    public void multipleMembersForCodeInCodeExtensionFailsTest() {
+        final Extension extension = createExtension(CODE_EXTENSION_PROPERTYTYPE);
+        final Set<MemberDTO> memberDtos = new LinkedHashSet<>();
+        memberDtos.add(createMemberDto(FIRST_CODEVALUE, 1, null));
+        memberDtos.add(createMemberDto(FIRST_CODEVALUE, 2, null));
+        assertImportFails(extension, memberDtos, ERR_MSG_USER_CODE_EXTENSION_MULTIPLE_MEMBERS);
+    }
+
+    @Test
+    @Transactional
+    public void relationBySequenceIdTest() {
+        final Extension extension = createExtension(HIERARCHY_PROPERTYTYPE);
+        final MemberDTO relatedMemberDto = createMemberDto(FIRST_CODEVALUE, 1, null);
+        relatedMemberDto.setSequenceId(5);
+        final Set<MemberDTO> memberDtos = new LinkedHashSet<>();
+        memberDtos.add(relatedMemberDto);
+        memberDtos.add(createMemberDto(SECOND_CODEVALUE, 2, "member:5"));
+        final Set<Member> members = memberDao.updateMemberEntitiesFromDtos(extension, memberDtos);
+        final Member member = members.stream().filter(mem -> SECOND_CODEVALUE.equals(mem.getCode().getCodeValue())).findFirst().orElse(null);
+        assertNotNull(member);
+        assertNotNull(member.getRelatedMember());
+        assertEquals(FIRST_CODEVALUE, member.getRelatedMember().getCode().getCodeValue());
+        assertEquals(5, (int) member.getRelatedMember().getSequenceId());
+    }
+
+    @Test
+    @Transactional
+    public void relationToMissingSequenceIdFailsTest() {
+        final Extension extension = createExtension(HIERARCHY_PROPERTYTYPE);
+        final Set<MemberDTO> memberDtos = new LinkedHashSet<>();
+        memberDtos.add(createMemberDto(FIRST_CODEVALUE, 1, null));
+        memberDtos.add(createMemberDto(SECOND_CODEVALUE, 2, "member:99"));
+        assertImportFails(extension, memberDtos, ERR_MSG_USER_MEMBER_NOT_FOUND_WITH_MEMBER_ID);
+    }
+
+    private void assertImportFails(final Extension extension,
+                                   final Set<MemberDTO> memberDtos,
+                                   final String expectedMessage) {
+        try {
+            memberDao.updateMemberEntitiesFromDtos(extension, memberDtos);
+            fail("Member import should have failed with " + expectedMessage);
+        } catch (final YtiCodeListException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+
+    private Extension createExtension(final String propertyTypeLocalName) {
+        final CodeRegistry codeRegistry = codeRegistryRepository.findByCodeValueIgnoreCase(TEST_CODEREGISTRY_CODEVALUE);
+        assertNotNull(codeRegistry);
+        final CodeScheme codeScheme = codeSchemeRepository.findByCodeRegistryAndCodeValueIgnoreCase(codeRegistry, TEST_CODESCHEME_CODEVALUE);
+        assertNotNull(codeScheme);
+        final Set<CodeDTO> codeDtos = new LinkedHashSet<>();
+        codeDtos.add(createCodeDto(FIRST_CODEVALUE));
+        codeDtos.add(createCodeDto(SECOND_CODEVALUE));
+        codeDao.updateCodesFromDtos(codeScheme, codeDtos, new HashMap<>(), false);
+        final ExtensionDTO extensionDto = new ExtensionDTO();
+        extensionDto.setCodeValue("memberimporttest");
+        extensionDto.setStatus("DRAFT");
+        extensionDto.setPrefLabel(createLabel("Jäsentuontitesti"));
+        final PropertyTypeDTO propertyTypeDto = new PropertyTypeDTO();
+        propertyTypeDto.setLocalName(propertyTypeLocalName);
+        extensionDto.setPropertyType(propertyTypeDto);
+        return extensionDao.updateExtensionEntitiesFromDtos(codeScheme, Collections.singleton(extensionDto), false).iterator().next();
+    }
+
+    private static CodeDTO createCodeDto(final String codeValue) {
+        final CodeDTO codeDto = new CodeDTO();
+        codeDto.setCodeValue(codeValue);
+        codeDto.setStatus("DRAFT");
+        codeDto.setPrefLabel(createLabel("Koodi " + codeValue));
+        return codeDto;
+    }
+
+    private static MemberDTO createMemberDto(final String codeValue,
+                                             final int order,
+                                             final String relationCodeValue) {
+        final MemberDTO memberDto = new MemberDTO();
+        final CodeDTO codeDto = new CodeDTO();
+        codeDto.setCodeValue(codeValue);
+        memberDto.setCode(codeDto);
+        memberDto.setOrder(order);
+        if (relationCodeValue != null) {
+            final MemberDTO relatedMemberDto = new MemberDTO();
+            final CodeDTO relatedCodeDto = new CodeDTO();
+            relatedCodeDto.setCodeValue(relationCodeValue);
+            relatedMemberDto.setCode(relatedCodeDto);
+            memberDto.setRelatedMember(relatedMemberDto);
+        }
+        return memberDto;
+    }
+
+    private static Map<String, String> createLabel(final String label) {
+        final Map<String, String> prefLabel = new HashMap<>();
+        prefLabel.put("fi", label);
+        return prefLabel;
+    }
+}
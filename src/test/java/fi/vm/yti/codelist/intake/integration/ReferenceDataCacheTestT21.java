@@ -0,0 +1,93 @@
+package fi.vm.yti.codelist.intake.integration;
+
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import fi.vm.yti.codelist.intake.ContentIntakeServiceApplication;
+import fi.vm.yti.codelist.intake.dao.ReferenceDataCache;
+import fi.vm.yti.codelist.intake.jpa.PropertyTypeRepository;
+import fi.vm.yti.codelist.intake.jpa.ValueTypeRepository;
+import fi.vm.yti.codelist.intake.model.PropertyType;
+import fi.vm.yti.codelist.intake.model.ValueType;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { ContentIntakeServiceApplication.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "automatedtest" })
+@TestPropertySource(locations = "classpath:test-port.properties")
+public class ReferenceDataCacheTestT21 extends AbstractIntegrationTestBase {
+
+    @Inject
+    private ReferenceDataCache referenceDataCache;
+
+    @Inject
+    private PropertyTypeRepository propertyTypeRepository;
+
+    @Inject
+    private ValueTypeRepository valueTypeRepository;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private Cache cache;
+
+    @Before
+    public void setup() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @Test
+    public void evictPropertyTypesAfterCommitTest() {
+        final UUID propertyTypeId = loadPropertyTypeId();
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            referenceDataCache.evictPropertyTypes();
+            status.setRollbackOnly();
+            return null;
+        });
+        assertTrue(cache.containsEntity(PropertyType.class, propertyTypeId));
+        transactionTemplate.execute(status -> {
+            referenceDataCache.evictPropertyTypes();
+            assertTrue(cache.containsEntity(PropertyType.class, propertyTypeId));
+            return null;
+        });
+        assertFalse(cache.containsEntity(PropertyType.class, propertyTypeId));
+    }
+
+    @Test
+    public void evictValueTypesWithoutTransactionTest() {
+        final Set<ValueType> valueTypes = valueTypeRepository.findAll();
+        assertFalse(valueTypes.isEmpty());
+        final UUID valueTypeId = valueTypes.iterator().next().getId();
+        assertTrue(cache.containsEntity(ValueType.class, valueTypeId));
+        referenceDataCache.evictValueTypes();
+        assertFalse(cache.containsEntity(ValueType.class, valueTypeId));
+    }
+
+    private UUID loadPropertyTypeId() {
+        final Set<PropertyType> propertyTypes = propertyTypeRepository.findAll();
+        assertFalse(propertyTypes.isEmpty());
+        final UUID propertyTypeId = propertyTypes.iterator().next().getId();
+        assertTrue(cache.containsEntity(PropertyType.class, propertyTypeId));
+        return propertyTypeId;
+    }
+}
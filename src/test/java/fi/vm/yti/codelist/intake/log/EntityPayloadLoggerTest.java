@@ -0,0 +1,69 @@
+package fi.vm.yti.codelist.intake.log;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import brave.Tracer;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import fi.vm.yti.codelist.intake.model.Code;
+import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import fi.vm.yti.codelist.intake.service.impl.DtoMapperService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class EntityPayloadLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(EntityPayloadLoggerImpl.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Level originalLevel;
+    private ThreadPoolExecutor executor;
+    private MeterRegistry meterRegistry;
+    private EntityPayloadLogger entityPayloadLogger;
+
+    @Before
+    public void setup() {
+        originalLevel = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        meterRegistry = new SimpleMeterRegistry();
+        entityPayloadLogger = new EntityPayloadLoggerImpl(mock(AuthorizationManager.class), mock(Tracer.class), mock(DtoMapperService.class), executor, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+        logger.setLevel(originalLevel);
+    }
+
+    @Test
+    public void dropPayloadWhenQueueIsFullTest() {
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        final Code code = new Code();
+        code.setId(UUID.randomUUID());
+        entityPayloadLogger.logCode(code);
+        entityPayloadLogger.logCode(code);
+        assertEquals(2, meterRegistry.get("intake.payloadlog.dropped").counter().count(), 0);
+        assertEquals(1, executor.getQueue().size());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.test.context.ActiveProfiles;
 
 import fi.vm.yti.codelist.intake.dao.impl.CodeDaoImpl;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
 import fi.vm.yti.codelist.intake.model.Code;
 import static org.junit.Assert.assertEquals;
 
@@ -36,10 +37,32 @@ public class CodeDaoTest {
         assertEquals(15, codes.size());
     }
 
+    @Test(expected = YtiCodeListException.class)
+    public void evaluateAndSetHierarchyLevelsTooDeepTest() {
+        final Set<Code> codes = createCodes(16);
+        codeDao.evaluateAndSetHierarchyLevels(codes, codes);
+    }
+
+    @Test(expected = YtiCodeListException.class)
+    public void evaluateAndSetHierarchyLevelsCyclicTest() {
+        final Set<Code> codes = createCodes();
+        final Code topCode = codes.iterator().next();
+        Code bottomCode = null;
+        for (final Code code : codes) {
+            bottomCode = code;
+        }
+        topCode.setBroaderCode(bottomCode);
+        codeDao.evaluateAndSetHierarchyLevels(codes, codes);
+    }
+
     private Set<Code> createCodes() {
+        return createCodes(15);
+    }
+
+    private Set<Code> createCodes(final int count) {
         final Set<Code> codes = new LinkedHashSet<>();
         Code earlierCode = null;
-        for (int i = 0; i < 15; i++) {
+        for (int i = 0; i < count; i++) {
             final Code code = new Code();
             code.setId(UUID.randomUUID());
             code.setCodeValue("codevalue" + i);
@@ -0,0 +1,77 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import fi.vm.yti.codelist.intake.exception.CsvParsingException;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CodeParserTest {
+
+    private final CodeParserImpl codeParser = new CodeParserImpl();
+
+    @Test
+    public void parseCodesInChunksTest() {
+        final List<Integer> chunkSizes = new ArrayList<>();
+        codeParser.parseCodesFromCsvInputStream(createCsv(5), new HashMap<>(), 2, codes -> chunkSizes.add(codes.size()));
+        assertEquals(3, chunkSizes.size());
+        assertEquals(2, (int) chunkSizes.get(0));
+        assertEquals(2, (int) chunkSizes.get(1));
+        assertEquals(1, (int) chunkSizes.get(2));
+    }
+
+    @Test
+    public void consumerExceptionIsNotReportedAsParsingErrorTest() {
+        final IllegalStateException persistenceFailure = new IllegalStateException("Persisting the chunk failed");
+        try {
+            codeParser.parseCodesFromCsvInputStream(createCsv(3), new HashMap<>(), 2, codes -> {
+                throw persistenceFailure;
+            });
+            fail("Exception from the chunk consumer should have been thrown");
+        } catch (final IllegalStateException e) {
+            assertSame(persistenceFailure, e);
+        }
+    }
+
+    @Test
+    public void duplicateHeaderTest() {
+        assertParsingFails("CODEVALUE,STATUS,CODEVALUE\ncode1,VALID,code1\n", ERR_MSG_USER_DUPLICATE_HEADER_VALUE);
+    }
+
+    @Test
+    public void malformedRecordTest() {
+        assertParsingFails("CODEVALUE,STATUS\ncode1,VALID\n\"code2,VALID\n", ERR_MSG_USER_ERROR_PARSING_CSV_FILE);
+    }
+
+    private void assertParsingFails(final String csv,
+                                    final String expectedMessage) {
+        try {
+            codeParser.parseCodesFromCsvInputStream(toInputStream(csv), new HashMap<>(), 2, codes -> {
+            });
+            fail("CSV parsing should have failed with " + expectedMessage);
+        } catch (final CsvParsingException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+
+    private static InputStream createCsv(final int codeCount) {
+        final StringBuilder builder = new StringBuilder("CODEVALUE,STATUS,PREFLABEL_FI\n");
+        for (int i = 1; i <= codeCount; i++) {
+            builder.append(String.format("code%d,VALID,Koodi %d\n", i, i));
+        }
+        return toInputStream(builder.toString());
+    }
+
+    private static InputStream toInputStream(final String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
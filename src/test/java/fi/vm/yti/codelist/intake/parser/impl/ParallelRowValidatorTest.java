@@ -0,0 +1,99 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ParallelRowValidatorTest {
+
+    private static final int LEAF_SIZE = 2;
+    private static final String FAILING_ROW_PREFIX = "!";
+
+    @Test
+    public void validateBatchesInRowOrderTest() {
+        final ParallelRowValidator<String, String> validator = createValidator();
+        assertEquals(rows("a:1", "b:2", "c", "d:4", "e:5"), validator.validate(rows("a:1", "b:2", "c", "d:4", "e:5")));
+        assertEquals(rows("f:6", "g", "h:8"), validator.validate(rows("f:6", "g", "h:8")));
+    }
+
+    @Test
+    public void duplicateBeforeLocalFailureInLaterChunkTest() {
+        assertDuplicateCodeValue(createValidator(), rows("a", "b", "c", "d", "a", "e", "!f"));
+    }
+
+    @Test
+    public void localFailureBeforeDuplicateInLaterChunkTest() {
+        assertLocalFailure(createValidator(), rows("a", "!b", "c", "d", "e", "f", "a"), "!b");
+    }
+
+    @Test
+    public void duplicateOfEarlierBatchBeforeLocalFailureTest() {
+        final ParallelRowValidator<String, String> validator = createValidator();
+        validator.validate(rows("a", "b", "c", "d"));
+        assertDuplicateCodeValue(validator, rows("e", "B", "f", "g", "!h"));
+    }
+
+    @Test
+    public void localFailureBeforeDuplicateOfEarlierBatchTest() {
+        final ParallelRowValidator<String, String> validator = createValidator();
+        validator.validate(rows("a", "b", "c", "d"));
+        assertLocalFailure(validator, rows("e", "!f", "g", "h", "a"), "!f");
+    }
+
+    @Test
+    public void duplicateOrderOfEarlierBatchTest() {
+        final ParallelRowValidator<String, String> validator = createValidator();
+        validator.validate(rows("a:1", "b:2", "c:3"));
+        try {
+            validator.validate(rows("d:4", "e", "f:5", "g:2", "i", "!h"));
+            fail("Duplicate order should have failed the validation");
+        } catch (final YtiCodeListException e) {
+            assertEquals(ERR_MSG_CODE_ORDER_CONTAINS_DUPLICATE_VALUES, e.getMessage());
+        }
+    }
+
+    private static void assertDuplicateCodeValue(final ParallelRowValidator<String, String> validator,
+                                                 final List<String> rows) {
+        try {
+            validator.validate(rows);
+            fail("Duplicate code value should have failed the validation");
+        } catch (final YtiCodeListException e) {
+            assertEquals(ERR_MSG_DUPLICATE_CODE_VALUE, e.getMessage());
+        }
+    }
+
+    private static void assertLocalFailure(final ParallelRowValidator<String, String> validator,
+                                           final List<String> rows,
+                                           final String failingRow) {
+        try {
+            validator.validate(rows);
+            fail("Row " + failingRow + " should have failed the validation");
+        } catch (final IllegalArgumentException e) {
+            assertEquals(failingRow, e.getMessage());
+        }
+    }
+
+    private static ParallelRowValidator<String, String> createValidator() {
+        return new ParallelRowValidator<>(() -> row -> {
+            if (row.startsWith(FAILING_ROW_PREFIX)) {
+                throw new IllegalArgumentException(row);
+            }
+            return row;
+        }, row -> row.split(":")[0], ParallelRowValidatorTest::resolveOrder, LEAF_SIZE);
+    }
+
+    private static Integer resolveOrder(final String row) {
+        final String[] parts = row.split(":");
+        return parts.length > 1 ? Integer.valueOf(parts[1]) : null;
+    }
+
+    private static List<String> rows(final String... rows) {
+        return Arrays.asList(rows);
+    }
+}
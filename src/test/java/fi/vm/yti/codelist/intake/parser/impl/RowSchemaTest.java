@@ -0,0 +1,34 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Test;
+
+import fi.vm.yti.codelist.intake.parser.impl.RowSchema.Column;
+import static fi.vm.yti.codelist.common.constants.ApiConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RowSchemaTest {
+
+    @Test
+    public void readShortRecordTest() throws IOException {
+        final String csv = CONTENT_HEADER_CODEVALUE + "," + CONTENT_HEADER_STATUS + "," + CONTENT_HEADER_PREFLABEL_PREFIX + "FI\n" +
+            "code1\n";
+        try (final CSVParser csvParser = new CSVParser(new StringReader(csv), CSVFormat.newFormat(',').withQuote('"').withHeader())) {
+            final RowSchema schema = new RowSchema(csvParser.getHeaderMap());
+            final CSVRecord record = csvParser.iterator().next();
+            assertEquals("code1", schema.get(record, Column.CODEVALUE));
+            assertEquals("", schema.get(record, Column.STATUS));
+            assertNull(schema.get(record, Column.ORDER));
+            final Map<String, String> prefLabel = schema.getPrefLabelColumns().read(record);
+            assertTrue(prefLabel.isEmpty());
+        }
+    }
+}
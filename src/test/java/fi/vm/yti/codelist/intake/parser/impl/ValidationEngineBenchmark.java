@@ -0,0 +1,97 @@
+package fi.vm.yti.codelist.intake.parser.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fi.vm.yti.codelist.common.model.Status;
+
+/**
+ * Compares the per row validation cost of the former regular expression based checks with {@link ValidationEngine}.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=fi.vm.yti.codelist.intake.parser.impl.ValidationEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationEngineBenchmark {
+
+    private static final String CODE_CODEVALUE_VALIDATOR = "^[a-zA-Z0-9_\\-\\.\\+\\&\\#\\*]*$";
+    private static final String CODESCHEME_CODEVALUE_VALIDATOR = "^[a-zA-Z0-9_\\-]*$";
+    private static final String VALUE_TYPE_REGEXP = "^[0-9]{1,5}$";
+
+    private final String codeValue = "code_value-123.4";
+    private final String codeSchemeValue = "codescheme_value-1";
+    private final String statusString = "Valid ";
+    private final String memberValue = "12345";
+    private final String organizationsString = "7d3a3c00-5a6b-489b-a3ed-63bb58c26a63; 4ba1c6b1-56c3-4d3e-a5c6-8d6b2d6f4a6d";
+
+    @Benchmark
+    public void legacyRowValidation(final Blackhole blackhole) {
+        blackhole.consume(codeValue.matches(CODE_CODEVALUE_VALIDATOR));
+        blackhole.consume(codeSchemeValue.matches(CODESCHEME_CODEVALUE_VALIDATOR));
+        Status status;
+        try {
+            status = Status.valueOf(statusString.replaceAll(" ", "").trim().toUpperCase());
+        } catch (final Exception e) {
+            status = null;
+        }
+        blackhole.consume(status);
+        blackhole.consume(memberValue.matches(VALUE_TYPE_REGEXP));
+    }
+
+    @Benchmark
+    public void validationEngineRowValidation(final Blackhole blackhole) {
+        blackhole.consume(ValidationEngine.isValidCodeCodeValue(codeValue));
+        blackhole.consume(ValidationEngine.isValidCodeSchemeCodeValue(codeSchemeValue));
+        blackhole.consume(ValidationEngine.resolveStatus(statusString));
+        blackhole.consume(ValidationEngine.matches(memberValue, VALUE_TYPE_REGEXP));
+    }
+
+    @Benchmark
+    public void legacyInvalidStatus(final Blackhole blackhole) {
+        Status status;
+        try {
+            status = Status.valueOf("unknown".replaceAll(" ", "").trim().toUpperCase());
+        } catch (final Exception e) {
+            status = null;
+        }
+        blackhole.consume(status);
+    }
+
+    @Benchmark
+    public void validationEngineInvalidStatus(final Blackhole blackhole) {
+        blackhole.consume(ValidationEngine.resolveStatus("unknown"));
+    }
+
+    @Benchmark
+    public void legacyListItems(final Blackhole blackhole) {
+        for (final String item : organizationsString.split(";")) {
+            blackhole.consume(item.replaceAll(" ", "").trim());
+        }
+    }
+
+    @Benchmark
+    public void validationEngineListItems(final Blackhole blackhole) {
+        ValidationEngine.forEachListItem(organizationsString, ';', blackhole::consume);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ValidationEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
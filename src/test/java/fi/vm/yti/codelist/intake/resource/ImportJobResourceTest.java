@@ -0,0 +1,88 @@
+package fi.vm.yti.codelist.intake.resource;
+
+import java.util.UUID;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import fi.vm.yti.codelist.intake.exception.UnauthorizedException;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.model.ImportJob;
+import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import fi.vm.yti.codelist.intake.update.ImportJobManager;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.ERR_MSG_USER_IMPORT_JOB_NOT_FOUND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+public class ImportJobResourceTest {
+
+    private final UUID ownerId = UUID.randomUUID();
+    private final ImportJob job = new ImportJob();
+
+    @Mock
+    private ImportJobManager importJobManager;
+
+    @Mock
+    private AuthorizationManager authorizationManager;
+
+    @InjectMocks
+    private ImportJobResource importJobResource;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        job.setId(UUID.randomUUID());
+        job.setUserId(ownerId);
+        when(importJobManager.findById(job.getId())).thenReturn(job);
+    }
+
+    @Test
+    public void getOwnImportJobTest() {
+        when(authorizationManager.getUserId()).thenReturn(ownerId);
+        final Response response = importJobResource.getImportJob(job.getId());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertSame(job, response.getEntity());
+    }
+
+    @Test
+    public void getImportJobOfOtherUserAsSuperUserTest() {
+        when(authorizationManager.getUserId()).thenReturn(UUID.randomUUID());
+        when(authorizationManager.isSuperUser()).thenReturn(true);
+        assertSame(job, importJobResource.getImportJob(job.getId()).getEntity());
+    }
+
+    @Test
+    public void getImportJobOfOtherUserTest() {
+        when(authorizationManager.getUserId()).thenReturn(UUID.randomUUID());
+        assertNotFound(job.getId());
+    }
+
+    @Test
+    public void getMissingImportJobTest() {
+        when(authorizationManager.getUserId()).thenReturn(ownerId);
+        assertNotFound(UUID.randomUUID());
+    }
+
+    @Test(expected = UnauthorizedException.class)
+    public void getImportJobWithoutUserTest() {
+        importJobResource.getImportJob(job.getId());
+    }
+
+    private void assertNotFound(final UUID jobId) {
+        try {
+            importJobResource.getImportJob(jobId);
+            fail("Import job should not have been found");
+        } catch (final YtiCodeListException e) {
+            assertEquals(HttpStatus.NOT_FOUND.value(), (int) e.getErrorModel().getHttpStatusCode());
+            assertEquals(ERR_MSG_USER_IMPORT_JOB_NOT_FOUND, e.getMessage());
+        }
+    }
+}
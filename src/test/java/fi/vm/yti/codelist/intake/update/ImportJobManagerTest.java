@@ -0,0 +1,150 @@
+package fi.vm.yti.codelist.intake.update;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import fi.vm.yti.codelist.common.dto.ErrorModel;
+import fi.vm.yti.codelist.intake.exception.YtiCodeListException;
+import fi.vm.yti.codelist.intake.jpa.ImportJobRepository;
+import fi.vm.yti.codelist.intake.model.ImportJob;
+import fi.vm.yti.codelist.intake.security.AuthorizationManager;
+import static fi.vm.yti.codelist.intake.exception.ErrorConstants.*;
+import static fi.vm.yti.codelist.intake.update.ImportJobManager.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImportJobManagerTest {
+
+    private static final String NODE = "testnode";
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final UUID userId = UUID.randomUUID();
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private AuthorizationManager authorizationManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ThreadPoolExecutor executor;
+    private ImportJobManager importJobManager;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> {
+            final ImportJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(importJobRepository.findById(any(UUID.class))).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0))));
+        when(authorizationManager.getUserId()).thenReturn(userId);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        importJobManager = new ImportJobManager(importJobRepository, authorizationManager, executor, transactionManager, NODE);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void submitSuccessfulJobTest() throws InterruptedException {
+        final AtomicBoolean resourceClosed = new AtomicBoolean();
+        final ImportJob submittedJob = importJobManager.submit(JOB_TYPE_CODES, "registry/scheme", progress -> {
+            progress.phase(JOB_PHASE_PERSISTING);
+            progress.addRowsProcessed(5);
+        }, () -> resourceClosed.set(true));
+        assertEquals(JOB_STATUS_QUEUED, submittedJob.getStatus());
+        assertEquals(userId, submittedJob.getUserId());
+        assertEquals(NODE, submittedJob.getNode());
+        awaitJobs();
+
+        final ImportJob job = importJobManager.findById(submittedJob.getId());
+        assertEquals(JOB_STATUS_SUCCESSFUL, job.getStatus());
+        assertEquals(JOB_PHASE_DONE, job.getPhase());
+        assertEquals(5, job.getRowsProcessed());
+        assertTrue(resourceClosed.get());
+    }
+
+    @Test
+    public void submitFailingJobTest() throws InterruptedException {
+        final ImportJob submittedJob = importJobManager.submit(JOB_TYPE_CODES, "registry/scheme", progress -> {
+            throw new YtiCodeListException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), ERR_MSG_USER_CODESCHEME_NOT_FOUND));
+        }, null);
+        awaitJobs();
+
+        final ImportJob job = importJobManager.findById(submittedJob.getId());
+        assertEquals(JOB_STATUS_FAILED, job.getStatus());
+        assertEquals(HttpStatus.NOT_ACCEPTABLE.value(), (int) job.getErrorCode());
+        assertEquals(ERR_MSG_USER_CODESCHEME_NOT_FOUND, job.getErrorMessage());
+    }
+
+    @Test
+    public void rejectJobWhenQueueIsFullTest() {
+        importJobManager.submit(JOB_TYPE_CODES, "running", progress -> awaitRelease(), null);
+        importJobManager.submit(JOB_TYPE_CODES, "queued", progress -> awaitRelease(), null);
+        final AtomicBoolean resourceClosed = new AtomicBoolean();
+        try {
+            importJobManager.submit(JOB_TYPE_CODES, "rejected", progress -> awaitRelease(), () -> resourceClosed.set(true));
+            fail("Import job should have been rejected");
+        } catch (final YtiCodeListException e) {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), (int) e.getErrorModel().getHttpStatusCode());
+            assertEquals(ERR_MSG_USER_IMPORT_JOB_QUEUE_FULL, e.getMessage());
+        }
+        assertTrue(resourceClosed.get());
+        final ImportJob rejectedJob = findJob("rejected");
+        assertEquals(JOB_STATUS_FAILED, rejectedJob.getStatus());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), (int) rejectedJob.getErrorCode());
+        assertEquals(JOB_STATUS_QUEUED, findJob("queued").getStatus());
+    }
+
+    @Test
+    public void failUnfinishedJobsAtStartupTest() {
+        importJobManager.run(null);
+        verify(importJobRepository).failUnfinishedJobsOfNode(eq(NODE), eq(ERR_MSG_USER_IMPORT_JOB_INTERRUPTED), any(Date.class));
+    }
+
+    private ImportJob findJob(final String identifier) {
+        return jobs.values().stream().filter(job -> identifier.equals(job.getIdentifier())).findFirst().orElse(null);
+    }
+
+    private void awaitJobs() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}